@@ -0,0 +1,890 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.json.jsonprocessor.parser;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import org.apache.commons.io.IOUtils;
+import org.apache.synapse.commons.json.jsonprocessor.constants.ValidatorConstants;
+import org.apache.synapse.commons.json.jsonprocessor.exceptions.ParserException;
+import org.apache.synapse.commons.json.jsonprocessor.exceptions.ValidatorException;
+import org.apache.synapse.commons.json.jsonprocessor.utils.DataTypeConverter;
+import org.apache.synapse.commons.json.jsonprocessor.utils.GSONDataTypeConverter;
+import org.apache.synapse.commons.json.jsonprocessor.utils.JsonProcessorUtils;
+import org.apache.synapse.commons.json.jsonprocessor.validators.ArrayValidator;
+import org.apache.synapse.commons.json.jsonprocessor.validators.BooleanValidator;
+import org.apache.synapse.commons.json.jsonprocessor.validators.NumericValidator;
+import org.apache.synapse.commons.json.jsonprocessor.validators.ObjectValidator;
+import org.apache.synapse.commons.json.jsonprocessor.validators.StringValidator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * A JSON schema compiled into an immutable plan, which corrects and validates a payload in a single streaming pass
+ * from the input to the output. The result is the same as the one of {@link JsonProcessor#parseJson(String, String)}
+ * with the same schema.
+ * </p>
+ * <p>
+ * The plan streams the objects, the arrays and the primitive values it can handle token by token, and the primitive
+ * values are still coerced by the validators. The values which need the whole subtree to be validated, such as
+ * multiple types or unique items, are read into a tree and handed over to the tree based validators, the rest of the
+ * payload keeps streaming. The properties matching the pattern properties or the additional properties are read
+ * into trees as well and are written at the end of their object. A payload which is not an object, or a schema which
+ * is not an object schema, is processed as a whole by {@link JsonProcessor}.
+ * </p>
+ * <p>
+ * As the properties and the items are validated while they are streamed, the <code>required</code>,
+ * <code>minProperties</code>, <code>maxProperties</code>, <code>minItems</code> and <code>maxItems</code>
+ * constraints are checked at the end of their object or array. An input which violates several constraints may hence
+ * be reported with a different violation than the tree based validation, and these violations do not quote the input.
+ * Duplicate keys of an object are written as they are, rather than collapsed into one.
+ * </p>
+ * <p>
+ * Instances are thread safe and are meant to be compiled once per schema with
+ * {@link JsonProcessor#compileSchema(String)}.
+ * </p>
+ */
+public final class CompiledJsonSchema {
+
+    private static final String PROPERTIES = "properties";
+    private static final String REQUIRED = "required";
+    private static final String MIN_PROPERTIES = "minProperties";
+    private static final String MAX_PROPERTIES = "maxProperties";
+    private static final String PATTERN_PROPERTIES = "patternProperties";
+    private static final String ADDITIONAL_PROPERTIES = "additionalProperties";
+    private static final String ITEMS = "items";
+    private static final String MIN_ITEMS = "minItems";
+    private static final String MAX_ITEMS = "maxItems";
+    private static final String UNIQUE_ITEMS = "uniqueItems";
+    private static final String ADDITIONAL_ITEMS = "additionalItems";
+
+    private static final String EMPTY_INPUT = "Input json and schema should not be null";
+
+    private enum Mode {
+        // every input is valid and is copied as it is
+        PASS,
+        // every input is invalid
+        FAIL,
+        // the whole input is processed by the tree based validators
+        TREE,
+        // the input object is streamed through the plan
+        STREAM
+    }
+
+    private final Mode mode;
+
+    private final JsonObject schema;
+
+    private final ObjectPlan plan;
+
+    private CompiledJsonSchema(Mode mode, JsonObject schema, ObjectPlan plan) {
+        this.mode = mode;
+        this.schema = schema;
+        this.plan = plan;
+    }
+
+    /**
+     * Compiles the given schema.
+     *
+     * @param inputSchema JSON schema.
+     * @return compiled schema.
+     * @throws ValidatorException if the schema is not valid.
+     * @throws ParserException    if the schema is empty.
+     */
+    static CompiledJsonSchema compile(String inputSchema) throws ValidatorException, ParserException {
+        if (inputSchema == null || inputSchema.isEmpty()) {
+            throw new ParserException(EMPTY_INPUT);
+        }
+        JsonElement schema;
+        try {
+            schema = JsonParser.parseString(inputSchema);
+        } catch (JsonSyntaxException ex) {
+            throw new ValidatorException("Invalid JSON schema", ex);
+        }
+        if (schema.isJsonObject()) {
+            JsonObject schemaObject = schema.getAsJsonObject();
+            // Handling empty JSON objects - valid for all inputs
+            if (schemaObject.size() == 0) {
+                return new CompiledJsonSchema(Mode.PASS, null, null);
+            }
+            ObjectPlan plan = null;
+            if (schemaObject.has(ValidatorConstants.TYPE_KEY) && ValidatorConstants.OBJECT_KEYS.contains(
+                    JsonProcessorUtils.replaceEnclosingQuotes(schemaObject.get(ValidatorConstants.TYPE_KEY).toString()))) {
+                plan = compileObject(schemaObject, null);
+            }
+            return new CompiledJsonSchema(plan != null ? Mode.STREAM : Mode.TREE, schemaObject, plan);
+        } else if (schema.isJsonPrimitive()) {
+            // if schema is primitive it should be a boolean
+            return new CompiledJsonSchema(schema.getAsBoolean() ? Mode.PASS : Mode.FAIL, null, null);
+        }
+        throw new ValidatorException("JSON schema should be an object or boolean");
+    }
+
+    /**
+     * Corrects and validates the given JSON payload.
+     *
+     * @param input JSON payload.
+     * @return corrected JSON payload, or null if the schema type is unknown.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public String transform(String input) throws ValidatorException, ParserException {
+        if (input == null) {
+            throw new ParserException(EMPTY_INPUT);
+        }
+        if (mode == Mode.PASS && !input.isEmpty()) {
+            return input;
+        }
+        StringWriter output = new StringWriter();
+        boolean written = transform(new StringReader(input), output);
+        return written ? output.toString() : null;
+    }
+
+    /**
+     * Corrects and validates the UTF-8 JSON payload read from the given stream, and writes the corrected payload to
+     * the given stream. The input stream is not closed.
+     *
+     * @param input  JSON payload.
+     * @param output stream to write the corrected payload to.
+     * @return false if the schema type is unknown, in which case nothing is written.
+     * @throws ValidatorException Exception occurs in validation process.
+     * @throws ParserException    Exception occurs in data type parsing.
+     */
+    public boolean transform(InputStream input, OutputStream output) throws ValidatorException, ParserException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        boolean written = transform(new InputStreamReader(input, StandardCharsets.UTF_8), writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return written;
+    }
+
+    private boolean transform(Reader input, Writer output) throws ValidatorException, ParserException {
+        try {
+            switch (mode) {
+                case PASS:
+                    if (IOUtils.copy(input, output) == 0) {
+                        throw new ParserException(EMPTY_INPUT);
+                    }
+                    return true;
+                case FAIL:
+                    if (input.read() < 0) {
+                        throw new ParserException(EMPTY_INPUT);
+                    }
+                    throw new ValidatorException("JSON schema is false, so all validations will fail");
+                case TREE:
+                    return transformTree(IOUtils.toString(input), output);
+                default:
+                    return transformStream(input, output);
+            }
+        } catch (MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    private boolean transformTree(String input, Writer output) throws ValidatorException, ParserException,
+            IOException {
+        if (input.isEmpty()) {
+            throw new ParserException(EMPTY_INPUT);
+        }
+        String result = JsonProcessor.parseJson(input, schema);
+        if (result == null) {
+            return false;
+        }
+        output.write(result);
+        return true;
+    }
+
+    private boolean transformStream(Reader input, Writer output) throws ValidatorException, ParserException,
+            IOException {
+        // look for the start of the object, anything else is left to the tree based validation
+        StringBuilder skipped = new StringBuilder();
+        int c = input.read();
+        while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            skipped.append((char) c);
+            c = input.read();
+        }
+        if (c != '{') {
+            if (c >= 0) {
+                skipped.append((char) c);
+            }
+            return transformTree(skipped.append(IOUtils.toString(input)).toString(), output);
+        }
+        PushbackReader pushback = new PushbackReader(input, 1);
+        pushback.unread(c);
+        JsonReader reader = new JsonReader(pushback);
+        reader.setStrictness(Strictness.LENIENT);
+        JsonWriter writer = new JsonWriter(output);
+        writer.setStrictness(Strictness.LENIENT);
+        plan.stream(reader, writer);
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+        writer.flush();
+        return true;
+    }
+
+    /**
+     * Compiles the plan of an object schema.
+     *
+     * @return the plan, or null if the schema can not be streamed.
+     */
+    private static ObjectPlan compileObject(JsonObject schema, Fallback fallback) {
+        try {
+            String[] required = null;
+            if (schema.has(REQUIRED)) {
+                JsonArray requiredArray = schema.getAsJsonArray(REQUIRED);
+                required = new String[requiredArray.size()];
+                for (int i = 0; i < required.length; i++) {
+                    required[i] = requiredArray.get(i).getAsString();
+                }
+            }
+            int minimumProperties = parseLimit(schema, MIN_PROPERTIES);
+            int maximumProperties = parseLimit(schema, MAX_PROPERTIES);
+            Map<String, ValuePlan> properties = new HashMap<>();
+            Set<String> propertyNames = null;
+            if (schema.has(PROPERTIES)) {
+                JsonObject propertiesObject = (JsonObject) schema.get(PROPERTIES);
+                propertyNames = new HashSet<>(propertiesObject.keySet());
+                for (Map.Entry<String, JsonElement> entry : propertiesObject.entrySet()) {
+                    if (!entry.getValue().isJsonObject()) {
+                        continue;
+                    }
+                    JsonObject propertySchema = entry.getValue().getAsJsonObject();
+                    if (!propertySchema.has(ValidatorConstants.TYPE_KEY)) {
+                        continue;
+                    }
+                    Fallback propertyFallback = new PropertyFallback(entry.getKey(), propertySchema);
+                    JsonElement typeElement = propertySchema.get(ValidatorConstants.TYPE_KEY);
+                    if (typeElement.isJsonArray()) {
+                        // multiple types are resolved against the value as a whole
+                        properties.put(entry.getKey(), new FallbackPlan(propertyFallback));
+                    } else {
+                        properties.put(entry.getKey(), compileValue(propertySchema,
+                                JsonProcessorUtils.replaceEnclosingQuotes(typeElement.toString()), propertyFallback));
+                    }
+                }
+            }
+            Pattern[] patterns = null;
+            if (schema.has(PATTERN_PROPERTIES)) {
+                Set<Map.Entry<String, JsonElement>> patternEntries = schema.getAsJsonObject(PATTERN_PROPERTIES)
+                        .entrySet();
+                patterns = new Pattern[patternEntries.size()];
+                int i = 0;
+                for (Map.Entry<String, JsonElement> entry : patternEntries) {
+                    JsonObject patternSchema = entry.getValue().getAsJsonObject();
+                    if (!patternSchema.has(ValidatorConstants.TYPE_KEY)) {
+                        return null;
+                    }
+                    patternSchema.get(ValidatorConstants.TYPE_KEY).getAsString();
+                    patterns[i++] = Pattern.compile(entry.getKey());
+                }
+            }
+            // additional properties are only looked for when the properties are declared
+            boolean deferAdditional = false;
+            if (schema.has(ADDITIONAL_PROPERTIES)) {
+                JsonElement additionalProperties = schema.get(ADDITIONAL_PROPERTIES);
+                if (additionalProperties.isJsonPrimitive()) {
+                    deferAdditional = !DataTypeConverter.convertToBoolean(additionalProperties.getAsString());
+                } else if (additionalProperties.isJsonObject()) {
+                    JsonObject additionalSchema = additionalProperties.getAsJsonObject();
+                    if (additionalSchema.size() > 0 && !additionalSchema.has(ValidatorConstants.TYPE_KEY)) {
+                        return null;
+                    }
+                    deferAdditional = additionalSchema.size() > 0;
+                }
+                deferAdditional = deferAdditional && propertyNames != null;
+            }
+            JsonObject deferredSchema = null;
+            if (patterns != null || deferAdditional) {
+                deferredSchema = schema.deepCopy();
+                deferredSchema.remove(REQUIRED);
+                deferredSchema.remove(MIN_PROPERTIES);
+                deferredSchema.remove(MAX_PROPERTIES);
+            }
+            return new ObjectPlan(schema, properties, required, minimumProperties, maximumProperties, propertyNames,
+                    patterns, deferAdditional, deferredSchema, fallback);
+        } catch (ParserException | RuntimeException e) {
+            // a malformed constraint is reported the same way as by the tree based validation
+            return null;
+        }
+    }
+
+    /**
+     * Compiles the plan of an array schema.
+     *
+     * @return the plan, or null if the schema can not be streamed.
+     */
+    private static ArrayPlan compileArray(JsonObject schema, Fallback fallback) {
+        try {
+            if (schema.has(UNIQUE_ITEMS)) {
+                String uniqueItems = JsonProcessorUtils.replaceEnclosingQuotes(schema.get(UNIQUE_ITEMS).getAsString());
+                if (!uniqueItems.isEmpty() && DataTypeConverter.convertToBoolean(uniqueItems)) {
+                    return null;
+                }
+            }
+            int minimumItems = parseLimit(schema, MIN_ITEMS);
+            int maximumItems = parseLimit(schema, MAX_ITEMS);
+            if (minimumItems < -1 || maximumItems < -1) {
+                return null;
+            }
+            ValuePlan[] tuple = null;
+            boolean[] tupleRequired = null;
+            ValuePlan items = CopyPlan.INSTANCE;
+            boolean notAllowAdditional = false;
+            if (schema.has(ITEMS)) {
+                JsonElement itemsElement = schema.get(ITEMS);
+                if (itemsElement.isJsonArray()) {
+                    JsonArray schemaArray = itemsElement.getAsJsonArray();
+                    tuple = new ValuePlan[schemaArray.size()];
+                    tupleRequired = new boolean[schemaArray.size()];
+                    for (int i = 0; i < tuple.length; i++) {
+                        JsonObject itemSchema = schemaArray.get(i).getAsJsonObject();
+                        if (itemSchema.size() == 0) {
+                            tuple[i] = CopyPlan.INSTANCE;
+                        } else if (itemSchema.has(ValidatorConstants.TYPE_KEY)) {
+                            JsonArray wrappedSchema = new JsonArray();
+                            wrappedSchema.add(itemSchema);
+                            tuple[i] = compileValue(itemSchema, JsonProcessorUtils.replaceEnclosingQuotes(
+                                    itemSchema.get(ValidatorConstants.TYPE_KEY).toString()),
+                                    new ItemFallback(wrappedSchema));
+                            // the tree based validation only reads the items of a known type
+                            tupleRequired[i] = tuple[i] != CopyPlan.INSTANCE;
+                        } else {
+                            return null;
+                        }
+                    }
+                    if (schema.has(ADDITIONAL_ITEMS)) {
+                        JsonElement additionalItems = schema.get(ADDITIONAL_ITEMS);
+                        if (additionalItems.isJsonPrimitive() && !additionalItems.getAsBoolean()) {
+                            notAllowAdditional = true;
+                        } else if (additionalItems.isJsonObject() && additionalItems.getAsJsonObject().size() > 0) {
+                            items = compileItems(additionalItems.getAsJsonObject());
+                        }
+                    }
+                } else if (itemsElement.isJsonObject()) {
+                    items = compileItems(itemsElement.getAsJsonObject());
+                } else {
+                    return null;
+                }
+                if (items == null) {
+                    return null;
+                }
+            }
+            return new ArrayPlan(tuple, tupleRequired, items, notAllowAdditional, minimumItems, maximumItems,
+                    fallback);
+        } catch (ParserException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compiles the plan of the items of an array which share a single schema.
+     *
+     * @return the plan, or null if the schema can not be streamed.
+     */
+    private static ValuePlan compileItems(JsonObject itemSchema) {
+        if (!itemSchema.has(ValidatorConstants.TYPE_KEY)) {
+            return CopyPlan.INSTANCE;
+        }
+        String type = JsonProcessorUtils.replaceEnclosingQuotes(itemSchema.get(ValidatorConstants.TYPE_KEY).toString());
+        Fallback fallback = new ItemFallback(itemSchema);
+        if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
+            // nested arrays of a single item schema are corrected from their string value
+            return new FallbackPlan(fallback);
+        } else if (ValidatorConstants.BOOLEAN_KEYS.contains(type) || ValidatorConstants.NUMERIC_KEYS.contains(type)
+                || ValidatorConstants.NOMINAL_KEYS.contains(type) || ValidatorConstants.OBJECT_KEYS.contains(type)
+                || ValidatorConstants.NULL_KEYS.contains(type)) {
+            return compileValue(itemSchema, type, fallback);
+        }
+        // an unknown type fails the whole array
+        return null;
+    }
+
+    /**
+     * Compiles the plan of a value of the given type.
+     */
+    private static ValuePlan compileValue(JsonObject schema, String type, Fallback fallback) {
+        if (ValidatorConstants.BOOLEAN_KEYS.contains(type)) {
+            return new PrimitivePlan(PrimitivePlan.BOOLEAN, schema, fallback);
+        } else if (ValidatorConstants.NOMINAL_KEYS.contains(type)) {
+            return new PrimitivePlan(PrimitivePlan.NOMINAL, schema, fallback);
+        } else if (ValidatorConstants.NUMERIC_KEYS.contains(type)) {
+            return new PrimitivePlan(PrimitivePlan.NUMERIC, schema, fallback);
+        } else if (ValidatorConstants.ARRAY_KEYS.contains(type)) {
+            ArrayPlan plan = compileArray(schema, fallback);
+            return plan != null ? plan : new FallbackPlan(fallback);
+        } else if (ValidatorConstants.OBJECT_KEYS.contains(type)) {
+            ObjectPlan plan = compileObject(schema, fallback);
+            return plan != null ? plan : new FallbackPlan(fallback);
+        } else if (ValidatorConstants.NULL_KEYS.contains(type)) {
+            return new NullPlan(fallback);
+        }
+        return CopyPlan.INSTANCE;
+    }
+
+    private static int parseLimit(JsonObject schema, String key) throws ParserException {
+        if (schema.has(key)) {
+            String limit = JsonProcessorUtils.replaceEnclosingQuotes(schema.get(key).getAsString());
+            if (!limit.isEmpty()) {
+                return DataTypeConverter.convertToInt(limit);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a tree value the same way as {@link JsonElement#toString()}.
+     */
+    private static void write(JsonElement element, JsonWriter writer) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            writer.nullValue();
+        } else if (element.isJsonPrimitive()) {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isNumber()) {
+                writer.value(primitive.getAsNumber());
+            } else if (primitive.isBoolean()) {
+                writer.value(primitive.getAsBoolean());
+            } else {
+                writer.value(primitive.getAsString());
+            }
+        } else if (element.isJsonArray()) {
+            writer.beginArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                write(item, writer);
+            }
+            writer.endArray();
+        } else {
+            writer.beginObject();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                writer.name(entry.getKey());
+                write(entry.getValue(), writer);
+            }
+            writer.endObject();
+        }
+    }
+
+    /**
+     * Handles the values which can not be streamed by validating them as a tree.
+     */
+    private abstract static class Fallback {
+
+        abstract JsonElement apply(JsonElement value) throws ValidatorException, ParserException;
+    }
+
+    /**
+     * Validates a property the same way as the properties of an object are validated.
+     */
+    private static final class PropertyFallback extends Fallback {
+
+        private final String name;
+
+        private final JsonObject objectSchema;
+
+        PropertyFallback(String name, JsonObject propertySchema) {
+            this.name = name;
+            JsonObject properties = new JsonObject();
+            properties.add(name, propertySchema);
+            objectSchema = new JsonObject();
+            objectSchema.addProperty(ValidatorConstants.TYPE_KEY, "object");
+            objectSchema.add(PROPERTIES, properties);
+        }
+
+        @Override
+        JsonElement apply(JsonElement value) throws ValidatorException, ParserException {
+            JsonObject object = new JsonObject();
+            object.add(name, value);
+            return ObjectValidator.validateObject(object, objectSchema).get(name);
+        }
+    }
+
+    /**
+     * Validates an item the same way as the items of an array are validated.
+     */
+    private static final class ItemFallback extends Fallback {
+
+        private final JsonObject arraySchema;
+
+        ItemFallback(JsonElement itemsSchema) {
+            arraySchema = new JsonObject();
+            arraySchema.addProperty(ValidatorConstants.TYPE_KEY, "array");
+            arraySchema.add(ITEMS, itemsSchema);
+        }
+
+        @Override
+        JsonElement apply(JsonElement value) throws ValidatorException, ParserException {
+            JsonArray array = new JsonArray();
+            array.add(value);
+            return ArrayValidator.validateArray(GSONDataTypeConverter.getMapFromJsonArray(array), arraySchema).get(0);
+        }
+    }
+
+    /**
+     * Streams a single value from the reader to the writer.
+     */
+    private abstract static class ValuePlan {
+
+        abstract void stream(JsonReader reader, JsonWriter writer) throws ValidatorException, ParserException,
+                IOException;
+    }
+
+    /**
+     * Copies a value as it is.
+     */
+    private static final class CopyPlan extends ValuePlan {
+
+        static final CopyPlan INSTANCE = new CopyPlan();
+
+        @Override
+        void stream(JsonReader reader, JsonWriter writer) throws IOException {
+            int depth = 0;
+            do {
+                switch (reader.peek()) {
+                    case BEGIN_OBJECT:
+                        reader.beginObject();
+                        writer.beginObject();
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                        reader.endObject();
+                        writer.endObject();
+                        depth--;
+                        break;
+                    case BEGIN_ARRAY:
+                        reader.beginArray();
+                        writer.beginArray();
+                        depth++;
+                        break;
+                    case END_ARRAY:
+                        reader.endArray();
+                        writer.endArray();
+                        depth--;
+                        break;
+                    case NAME:
+                        writer.name(reader.nextName());
+                        break;
+                    case STRING:
+                        writer.value(reader.nextString());
+                        break;
+                    case NUMBER:
+                        writer.jsonValue(reader.nextString());
+                        break;
+                    case BOOLEAN:
+                        writer.value(reader.nextBoolean());
+                        break;
+                    case NULL:
+                        reader.nextNull();
+                        writer.nullValue();
+                        break;
+                    default:
+                        throw new MalformedJsonException("Unexpected end of the document");
+                }
+            } while (depth > 0);
+        }
+    }
+
+    /**
+     * Reads a value into a tree and validates it with the tree based validators.
+     */
+    private static class FallbackPlan extends ValuePlan {
+
+        private final Fallback fallback;
+
+        FallbackPlan(Fallback fallback) {
+            this.fallback = fallback;
+        }
+
+        @Override
+        void stream(JsonReader reader, JsonWriter writer) throws ValidatorException, ParserException, IOException {
+            write(fallback.apply(JsonParser.parseReader(reader)), writer);
+        }
+    }
+
+    /**
+     * Coerces a boolean, string or numeric value with its validator.
+     */
+    private static final class PrimitivePlan extends FallbackPlan {
+
+        static final int BOOLEAN = 0;
+        static final int NOMINAL = 1;
+        static final int NUMERIC = 2;
+
+        private final int type;
+
+        private final JsonObject schema;
+
+        PrimitivePlan(int type, JsonObject schema, Fallback fallback) {
+            super(fallback);
+            this.type = type;
+            this.schema = schema;
+        }
+
+        @Override
+        void stream(JsonReader reader, JsonWriter writer) throws ValidatorException, ParserException, IOException {
+            String value;
+            switch (reader.peek()) {
+                case STRING:
+                case NUMBER:
+                    value = reader.nextString();
+                    break;
+                case BOOLEAN:
+                    value = String.valueOf(reader.nextBoolean());
+                    break;
+                default:
+                    super.stream(reader, writer);
+                    return;
+            }
+            JsonPrimitive result;
+            if (type == BOOLEAN) {
+                result = BooleanValidator.validateBoolean(schema, value);
+            } else if (type == NOMINAL) {
+                result = StringValidator.validateNominal(schema, value);
+            } else {
+                result = NumericValidator.validateNumeric(schema, value);
+            }
+            write(result, writer);
+        }
+    }
+
+    /**
+     * Keeps a null value.
+     */
+    private static final class NullPlan extends FallbackPlan {
+
+        NullPlan(Fallback fallback) {
+            super(fallback);
+        }
+
+        @Override
+        void stream(JsonReader reader, JsonWriter writer) throws ValidatorException, ParserException, IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                writer.nullValue();
+            } else {
+                super.stream(reader, writer);
+            }
+        }
+    }
+
+    /**
+     * Streams an object and validates its properties. The properties matching the pattern properties or the
+     * additional properties are validated as a tree at the end of the object, and are moved to the end of the object
+     * the same way as the tree based validation does.
+     */
+    private static final class ObjectPlan extends FallbackPlan {
+
+        private final JsonObject schema;
+
+        private final Map<String, ValuePlan> properties;
+
+        private final String[] required;
+
+        private final int minimumProperties;
+
+        private final int maximumProperties;
+
+        private final Set<String> propertyNames;
+
+        private final Pattern[] patterns;
+
+        private final boolean deferAdditional;
+
+        private final JsonObject deferredSchema;
+
+        ObjectPlan(JsonObject schema, Map<String, ValuePlan> properties, String[] required, int minimumProperties,
+                   int maximumProperties, Set<String> propertyNames, Pattern[] patterns, boolean deferAdditional,
+                   JsonObject deferredSchema, Fallback fallback) {
+            super(fallback);
+            this.schema = schema;
+            this.properties = properties;
+            this.required = required;
+            this.minimumProperties = minimumProperties;
+            this.maximumProperties = maximumProperties;
+            this.propertyNames = propertyNames;
+            this.patterns = patterns;
+            this.deferAdditional = deferAdditional;
+            this.deferredSchema = deferredSchema;
+        }
+
+        private boolean isDeferred(String name) {
+            if (patterns != null) {
+                for (Pattern pattern : patterns) {
+                    if (pattern.matcher(name).find()) {
+                        return true;
+                    }
+                }
+            }
+            return deferAdditional && !propertyNames.contains(name);
+        }
+
+        @Override
+        void stream(JsonReader reader, JsonWriter writer) throws ValidatorException, ParserException, IOException {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                super.stream(reader, writer);
+                return;
+            }
+            Set<String> names = required != null ? new HashSet<String>() : null;
+            JsonObject deferred = null;
+            int count = 0;
+            reader.beginObject();
+            writer.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (deferredSchema != null && isDeferred(name)) {
+                    if (deferred == null) {
+                        deferred = new JsonObject();
+                    }
+                    deferred.add(name, JsonParser.parseReader(reader));
+                } else {
+                    writer.name(name);
+                    ValuePlan plan = properties.get(name);
+                    (plan != null ? plan : CopyPlan.INSTANCE).stream(reader, writer);
+                }
+                if (names != null) {
+                    names.add(name);
+                }
+                count++;
+            }
+            reader.endObject();
+            if (names != null) {
+                for (String name : required) {
+                    if (!names.contains(name)) {
+                        throw new ValidatorException("Input object does not contains all the elements required " +
+                                "in the schema : " + schema.toString());
+                    }
+                }
+            }
+            if (minimumProperties != -1 && count < minimumProperties) {
+                throw new ValidatorException("Object violates the minimum number of properties " +
+                        "constraint. Input object has less number of properties than allowed minimum " +
+                        minimumProperties);
+            }
+            if (maximumProperties != -1 && count > maximumProperties) {
+                throw new ValidatorException("Object violates the maximum number of properties " +
+                        "constraint. Input object has higher number of properties than allowed maximum " +
+                        maximumProperties);
+            }
+            if (deferred != null) {
+                for (Map.Entry<String, JsonElement> entry : ObjectValidator.validateObject(deferred, deferredSchema)
+                        .entrySet()) {
+                    writer.name(entry.getKey());
+                    write(entry.getValue(), writer);
+                }
+            }
+            writer.endObject();
+        }
+    }
+
+    /**
+     * Streams an array and validates its items.
+     */
+    private static final class ArrayPlan extends FallbackPlan {
+
+        private final ValuePlan[] tuple;
+
+        private final boolean[] tupleRequired;
+
+        private final ValuePlan items;
+
+        private final boolean notAllowAdditional;
+
+        private final int minimumItems;
+
+        private final int maximumItems;
+
+        ArrayPlan(ValuePlan[] tuple, boolean[] tupleRequired, ValuePlan items, boolean notAllowAdditional,
+                  int minimumItems, int maximumItems, Fallback fallback) {
+            super(fallback);
+            this.tuple = tuple;
+            this.tupleRequired = tupleRequired;
+            this.items = items;
+            this.notAllowAdditional = notAllowAdditional;
+            this.minimumItems = minimumItems;
+            this.maximumItems = maximumItems;
+        }
+
+        @Override
+        void stream(JsonReader reader, JsonWriter writer) throws ValidatorException, ParserException, IOException {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                // single element array correction
+                super.stream(reader, writer);
+                return;
+            }
+            int count = 0;
+            reader.beginArray();
+            writer.beginArray();
+            while (reader.hasNext()) {
+                ValuePlan plan = tuple != null && count < tuple.length ? tuple[count] : items;
+                plan.stream(reader, writer);
+                count++;
+            }
+            reader.endArray();
+            writer.endArray();
+            final String errorMsg = "Error occurs while validating the structure of array";
+            if (minimumItems != -1 && count < minimumItems) {
+                throw new ValidatorException(errorMsg + ". Array violated the minItems constraint");
+            }
+            if (maximumItems != -1 && count > maximumItems) {
+                throw new ValidatorException(errorMsg + ". Array violated the maxItems constraint");
+            }
+            if (tuple != null) {
+                if (notAllowAdditional && count > tuple.length) {
+                    throw new ValidatorException("Array has more items than allowed in the schema");
+                }
+                for (int i = count; i < tuple.length; i++) {
+                    if (tupleRequired[i]) {
+                        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+                    }
+                }
+            }
+        }
+    }
+}
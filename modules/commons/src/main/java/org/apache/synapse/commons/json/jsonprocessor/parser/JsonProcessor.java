@@ -91,6 +91,18 @@ public class JsonProcessor {
         }
     }
 
+    /**
+     * This method compiles the given schema into a reusable plan, which parses JSON inputs in a single streaming pass.
+     *
+     * @param inputSchema input Schema.
+     * @return compiled schema.
+     * @throws ValidatorException Exception occurs if the schema is not valid.
+     * @throws ParserException    Exception occurs if the schema is empty.
+     */
+    public static CompiledJsonSchema compileSchema(String inputSchema) throws ValidatorException, ParserException {
+        return CompiledJsonSchema.compile(inputSchema);
+    }
+
     /**
      * This method will parse a given JSON string according to the given schema. Schema as an Object.
      * Can use this method when using caching.
@@ -101,7 +113,7 @@ public class JsonProcessor {
      * @throws ValidatorException Exception occurs in validation process.
      * @throws ParserException    Exception occurs in data type parsing.
      */
-    private static String parseJson(String inputString, Object schema) throws ValidatorException, ParserException {
+    static String parseJson(String inputString, Object schema) throws ValidatorException, ParserException {
         if (StringUtils.isNotEmpty(inputString) && schema instanceof JsonObject) {
             JsonElement result = null;
             JsonObject schemaObject = (JsonObject) schema;
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency histograms of a single component, one per {@link LatencyMetrics.Phase}. The histogram of a phase is only
+ * allocated when the component records that phase for the first time.
+ */
+public class ComponentMetrics {
+
+    private final LatencyMetrics.ComponentType type;
+
+    private final String name;
+
+    private final AtomicReferenceArray<LatencyHistogram> histograms =
+            new AtomicReferenceArray<LatencyHistogram>(LatencyMetrics.Phase.values().length);
+
+    ComponentMetrics(LatencyMetrics.ComponentType type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    public LatencyMetrics.ComponentType getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a latency of the given phase.
+     *
+     * @param phase the phase of the message flow
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(LatencyMetrics.Phase phase, long nanos) {
+        LatencyHistogram histogram = histograms.get(phase.ordinal());
+        if (histogram == null) {
+            histograms.compareAndSet(phase.ordinal(), null, new LatencyHistogram());
+            histogram = histograms.get(phase.ordinal());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * @param phase the phase of the message flow
+     * @return the histogram of the phase, or null if the phase has not been recorded
+     */
+    public LatencyHistogram getHistogram(LatencyMetrics.Phase phase) {
+        return histograms.get(phase.ordinal());
+    }
+}
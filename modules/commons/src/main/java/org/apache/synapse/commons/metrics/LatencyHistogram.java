@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Lock free latency histogram with log-linear buckets, in the spirit of the HDR histogram. Each power of two range
+ * is split into {@link #SUB_BUCKET_HALF_COUNT} linear sub buckets, hence a recorded value is reported with a
+ * relative error of at most 1 / {@link #SUB_BUCKET_HALF_COUNT} (about 3%) at any magnitude.
+ * </p>
+ * <p>
+ * Recording a value is a couple of shifts and an atomic increment of its bucket, which keeps the cost of a record in
+ * the tens of nanoseconds. Values are in nanoseconds and are clamped to {@link #MAX_TRACKABLE_VALUE}.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    /* Number of bits used to address the linear sub buckets of a power of two range */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    /**
+     * Largest value which can be told apart from the others, one hour in nanoseconds.
+     */
+    public static final long MAX_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucketIndex(MAX_TRACKABLE_VALUE) + 1);
+
+    private final LongAdder totalCount = new LongAdder();
+
+    private final LongAdder totalValue = new LongAdder();
+
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, MAX_TRACKABLE_VALUE);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.increment();
+        totalValue.add(value);
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * @return the sum of the recorded values in nanoseconds
+     */
+    public long getSum() {
+        return totalValue.sum();
+    }
+
+    /**
+     * @return the largest recorded value in nanoseconds
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * @return the mean of the recorded values in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * Returns the value at the given percentile. The value is the upper bound of the bucket which holds the
+     * percentile, capped by the largest recorded value.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the percentile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        return getValuesAtPercentiles(new double[]{percentile})[0];
+    }
+
+    /**
+     * Returns the values at the given percentiles from a single pass over the buckets.
+     *
+     * @param percentiles the percentiles in ascending order, each between 0 and 100
+     * @return the values at the percentiles in nanoseconds
+     */
+    public long[] getValuesAtPercentiles(double[] percentiles) {
+        long[] values = new long[percentiles.length];
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return values;
+        }
+        long max = getMax();
+        int next = 0;
+        long seen = 0;
+        for (int i = 0; i < snapshot.length && next < percentiles.length; i++) {
+            seen += snapshot[i];
+            while (next < percentiles.length && seen >= rank(percentiles[next], count)) {
+                values[next++] = Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        while (next < percentiles.length) {
+            values[next++] = max;
+        }
+        return values;
+    }
+
+    /**
+     * Clears the recorded values. Values which are recorded concurrently may or may not be cleared.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalValue.reset();
+        maxValue.set(0);
+    }
+
+    private static long rank(double percentile, long count) {
+        double p = Math.min(Math.max(percentile, 0), 100);
+        return Math.max(1, (long) Math.ceil(p / 100 * count));
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKET_COUNT} get a bucket of their own, above that each power of two range has
+     * {@link #SUB_BUCKET_HALF_COUNT} buckets addressed by the most significant bits of the value.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the largest value which falls into the bucket of the given index
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = index - ((long) shift << (SUB_BUCKET_BITS - 1));
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.jmx.MBeanRegistrar;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * Registry of the latency histograms of the mediation components. Each API resource, proxy service, sequence and
+ * endpoint gets a {@link ComponentMetrics} the first time it records a latency, which keeps a histogram for each
+ * {@link Phase} of the message flow.
+ * </p>
+ * <p>
+ * The registry is disabled by default, in which case nothing is recorded. It is exposed through JMX under the
+ * {@link #MBEAN_CATEGORY} category once enabled, and through the Prometheus text format with
+ * {@link PrometheusTextFormat}.
+ * </p>
+ */
+public final class LatencyMetrics {
+
+    private static final Log log = LogFactory.getLog(LatencyMetrics.class);
+
+    public static final String MBEAN_CATEGORY = "LatencyMetrics";
+
+    public static final String MBEAN_ID = "Synapse";
+
+    /**
+     * Message context property which holds the time from the arrival of the request headers until the request was
+     * handed over to a worker, in nanoseconds. The body is read and built later, within the mediation.
+     */
+    public static final String TRANSPORT_RECEIVE_NANOS = "SYNAPSE_METRICS_TRANSPORT_RECEIVE_NANOS";
+
+    /**
+     * Message context property which holds the time the request waited in the worker queue, in nanoseconds.
+     */
+    public static final String QUEUE_WAIT_NANOS = "SYNAPSE_METRICS_QUEUE_WAIT_NANOS";
+
+    /**
+     * The kinds of components for which latencies are recorded.
+     */
+    public enum ComponentType {
+
+        API_RESOURCE("api_resource"),
+        PROXY("proxy"),
+        SEQUENCE("sequence"),
+        ENDPOINT("endpoint");
+
+        private final String label;
+
+        ComponentType(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * The phases of the message flow which are recorded separately.
+     */
+    public enum Phase {
+
+        TRANSPORT_RECEIVE("transport_receive"),
+        QUEUE_WAIT("queue_wait"),
+        MEDIATION("mediation"),
+        BACKEND("backend");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final LatencyMetrics instance = new LatencyMetrics();
+
+    private final Map<ComponentType, ConcurrentMap<String, ComponentMetrics>> components =
+            new EnumMap<ComponentType, ConcurrentMap<String, ComponentMetrics>>(ComponentType.class);
+
+    private volatile boolean enabled = false;
+
+    private LatencyMetrics() {
+        for (ComponentType type : ComponentType.values()) {
+            components.put(type, new ConcurrentHashMap<String, ComponentMetrics>());
+        }
+    }
+
+    public static LatencyMetrics getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the recording, the JMX view is registered when the recording is enabled.
+     *
+     * @param enabled whether latencies should be recorded
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) {
+            return;
+        }
+        this.enabled = enabled;
+        if (enabled) {
+            MBeanRegistrar.getInstance().registerMBean(new LatencyMetricsView(this), MBEAN_CATEGORY, MBEAN_ID);
+            log.info("Latency metrics of the mediation components are enabled");
+        } else {
+            MBeanRegistrar.getInstance().unRegisterMBean(MBEAN_CATEGORY, MBEAN_ID);
+        }
+    }
+
+    /**
+     * Records a latency of the given component, does nothing if the recording is disabled or the component has no
+     * name.
+     *
+     * @param type  the type of the component
+     * @param name  the name of the component
+     * @param phase the phase of the message flow
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(ComponentType type, String name, Phase phase, long nanos) {
+        if (!enabled || name == null) {
+            return;
+        }
+        getComponentMetrics(type, name).record(phase, nanos);
+    }
+
+    /**
+     * Returns the metrics of the given component, creating them if this is the first time the component is seen.
+     *
+     * @param type the type of the component
+     * @param name the name of the component
+     * @return the metrics of the component
+     */
+    public ComponentMetrics getComponentMetrics(ComponentType type, String name) {
+        ConcurrentMap<String, ComponentMetrics> metrics = components.get(type);
+        ComponentMetrics componentMetrics = metrics.get(name);
+        if (componentMetrics == null) {
+            ComponentMetrics newMetrics = new ComponentMetrics(type, name);
+            componentMetrics = metrics.putIfAbsent(name, newMetrics);
+            if (componentMetrics == null) {
+                componentMetrics = newMetrics;
+            }
+        }
+        return componentMetrics;
+    }
+
+    /**
+     * Returns the metrics of the given component if it has recorded anything.
+     *
+     * @param type the type of the component
+     * @param name the name of the component
+     * @return the metrics of the component or null
+     */
+    public ComponentMetrics findComponentMetrics(ComponentType type, String name) {
+        return components.get(type).get(name);
+    }
+
+    /**
+     * @return the metrics of all the components which have recorded anything
+     */
+    public List<ComponentMetrics> getAllComponentMetrics() {
+        List<ComponentMetrics> all = new ArrayList<ComponentMetrics>();
+        for (ConcurrentMap<String, ComponentMetrics> metrics : components.values()) {
+            all.addAll(metrics.values());
+        }
+        return all;
+    }
+
+    /**
+     * Forgets the metrics of all the components.
+     */
+    public void clear() {
+        for (ConcurrentMap<String, ComponentMetrics> metrics : components.values()) {
+            metrics.clear();
+        }
+    }
+}
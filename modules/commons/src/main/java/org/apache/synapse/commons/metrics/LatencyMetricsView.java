@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of the {@link LatencyMetrics}.
+ */
+public class LatencyMetricsView implements LatencyMetricsViewMBean {
+
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+
+    private final LatencyMetrics metrics;
+
+    public LatencyMetricsView(LatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the recorded components in the form "type:name"
+     */
+    public String[] getComponents() {
+        List<ComponentMetrics> all = metrics.getAllComponentMetrics();
+        String[] components = new String[all.size()];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = all.get(i).getType().getLabel() + ":" + all.get(i).getName();
+        }
+        return components;
+    }
+
+    public long getCount(String componentType, String component, String phase) {
+        LatencyHistogram histogram = getHistogram(componentType, component, phase);
+        return histogram == null ? 0 : histogram.getCount();
+    }
+
+    public double getMean(String componentType, String component, String phase) {
+        LatencyHistogram histogram = getHistogram(componentType, component, phase);
+        return histogram == null ? 0 : histogram.getMean() / NANOS_PER_MILLISECOND;
+    }
+
+    public double getMax(String componentType, String component, String phase) {
+        LatencyHistogram histogram = getHistogram(componentType, component, phase);
+        return histogram == null ? 0 : histogram.getMax() / NANOS_PER_MILLISECOND;
+    }
+
+    public double getPercentile(String componentType, String component, String phase, double percentile) {
+        LatencyHistogram histogram = getHistogram(componentType, component, phase);
+        return histogram == null ? 0 : histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLISECOND;
+    }
+
+    public String getPrometheusText() {
+        return PrometheusTextFormat.toText(metrics);
+    }
+
+    public void reset() {
+        for (ComponentMetrics componentMetrics : metrics.getAllComponentMetrics()) {
+            for (LatencyMetrics.Phase phase : LatencyMetrics.Phase.values()) {
+                LatencyHistogram histogram = componentMetrics.getHistogram(phase);
+                if (histogram != null) {
+                    histogram.reset();
+                }
+            }
+        }
+    }
+
+    private LatencyHistogram getHistogram(String componentType, String component, String phase) {
+        LatencyMetrics.ComponentType type = null;
+        for (LatencyMetrics.ComponentType candidate : LatencyMetrics.ComponentType.values()) {
+            if (candidate.getLabel().equals(componentType)) {
+                type = candidate;
+            }
+        }
+        LatencyMetrics.Phase latencyPhase = null;
+        for (LatencyMetrics.Phase candidate : LatencyMetrics.Phase.values()) {
+            if (candidate.getLabel().equals(phase)) {
+                latencyPhase = candidate;
+            }
+        }
+        if (type == null || latencyPhase == null || component == null) {
+            return null;
+        }
+        ComponentMetrics componentMetrics = metrics.findComponentMetrics(type, component);
+        return componentMetrics == null ? null : componentMetrics.getHistogram(latencyPhase);
+    }
+}
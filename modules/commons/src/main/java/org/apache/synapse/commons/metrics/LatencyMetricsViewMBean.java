@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+/**
+ * Provides the latency percentiles of the mediation components. Component types and phases are given by their
+ * labels, e.g. "proxy" and "mediation", and latencies are in milliseconds.
+ */
+public interface LatencyMetricsViewMBean {
+
+    public String[] getComponents();
+    public long getCount(String componentType, String component, String phase);
+    public double getMean(String componentType, String component, String phase);
+    public double getMax(String componentType, String component, String phase);
+    public double getPercentile(String componentType, String component, String phase, double percentile);
+    public String getPrometheusText();
+    public void reset();
+
+}
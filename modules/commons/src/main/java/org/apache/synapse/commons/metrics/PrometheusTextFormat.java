@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Writes the {@link LatencyMetrics} in the Prometheus text exposition format. Each phase of each component is
+ * written as a summary in seconds with the 0.5, 0.9, 0.99 and 0.999 quantiles.
+ */
+public final class PrometheusTextFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    public static final String METRIC_NAME = "synapse_latency_seconds";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private PrometheusTextFormat() {
+    }
+
+    /**
+     * @param metrics the metrics to write
+     * @return the metrics in the Prometheus text format
+     */
+    public static String toText(LatencyMetrics metrics) {
+        StringWriter writer = new StringWriter();
+        try {
+            write(metrics, writer);
+        } catch (IOException e) {
+            // cannot happen with a StringWriter
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format.
+     *
+     * @param metrics the metrics to write
+     * @param writer  the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public static void write(LatencyMetrics metrics, Writer writer) throws IOException {
+        writer.write("# HELP " + METRIC_NAME + " Latency of the mediation components by phase.\n");
+        writer.write("# TYPE " + METRIC_NAME + " summary\n");
+        StringBuilder line = new StringBuilder();
+        for (ComponentMetrics componentMetrics : metrics.getAllComponentMetrics()) {
+            for (LatencyMetrics.Phase phase : LatencyMetrics.Phase.values()) {
+                LatencyHistogram histogram = componentMetrics.getHistogram(phase);
+                if (histogram == null) {
+                    continue;
+                }
+                String labels = labels(componentMetrics, phase);
+                long[] values = histogram.getValuesAtPercentiles(PERCENTILES);
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    line.setLength(0);
+                    line.append(METRIC_NAME).append('{').append(labels).append(",quantile=\"")
+                            .append(QUANTILES[i]).append("\"} ").append(values[i] / NANOS_PER_SECOND).append('\n');
+                    writer.write(line.toString());
+                }
+                writer.write(METRIC_NAME + "_sum{" + labels + "} " + histogram.getSum() / NANOS_PER_SECOND + "\n");
+                writer.write(METRIC_NAME + "_count{" + labels + "} " + histogram.getCount() + "\n");
+            }
+        }
+        writer.flush();
+    }
+
+    private static String labels(ComponentMetrics componentMetrics, LatencyMetrics.Phase phase) {
+        return "component_type=\"" + componentMetrics.getType().getLabel()
+                + "\",component=\"" + escape(componentMetrics.getName())
+                + "\",phase=\"" + phase.getLabel() + "\"";
+    }
+
+    /**
+     * Escapes a label value, i.e. backslashes, double quotes and line feeds.
+     */
+    static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = null;
+            if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+}
@@ -65,6 +65,9 @@ public class JsonStreamFactoryImpl extends JsonStreamFactory {
 
     @Override
     public JsonStreamSource createJsonStreamSource(InputStream input, Constants.SCANNER scanner) throws IOException {
+        if (scanner == Constants.SCANNER.SCANNER_1) {
+            return new JsonStreamSourceImpl(new Utf8JsonScanner(input), false);
+        }
         return createJsonStreamSource(new InputStreamReader(input, "UTF-8"), scanner);
     }
 
@@ -0,0 +1,687 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.synapse.commons.staxon.core.json.stream.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * <p>
+ * Scanner which reads UTF-8 encoded JSON straight from the bytes of the stream. It yields the same symbols, texts
+ * and locations as {@link JsonScanner} over an UTF-8 reader, including the synthetic <code>jsonObject</code>,
+ * <code>jsonArray</code> and <code>jsonElement</code> wrappers, but skips the char decoding and the DFA tables of
+ * the generated scanner.
+ * </p>
+ * <p>
+ * Only the bytes of string tokens are decoded. A string without escapes is turned into a <code>String</code> with
+ * a single copy, the builder is only used once an escape shows up. Field names are interned in a small cache, so the
+ * names repeated by the objects of an array share a single instance. The byte buffer and the name cache are pooled
+ * per thread and given back once the end of the input is reached or the scanner is closed.
+ * </p>
+ */
+final class Utf8JsonScanner implements JsonStreamSourceImpl.Scanner {
+
+    static final int BUFFER_SIZE = 8192;
+
+    /* Size of the field name cache, must be a power of two */
+    private static final int NAME_CACHE_SIZE = 256;
+
+    private static final int MAX_CACHED_NAME_LENGTH = 64;
+
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private static final ThreadLocal<Buffers> pool = new ThreadLocal<Buffers>();
+
+    /**
+     * The buffers which are reused by the scanners of a thread.
+     */
+    private static final class Buffers {
+        private byte[] bytes;
+        private final String[] names = new String[NAME_CACHE_SIZE];
+    }
+
+    private final InputStream input;
+
+    private Buffers buffers;
+
+    private byte[] buffer;
+
+    /* Next byte to scan */
+    private int position;
+
+    /* End of the bytes read into the buffer */
+    private int limit;
+
+    /* First byte which has to be kept in the buffer when more bytes are read */
+    private int start;
+
+    private boolean eof;
+
+    private final StringBuilder builder = new StringBuilder();
+
+    private String text;
+
+    private Symbol lastSymbol;
+
+    /* Whether each open array is an anonymous array wrapped into jsonArray/jsonElement */
+    private boolean[] arrays = new boolean[16];
+
+    private int arrayDepth;
+
+    /* Location of the next byte to scan */
+    private int charOffset;
+
+    private int lineNumber;
+
+    private int columnNumber;
+
+    private boolean afterCarriageReturn;
+
+    /* Location of the current symbol */
+    private int symbolCharOffset;
+
+    private int symbolLineNumber;
+
+    private int symbolColumnNumber;
+
+    Utf8JsonScanner(InputStream input) {
+        this(input, BUFFER_SIZE);
+    }
+
+    Utf8JsonScanner(InputStream input, int bufferSize) {
+        this.input = input;
+        buffers = pool.get();
+        if (buffers == null) {
+            buffers = new Buffers();
+        } else {
+            pool.set(null);
+        }
+        if (buffers.bytes != null && buffers.bytes.length == bufferSize) {
+            buffer = buffers.bytes;
+            buffers.bytes = null;
+        } else {
+            buffer = new byte[bufferSize];
+        }
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getCharOffset() {
+        return symbolCharOffset;
+    }
+
+    public int getLineNumber() {
+        return symbolLineNumber;
+    }
+
+    public int getColumnNumber() {
+        return symbolColumnNumber;
+    }
+
+    public void close() throws IOException {
+        release();
+        input.close();
+    }
+
+    public Symbol nextSymbol() throws IOException {
+        if (lastSymbol != null) {
+            Symbol symbol = nextWrapperSymbol();
+            if (symbol != null) {
+                return symbol;
+            }
+        }
+        while (true) {
+            if (position == limit) {
+                start = position;
+                if (!fill()) {
+                    return endOfInput();
+                }
+            }
+            int b = buffer[position];
+            switch (b) {
+                case ' ':
+                case '\t':
+                case '\b':
+                    position++;
+                    charOffset++;
+                    columnNumber++;
+                    afterCarriageReturn = false;
+                    break;
+                case '\r':
+                    position++;
+                    charOffset++;
+                    lineNumber++;
+                    columnNumber = 0;
+                    afterCarriageReturn = true;
+                    break;
+                case '\n':
+                    position++;
+                    charOffset++;
+                    if (afterCarriageReturn) {
+                        afterCarriageReturn = false;
+                    } else {
+                        lineNumber++;
+                        columnNumber = 0;
+                    }
+                    break;
+                case ',':
+                    return structure(Symbol.COMMA, Symbol.COMMA);
+                case ':':
+                    return structure(Symbol.COLON, Symbol.COLON);
+                case '{':
+                    return structure(Symbol.START_OBJECT, lastSymbol == null ? Symbol.SO_OBJECT : Symbol.START_OBJECT);
+                case '}':
+                    return structure(Symbol.END_OBJECT, Symbol.END_OBJECT);
+                case '[':
+                    boolean anonymous = lastSymbol == Symbol.START_ARRAY || lastSymbol == Symbol.COMMA
+                            || lastSymbol == null;
+                    pushArray(anonymous);
+                    if (anonymous) {
+                        return structure(Symbol.START_OBJECT, Symbol.SO_ARRAY);
+                    }
+                    return structure(Symbol.START_ARRAY, Symbol.START_ARRAY);
+                case ']':
+                    if (arrayDepth == 0) {
+                        throw new EmptyStackException();
+                    }
+                    return structure(Symbol.END_ARRAY, arrays[--arrayDepth] ? Symbol.SO_ARRAY_END : Symbol.END_ARRAY);
+                case 't':
+                    return keyword(TRUE, "true", Symbol.TRUE);
+                case 'f':
+                    return keyword(FALSE, "false", Symbol.FALSE);
+                case 'n':
+                    return keyword(NULL, "null", Symbol.NULL);
+                case '"':
+                    return string();
+                default:
+                    if (b == '-' || b >= '0' && b <= '9') {
+                        return number();
+                    }
+                    start = position;
+                    throw illegalCharacter(firstChar());
+            }
+        }
+    }
+
+    /**
+     * Yields the symbols which wrap the root object and the anonymous arrays, the same way {@link JsonScanner} does.
+     *
+     * @return the wrapper symbol or null if the next symbol has to be scanned
+     */
+    private Symbol nextWrapperSymbol() {
+        switch (lastSymbol) {
+            case SO_OBJECT:
+                return wrapper(Symbol.STRING, Constants.OBJECT, Symbol.SO_OBJECT_COL);
+            case SO_OBJECT_COL:
+                return wrapper(Symbol.COLON, null, Symbol.SO_OBJECT_END);
+            case SO_OBJECT_END:
+                return wrapper(Symbol.START_OBJECT, null, Symbol.START_OBJECT);
+            case EOF_OBJ:
+                return wrapper(Symbol.EOF, null, Symbol.EOF);
+            case SO_ARRAY:
+                return wrapper(Symbol.STRING, Constants.ARRAY, Symbol.SO_COLON_1);
+            case SO_COLON_1:
+                return wrapper(Symbol.COLON, null, Symbol.SO_ELEMENT);
+            case SO_ELEMENT:
+                return wrapper(Symbol.START_OBJECT, null, Symbol.SO_COLON_2);
+            case SO_COLON_2:
+                return wrapper(Symbol.STRING, Constants.ARRAY_ELEM, Symbol.SO_END);
+            case SO_END:
+                return wrapper(Symbol.COLON, null, Symbol.SO_END_2);
+            case SO_END_2:
+                return wrapper(Symbol.START_ARRAY, null, Symbol.START_ARRAY);
+            case SO_ARRAY_END:
+                return wrapper(Symbol.END_OBJECT, null, Symbol.SO_ARRAY_END_2);
+            case SO_ARRAY_END_2:
+                return wrapper(Symbol.END_OBJECT, null, Symbol.END_ARRAY);
+            default:
+                return null;
+        }
+    }
+
+    private Symbol wrapper(Symbol symbol, String symbolText, Symbol next) {
+        text = symbolText;
+        lastSymbol = next;
+        return symbol;
+    }
+
+    private Symbol endOfInput() {
+        markSymbol();
+        release();
+        text = null;
+        lastSymbol = Symbol.EOF_OBJ;
+        return Symbol.END_OBJECT;
+    }
+
+    private Symbol structure(Symbol symbol, Symbol next) {
+        markSymbol();
+        position++;
+        advance(1);
+        text = null;
+        lastSymbol = next;
+        return symbol;
+    }
+
+    private void pushArray(boolean anonymous) {
+        if (arrayDepth == arrays.length) {
+            arrays = Arrays.copyOf(arrays, arrayDepth * 2);
+        }
+        arrays[arrayDepth++] = anonymous;
+    }
+
+    private Symbol keyword(byte[] keyword, String keywordText, Symbol symbol) throws IOException {
+        start = position;
+        for (int i = 1; i < keyword.length; i++) {
+            if (peek(i) != keyword[i]) {
+                throw illegalCharacter(keywordText.substring(0, 1));
+            }
+        }
+        markSymbol();
+        position += keyword.length;
+        advance(keyword.length);
+        text = keywordText;
+        lastSymbol = symbol;
+        return symbol;
+    }
+
+    /**
+     * Scans the longest match of <code>-?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?</code>.
+     */
+    private Symbol number() throws IOException {
+        start = position;
+        int i = 0;
+        if (peek(0) == '-') {
+            i++;
+        }
+        int b = peek(i);
+        if (!isDigit(b)) {
+            throw illegalCharacter("-");
+        }
+        i++;
+        if (b != '0') {
+            while (isDigit(peek(i))) {
+                i++;
+            }
+        }
+        if (peek(i) == '.' && isDigit(peek(i + 1))) {
+            i += 2;
+            while (isDigit(peek(i))) {
+                i++;
+            }
+        }
+        b = peek(i);
+        if (b == 'e' || b == 'E') {
+            int j = i + 1;
+            b = peek(j);
+            if (b == '+' || b == '-') {
+                j++;
+            }
+            if (isDigit(peek(j))) {
+                i = j + 1;
+                while (isDigit(peek(i))) {
+                    i++;
+                }
+            }
+        }
+        markSymbol();
+        text = new String(buffer, position, i, StandardCharsets.ISO_8859_1);
+        position += i;
+        advance(i);
+        lastSymbol = Symbol.NUMBER;
+        return Symbol.NUMBER;
+    }
+
+    private static boolean isDigit(int b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private Symbol string() throws IOException {
+        position++;
+        advance(1);
+        boolean escaped = false;
+        int run = position;
+        boolean ascii = true;
+        boolean plain = true;
+        byte[] buf = buffer;
+        int p = position;
+        int l = limit;
+        while (true) {
+            if (p == l) {
+                position = p;
+                start = run;
+                boolean filled = fill();
+                run = start;
+                buf = buffer;
+                p = position;
+                l = limit;
+                if (!filled) {
+                    run(run, p, ascii, plain);
+                    return endOfInput();
+                }
+            }
+            int b = buf[p];
+            if (b >= 0x20 && b != '"' && b != '\\') {
+                p++;
+            } else if (b < 0) {
+                ascii = false;
+                plain = false;
+                p++;
+            } else if (b == '"') {
+                break;
+            } else if (b == '\\') {
+                if (!escaped) {
+                    builder.setLength(0);
+                    escaped = true;
+                }
+                append(run, p, run(run, p, ascii, plain));
+                position = p;
+                int length = escape();
+                p = position + length;
+                advance(length);
+                run = p;
+                ascii = true;
+                plain = true;
+                buf = buffer;
+                l = limit;
+            } else if (b == '\n') {
+                throw new RuntimeException("Error: could not match input");
+            } else if (b == '\r') {
+                throw illegalCharacter("\r");
+            } else {
+                plain = false;
+                p++;
+            }
+        }
+        String decoded = run(run, p, ascii, plain);
+        if (escaped) {
+            append(run, p, decoded);
+            text = builder.toString();
+        } else if (decoded != null) {
+            text = decoded;
+        } else if (p - run <= MAX_CACHED_NAME_LENGTH && isFollowedByColon(p + 1)) {
+            text = name(run, p - run);
+        } else {
+            text = new String(buf, run, p - run, StandardCharsets.ISO_8859_1);
+        }
+        position = p;
+        markSymbol();
+        position++;
+        advance(1);
+        lastSymbol = Symbol.STRING;
+        return Symbol.STRING;
+    }
+
+    /**
+     * Decodes the escape sequence at the current position into the builder.
+     *
+     * @return the length of the escape sequence in bytes
+     */
+    private int escape() throws IOException {
+        start = position;
+        switch (peek(1)) {
+            case '"':
+                builder.append('"');
+                return 2;
+            case '\\':
+                builder.append('\\');
+                return 2;
+            case '/':
+                builder.append('/');
+                return 2;
+            case 'b':
+                builder.append('\b');
+                return 2;
+            case 'f':
+                builder.append('\f');
+                return 2;
+            case 'n':
+                builder.append('\n');
+                return 2;
+            case 'r':
+                builder.append('\r');
+                return 2;
+            case 't':
+                builder.append('\t');
+                return 2;
+            case 'u':
+                int c = 0;
+                for (int i = 2; i < 6; i++) {
+                    int digit = hexDigit(peek(i));
+                    if (digit < 0) {
+                        throw illegalCharacter("\\");
+                    }
+                    c = c << 4 | digit;
+                }
+                builder.append((char) c);
+                return 6;
+            default:
+                throw illegalCharacter("\\");
+        }
+    }
+
+    private static int hexDigit(int b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        } else if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        } else if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the given range of string bytes to the builder.
+     *
+     * @param decoded the decoded range, or null if the range only holds ASCII chars
+     */
+    private void append(int from, int to, String decoded) {
+        if (decoded != null) {
+            builder.append(decoded);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            builder.append((char) buffer[i]);
+        }
+    }
+
+    /**
+     * Tells whether the string ending before the given index is a field name, looking ahead only within the bytes
+     * already read.
+     */
+    private boolean isFollowedByColon(int index) {
+        for (int i = index; i < limit; i++) {
+            byte b = buffer[i];
+            if (b == ':') {
+                return true;
+            } else if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cached instance of the ASCII field name at the given range of the buffer.
+     */
+    private String name(int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        String[] names = buffers.names;
+        int slot = (hash ^ hash >>> 16) & (NAME_CACHE_SIZE - 1);
+        String name = names[slot];
+        if (name != null && name.length() == length && name.hashCode() == hash) {
+            int i = 0;
+            while (i < length && name.charAt(i) == buffer[offset + i]) {
+                i++;
+            }
+            if (i == length) {
+                return name;
+            }
+        }
+        name = new String(buffer, offset, length, StandardCharsets.ISO_8859_1);
+        names[slot] = name;
+        return name;
+    }
+
+    /**
+     * Returns the byte at the given offset from the current position, reading more bytes if needed.
+     *
+     * @return the byte or -1 at the end of the input
+     */
+    private int peek(int offset) throws IOException {
+        while (position + offset >= limit) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return buffer[position + offset];
+    }
+
+    /**
+     * Reads more bytes into the buffer, keeping the bytes from {@link #start} on. The kept bytes are moved to the
+     * front of the buffer, or the buffer is grown if they fill it up.
+     *
+     * @return false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            position -= start;
+            limit -= start;
+            start = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read;
+        do {
+            read = input.read(buffer, limit, buffer.length - limit);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private void markSymbol() {
+        symbolCharOffset = charOffset;
+        symbolLineNumber = lineNumber;
+        symbolColumnNumber = columnNumber;
+    }
+
+    /**
+     * Moves the location over the given number of ASCII chars which are not line terminators.
+     */
+    private void advance(int chars) {
+        charOffset += chars;
+        columnNumber += chars;
+        afterCarriageReturn = false;
+    }
+
+    /**
+     * Moves the location over the given range of string bytes, the non ASCII ranges are decoded first so that the
+     * location counts chars the same way as the decoding reader does. The line terminators are the ones of the JFlex
+     * scanners, <code>\r</code> and <code>\n</code> can not show up in a string.
+     *
+     * @param ascii whether the range only holds ASCII chars
+     * @param plain whether the range only holds printable ASCII chars
+     * @return the decoded range, or null if the range only holds ASCII chars
+     */
+    private String run(int from, int to, boolean ascii, boolean plain) {
+        if (plain) {
+            advance(to - from);
+            return null;
+        }
+        if (ascii) {
+            for (int i = from; i < to; i++) {
+                advanceChar((char) buffer[i]);
+            }
+            return null;
+        }
+        String decoded = new String(buffer, from, to - from, StandardCharsets.UTF_8);
+        for (int i = 0; i < decoded.length(); i++) {
+            advanceChar(decoded.charAt(i));
+        }
+        return decoded;
+    }
+
+    private void advanceChar(char c) {
+        switch (c) {
+            case '\u000B':
+            case '\u000C':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                charOffset++;
+                lineNumber++;
+                columnNumber = 0;
+                afterCarriageReturn = false;
+                break;
+            default:
+                advance(1);
+        }
+    }
+
+    /**
+     * @return the first char of the bytes at the current position
+     */
+    private String firstChar() throws IOException {
+        int length = 1;
+        while (length < 4 && peek(length) != -1) {
+            length++;
+        }
+        return new String(buffer, position, length, StandardCharsets.UTF_8).substring(0, 1);
+    }
+
+    private IOException illegalCharacter(String character) {
+        lastSymbol = null;
+        return new IOException("Illegal character: <" + character + ">");
+    }
+
+    /**
+     * Gives the buffers back to the pool of the thread, the scanner does not touch them once the end of the input
+     * has been reached.
+     */
+    private void release() {
+        if (buffers == null) {
+            return;
+        }
+        if (buffer.length == BUFFER_SIZE) {
+            buffers.bytes = buffer;
+        }
+        pool.set(buffers);
+        buffers = null;
+        buffer = null;
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.synapse.commons.throttle.core;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.commons.throttle.core.factory.CallerContextFactory;
+import org.apache.synapse.commons.throttle.core.internal.DistributedThrottleProcessor;
+import org.apache.synapse.commons.throttle.core.internal.ThrottleServiceDataHolder;
 
 /**
  * Controls the access of remote callers according to the controlling  policy .
@@ -103,6 +105,21 @@ public class AccessRateController {
             accessInformation.setAccessAllowed(true);
             return accessInformation;
         } else if (configuration.getAccessState() == ThrottleConstants.ACCESS_CONTROLLED) {
+            if (isLocalThrottling(throttleContext)) {
+                // caller states are not shared, hence there is no need to serialize the callers
+                long currentTime = System.currentTimeMillis();
+                if (!throttleContext.getCallerRateLimiter().canAccess(callerID, configuration, currentTime)) {
+                    log.info(ACCESS_DENIED_TEMPORALLY);
+                    accessInformation.setAccessAllowed(false);
+                    accessInformation.setFaultReason(ACCESS_DENIED_TEMPORALLY);
+                    return accessInformation;
+                }
+                if (debugOn) {
+                    log.debug("Access  from " + type + " " + callerID + " is successful.");
+                }
+                accessInformation.setAccessAllowed(true);
+                return accessInformation;
+            }
             synchronized (lock) {
                 CallerContext caller = throttleContext.getCallerContext(callerID);
                 if (caller == null) {
@@ -139,4 +156,20 @@ public class AccessRateController {
         accessInformation.setAccessAllowed(true);
         return accessInformation;
     }
+
+    /**
+     * The caller states are kept in the throttle context itself unless they are replicated to the cluster or
+     * handled by a distributed throttle processor.
+     *
+     * @param throttleContext the throttle context
+     * @return true if the caller states are only local to this node
+     */
+    private boolean isLocalThrottling(ThrottleContext throttleContext) {
+        if (throttleContext.getConfigurationContext() != null) {
+            return false;
+        }
+        DistributedThrottleProcessor distributedThrottleProcessor =
+                ThrottleServiceDataHolder.getInstance().getDistributedThrottleProcessor();
+        return distributedThrottleProcessor == null || !distributedThrottleProcessor.isEnable();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.throttle.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * Lock free rate limiter which keeps the per caller state of a {@link ThrottleContext} when the throttle is local,
+ * i.e. when the caller states are neither replicated to the cluster nor handled by a distributed throttle processor.
+ * </p>
+ * <p>
+ * The state of each caller is an immutable {@link Window} which is swapped with a compare and set on the caller
+ * map, hence callers never contend with each other and the same caller only retries when there is a concurrent
+ * update. The windows follow the same fixed window and prohibit period semantics of the {@link CallerContext}.
+ * </p>
+ * <p>
+ * Expired callers are removed incrementally, a request which finds the sweep due removes at most
+ * {@link #SWEEP_BATCH_SIZE} expired callers and the sweep continues from there on the next request.
+ * </p>
+ */
+class CallerRateLimiter {
+
+    private static final Log log = LogFactory.getLog(CallerRateLimiter.class);
+
+    /**
+     * Maximum number of callers which are visited by a single incremental sweep.
+     */
+    static final int SWEEP_BATCH_SIZE = 64;
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<String, Window>();
+
+    /* Only one thread sweeps at a time, the others simply skip the sweep */
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    /* Position of the incremental sweep, only accessed while holding the sweeping flag */
+    private Iterator<Map.Entry<String, Window>> sweepCursor;
+
+    private volatile long nextSweepTime;
+
+    /**
+     * Checks whether the caller can access and records the access if it is allowed.
+     *
+     * @param callerID      the id of the caller
+     * @param configuration the configuration of the caller
+     * @param currentTime   the current system time
+     * @return true if the caller can access
+     * @throws ThrottleException for an invalid throttle configuration
+     */
+    boolean canAccess(String callerID, CallerConfiguration configuration, long currentTime)
+            throws ThrottleException {
+
+        if (configuration.getMaximumRequestPerUnitTime() < 0
+                || configuration.getUnitTime() <= 0
+                || configuration.getProhibitTimePeriod() < 0) {
+            throw new ThrottleException("Invalid Throttle Configuration");
+        }
+
+        boolean canAccess;
+        while (true) {
+            Window current = windows.get(callerID);
+            Window next = current == null ? Window.first(configuration, currentTime)
+                                          : current.next(configuration, currentTime);
+            canAccess = next.allowed;
+            if (next == current) {
+                break;
+            }
+            if (current == null ? windows.putIfAbsent(callerID, next) == null
+                                : windows.replace(callerID, current, next)) {
+                break;
+            }
+        }
+
+        if (currentTime >= nextSweepTime) {
+            sweep(currentTime);
+        }
+        return canAccess;
+    }
+
+    /**
+     * Removes the callers of which the window and the prohibit period are over by more than a unit time. Only a
+     * batch of callers is visited per invocation, and the invocation returns immediately if another thread is
+     * sweeping.
+     *
+     * @param currentTime the current system time
+     */
+    void sweep(long currentTime) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (sweepCursor == null) {
+                sweepCursor = windows.entrySet().iterator();
+            }
+            int visited = 0;
+            while (visited++ < SWEEP_BATCH_SIZE && sweepCursor.hasNext()) {
+                Map.Entry<String, Window> entry = sweepCursor.next();
+                Window window = entry.getValue();
+                if (window.isExpired(currentTime)) {
+                    // the caller is kept if it has been accessed after we have read the window
+                    windows.remove(entry.getKey(), window);
+                }
+            }
+            if (!sweepCursor.hasNext()) {
+                sweepCursor = null;
+                nextSweepTime = currentTime + ThrottleConstants.DEFAULT_THROTTLE_CLEAN_PERIOD;
+                if (log.isDebugEnabled()) {
+                    log.debug("Completed the sweep of expired callers, " + windows.size() + " callers remain");
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * Removes all the expired callers irrespective of the incremental sweep.
+     *
+     * @param currentTime the current system time
+     */
+    void expire(long currentTime) {
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            if (window.isExpired(currentTime)) {
+                windows.remove(entry.getKey(), window);
+            }
+        }
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    /**
+     * Immutable state of a caller for the current unit time.
+     */
+    private static final class Window {
+
+        private final long firstAccessTime;
+        private final long nextTimeWindow;
+        private final long nextAccessTime;
+        private final long unitTime;
+        private final int count;
+        /* Whether the access which produced this state was allowed */
+        private final boolean allowed;
+
+        private Window(long firstAccessTime, long nextTimeWindow, long nextAccessTime, long unitTime, int count,
+                       boolean allowed) {
+            this.firstAccessTime = firstAccessTime;
+            this.nextTimeWindow = nextTimeWindow;
+            this.nextAccessTime = nextAccessTime;
+            this.unitTime = unitTime;
+            this.count = count;
+            this.allowed = allowed;
+        }
+
+        static Window first(CallerConfiguration configuration, long currentTime) {
+            long unitTime = configuration.getUnitTime();
+            Window window = new Window(currentTime, currentTime + unitTime, 0, unitTime, 0, false);
+            return window.next(configuration, currentTime);
+        }
+
+        /**
+         * Computes the state after an access at the given time, the same instance is returned when the access
+         * is denied without changing the state.
+         */
+        Window next(CallerConfiguration configuration, long currentTime) {
+            int maxRequest = configuration.getMaximumRequestPerUnitTime();
+            if (maxRequest == 0) {
+                return denied();
+            }
+            if (nextTimeWindow > currentTime) {
+                if (count < maxRequest) {
+                    return new Window(firstAccessTime, nextTimeWindow, nextAccessTime, unitTime, count + 1, true);
+                }
+                if (nextAccessTime == 0) {
+                    // prohibit until the unit time is over, or for the prohibit period if there's one
+                    long prohibitTime = configuration.getProhibitTimePeriod();
+                    long prohibitedUntil = prohibitTime == 0 ? firstAccessTime + configuration.getUnitTime()
+                                                             : currentTime + prohibitTime;
+                    if (log.isDebugEnabled()) {
+                        log.debug("Maximum Number of requests are reached for caller with configuration "
+                                + configuration.getID());
+                    }
+                    return new Window(firstAccessTime, nextTimeWindow, prohibitedUntil, unitTime, count, false);
+                }
+                if (nextAccessTime <= currentTime) {
+                    return newWindow(configuration, currentTime, 0);
+                }
+                return denied();
+            }
+            if (count < maxRequest) {
+                return newWindow(configuration, currentTime, nextAccessTime);
+            }
+            if (nextAccessTime == 0 || nextAccessTime <= currentTime) {
+                return newWindow(configuration, currentTime, 0);
+            }
+            return denied();
+        }
+
+        /**
+         * The caller can be forgotten once both the window and the prohibit period are over by more than a unit
+         * time, which is the rule used by {@link CallerContext#cleanUpCallers}.
+         */
+        boolean isExpired(long currentTime) {
+            return nextTimeWindow < currentTime - unitTime
+                    && (nextAccessTime == 0 || nextAccessTime < currentTime - unitTime);
+        }
+
+        private Window newWindow(CallerConfiguration configuration, long currentTime, long nextAccessTime) {
+            long unitTime = configuration.getUnitTime();
+            return new Window(currentTime, currentTime + unitTime, nextAccessTime, unitTime, 1, true);
+        }
+
+        private Window denied() {
+            if (!allowed) {
+                return this;
+            }
+            return new Window(firstAccessTime, nextTimeWindow, nextAccessTime, unitTime, count, false);
+        }
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.throttle.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.throttle.core.internal.DistributedThrottleProcessor;
+import org.apache.synapse.commons.throttle.core.internal.ThrottleServiceDataHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Distributed throttle processor which leases slices of the limit of a caller from the shared counter of the
+ * {@link DistributedCounterManager}, instead of going to the shared counter for each request. A node serves the
+ * requests of a caller locally against its lease and goes back to the shared counter only when the lease is used up.
+ * Unused quota of idle leases is returned to the shared counter periodically, so that other nodes can lease it.
+ * </p>
+ * <p>
+ * Windows are aligned to the unit time, i.e. a window starts at a multiple of the unit time, so the nodes agree on
+ * the window without exchanging the window start. The shared counter of each window keeps the quota leased in that
+ * window and the counters expire after the window is over.
+ * </p>
+ * <p>
+ * Accuracy: with N nodes and a lease size of L requests, a caller is never served more than the maximum count of a
+ * unit time while the shared counter is reachable, but up to N x L of the quota may sit in leases of nodes which do
+ * not need it until it is returned. When the shared counter is not reachable a node serves at most one unconfirmed
+ * lease per caller and window, which bounds the overshoot to N x L. Requests served on unconfirmed leases are counted
+ * by {@link #getOvershootCount()}.
+ * </p>
+ * <p>
+ * The processor is selected by setting the distributed throttle processor type to
+ * {@link ThrottleConstants#QUOTA_LEASING_THROTTLE_PROCESSOR}.
+ * </p>
+ */
+public class QuotaLeasingThrottleProcessor implements DistributedThrottleProcessor {
+
+    private static final Log log = LogFactory.getLog(QuotaLeasingThrottleProcessor.class);
+
+    private static final String LEASE_KEY_SEPARATOR = "-";
+
+    private static final int DEFAULT_LEASE_PERCENTAGE = 10;
+
+    private static final long DEFAULT_LEASE_RETURN_INTERVAL = 1000;
+
+    /* Leases of the callers held by this node */
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<String, Lease>();
+
+    /* The counter manager used in tests, otherwise the configured counter manager is used */
+    private final DistributedCounterManager counterManager;
+
+    private final int leasePercentage;
+
+    private final long leaseReturnInterval;
+
+    /* Guarded by the processor */
+    private ScheduledExecutorService returnTaskExecutor;
+
+    /* Whether the processor is shut down, guarded by the processor */
+    private boolean shutdown;
+
+    private final AtomicLong leaseRequestCount = new AtomicLong();
+    private final AtomicLong leasedQuota = new AtomicLong();
+    private final AtomicLong returnedQuota = new AtomicLong();
+    private final AtomicLong overshootCount = new AtomicLong();
+
+    /**
+     * Creates the processor with the configured lease percentage and return interval. An invalid value is logged and
+     * replaced with its default, so that a configuration error does not prevent the throttle component from starting.
+     *
+     * @param throttleProperties throttle properties
+     */
+    public QuotaLeasingThrottleProcessor(ThrottleProperties throttleProperties) {
+        this(null, (int) getProperty(ThrottleConstants.QUOTA_LEASE_PERCENTAGE,
+                        throttleProperties.getQuotaLeasePercentage(), DEFAULT_LEASE_PERCENTAGE, 100),
+                getProperty(ThrottleConstants.QUOTA_LEASE_RETURN_INTERVAL,
+                        throttleProperties.getQuotaLeaseReturnInterval(), DEFAULT_LEASE_RETURN_INTERVAL,
+                        Long.MAX_VALUE));
+    }
+
+    QuotaLeasingThrottleProcessor(DistributedCounterManager counterManager, int leasePercentage,
+                                  long leaseReturnInterval) {
+        if (leasePercentage <= 0 || leasePercentage > 100) {
+            throw new IllegalArgumentException("The quota lease percentage should be between 1 and 100, but was: "
+                    + leasePercentage);
+        }
+        if (leaseReturnInterval <= 0) {
+            throw new IllegalArgumentException("The quota lease return interval should be a positive value, but "
+                    + "was: " + leaseReturnInterval);
+        }
+        this.counterManager = counterManager;
+        this.leasePercentage = leasePercentage;
+        this.leaseReturnInterval = leaseReturnInterval;
+    }
+
+    @Override
+    public boolean canAccessBasedOnUnitTime(CallerContext callerContext, CallerConfiguration configuration,
+                                            ThrottleContext throttleContext, RequestContext requestContext) {
+
+        int maxRequest = configuration.getMaximumRequestPerUnitTime();
+        if (maxRequest == 0) {
+            return false;
+        }
+        long currentTime = requestContext.getRequestTime();
+        long unitTime = configuration.getUnitTime();
+        long windowStart = currentTime - currentTime % unitTime;
+
+        String callerId = callerContext.getId();
+        long leaseSize = Math.max(1, (long) maxRequest * leasePercentage / 100);
+        Lease lease;
+        String key;
+        while (true) {
+            lease = getLease(callerId);
+            synchronized (lease) {
+                if (lease.retired) {
+                    // the return task forgot the lease after it was looked up, hence look up the current one
+                    continue;
+                }
+                if (lease.windowStart != windowStart) {
+                    // the quota left over from the previous window expires with the counter of that window
+                    lease.reset(windowStart, windowStart + unitTime);
+                }
+                lease.lastAccessTime = currentTime;
+                callerContext.setFirstAccessTime(lease.windowStart);
+                callerContext.setNextTimeWindow(lease.windowEnd);
+
+                if (lease.nextAccessTime > currentTime) {
+                    return false;
+                }
+                while (lease.remaining == 0 && lease.renewing) {
+                    // another request of the caller is leasing quota, its lease is served to this request as well
+                    try {
+                        lease.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                if (lease.retired) {
+                    continue;
+                }
+                if (lease.remaining > 0 || lease.nextRenewalTime > currentTime || lease.windowStart != windowStart) {
+                    return serve(lease, configuration, callerId, currentTime);
+                }
+                key = ThrottleConstants.THROTTLE_LEASE_KEY_PREFIX + callerId + LEASE_KEY_SEPARATOR + windowStart;
+                lease.key = key;
+                lease.renewing = true;
+                break;
+            }
+        }
+
+        // the shared counter is consulted without holding the lease, which the return task and the other requests
+        // of the caller need meanwhile
+        long granted = -1;
+        try {
+            granted = requestLease(callerId, key, leaseSize, maxRequest, windowStart, windowStart + unitTime);
+        } finally {
+            synchronized (lease) {
+                if (lease.windowStart == windowStart) {
+                    apply(lease, callerId, leaseSize, granted, currentTime);
+                }
+                lease.renewing = false;
+                lease.notifyAll();
+            }
+        }
+        synchronized (lease) {
+            return serve(lease, configuration, callerId, currentTime);
+        }
+    }
+
+    /**
+     * Serves the request from the lease if there is quota left, otherwise applies the prohibit time period. Should be
+     * called while holding the lock of the lease.
+     */
+    private boolean serve(Lease lease, CallerConfiguration configuration, String callerId, long currentTime) {
+        if (lease.remaining > 0) {
+            lease.remaining--;
+            if (lease.unconfirmed) {
+                overshootCount.incrementAndGet();
+            }
+            return true;
+        }
+        long prohibitTime = configuration.getProhibitTimePeriod();
+        if (prohibitTime > 0 && lease.nextAccessTime <= currentTime) {
+            lease.nextAccessTime = currentTime + prohibitTime;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Quota of the window " + lease.windowStart + " is over for the caller " + callerId);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean canAccessIfUnitTimeNotOver(CallerContext callerContext, CallerConfiguration configuration,
+                                              ThrottleContext throttleContext, RequestContext requestContext) {
+        return canAccessBasedOnUnitTime(callerContext, configuration, throttleContext, requestContext);
+    }
+
+    @Override
+    public boolean canAccessIfUnitTimeOver(CallerContext callerContext, CallerConfiguration configuration,
+                                           ThrottleContext throttleContext, RequestContext requestContext) {
+        return canAccessBasedOnUnitTime(callerContext, configuration, throttleContext, requestContext);
+    }
+
+    @Override
+    public void syncThrottleCounterParams(CallerContext callerContext, boolean incrementLocalCounter,
+                                          RequestContext requestContext) {
+        // the leases are synchronized with the shared counter when they are renewed or returned
+    }
+
+    @Override
+    public void syncThrottleWindowParams(CallerContext callerContext, boolean isInvocationFlow) {
+        // windows are aligned to the unit time, hence there is nothing to synchronize
+    }
+
+    @Override
+    public String getType() {
+        return ThrottleConstants.QUOTA_LEASING_THROTTLE_PROCESSOR;
+    }
+
+    @Override
+    public boolean isEnable() {
+        DistributedCounterManager distributedCounterManager = getCounterManager();
+        return distributedCounterManager != null && distributedCounterManager.isEnable();
+    }
+
+    /**
+     * @return the number of round trips made to the shared counter in order to lease quota
+     */
+    public long getLeaseRequestCount() {
+        return leaseRequestCount.get();
+    }
+
+    /**
+     * @return the total quota leased from the shared counter
+     */
+    public long getLeasedQuota() {
+        return leasedQuota.get();
+    }
+
+    /**
+     * @return the total unused quota returned to the shared counter
+     */
+    public long getReturnedQuota() {
+        return returnedQuota.get();
+    }
+
+    /**
+     * @return the number of requests served on leases which were not confirmed by the shared counter, which is the
+     * upper bound of the requests served beyond the limit by this node
+     */
+    public long getOvershootCount() {
+        return overshootCount.get();
+    }
+
+    /**
+     * Returns the unused quota of the leases which have not been used within the lease return interval, and forgets
+     * the leases of which the window is over.
+     *
+     * @param currentTime the current system time
+     */
+    void returnIdleLeases(long currentTime) {
+        for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+            Lease lease = entry.getValue();
+            String key;
+            long windowStart;
+            long unused;
+            synchronized (lease) {
+                if (lease.windowEnd <= currentTime) {
+                    if (lease.lastAccessTime + leaseReturnInterval <= currentTime && !lease.renewing) {
+                        // requests which still hold the lease look up a new one instead of leasing on this one
+                        lease.retired = true;
+                        leases.remove(entry.getKey(), lease);
+                    }
+                    continue;
+                }
+                if (lease.remaining == 0 || lease.unconfirmed
+                        || lease.lastAccessTime + leaseReturnInterval > currentTime) {
+                    continue;
+                }
+                key = lease.key;
+                windowStart = lease.windowStart;
+                unused = lease.remaining;
+                lease.remaining = 0;
+            }
+            // the shared counter is updated without holding the lease, as in the requests of the caller
+            try {
+                getCounterManager().asyncAddCounter(key, -unused);
+                returnedQuota.addAndGet(unused);
+                if (log.isDebugEnabled()) {
+                    log.debug("Returned " + unused + " unused quota of the caller " + entry.getKey());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Error while returning the unused quota of the caller " + entry.getKey(), e);
+                synchronized (lease) {
+                    // the quota is still leased by this node, unless the window is over meanwhile
+                    if (lease.windowStart == windowStart && !lease.retired) {
+                        lease.remaining += unused;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Leases a slice of the limit from the shared counter of the given window. The lease is shrunk to what is left
+     * in the window when the limit is about to be reached. Should be called without holding the lock of the lease.
+     *
+     * @return the granted quota, or -1 if the shared counter could not be reached
+     */
+    private long requestLease(String callerId, String key, long leaseSize, int maxRequest, long windowStart,
+                              long windowEnd) {
+        DistributedCounterManager distributedCounterManager = getCounterManager();
+        try {
+            long previous = distributedCounterManager.asyncGetAndAddCounter(key, leaseSize);
+            leaseRequestCount.incrementAndGet();
+            if (previous == 0) {
+                // keep the counter for one more window, so that late returns do not recreate it
+                distributedCounterManager.setExpiry(key, windowEnd + (windowEnd - windowStart));
+            }
+            long granted = Math.max(0, Math.min(leaseSize, maxRequest - previous));
+            if (granted < leaseSize) {
+                // give back what could not be granted so that returned quota becomes available to others
+                distributedCounterManager.asyncAddCounter(key, granted - leaseSize);
+            }
+            return granted;
+        } catch (RuntimeException e) {
+            log.warn("Error while leasing quota of the caller " + callerId, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Applies the outcome of a lease request to the lease. Should be called while holding the lock of the lease.
+     */
+    private void apply(Lease lease, String callerId, long leaseSize, long granted, long currentTime) {
+        if (granted < 0) {
+            if (!lease.degraded) {
+                log.warn("Serving an unconfirmed lease of " + leaseSize + " requests to the caller " + callerId
+                        + " as the shared counter is not reachable");
+                lease.degraded = true;
+                lease.unconfirmed = true;
+                lease.remaining = leaseSize;
+            } else {
+                lease.nextRenewalTime = currentTime + leaseReturnInterval;
+            }
+            return;
+        }
+        lease.unconfirmed = false;
+        if (granted == 0) {
+            // another node may return unused quota, so look again after the return interval
+            lease.nextRenewalTime = currentTime + leaseReturnInterval;
+        } else {
+            lease.remaining = granted;
+            leasedQuota.addAndGet(granted);
+        }
+    }
+
+    private Lease getLease(String callerId) {
+        Lease lease = leases.get(callerId);
+        if (lease == null) {
+            Lease newLease = new Lease();
+            lease = leases.putIfAbsent(callerId, newLease);
+            if (lease == null) {
+                lease = newLease;
+                startReturnTask();
+            }
+        }
+        return lease;
+    }
+
+    private DistributedCounterManager getCounterManager() {
+        if (counterManager != null) {
+            return counterManager;
+        }
+        return ThrottleServiceDataHolder.getInstance().getDistributedCounterManager();
+    }
+
+    /**
+     * Stops returning the unused quota. Called when the throttle component is deactivated.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (returnTaskExecutor != null) {
+            returnTaskExecutor.shutdownNow();
+        }
+    }
+
+    synchronized boolean isReturnTaskRunning() {
+        return returnTaskExecutor != null && !returnTaskExecutor.isShutdown();
+    }
+
+    int getLeasePercentage() {
+        return leasePercentage;
+    }
+
+    long getLeaseReturnInterval() {
+        return leaseReturnInterval;
+    }
+
+    /**
+     * Parses a positive numeric property, falling back to the default if the value is not valid.
+     */
+    private static long getProperty(String name, String value, long defaultValue, long maxValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed > 0 && parsed <= maxValue) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // logged below
+        }
+        log.warn("Invalid value '" + value + "' for the property " + name + ", using the default value "
+                + defaultValue);
+        return defaultValue;
+    }
+
+    synchronized void startReturnTask() {
+        if (counterManager != null || returnTaskExecutor != null || shutdown) {
+            return;
+        }
+        returnTaskExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r);
+                t.setName("Throttle Quota Lease Return Task");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        returnTaskExecutor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    returnIdleLeases(System.currentTimeMillis());
+                } catch (Throwable t) {
+                    log.error("Error while returning the unused throttle quota", t);
+                }
+            }
+        }, leaseReturnInterval, leaseReturnInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The quota a node holds for a caller in the current window, guarded by its own monitor.
+     */
+    private static final class Lease {
+
+        private String key;
+        private long windowStart = -1;
+        private long windowEnd;
+        /* Leased quota which is not used yet */
+        private long remaining;
+        /* The caller is prohibited until this time */
+        private long nextAccessTime;
+        /* The shared counter is not consulted again before this time once the quota of the window is over */
+        private long nextRenewalTime;
+        private long lastAccessTime;
+        /* Whether an unconfirmed lease has been served in this window */
+        private boolean degraded;
+        /* Whether the remaining quota was not confirmed by the shared counter */
+        private boolean unconfirmed;
+        /* Whether a request of the caller is leasing quota from the shared counter */
+        private boolean renewing;
+        /* Whether the lease is no longer in the leases of the processor, never reset */
+        private boolean retired;
+
+        void reset(long windowStart, long windowEnd) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.remaining = 0;
+            this.nextRenewalTime = 0;
+            this.degraded = false;
+            this.unconfirmed = false;
+        }
+    }
+}
@@ -190,4 +190,9 @@ public final class ThrottleConstants {
     public static final String THROTTLE_SYNC_ASYNC_HYBRID_MODE_ENABLED = "throttling.sync-async_hybrid_mode.enable";
     public static final String HYBRID_THROTTLE_PROCESSOR_WINDOW_TYPE = "throttling.hybrid_throttle_processor_window.type";
     public static final String LOCAL_QUOTA_BUFFER_PERCENTAGE = "throttling.local_quota_buffer_percentage";
+    public static final String DISTRIBUTED_THROTTLE_PROCESSOR_TYPE = "throttling.distributed_throttle_processor.type";
+    public static final String QUOTA_LEASE_PERCENTAGE = "throttling.quota_lease.percentage";
+    public static final String QUOTA_LEASE_RETURN_INTERVAL = "throttling.quota_lease.return_interval";
+    public static final String QUOTA_LEASING_THROTTLE_PROCESSOR = "quota_leasing";
+    public static final String THROTTLE_LEASE_KEY_PREFIX = "leasedQuota-";
 }
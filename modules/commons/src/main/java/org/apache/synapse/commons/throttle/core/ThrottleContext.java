@@ -63,6 +63,9 @@ public abstract class ThrottleContext {
 
     private ThrottleWindowReplicator throttleWindowReplicator;
 
+    /* Lock free state of the callers, used when the throttle is neither clustered nor distributed */
+    private final CallerRateLimiter callerRateLimiter = new CallerRateLimiter();
+
     /**
      * default constructor – expects a throttle configuration.
      *
@@ -323,6 +326,13 @@ public abstract class ThrottleContext {
         }
     }
 
+    /**
+     * @return Returns the lock free caller states of this throttle
+     */
+    CallerRateLimiter getCallerRateLimiter() {
+        return callerRateLimiter;
+    }
+
     /**
      * @return Returns the type of throttle ex : ip /domain
      */
@@ -446,6 +456,7 @@ public abstract class ThrottleContext {
      */
     public void cleanupCallers(long time) {
 
+        callerRateLimiter.expire(time);
         SortedMap map = ((ConcurrentNavigableMap) callersMap).headMap(new Long(time));
         if (log.isDebugEnabled()) {
             log.debug("CallerMap Size before cleanup process : " + map.size());
@@ -39,6 +39,8 @@ public class ThrottleProperties implements Serializable {
 	private String distributedThrottleProcessorType = "hybrid";
 	private String hybridThrottleProcessorWindowType = "start_time_based";
 	private String localQuotaBufferPercentage = "20";
+	private String quotaLeasePercentage = "10";
+	private String quotaLeaseReturnInterval = "1000";
 
 	public String getWindowReplicatorPoolSize() {
 		return windowReplicatorPoolSize;
@@ -193,4 +195,20 @@ public class ThrottleProperties implements Serializable {
 	public String getLocalQuotaBufferPercentage() {
 		return localQuotaBufferPercentage;
 	}
+
+	public String getQuotaLeasePercentage() {
+		return quotaLeasePercentage;
+	}
+
+	public void setQuotaLeasePercentage(String quotaLeasePercentage) {
+		this.quotaLeasePercentage = quotaLeasePercentage;
+	}
+
+	public String getQuotaLeaseReturnInterval() {
+		return quotaLeaseReturnInterval;
+	}
+
+	public void setQuotaLeaseReturnInterval(String quotaLeaseReturnInterval) {
+		this.quotaLeaseReturnInterval = quotaLeaseReturnInterval;
+	}
 }
@@ -178,6 +178,24 @@ public class ThrottleUtil {
 							throttleProperties.setLocalQuotaBufferPercentage(localQuotaBufferPercentage);
 						}
 					}
+					if (ThrottleConstants.DISTRIBUTED_THROTTLE_PROCESSOR_TYPE.equals(key)) {
+						String distributedThrottleProcessorType = properties.getProperty(key);
+						if (StringUtils.isNotEmpty(distributedThrottleProcessorType)) {
+							throttleProperties.setDistributedThrottleProcessorType(distributedThrottleProcessorType);
+						}
+					}
+					if (ThrottleConstants.QUOTA_LEASE_PERCENTAGE.equals(key)) {
+						String quotaLeasePercentage = properties.getProperty(key);
+						if (StringUtils.isNotEmpty(quotaLeasePercentage)) {
+							throttleProperties.setQuotaLeasePercentage(quotaLeasePercentage);
+						}
+					}
+					if (ThrottleConstants.QUOTA_LEASE_RETURN_INTERVAL.equals(key)) {
+						String quotaLeaseReturnInterval = properties.getProperty(key);
+						if (StringUtils.isNotEmpty(quotaLeaseReturnInterval)) {
+							throttleProperties.setQuotaLeaseReturnInterval(quotaLeaseReturnInterval);
+						}
+					}
 				}
 			} catch (IOException e) {
 				log.debug("Setting the Default Throttle Properties");
@@ -20,6 +20,7 @@ package org.apache.synapse.commons.throttle.core.internal;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.commons.throttle.core.DistributedCounterManager;
+import org.apache.synapse.commons.throttle.core.QuotaLeasingThrottleProcessor;
 import org.apache.synapse.commons.throttle.core.ThrottleUtil;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
@@ -37,6 +38,8 @@ public class ThrottleServiceComponent {
 
 	private static final Log log  = LogFactory.getLog(ThrottleServiceComponent.class.getName());
 
+	private QuotaLeasingThrottleProcessor quotaLeasingThrottleProcessor;
+
 	@Activate
 	protected void activate(ComponentContext context) {
 		log.debug("Activating throttle core service component");
@@ -44,11 +47,19 @@ public class ThrottleServiceComponent {
 			ThrottleServiceDataHolder.getInstance().setThrottleProperties(
 					ThrottleUtil.loadThrottlePropertiesFromConfigurations());
 		}
+		quotaLeasingThrottleProcessor = new QuotaLeasingThrottleProcessor(
+				ThrottleServiceDataHolder.getInstance().getThrottleProperties());
+		ThrottleServiceDataHolder.getInstance().addDistributedThrottleProcessor(quotaLeasingThrottleProcessor);
 	}
 
 	@Deactivate
 	protected void deactivate(ComponentContext ctx) {
 		log.debug("Deactivating throttle core service component");
+		if (quotaLeasingThrottleProcessor != null) {
+			ThrottleServiceDataHolder.getInstance().removeDistributedThrottleProcessor(quotaLeasingThrottleProcessor);
+			quotaLeasingThrottleProcessor.shutdown();
+			quotaLeasingThrottleProcessor = null;
+		}
 	}
 
 	/**
@@ -0,0 +1,69 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.commons.util;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * The ERROR_DETAIL of a fault, which is the stack trace of the error. Formatting a stack trace takes far longer than
+ * handling the fault itself, hence it is only formatted if the detail is read, for example by a fault sequence which
+ * logs it. Reading the detail through {@link #toString()} gives the same text for the code which does not resolve
+ * the property.
+ */
+public final class ErrorDetail implements DeferredValue {
+
+    private final Throwable error;
+
+    private volatile String detail;
+
+    public ErrorDetail(Throwable error) {
+        this.error = error;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public String resolve() {
+        String result = detail;
+        if (result == null) {
+            result = getStackTrace(error);
+            detail = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return resolve();
+    }
+
+    /**
+     * Get the stack trace of the given error into a String
+     *
+     * @param error the error
+     * @return the stack trace as a string
+     */
+    public static String getStackTrace(Throwable error) {
+        StringWriter result = new StringWriter();
+        error.printStackTrace(new PrintWriter(result));
+        return result.toString();
+    }
+}
@@ -150,6 +150,11 @@ public final class VFSConstants {
      * This specify the file count that will be processed in a cycle/batch 
      * */    
     public static final String TRANSPORT_FILE_COUNT = "transport.vfs.FileProcessCount";
+
+    /**
+     * This specify the number of files of a poll that are processed in parallel
+     * */
+    public static final String TRANSPORT_FILE_PARALLELISM = "transport.vfs.FileProcessParallelism";
     
     /**
      * Lock release true/false
@@ -192,6 +197,8 @@ public final class VFSConstants {
     public static final String FILE_NAME = "FILE_NAME";
     public static final String FILE_LENGTH = "FILE_LENGTH";
     public static final String LAST_MODIFIED = "LAST_MODIFIED";
+    public static final String RECORD_BATCH_OFFSET = "RECORD_BATCH_OFFSET";
+    public static final String RECORD_COUNT = "RECORD_COUNT";
 
     // identifies the scheme in use, i.e. file, ftp, sftp, http etc..
     public static final String SCHEME = "VFS_SCHEME";
@@ -226,4 +233,39 @@ public final class VFSConstants {
 
     // The waiting time of the file before picking it up (in milliseconds)
     public static final String WAIT_TIME_BEFORE_READ = "transport.vfs.waitTimeBeforeRead";
+
+    /**
+     * How the polled directory is scanned, "full" (default) lists the whole directory on every poll while
+     * "incremental" only hands over entries which are new or changed since they were last processed
+     */
+    public static final String TRANSPORT_FILE_SCAN_MODE = "transport.vfs.ScanMode";
+    public static final String SCAN_MODE_FULL = "full";
+    public static final String SCAN_MODE_INCREMENTAL = "incremental";
+
+    /**
+     * File in which the listing of an incrementally scanned, non local directory is kept across restarts
+     */
+    public static final String TRANSPORT_FILE_LISTING_CACHE_FILE = "transport.vfs.ListingCacheFile";
+
+    /**
+     * Splits the file into records instead of building it into a single message, "line", "delimiter" or
+     * "jsonArray". Batches of records are injected as messages of their own while the file is streamed
+     */
+    public static final String TRANSPORT_FILE_RECORD_SPLIT_MODE = "transport.vfs.RecordSplitMode";
+    public static final String RECORD_SPLIT_MODE_LINE = "line";
+    public static final String RECORD_SPLIT_MODE_DELIMITER = "delimiter";
+    public static final String RECORD_SPLIT_MODE_JSON_ARRAY = "jsonArray";
+
+    /** Record delimiter of the "delimiter" split mode */
+    public static final String TRANSPORT_FILE_RECORD_DELIMITER = "transport.vfs.RecordDelimiter";
+
+    /** Number of records which are injected as a single message */
+    public static final String TRANSPORT_FILE_RECORD_BATCH_SIZE = "transport.vfs.RecordBatchSize";
+    public static final int DEFAULT_RECORD_BATCH_SIZE = 100;
+
+    /** Number of record batches of a file which are mediated at the same time */
+    public static final String TRANSPORT_FILE_RECORD_CONCURRENCY = "transport.vfs.RecordBatchConcurrency";
+
+    /** Directory in which the offset up to which a file was processed is kept, so that it can be resumed */
+    public static final String TRANSPORT_FILE_RECORD_CHECKPOINT_DIRECTORY = "transport.vfs.RecordCheckpointDirectory";
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.json.jsonprocessor;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.synapse.commons.json.jsonprocessor.exceptions.ParserException;
+import org.apache.synapse.commons.json.jsonprocessor.exceptions.ValidatorException;
+import org.apache.synapse.commons.json.jsonprocessor.parser.CompiledJsonSchema;
+import org.apache.synapse.commons.json.jsonprocessor.parser.JsonProcessor;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class will test the compiled schemas against the tree based validation.
+ */
+public class TestCompiledJsonSchema {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private static String readResource(String name) throws IOException {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        InputStream inputStream = classloader.getResourceAsStream(name);
+        return IOUtils.toString(inputStream, String.valueOf(StandardCharsets.UTF_8));
+    }
+
+    private static String stream(CompiledJsonSchema compiledSchema, String input) throws ValidatorException,
+            ParserException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        boolean written = compiledSchema.transform(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                output);
+        return written ? new String(output.toByteArray(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static void assertSameResult(String input, String schema) throws ValidatorException, ParserException {
+        String expected = JsonProcessor.parseJson(input, schema);
+        CompiledJsonSchema compiledSchema = JsonProcessor.compileSchema(schema);
+        Assert.assertEquals("Didn't receive the same payload for " + input, expected,
+                compiledSchema.transform(input));
+        Assert.assertEquals("Didn't receive the same streamed payload for " + input, expected,
+                stream(compiledSchema, input));
+    }
+
+    /**
+     * This test checks the compiled schema against the tree based validation with the sample schema.
+     */
+    @Test
+    public void testSameResultAsParseJson() throws ValidatorException, ParserException, IOException {
+        String schema = readResource("schema.json");
+        String input = readResource("validatingInput.json");
+        assertSameResult(input, schema);
+        // a compiled schema is reusable
+        CompiledJsonSchema compiledSchema = JsonProcessor.compileSchema(schema);
+        Assert.assertEquals("Didn't receive the same payload when reusing the schema",
+                stream(compiledSchema, input), stream(compiledSchema, input));
+    }
+
+    /**
+     * This test checks the data type and structure correction of nested values.
+     */
+    @Test
+    public void testTypeAndStructureCorrection() throws ValidatorException, ParserException {
+        String schema = "{\"type\":\"object\",\"properties\":{" +
+                "\"single\":{\"type\":\"array\",\"items\":[{\"type\":\"object\"," +
+                "\"properties\":{\"bla\":{\"type\":\"integer\"}}}]}," +
+                "\"numbers\":{\"type\":\"array\",\"items\":{\"type\":\"number\"},\"minItems\":1}," +
+                "\"tuple\":{\"type\":\"array\",\"items\":[{\"type\":\"boolean\"},{}],\"additionalItems\":" +
+                "{\"type\":\"integer\"}}," +
+                "\"matrix\":{\"type\":\"array\",\"items\":{\"type\":\"array\"}}," +
+                "\"multi\":{\"type\":[\"integer\",\"string\"]}," +
+                "\"empty\":{\"type\":\"null\"}," +
+                "\"inner\":{\"type\":\"object\",\"properties\":{\"flag\":{\"type\":\"boolean\"}}," +
+                "\"patternProperties\":{\"^n_\":{\"type\":\"number\"}},\"additionalProperties\":" +
+                "{\"type\":\"string\"}}}}";
+        assertSameResult("{\"single\":{\"bla\":\"3\"},\"numbers\":[\"1.5\",2,\"3\"]," +
+                "\"tuple\":[\"true\",{\"a\":[1,null]},\"4\",\"5\"],\"matrix\":[[1],[\"2\"]],\"multi\":\"12\"," +
+                "\"empty\":null,\"inner\":{\"n_a\":\"1\",\"flag\":\"false\",\"x\":2,\"n_b\":\"2.5\"}," +
+                "\"other\":{\"k\":[true,\"v\",1.0e3]}}", schema);
+        assertSameResult("{\"numbers\":\"7\",\"tuple\":\"false\",\"inner\":{}}", schema);
+        assertSameResult("  [1, 2]", "{\"type\":\"array\",\"items\":{\"type\":\"string\"}}");
+        assertSameResult("\"12\"", "{\"type\":\"integer\"}");
+    }
+
+    /**
+     * This test checks that the constraints of an object are validated while streaming.
+     */
+    @Test
+    public void testRequiredProperties() throws ValidatorException, ParserException {
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("does not contains all the elements required in the schema");
+        CompiledJsonSchema compiledSchema = JsonProcessor.compileSchema(
+                "{\"type\":\"object\",\"properties\":{\"age\":{\"type\":\"integer\"}},\"required\":[\"age\"]}");
+        stream(compiledSchema, "{\"name\":\"bob\"}");
+    }
+
+    /**
+     * This test checks that the constraints of an array are validated while streaming.
+     */
+    @Test
+    public void testMaxItems() throws ValidatorException, ParserException {
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("Array violated the maxItems constraint");
+        CompiledJsonSchema compiledSchema = JsonProcessor.compileSchema(
+                "{\"type\":\"object\",\"properties\":{\"a\":{\"type\":\"array\",\"maxItems\":2}}}");
+        stream(compiledSchema, "{\"a\":[1,2,3]}");
+    }
+
+    /**
+     * This test checks that the coercion errors are reported while streaming.
+     */
+    @Test
+    public void testInvalidValue() throws ValidatorException, ParserException {
+        thrown.expect(ParserException.class);
+        CompiledJsonSchema compiledSchema = JsonProcessor.compileSchema(
+                "{\"type\":\"object\",\"properties\":{\"a\":{\"type\":\"integer\"}}}");
+        stream(compiledSchema, "{\"a\":\"abc\"}");
+    }
+
+    /**
+     * This test checks the behaviour for {} and "true" schema inputs.
+     */
+    @Test
+    public void testPassingSchemas() throws ValidatorException, ParserException {
+        Assert.assertEquals("Didn't receive the expected payload", "123",
+                stream(JsonProcessor.compileSchema("  {   }  "), "123"));
+        Assert.assertEquals("Didn't receive the expected payload", "123",
+                stream(JsonProcessor.compileSchema("true"), "123"));
+    }
+
+    /**
+     * This test checks the behaviour for "false" schema inputs.
+     */
+    @Test
+    public void testFalseSchemaInput() throws ValidatorException, ParserException {
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("JSON schema is false, so all validations will fail");
+        stream(JsonProcessor.compileSchema("false"), "123");
+    }
+
+    /**
+     * This test checks the behaviour for invalid schema inputs.
+     */
+    @Test
+    public void testInvalidJSONSchema() throws ValidatorException, ParserException {
+        thrown.expect(ValidatorException.class);
+        thrown.expectMessage("Invalid JSON schema");
+        JsonProcessor.compileSchema("{\"type\":\"object\",\"properties\":{");
+    }
+
+    /**
+     * This test checks the behaviour for empty inputs.
+     */
+    @Test
+    public void testEmptyInput() throws ValidatorException, ParserException {
+        thrown.expect(ParserException.class);
+        stream(JsonProcessor.compileSchema("{\"type\":\"object\"}"), "");
+    }
+
+    /**
+     * This test checks that value errors are reported with the same message by both paths.
+     */
+    @Test
+    public void testSameValueErrorMessages() throws ValidatorException, ParserException {
+        String schema = "{\"type\":\"object\",\"properties\":{\"a\":{\"type\":\"integer\"}," +
+                "\"b\":{\"type\":\"string\",\"maxLength\":2}," +
+                "\"d\":{\"type\":\"object\",\"properties\":{\"e\":{\"type\":\"boolean\"}}}}}";
+        assertSameErrorMessage("{\"a\":\"abc\"}", schema);
+        assertSameErrorMessage("{\"b\":\"abc\"}", schema);
+        assertSameErrorMessage("{\"d\":{\"e\":\"maybe\"}}", schema);
+        assertSameErrorMessage("{\"a\":1}", "{\"type\":\"object\",\"minProperties\":2}");
+    }
+
+    /**
+     * This test compares the messages of object and array constraints, which the streamed path reports without
+     * quoting the input.
+     */
+    @Test
+    public void testConstraintErrorMessagesWithoutInput() throws ValidatorException, ParserException {
+        String schema = "{\"type\":\"object\",\"properties\":{\"age\":{\"type\":\"integer\"}}," +
+                "\"required\":[\"age\"]}";
+        String input = "{\"name\":\"bob\"}";
+        String expectedTail = " does not contains all the elements required in the schema : " + schema;
+        Assert.assertEquals("Input object : " + input + expectedTail, getTreeErrorMessage(input, schema));
+        Assert.assertEquals("Input object" + expectedTail, getStreamedErrorMessage(input, schema));
+
+        schema = "{\"type\":\"object\",\"properties\":{\"c\":{\"type\":\"array\",\"maxItems\":2}}}";
+        input = "{\"c\":[1,2,3]}";
+        String expectedHead = "Error occurs while validating the structure of array";
+        expectedTail = ". Array violated the maxItems constraint";
+        Assert.assertEquals(expectedHead + " : [1,2,3]" + expectedTail, getTreeErrorMessage(input, schema));
+        Assert.assertEquals(expectedHead + expectedTail, getStreamedErrorMessage(input, schema));
+    }
+
+    private static void assertSameErrorMessage(String input, String schema) throws ValidatorException,
+            ParserException {
+        String treeMessage = getTreeErrorMessage(input, schema);
+        Assert.assertNotNull("Tree based validation didn't fail for " + input, treeMessage);
+        Assert.assertEquals("Didn't receive the same error message for " + input, treeMessage,
+                getStreamedErrorMessage(input, schema));
+    }
+
+    private static String getTreeErrorMessage(String input, String schema) {
+        try {
+            JsonProcessor.parseJson(input, schema);
+            return null;
+        } catch (ValidatorException | ParserException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String getStreamedErrorMessage(String input, String schema) throws ValidatorException,
+            ParserException {
+        CompiledJsonSchema compiledSchema = JsonProcessor.compileSchema(schema);
+        try {
+            stream(compiledSchema, input);
+            return null;
+        } catch (ValidatorException | ParserException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the log-linear latency histogram.
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    public void testBucketsCoverEveryValue() {
+        for (long value = 0; value < 100000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue("value " + value, LatencyHistogram.highestEquivalentValue(index) >= value);
+            if (index > 0) {
+                assertTrue("value " + value, LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+    }
+
+    public void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(10000), histogram.getMax());
+        assertWithin(TimeUnit.MICROSECONDS.toNanos(5000), histogram.getValueAtPercentile(50));
+        assertWithin(TimeUnit.MICROSECONDS.toNanos(9900), histogram.getValueAtPercentile(99));
+        assertWithin(TimeUnit.MICROSECONDS.toNanos(9990), histogram.getValueAtPercentile(99.9));
+        assertEquals(histogram.getMax(), histogram.getValueAtPercentile(100));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(5000) + 500, histogram.getMean(), 1);
+    }
+
+    public void testEmptyAndOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMean());
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    public void testConcurrentRecording() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int threads = 8;
+        final int records = 10000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    for (int i = 1; i <= records; i++) {
+                        histogram.record(i);
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(threads * records, histogram.getCount());
+        assertEquals(records, histogram.getMax());
+        assertEquals((long) threads * records * (records + 1) / 2, histogram.getSum());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 32 + 1);
+    }
+}
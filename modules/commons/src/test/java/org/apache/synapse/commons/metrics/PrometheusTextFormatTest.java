@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.metrics;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests writing the latency metrics in the Prometheus text format.
+ */
+public class PrometheusTextFormatTest extends TestCase {
+
+    private final LatencyMetrics metrics = LatencyMetrics.getInstance();
+
+    protected void tearDown() throws Exception {
+        metrics.clear();
+    }
+
+    public void testWritesSummaryPerPhase() {
+        ComponentMetrics proxy = metrics.getComponentMetrics(LatencyMetrics.ComponentType.PROXY, "StockQuoteProxy");
+        proxy.record(LatencyMetrics.Phase.MEDIATION, TimeUnit.MILLISECONDS.toNanos(2));
+        proxy.record(LatencyMetrics.Phase.MEDIATION, TimeUnit.MILLISECONDS.toNanos(2));
+
+        String text = PrometheusTextFormat.toText(metrics);
+        assertTrue(text.startsWith("# HELP " + PrometheusTextFormat.METRIC_NAME));
+        assertTrue(text.contains("# TYPE " + PrometheusTextFormat.METRIC_NAME + " summary\n"));
+        String labels = "{component_type=\"proxy\",component=\"StockQuoteProxy\",phase=\"mediation\"";
+        assertTrue(text, text.contains(PrometheusTextFormat.METRIC_NAME + labels + ",quantile=\"0.99\"} 0.002\n"));
+        assertTrue(text, text.contains(PrometheusTextFormat.METRIC_NAME + "_sum" + labels + "} 0.004\n"));
+        assertTrue(text, text.contains(PrometheusTextFormat.METRIC_NAME + "_count" + labels + "} 2\n"));
+        assertFalse(text, text.contains("phase=\"backend\""));
+    }
+
+    public void testDisabledMetricsAreNotRecorded() {
+        assertFalse(metrics.isEnabled());
+        metrics.record(LatencyMetrics.ComponentType.ENDPOINT, "StockQuoteEP", LatencyMetrics.Phase.BACKEND, 1000);
+        assertNull(metrics.findComponentMetrics(LatencyMetrics.ComponentType.ENDPOINT, "StockQuoteEP"));
+    }
+
+    public void testEscapesLabelValues() {
+        assertEquals("/orders/{id}", PrometheusTextFormat.escape("/orders/{id}"));
+        assertEquals("a\\\"b\\\\c\\nd", PrometheusTextFormat.escape("a\"b\\c\nd"));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.synapse.commons.staxon.core.json.stream.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.synapse.commons.staxon.core.json.stream.util.StreamSourceDelegate;
+
+public class Utf8JsonScannerTest {
+
+    private static final String[] DOCUMENTS = {
+            "{\"alice\":\"bob\"}",
+            "[1, 2, [3, [4]], {\"a\":[]}]",
+            "{\"a\":[{\"id\":1,\"name\":\"x\"},{\"id\":2,\"name\":\"y\"}]}",
+            "{\"n\":[-0, 12, 1.5, -3.25e10, 1E+5, 2e-3]}",
+            "{\"t\":true,\"f\":false,\"n\":null}",
+            "{\"esc\":\"q\\\" b\\\\ s\\/ \\b\\f\\n\\r\\t \\u00e9\\u20AC\"}",
+            "{\"utf8\":\"Z\u00fcrich \u20ac \ud83d\ude00\",\"\u00e9\":\"\u2028\u0085\"}",
+            "\r\n{\n\t\"a\" :\r\n [ true ,\b false ]\n}\r\n",
+            "\"bob\"",
+            "",
+            "{\"unterminated",
+            "{\"a\":01}",
+            "{\"a\":tru}",
+            "{\"a\":1.}",
+            "{\"a\":\"\\x\"}",
+            "{\"a\":\"\\u12\"}",
+            "{\"a\":\"line\rbreak\"}",
+            "{\"a\":\"line\nbreak\"}",
+            "{\"a\":\u00e9}",
+            "]"
+    };
+
+    private static String scan(JsonStreamSourceImpl.Scanner scanner) {
+        StringBuilder result = new StringBuilder();
+        try {
+            JsonStreamSourceImpl.Scanner.Symbol symbol;
+            do {
+                symbol = scanner.nextSymbol();
+                result.append(symbol).append(' ').append(scanner.getText()).append(' ')
+                        .append(scanner.getCharOffset()).append(':').append(scanner.getLineNumber()).append(':')
+                        .append(scanner.getColumnNumber()).append('\n');
+            } while (symbol != JsonStreamSourceImpl.Scanner.Symbol.EOF);
+        } catch (Exception e) {
+            result.append(e.getClass().getName()).append(' ').append(e.getMessage());
+        }
+        return result.toString();
+    }
+
+    private static void assertSameSymbols(String document) {
+        byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+        String expected = scan(new JsonScanner(
+                new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)));
+        for (int bufferSize : new int[]{1, 2, 5, Utf8JsonScanner.BUFFER_SIZE}) {
+            Assert.assertEquals("symbols of " + document + " with a buffer of " + bufferSize, expected,
+                    scan(new Utf8JsonScanner(new ByteArrayInputStream(bytes), bufferSize)));
+        }
+    }
+
+    @Test
+    public void testSameSymbolsAsJsonScanner() {
+        for (String document : DOCUMENTS) {
+            assertSameSymbols(document);
+        }
+    }
+
+    @Test
+    public void testSameSymbolsAsJsonScannerForLargeDocument() {
+        StringBuilder document = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) {
+                document.append(",\n");
+            }
+            document.append("{\"id\":").append(i).append(",\"name\":\"customer \u00e9").append(i)
+                    .append("\",\"score\":").append(i * 1.5).append(",\"tags\":[\"a\",\"b\\n\"]}");
+        }
+        assertSameSymbols(document.append(']').toString());
+    }
+
+    @Test
+    public void testFieldNamesAreShared() throws IOException {
+        byte[] bytes = "[{\"name\":\"name\"},{\"name\":\"x\"}]".getBytes(StandardCharsets.UTF_8);
+        Utf8JsonScanner scanner = new Utf8JsonScanner(new ByteArrayInputStream(bytes));
+        String name = null;
+        int names = 0;
+        JsonStreamSourceImpl.Scanner.Symbol symbol;
+        while ((symbol = scanner.nextSymbol()) != JsonStreamSourceImpl.Scanner.Symbol.EOF) {
+            if (symbol == JsonStreamSourceImpl.Scanner.Symbol.STRING && "name".equals(scanner.getText())) {
+                if (name == null) {
+                    name = scanner.getText();
+                } else if (names == 1) {
+                    // the value is not a field name
+                    Assert.assertNotSame(name, scanner.getText());
+                } else {
+                    Assert.assertSame(name, scanner.getText());
+                }
+                names++;
+            }
+        }
+        Assert.assertEquals(3, names);
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+        byte[] bytes = "{\"a\":[1,{\"b\":\"\u00e9\"}],\"c\":null}".getBytes(StandardCharsets.UTF_8);
+        StringWriter expected = new StringWriter();
+        StreamSourceDelegate source = new StreamSourceDelegate(new JsonStreamSourceImpl(new JsonScanner(
+                new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)), true));
+        source.copy(new JsonStreamTargetImpl(expected, true));
+        source.close();
+
+        StringWriter actual = new StringWriter();
+        source = new StreamSourceDelegate(
+                new JsonStreamFactoryImpl().createJsonStreamSource(new ByteArrayInputStream(bytes),
+                        Constants.SCANNER.SCANNER_1));
+        source.copy(new JsonStreamTargetImpl(actual, true));
+        source.close();
+
+        Assert.assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.commons.throttle.core;
+
+import junit.framework.TestCase;
+import org.apache.synapse.commons.throttle.core.impl.ipbase.IPBaseCallerConfiguration;
+import org.apache.synapse.commons.throttle.core.impl.ipbase.IPBaseCallerContext;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests the quota leasing of the {@link QuotaLeasingThrottleProcessor} against an in memory shared counter which
+ * simulates the network latency of a distributed counter.
+ */
+public class QuotaLeasingThrottleProcessorTest extends TestCase {
+
+    private static final String CALLER = "127.0.0.1";
+
+    /* 1000 requests per minute, the windows start at 0, 60000, ... */
+    private final CallerConfiguration configuration = new IPBaseCallerConfiguration(60000, 1000, 0, CALLER);
+
+    public void testLeasesAreServedLocally() {
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0);
+        QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(counterManager, 10, 1000);
+        CallerContext caller = new IPBaseCallerContext(CALLER);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(canAccess(processor, caller, 100));
+        }
+        assertFalse(canAccess(processor, caller, 200));
+        assertEquals(60000, caller.getNextTimeWindow());
+        // ten leases of a hundred requests, and one more round trip which finds the window exhausted
+        assertEquals(11, processor.getLeaseRequestCount());
+        assertEquals(1000, processor.getLeasedQuota());
+        assertEquals(0, processor.getOvershootCount());
+
+        // the next window starts with a fresh quota
+        assertTrue(canAccess(processor, caller, 60000));
+        assertEquals(120000, caller.getNextTimeWindow());
+    }
+
+    public void testNodesShareTheLimit() throws Exception {
+        final InMemoryCounterManager counterManager = new InMemoryCounterManager(1);
+        final QuotaLeasingThrottleProcessor[] nodes = new QuotaLeasingThrottleProcessor[4];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new QuotaLeasingThrottleProcessor(counterManager, 5, 1000);
+        }
+        final AtomicInteger allowed = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            for (int i = 0; i < 16; i++) {
+                final QuotaLeasingThrottleProcessor node = nodes[i % nodes.length];
+                final CallerContext caller = new IPBaseCallerContext(CALLER);
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int j = 0; j < 200; j++) {
+                            if (canAccess(node, caller, 100)) {
+                                allowed.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        }
+        assertEquals(1000, allowed.get());
+        long roundTrips = 0;
+        for (QuotaLeasingThrottleProcessor node : nodes) {
+            roundTrips += node.getLeaseRequestCount();
+            assertEquals(0, node.getOvershootCount());
+        }
+        assertTrue("Expected far fewer round trips than requests, but was " + roundTrips, roundTrips < 100);
+    }
+
+    public void testIdleLeasesAreReturned() {
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0);
+        QuotaLeasingThrottleProcessor first = new QuotaLeasingThrottleProcessor(counterManager, 50, 1000);
+        QuotaLeasingThrottleProcessor second = new QuotaLeasingThrottleProcessor(counterManager, 50, 1000);
+        CallerContext caller = new IPBaseCallerContext(CALLER);
+
+        // the first node leases half of the limit and uses a single request of it
+        assertTrue(canAccess(first, caller, 100));
+        for (int i = 0; i < 500; i++) {
+            assertTrue(canAccess(second, caller, 100));
+        }
+        assertFalse(canAccess(second, caller, 100));
+
+        first.returnIdleLeases(1100);
+        assertEquals(499, first.getReturnedQuota());
+        // the second node looks for quota again after the return interval
+        assertFalse(canAccess(second, caller, 1000));
+        for (int i = 0; i < 499; i++) {
+            assertTrue(canAccess(second, caller, 1200));
+        }
+        assertFalse(canAccess(second, caller, 2300));
+    }
+
+    public void testOvershootIsBoundedWhenCounterIsUnreachable() {
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0);
+        counterManager.available = false;
+        QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(counterManager, 10, 1000);
+        CallerContext caller = new IPBaseCallerContext(CALLER);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(canAccess(processor, caller, 100));
+        }
+        // only one unconfirmed lease is served per window
+        assertFalse(canAccess(processor, caller, 200));
+        assertEquals(100, processor.getOvershootCount());
+
+        counterManager.available = true;
+        assertTrue(canAccess(processor, caller, 1200));
+        assertEquals(100, processor.getOvershootCount());
+    }
+
+    public void testProhibitTimePeriod() {
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0);
+        QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(counterManager, 100, 1000);
+        CallerContext caller = new IPBaseCallerContext(CALLER);
+        CallerConfiguration prohibited = new IPBaseCallerConfiguration(1000, 2, 5000, CALLER);
+
+        assertTrue(canAccess(processor, caller, prohibited, 100));
+        assertTrue(canAccess(processor, caller, prohibited, 200));
+        assertFalse(canAccess(processor, caller, prohibited, 300));
+        // the next window has started but the caller is prohibited until 5300
+        assertFalse(canAccess(processor, caller, prohibited, 1100));
+        assertTrue(canAccess(processor, caller, prohibited, 5300));
+    }
+
+    public void testInvalidPropertiesFallBackToDefaults() {
+        ThrottleProperties properties = new ThrottleProperties();
+        properties.setQuotaLeasePercentage("ten");
+        properties.setQuotaLeaseReturnInterval("-5");
+        QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(properties);
+        assertEquals(10, processor.getLeasePercentage());
+        assertEquals(1000, processor.getLeaseReturnInterval());
+
+        properties.setQuotaLeasePercentage("150");
+        properties.setQuotaLeaseReturnInterval(" 2000 ");
+        processor = new QuotaLeasingThrottleProcessor(properties);
+        assertEquals(10, processor.getLeasePercentage());
+        assertEquals(2000, processor.getLeaseReturnInterval());
+    }
+
+    public void testSharedCounterIsConsultedWithoutHoldingTheLease() throws Exception {
+        final CountDownLatch leasing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0) {
+            @Override
+            public long asyncGetAndAddCounter(String key, long value) {
+                leasing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.asyncGetAndAddCounter(key, value);
+            }
+        };
+        final QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(counterManager, 10, 1000);
+        final AtomicInteger allowed = new AtomicInteger();
+        Runnable request = new Runnable() {
+            public void run() {
+                if (canAccess(processor, new IPBaseCallerContext(CALLER), 100)) {
+                    allowed.incrementAndGet();
+                }
+            }
+        };
+        Thread renewing = new Thread(request);
+        renewing.start();
+        assertTrue(leasing.await(10, TimeUnit.SECONDS));
+
+        // the return task is not held back by the round trip to the shared counter
+        long start = System.currentTimeMillis();
+        processor.returnIdleLeases(100);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+
+        // a concurrent request of the caller is served from the lease being requested
+        Thread waiting = new Thread(request);
+        waiting.start();
+        release.countDown();
+        renewing.join(10000);
+        waiting.join(10000);
+        assertEquals(2, allowed.get());
+        assertEquals(1, processor.getLeaseRequestCount());
+    }
+
+    public void testQuotaIsReturnedWithoutHoldingTheLease() throws Exception {
+        final CountDownLatch returning = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0) {
+            @Override
+            public long asyncAddCounter(String key, long value) {
+                returning.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.asyncAddCounter(key, value);
+            }
+        };
+        final QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(counterManager, 10, 1000);
+        CallerContext caller = new IPBaseCallerContext(CALLER);
+        assertTrue(canAccess(processor, caller, 100));
+
+        Thread returnTask = new Thread(new Runnable() {
+            public void run() {
+                processor.returnIdleLeases(1100);
+            }
+        });
+        returnTask.start();
+        assertTrue(returning.await(10, TimeUnit.SECONDS));
+
+        // the caller leases again while the unused quota is on its way back to the shared counter
+        long start = System.currentTimeMillis();
+        assertTrue(canAccess(processor, caller, 1200));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        release.countDown();
+        returnTask.join(10000);
+        assertEquals(99, processor.getReturnedQuota());
+        assertEquals(2, processor.getLeaseRequestCount());
+        // two leases of a hundred requests, of which the unused part of the first one is returned
+        assertEquals(101, counterManager.getCounter(ThrottleConstants.THROTTLE_LEASE_KEY_PREFIX + CALLER + "-0"));
+    }
+
+    public void testFailedReturnKeepsTheQuota() {
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0);
+        QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(counterManager, 10, 1000);
+        CallerContext caller = new IPBaseCallerContext(CALLER);
+        assertTrue(canAccess(processor, caller, 100));
+
+        counterManager.available = false;
+        processor.returnIdleLeases(1100);
+        assertEquals(0, processor.getReturnedQuota());
+        // the quota is still leased by this node, hence it is served without going to the shared counter
+        for (int i = 0; i < 99; i++) {
+            assertTrue(canAccess(processor, caller, 1200));
+        }
+        assertEquals(1, processor.getLeaseRequestCount());
+    }
+
+    public void testLeaseOfAnOverWindowIsRetired() {
+        InMemoryCounterManager counterManager = new InMemoryCounterManager(0);
+        QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(counterManager, 10, 1000);
+        CallerContext caller = new IPBaseCallerContext(CALLER);
+        assertTrue(canAccess(processor, caller, 100));
+
+        processor.returnIdleLeases(62000);
+        assertTrue(canAccess(processor, caller, 62100));
+        assertEquals(2, processor.getLeaseRequestCount());
+        assertEquals(100, counterManager.getCounter(ThrottleConstants.THROTTLE_LEASE_KEY_PREFIX + CALLER + "-60000"));
+    }
+
+    public void testReturnTaskIsShutDown() {
+        QuotaLeasingThrottleProcessor processor = new QuotaLeasingThrottleProcessor(new ThrottleProperties());
+        processor.startReturnTask();
+        assertTrue(processor.isReturnTaskRunning());
+        processor.shutdown();
+        assertFalse(processor.isReturnTaskRunning());
+        // leases created after the shutdown do not start the task again
+        processor.startReturnTask();
+        assertFalse(processor.isReturnTaskRunning());
+    }
+
+    private boolean canAccess(QuotaLeasingThrottleProcessor processor, CallerContext caller, long time) {
+        return canAccess(processor, caller, configuration, time);
+    }
+
+    private boolean canAccess(QuotaLeasingThrottleProcessor processor, CallerContext caller,
+                              CallerConfiguration callerConfiguration, long time) {
+        RequestContext requestContext = new RequestContext(time);
+        requestContext.setRequestTime(time);
+        return processor.canAccessBasedOnUnitTime(caller, callerConfiguration, null, requestContext);
+    }
+
+    /**
+     * Shared counter stand in, each operation sleeps for the given latency.
+     */
+    private static class InMemoryCounterManager implements DistributedCounterManager {
+
+        private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+        private final long latency;
+        private volatile boolean available = true;
+
+        InMemoryCounterManager(long latency) {
+            this.latency = latency;
+        }
+
+        private AtomicLong counter(String key) {
+            if (!available) {
+                throw new IllegalStateException("The shared counter is not reachable");
+            }
+            if (latency > 0) {
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            AtomicLong counter = counters.get(key);
+            if (counter == null) {
+                AtomicLong newCounter = new AtomicLong();
+                counter = counters.putIfAbsent(key, newCounter);
+                if (counter == null) {
+                    counter = newCounter;
+                }
+            }
+            return counter;
+        }
+
+        public long getCounter(String key) {
+            return counter(key).get();
+        }
+
+        public void setCounter(String key, long value) {
+            counter(key).set(value);
+        }
+
+        public void setCounterWithExpiry(String key, long value, long expiryTime) {
+            counter(key).set(value);
+        }
+
+        public long addAndGetCounter(String key, long value) {
+            return counter(key).addAndGet(value);
+        }
+
+        public void removeCounter(String key) {
+            counters.remove(key);
+        }
+
+        public long asyncGetAndAddCounter(String key, long value) {
+            return counter(key).getAndAdd(value);
+        }
+
+        public long asyncAddCounter(String key, long value) {
+            return counter(key).addAndGet(value);
+        }
+
+        public long asyncGetAndAlterCounter(String key, long value) {
+            return counter(key).getAndSet(value);
+        }
+
+        public long asyncGetAlterAndSetExpiryOfCounter(String key, long value, long expiryTimeStamp) {
+            return counter(key).getAndSet(value);
+        }
+
+        public long getTimestamp(String key) {
+            return 0;
+        }
+
+        public void setTimestamp(String key, long timeStamp) {
+        }
+
+        public void setTimestampWithExpiry(String key, long timeStamp, long expiryTimeStamp) {
+        }
+
+        public void removeTimestamp(String key) {
+        }
+
+        public boolean isEnable() {
+            return true;
+        }
+
+        public String getType() {
+            return "in-memory";
+        }
+
+        public void setExpiry(String key, long expiryTimeStamp) {
+        }
+
+        public long getTtl(String key) {
+            return 0;
+        }
+
+        public long setLock(String key, String value) {
+            return 0;
+        }
+
+        public boolean setLockWithExpiry(String key, String value, long expiryTimeStamp) {
+            return true;
+        }
+
+        public long getKeyLockRetrievalTimeout() {
+            return 0;
+        }
+
+        public void removeLock(String key) {
+        }
+    }
+}
@@ -21,14 +21,12 @@ package org.apache.synapse;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.util.ErrorDetail;
 import org.apache.synapse.util.logging.LoggingUtils;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
-import java.io.StringWriter;
-import java.io.Writer;
-import java.io.PrintWriter;
 
 /**
  * This is an abstract class that handles an unexpected error during Synapse mediation, but looking
@@ -83,7 +81,8 @@ public abstract class FaultHandler {
             synCtx.setProperty(SynapseConstants.ERROR_CODE, SynapseConstants.DEFAULT_ERROR);
             // use only the first line as the message for multiline exception messages (Axis2 has these)
             synCtx.setProperty(SynapseConstants.ERROR_MESSAGE, e.getMessage().split("\n")[0]);
-            synCtx.setProperty(SynapseConstants.ERROR_DETAIL, getStackTrace(e));
+            // the stack trace is only formatted if the fault handling reads the detail
+            synCtx.setProperty(SynapseConstants.ERROR_DETAIL, new ErrorDetail(e));
             synCtx.setProperty(SynapseConstants.ERROR_EXCEPTION, e);
         }
 
@@ -136,10 +135,7 @@ public abstract class FaultHandler {
      * @return the stack trace as a string
      */
     public static String getStackTrace(Throwable aThrowable) {
-        final Writer result = new StringWriter();
-        final PrintWriter printWriter = new PrintWriter(result);
-        aThrowable.printStackTrace(printWriter);
-        return result.toString();
+        return ErrorDetail.getStackTrace(aThrowable);
     }
 
     private void traceOrDebugWarn(boolean traceOn, String msg) {
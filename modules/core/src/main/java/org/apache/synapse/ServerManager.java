@@ -29,9 +29,11 @@ import org.apache.synapse.script.access.ScriptAccessControl;
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.OpenTelemetryManagerHolder;
 import org.apache.synapse.commons.jmx.MBeanRegistrar;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.config.SynapsePropertiesLoader;
 import org.apache.synapse.data.ConfigDataHolder;
 import org.apache.synapse.mediators.eip.EIPUtils;
+import org.apache.synapse.metrics.MetricsConstants;
 import org.wso2.securevault.PasswordManager;
 import org.wso2.securevault.SecurityConstants;
 
@@ -120,6 +122,8 @@ public class ServerManager {
         doInit();
         initialized = true;
         RuntimeStatisticCollector.init();
+        LatencyMetrics.getInstance().setEnabled(
+                SynapsePropertiesLoader.getBooleanProperty(MetricsConstants.LATENCY_METRICS_ENABLED, false));
 
         return this.serverContextInformation.getServerState();
     }
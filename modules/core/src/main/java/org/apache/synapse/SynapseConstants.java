@@ -296,6 +296,18 @@ public final class SynapseConstants {
          */
         public static final long DEFAULT_TIMEOUT_HANDLER_INTERVAL = 15000;
 
+        /**
+         * The System property that states the resolution of the callback timeouts, that is the
+         * largest delay between the timeout of a callback and its expiry
+         */
+        public static final String TIMEOUT_HANDLER_RESOLUTION = "synapse.timeout_handler_resolution";
+
+        /**
+         * The default resolution of the callback timeouts. The timeout handler runs at this
+         * interval, unless the timeout handler interval is shorter.
+         */
+        public static final long DEFAULT_TIMEOUT_HANDLER_RESOLUTION = 100;
+
         /**
          * The default endpoint suspend duration on failure (i hour)
          */
@@ -554,6 +566,9 @@ public final class SynapseConstants {
     //Streaming Json Path
     public static final String STREAMING_JSONPATH_PROCESSING = "synapse.streaming.jsonpath.enabled";
 
+    //Streaming Json schema validation of the JSON transform mediator
+    public static final String STREAMING_JSON_SCHEMA_PROCESSING = "synapse.streaming.json.schema.enabled";
+
     // avoid thread switch during blocking backend calls
     public static final String SYNAPSE_AVOID_BLOCKING_THREAD_SWITCH = "synapse.blocking.call.disable.thread.switch";
 
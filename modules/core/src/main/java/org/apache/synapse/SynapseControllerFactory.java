@@ -102,7 +102,8 @@ public class SynapseControllerFactory {
             }
 
             log.info("The timeout handler will run every : " +
-                    (SynapseConfigUtils.getTimeoutHandlerInterval() / 1000) + "s");
+                    Math.min(SynapseConfigUtils.getTimeoutHandlerInterval(),
+                            SynapseConfigUtils.getTimeoutHandlerResolution()) + "ms");
         }
     }
 
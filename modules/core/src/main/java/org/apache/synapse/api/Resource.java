@@ -35,11 +35,13 @@ import org.apache.synapse.aspects.flow.statistics.collectors.CloseEventCollector
 import org.apache.synapse.aspects.flow.statistics.collectors.OpenEventCollector;
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.aspects.flow.statistics.data.artifact.ArtifactHolder;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.core.SynapseEnvironment;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.core.axis2.Axis2Sender;
 import org.apache.synapse.mediators.MediatorFaultHandler;
 import org.apache.synapse.mediators.base.SequenceMediator;
+import org.apache.synapse.metrics.LatencyRecorder;
 import org.apache.synapse.api.cors.SynapseCORSConfiguration;
 import org.apache.synapse.api.cors.CORSHelper;
 import org.apache.synapse.api.dispatch.DispatcherHelper;
@@ -308,6 +310,23 @@ public class Resource extends AbstractRequestProcessor implements ManagedLifecyc
     }
 
     void process(MessageContext synCtx, OpenAPI openAPI) {
+        long metricsStartTime = LatencyRecorder.startTime();
+        if (metricsStartTime == 0) {
+            doProcess(synCtx, openAPI);
+            return;
+        }
+        try {
+            doProcess(synCtx, openAPI);
+        } finally {
+            String resourceName = getResourceName(synCtx, name);
+            if (!synCtx.isResponse()) {
+                LatencyRecorder.recordTransportPhases(LatencyMetrics.ComponentType.API_RESOURCE, resourceName, synCtx);
+            }
+            LatencyRecorder.recordMediation(LatencyMetrics.ComponentType.API_RESOURCE, resourceName, metricsStartTime);
+        }
+    }
+
+    private void doProcess(MessageContext synCtx, OpenAPI openAPI) {
         Integer statisticReportingIndex = null;
         boolean isStatisticsEnabled = RuntimeStatisticCollector.isStatisticsEnabled();
         if (!synCtx.isResponse()) {
@@ -64,6 +64,10 @@ public class OpenEventCollector extends RuntimeStatisticCollector {
             return null;
         }
 
+		if (!isSampledFlow(messageContext)) {
+			return null;
+		}
+
         // Enable statistics, if user enabled for all artifacts
 		boolean isCollectingStatistics = (aspectConfiguration != null && aspectConfiguration.isStatisticsEnable())
 				|| RuntimeStatisticCollector.isCollectingAllStatistics();
@@ -18,6 +18,7 @@
 
 package org.apache.synapse.aspects.flow.statistics.collectors;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -29,10 +30,12 @@ import org.apache.synapse.aspects.flow.statistics.log.StatisticsReportingEvent;
 import org.apache.synapse.aspects.flow.statistics.log.StatisticsReportingEventHolder;
 import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.OpenTelemetryManagerHolder;
 import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.TelemetryConstants;
+import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.sampling.TraceSampler;
 import org.apache.synapse.aspects.flow.statistics.util.MediationFlowController;
 import org.apache.synapse.aspects.flow.statistics.util.StatisticsConstants;
 import org.apache.synapse.config.SynapseConfigUtils;
 import org.apache.synapse.config.SynapsePropertiesLoader;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
 
 /**
  * RuntimeStatisticCollector receives statistic events and responsible for handling each of these events.
@@ -85,6 +88,11 @@ public abstract class RuntimeStatisticCollector {
      */
     private static Set<String> mediatorSpanFilterSet;
 
+    /**
+     * Sampler of the traced message flows, null when every message flow is traced.
+     */
+    private static TraceSampler traceSampler;
+
     /**
      * Initialize statistics collection when ESB starts.
      */
@@ -143,6 +151,15 @@ public abstract class RuntimeStatisticCollector {
                 }
                 OpenTelemetryManagerHolder.loadTracerConfigurations();
                 OpenTelemetryManagerHolder.setCollectingFlags(isCollectingPayloads, isCollectingProperties, isCollectingVariables);
+                TraceSampler sampler = OpenTelemetryManagerHolder.getTraceSampler();
+                if (sampler != null && !sampler.isSamplingAll()) {
+                    if (isMediationFlowStatisticsEnabled) {
+                        log.warn("OpenTelemetry sampling is ignored since mediation flow statistics are enabled, "
+                                + "which need the statistics of every message flow.");
+                    } else {
+                        traceSampler = sampler;
+                    }
+                }
                 String mediatorSpanFilterListStr = SynapsePropertiesLoader.getPropertyValue(
                         TelemetryConstants.OLTP_FILTERED_MEDIATOR_NAMES, null);
                 isMediatorSpanFilterEnabled = mediatorSpanFilterListStr != null &&
@@ -210,6 +227,34 @@ public abstract class RuntimeStatisticCollector {
         return (statID != null && isStatCollected != null && isStatCollected);
     }
 
+    /**
+     * Takes the sampling decision of the message flow on its first entry event, and returns whether the flow is
+     * sampled. The statistics of a flow which is not sampled are not collected at all.
+     *
+     * @param messageContext synapse message context.
+     * @return true if the message flow is sampled.
+     */
+    protected static boolean isSampledFlow(MessageContext messageContext) {
+        if (traceSampler == null) {
+            return true;
+        }
+        Object decision = messageContext.getProperty(StatisticsConstants.FLOW_TRACE_SAMPLING_DECISION);
+        if (decision == null) {
+            Map headers = null;
+            if (messageContext instanceof Axis2MessageContext) {
+                headers = (Map) ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                        .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+            }
+            decision = traceSampler.sample(headers);
+            messageContext.setProperty(StatisticsConstants.FLOW_TRACE_SAMPLING_DECISION, decision);
+        }
+        if (decision == TraceSampler.Decision.NOT_SAMPLED) {
+            messageContext.setProperty(StatisticsConstants.FLOW_STATISTICS_IS_COLLECTED, false);
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Returns whether statistics collection is enabled globally for the esb as specified in the
      * synapse.properties file.
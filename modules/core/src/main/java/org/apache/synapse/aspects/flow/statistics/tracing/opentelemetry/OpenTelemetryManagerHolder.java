@@ -23,6 +23,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.SynapseException;
 import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.TelemetryConstants;
 import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.OpenTelemetryManager;
+import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.sampling.TraceSampler;
 import org.apache.synapse.config.SynapsePropertiesLoader;
 
 /**
@@ -35,6 +36,7 @@ public class OpenTelemetryManagerHolder {
     private static boolean isCollectingProperties;
     private static boolean isCollectingVariables;
     private static OpenTelemetryManager openTelemetryManager;
+    private static TraceSampler traceSampler;
 
     /**
      * Prevents Instantiation.
@@ -46,6 +48,8 @@ public class OpenTelemetryManagerHolder {
      */
     public static void loadTracerConfigurations() {
 
+        // the sampler is loaded first, since the managers wrap their span processors for tail sampling
+        traceSampler = TraceSampler.load();
         String classpath = SynapsePropertiesLoader.getPropertyValue(TelemetryConstants.OPENTELEMETRY_CLASS,
                 TelemetryConstants.DEFAULT_OPENTELEMETRY_CLASS);
         try {
@@ -84,4 +88,8 @@ public class OpenTelemetryManagerHolder {
     public static OpenTelemetryManager getOpenTelemetryManager() {
         return openTelemetryManager;
     }
+
+    public static TraceSampler getTraceSampler() {
+        return traceSampler;
+    }
 }
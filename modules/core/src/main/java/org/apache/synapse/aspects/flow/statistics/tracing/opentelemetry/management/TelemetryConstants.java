@@ -57,6 +57,43 @@ public class TelemetryConstants {
     public static final String OPENTELEMETRY_METRIC_PUSH_INTERVAL_SECONDS = "opentelemetry.metric.push.interval.seconds";
 
     public static final String OPENTELEMETRY_METRIC_DEFAULT_PUSH_INTERVAL_SECONDS = "60";
+
+    /**
+     * Ratio of the message flows to trace, between 0 and 1.
+     * if not defined, every message flow is traced.
+     */
+    public static final String OPENTELEMETRY_SAMPLING_RATIO = "opentelemetry.sampling.ratio";
+
+    public static final String DEFAULT_OPENTELEMETRY_SAMPLING_RATIO = "1";
+
+    /**
+     * Maximum number of message flows traced per second.
+     * if not defined, the traced message flows are not limited.
+     */
+    public static final String OPENTELEMETRY_SAMPLING_RATE_LIMIT = "opentelemetry.sampling.rate.limit";
+
+    public static final String DEFAULT_OPENTELEMETRY_SAMPLING_RATE_LIMIT = "-1";
+
+    /**
+     * Keep the message flows which are not sampled if they turn out to be slow or errored.
+     */
+    public static final String OPENTELEMETRY_TAIL_SAMPLING_ENABLE = "opentelemetry.sampling.tail.enable";
+
+    /**
+     * Latency in milliseconds above which a message flow is kept by tail sampling.
+     */
+    public static final String OPENTELEMETRY_TAIL_SAMPLING_LATENCY_THRESHOLD =
+            "opentelemetry.sampling.tail.latency.threshold";
+
+    public static final String DEFAULT_OPENTELEMETRY_TAIL_SAMPLING_LATENCY_THRESHOLD = "1000";
+
+    /**
+     * Maximum number of traces held back for the tail sampling decision at a time.
+     */
+    public static final String OPENTELEMETRY_TAIL_SAMPLING_MAX_TRACES = "opentelemetry.sampling.tail.max.traces";
+
+    public static final String DEFAULT_OPENTELEMETRY_TAIL_SAMPLING_MAX_TRACES = "10000";
+
     /**
      * HTTP protocol constant.
      */
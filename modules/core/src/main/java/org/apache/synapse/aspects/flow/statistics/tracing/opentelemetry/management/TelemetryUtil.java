@@ -21,6 +21,9 @@ package org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.managem
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
 import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
 import io.opentelemetry.semconv.ServiceAttributes;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -29,6 +32,8 @@ import org.apache.synapse.MessageContext;
 import org.apache.synapse.aspects.ComponentType;
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.aspects.flow.statistics.log.StatisticsReportingEventHolder;
+import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.OpenTelemetryManagerHolder;
+import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.sampling.TraceSampler;
 import org.apache.synapse.aspects.flow.statistics.util.StatisticsConstants;
 import org.apache.synapse.config.SynapsePropertiesLoader;
 
@@ -78,6 +83,19 @@ public class TelemetryUtil {
         return tracerProviderResource;
     }
 
+    /**
+     * Creates the span processor which exports the spans through the given exporter. The processor is wrapped for
+     * tail sampling when it is enabled.
+     *
+     * @param spanExporter  Span exporter.
+     * @return              Span processor.
+     */
+    public static SpanProcessor createSpanProcessor(SpanExporter spanExporter) {
+        SpanProcessor spanProcessor = BatchSpanProcessor.builder(spanExporter).build();
+        TraceSampler traceSampler = OpenTelemetryManagerHolder.getTraceSampler();
+        return traceSampler != null ? traceSampler.wrap(spanProcessor) : spanProcessor;
+    }
+
     private static void extractValues(String valueString, Map<String, String> otelResourceAttributes) {
         if (valueString != null) {
             String[] resourceAttributes = StringUtils.split(valueString, ",");
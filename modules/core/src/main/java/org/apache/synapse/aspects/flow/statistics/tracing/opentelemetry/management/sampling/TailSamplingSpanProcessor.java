@@ -0,0 +1,219 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.sampling;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Span processor which holds back the spans of the tail sampling candidate traces until their outermost span ends,
+ * and only hands them over to the exporting span processor when the trace was slow or has an errored span. The spans
+ * of the other traces are handed over as they end.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    /* Traces whose outermost span does not end within this time are dropped */
+    private static final long TRACE_EXPIRY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final SpanProcessor delegate;
+
+    private final long latencyThresholdNanos;
+
+    private final int maxTraces;
+
+    private final ConcurrentMap<String, TraceBuffer> buffers = new ConcurrentHashMap<>();
+
+    /* Decisions of the completed candidate traces, for the spans which end after the outermost span */
+    private final ConcurrentMap<String, Decision> decisions = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextSweepTime = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, long latencyThresholdNanos, int maxTraces) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.maxTraces = maxTraces;
+    }
+
+    /**
+     * Holds back the spans of the trace of the given span until the given span ends. The trace is dropped right away
+     * if too many traces are held back already.
+     *
+     * @param rootSpanContext context of the outermost span of the flow
+     */
+    public void registerCandidate(SpanContext rootSpanContext) {
+        long now = System.nanoTime();
+        sweep(now);
+        String traceId = rootSpanContext.getTraceId();
+        if (buffers.size() >= maxTraces) {
+            decisions.putIfAbsent(traceId, new Decision(false, now));
+            return;
+        }
+        buffers.putIfAbsent(traceId, new TraceBuffer(rootSpanContext.getSpanId(), now));
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        delegate.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return delegate.isStartRequired();
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        TraceBuffer buffer = buffers.get(traceId);
+        if (buffer != null) {
+            List<ReadableSpan> kept = buffer.add(span);
+            if (buffer.isClosed()) {
+                buffers.remove(traceId, buffer);
+            }
+            if (kept != null) {
+                for (ReadableSpan keptSpan : kept) {
+                    delegate.onEnd(keptSpan);
+                }
+                return;
+            }
+        }
+        Decision decision = decisions.get(traceId);
+        if (decision == null || decision.keep) {
+            delegate.onEnd(span);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        buffers.clear();
+        decisions.clear();
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    /**
+     * @return the number of traces currently held back
+     */
+    public int getBufferedTraceCount() {
+        return buffers.size();
+    }
+
+    private void sweep(long now) {
+        long sweepTime = nextSweepTime.get();
+        if (now - sweepTime < 0 || !nextSweepTime.compareAndSet(sweepTime, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        for (Iterator<TraceBuffer> iterator = buffers.values().iterator(); iterator.hasNext(); ) {
+            if (now - iterator.next().createdTime > TRACE_EXPIRY_NANOS) {
+                iterator.remove();
+            }
+        }
+        for (Iterator<Decision> iterator = decisions.values().iterator(); iterator.hasNext(); ) {
+            if (now - iterator.next().decidedTime > TRACE_EXPIRY_NANOS) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Decision {
+
+        private final boolean keep;
+
+        private final long decidedTime;
+
+        private Decision(boolean keep, long decidedTime) {
+            this.keep = keep;
+            this.decidedTime = decidedTime;
+        }
+    }
+
+    /**
+     * The spans of a candidate trace which ended before its outermost span.
+     */
+    private final class TraceBuffer {
+
+        private final String rootSpanId;
+
+        private final long createdTime;
+
+        private final List<ReadableSpan> spans = new ArrayList<>();
+
+        private boolean errored = false;
+
+        private boolean closed = false;
+
+        private TraceBuffer(String rootSpanId, long createdTime) {
+            this.rootSpanId = rootSpanId;
+            this.createdTime = createdTime;
+        }
+
+        /**
+         * Adds an ended span, and takes the decision when the outermost span ends. The decision is published before
+         * the buffer is closed so that the spans which miss the buffer follow it.
+         *
+         * @return the spans to export, which are empty while the trace is held back or when it is dropped, or null if
+         * the buffer was already closed
+         */
+        private synchronized List<ReadableSpan> add(ReadableSpan span) {
+            if (closed) {
+                return null;
+            }
+            spans.add(span);
+            if (span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR) {
+                errored = true;
+            }
+            if (!rootSpanId.equals(span.getSpanContext().getSpanId())) {
+                return Collections.emptyList();
+            }
+            boolean keep = errored || span.getLatencyNanos() >= latencyThresholdNanos;
+            decisions.put(span.getSpanContext().getTraceId(), new Decision(keep, System.nanoTime()));
+            closed = true;
+            return keep ? spans : Collections.<ReadableSpan>emptyList();
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+    }
+}
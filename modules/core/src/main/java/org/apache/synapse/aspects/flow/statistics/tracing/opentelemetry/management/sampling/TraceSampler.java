@@ -0,0 +1,229 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.sampling;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.TelemetryConstants;
+import org.apache.synapse.config.SynapsePropertiesLoader;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a message flow is traced, once at the entry of the flow. A flow which is not sampled skips the
+ * span and statistic event bookkeeping altogether.
+ * <p>
+ * The head decision follows the sampled flag of an incoming W3C trace context if there is one, and otherwise samples
+ * the configured ratio of the flows. The sampled flows are then capped to the configured number of traces per second.
+ * When tail sampling is enabled, the flows rejected at the head are still traced, and their spans are only exported
+ * by the {@link TailSamplingSpanProcessor} if the flow turns out to be slow or errored.
+ */
+public class TraceSampler {
+
+    private static final Log log = LogFactory.getLog(TraceSampler.class);
+
+    private static final String TRACE_PARENT_HEADER = "traceparent";
+
+    /* Length of a version 00 traceparent header, 00-<trace id>-<parent id>-<flags> */
+    private static final int TRACE_PARENT_LENGTH = 55;
+
+    /* The rate limiter allows up to a second worth of traces in a burst */
+    private static final long RATE_LIMIT_BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The outcome of the head sampling decision.
+     */
+    public enum Decision {
+        /** The flow is traced and exported. */
+        SAMPLED,
+        /** The flow is traced, but only exported if it is slow or errored. */
+        TAIL_SAMPLING_CANDIDATE,
+        /** The flow is not traced. */
+        NOT_SAMPLED
+    }
+
+    private final double ratio;
+
+    private final long permitIntervalNanos;
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    private final boolean tailSamplingEnabled;
+
+    private final long tailLatencyThresholdMillis;
+
+    private final int tailMaxTraces;
+
+    private volatile TailSamplingSpanProcessor tailSamplingSpanProcessor;
+
+    /**
+     * @param ratio                      ratio of the flows to sample, between 0 and 1
+     * @param rateLimit                  maximum number of sampled flows per second, or a non positive value for no
+     *                                   limit
+     * @param tailSamplingEnabled        whether the flows rejected at the head are kept when slow or errored
+     * @param tailLatencyThresholdMillis latency above which a flow is considered slow
+     * @param tailMaxTraces              maximum number of traces buffered for the tail decision at a time
+     */
+    public TraceSampler(double ratio, int rateLimit, boolean tailSamplingEnabled, long tailLatencyThresholdMillis,
+                        int tailMaxTraces) {
+        this.ratio = Math.min(Math.max(ratio, 0), 1);
+        this.permitIntervalNanos = rateLimit > 0 ? TimeUnit.SECONDS.toNanos(1) / rateLimit : 0;
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+        this.tailSamplingEnabled = tailSamplingEnabled;
+        this.tailLatencyThresholdMillis = tailLatencyThresholdMillis;
+        this.tailMaxTraces = tailMaxTraces;
+    }
+
+    /**
+     * Creates a sampler from the sampling properties in synapse.properties.
+     *
+     * @return the trace sampler
+     */
+    public static TraceSampler load() {
+        double ratio = getDoubleProperty(TelemetryConstants.OPENTELEMETRY_SAMPLING_RATIO,
+                TelemetryConstants.DEFAULT_OPENTELEMETRY_SAMPLING_RATIO);
+        int rateLimit = (int) getDoubleProperty(TelemetryConstants.OPENTELEMETRY_SAMPLING_RATE_LIMIT,
+                TelemetryConstants.DEFAULT_OPENTELEMETRY_SAMPLING_RATE_LIMIT);
+        boolean tailSamplingEnabled = SynapsePropertiesLoader.getBooleanProperty(
+                TelemetryConstants.OPENTELEMETRY_TAIL_SAMPLING_ENABLE, false);
+        long latencyThreshold = (long) getDoubleProperty(
+                TelemetryConstants.OPENTELEMETRY_TAIL_SAMPLING_LATENCY_THRESHOLD,
+                TelemetryConstants.DEFAULT_OPENTELEMETRY_TAIL_SAMPLING_LATENCY_THRESHOLD);
+        int maxTraces = (int) getDoubleProperty(TelemetryConstants.OPENTELEMETRY_TAIL_SAMPLING_MAX_TRACES,
+                TelemetryConstants.DEFAULT_OPENTELEMETRY_TAIL_SAMPLING_MAX_TRACES);
+        TraceSampler sampler = new TraceSampler(ratio, rateLimit, tailSamplingEnabled, latencyThreshold, maxTraces);
+        if (!sampler.isSamplingAll()) {
+            log.info("OpenTelemetry tracing samples " + sampler.ratio * 100 + "% of the message flows"
+                    + (rateLimit > 0 ? ", up to " + rateLimit + " flows per second" : "")
+                    + (tailSamplingEnabled ? ", and keeps the flows slower than " + latencyThreshold
+                    + " ms or with errors" : ""));
+        }
+        return sampler;
+    }
+
+    /**
+     * @return true if every flow is sampled, in which case no decision needs to be taken
+     */
+    public boolean isSamplingAll() {
+        return ratio >= 1 && permitIntervalNanos == 0;
+    }
+
+    /**
+     * Takes the sampling decision of a new message flow.
+     *
+     * @param headers transport headers of the message which started the flow, may be null
+     * @return the sampling decision
+     */
+    public Decision sample(Map headers) {
+        Boolean parentSampled = getParentSampledFlag(headers);
+        boolean sampled;
+        if (parentSampled != null) {
+            sampled = parentSampled;
+        } else {
+            sampled = ratio >= 1 || (ratio > 0 && ThreadLocalRandom.current().nextDouble() < ratio);
+        }
+        if (sampled && acquirePermit(System.nanoTime())) {
+            return Decision.SAMPLED;
+        }
+        return tailSamplingEnabled ? Decision.TAIL_SAMPLING_CANDIDATE : Decision.NOT_SAMPLED;
+    }
+
+    /**
+     * Wraps the span processor of the tracer provider with the tail sampling span processor, if tail sampling is
+     * enabled.
+     *
+     * @param delegate the span processor which exports the spans
+     * @return the span processor to register with the tracer provider
+     */
+    public SpanProcessor wrap(SpanProcessor delegate) {
+        if (!tailSamplingEnabled) {
+            return delegate;
+        }
+        tailSamplingSpanProcessor = new TailSamplingSpanProcessor(delegate,
+                TimeUnit.MILLISECONDS.toNanos(tailLatencyThresholdMillis), tailMaxTraces);
+        return tailSamplingSpanProcessor;
+    }
+
+    /**
+     * Marks the trace of the given span as a tail sampling candidate, the trace is exported or dropped once the
+     * given span ends.
+     *
+     * @param rootSpanContext context of the outermost span of the flow
+     */
+    public void registerTailSamplingCandidate(SpanContext rootSpanContext) {
+        TailSamplingSpanProcessor processor = tailSamplingSpanProcessor;
+        if (processor != null) {
+            processor.registerCandidate(rootSpanContext);
+        }
+    }
+
+    /**
+     * Rate limits the sampled flows with the generic cell rate algorithm, each permit pushes the theoretical arrival
+     * time by the permit interval and a permit is refused when that time runs more than a burst ahead.
+     */
+    boolean acquirePermit(long now) {
+        if (permitIntervalNanos == 0) {
+            return true;
+        }
+        while (true) {
+            long arrivalTime = theoreticalArrivalTime.get();
+            long nextArrivalTime = (arrivalTime - now > 0 ? arrivalTime : now) + permitIntervalNanos;
+            if (nextArrivalTime - now > RATE_LIMIT_BURST_NANOS) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(arrivalTime, nextArrivalTime)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the sampled flag of the W3C trace context in the headers, or null if there is no valid trace context
+     */
+    static Boolean getParentSampledFlag(Map headers) {
+        if (headers == null) {
+            return null;
+        }
+        Object traceParent = headers.get(TRACE_PARENT_HEADER);
+        if (!(traceParent instanceof String) || ((String) traceParent).length() < TRACE_PARENT_LENGTH) {
+            return null;
+        }
+        String value = (String) traceParent;
+        int flags = Character.digit(value.charAt(TRACE_PARENT_LENGTH - 1), 16);
+        if (value.charAt(TRACE_PARENT_LENGTH - 3) != '-' || flags < 0) {
+            return null;
+        }
+        return (flags & 1) == 1;
+    }
+
+    private static double getDoubleProperty(String name, String defaultValue) {
+        String value = SynapsePropertiesLoader.getPropertyValue(name, defaultValue);
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value " + value + " for " + name + ". Using the default value " + defaultValue);
+            return Double.parseDouble(defaultValue);
+        }
+    }
+}
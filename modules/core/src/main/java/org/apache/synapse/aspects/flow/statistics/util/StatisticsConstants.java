@@ -132,6 +132,11 @@ public class StatisticsConstants {
 	 */
 	public static final String FLOW_TRACE_IS_COLLECTED = "mediation.flow.trace.collected";
 
+	/**
+	 * Key to specify the tracing sampling decision taken at the entry of the message flow.
+	 */
+	public static final String FLOW_TRACE_SAMPLING_DECISION = "mediation.flow.trace.sampling.decision";
+
 	/**
 	 * Freemarker template base path.
 	 */
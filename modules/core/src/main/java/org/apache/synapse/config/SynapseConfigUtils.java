@@ -761,6 +761,13 @@ public class SynapseConfigUtils {
 
     }
 
+    public static long getTimeoutHandlerResolution() {
+        return Long.parseLong(SynapsePropertiesLoader.getPropertyValue(
+                SynapseConstants.TIMEOUT_HANDLER_RESOLUTION,
+                String.valueOf(SynapseConstants.DEFAULT_TIMEOUT_HANDLER_RESOLUTION)));
+
+    }
+
     public static long getGlobalTimeoutInterval() {
         return Long.parseLong(SynapsePropertiesLoader.getPropertyValue(
                 SynapseConstants.GLOBAL_TIMEOUT_INTERVAL,
@@ -21,10 +21,29 @@ package org.apache.synapse.continuation;
 
 import org.apache.synapse.ContinuationState;
 
+/**
+ * Base of the ContinuationStates.
+ * <p/>
+ * The states are shared between the clones of a message instead of being copied for each clone. A state which is
+ * reachable from more than one message context is marked as shared together with its children, and is never changed
+ * again; the holder which has to change it replaces it with a private copy first. A private state replaces a shared
+ * child with a copy when the child is read, hence the states reached through {@link #getChildContState()} of a private
+ * state are private as well, and only the states on the path which is actually changed are copied.
+ */
 public abstract class AbstractContinuationState implements ContinuationState {
 
     private int position = 0;
 
+    /**
+     * Whether this state may be reached from more than one message context or parent.
+     */
+    private volatile boolean shared = false;
+
+    /**
+     * The state which this state is a copy of, or this state itself if it is not a copy.
+     */
+    private AbstractContinuationState origin = this;
+
     /**
      * Holds the Child ContinuationState.
      */
@@ -35,7 +54,13 @@ public abstract class AbstractContinuationState implements ContinuationState {
      * @return child ContinuationState
      */
     public ContinuationState getChildContState() {
-        return childContState;
+        ContinuationState child = childContState;
+        if (!shared && child instanceof AbstractContinuationState
+                && ((AbstractContinuationState) child).shared) {
+            child = ((AbstractContinuationState) child).copy();
+            childContState = child;
+        }
+        return child;
     }
 
     /**
@@ -83,7 +108,7 @@ public abstract class AbstractContinuationState implements ContinuationState {
      */
     public ContinuationState getLeafChild() {
         if (this.hasChild()) {
-            return childContState.getLeafChild();
+            return getChildContState().getLeafChild();
         } else {
             return this;
         }
@@ -96,7 +121,7 @@ public abstract class AbstractContinuationState implements ContinuationState {
      */
     public void addLeafChild(ContinuationState leafChild) {
         if (this.hasChild()) {
-            childContState.addLeafChild(leafChild);
+            getChildContState().addLeafChild(leafChild);
         } else {
             this.childContState = leafChild;
         }
@@ -108,11 +133,63 @@ public abstract class AbstractContinuationState implements ContinuationState {
     public void removeLeafChild() {
         if (childContState != null) {
             if (childContState.hasChild()) {
-                childContState.removeLeafChild();
+                getChildContState().removeLeafChild();
             } else {
                 this.childContState = null;
             }
         }
     }
 
+    /**
+     * Check whether this state is shared, in which case it must not be changed.
+     * @return whether this state is shared
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Check whether the given state is this state or a copy of the same state.
+     * @param continuationState state to check
+     * @return whether the states have the same origin
+     */
+    boolean isCopyOf(AbstractContinuationState continuationState) {
+        return origin == continuationState.origin;
+    }
+
+    /**
+     * Mark this state and its children as shared. The children of a shared state are always shared, hence marking
+     * stops at the first child which is already shared.
+     */
+    void markShared() {
+        AbstractContinuationState state = this;
+        while (state != null && !state.shared) {
+            state.shared = true;
+            ContinuationState child = state.childContState;
+            state = child instanceof AbstractContinuationState ? (AbstractContinuationState) child : null;
+        }
+    }
+
+    /**
+     * Get a private copy of this state which shares the children of this state.
+     * @return copy of this state
+     */
+    AbstractContinuationState copy() {
+        AbstractContinuationState copy = newInstance();
+        copy.origin = origin;
+        copy.position = position;
+        ContinuationState child = childContState;
+        if (child instanceof AbstractContinuationState) {
+            ((AbstractContinuationState) child).markShared();
+        }
+        copy.childContState = child;
+        return copy;
+    }
+
+    /**
+     * Create a state of the same type and with the same attributes as this one, other than the position and the child.
+     * @return new state
+     */
+    protected abstract AbstractContinuationState newInstance();
+
 }
@@ -169,41 +169,82 @@ public class ContinuationStackManager {
     }
 
     /**
-     * Get a clone of a SeqContinuationState
+     * Get a clone of a SeqContinuationState.
+     * The clone shares the ReliantContinuationStates of the original state, which are copied by the holder that
+     * changes them, hence the cost of the clone does not depend on the depth of the branches.
      *
      * @param oriSeqContinuationState original SeqContinuationState
      * @return cloned SeqContinuationState
      */
     public static SeqContinuationState getClonedSeqContinuationState(
             SeqContinuationState oriSeqContinuationState) {
-        SeqContinuationState clone =
-                new SeqContinuationState(oriSeqContinuationState.getSeqType(),
-                                         oriSeqContinuationState.getSeqName());
-        clone.setPosition(oriSeqContinuationState.getPosition());
-        if (oriSeqContinuationState.hasChild()) {
-            clone.setChildContState(getClonedReliantContState(
-                    oriSeqContinuationState.getChildContState()));
-        }
-        return clone;
+        return (SeqContinuationState) oriSeqContinuationState.copy();
     }
 
-    /*
-     * Get a clone of the ReliantContinuationState
+    /**
+     * Copy the ContinuationStates of a message context to the ContinuationState Stack of another one.
+     * The states are shared between the two message contexts until either of them changes a state.
+     *
+     * @param source message context to copy the states from
+     * @param target message context to push the states to
      */
-    private static ReliantContinuationState getClonedReliantContState(
-            org.apache.synapse.ContinuationState continuationState) {
+    public static void copyContinuationStateStack(MessageContext source, MessageContext target) {
+        for (ContinuationState continuationState : getSharedContinuationStateStack(source)) {
+            target.pushContinuationState(continuationState);
+        }
+    }
 
-        ReliantContinuationState oriConstState =
-                (ReliantContinuationState) continuationState;
-        ReliantContinuationState clone =
-                new ReliantContinuationState(oriConstState.getSubBranch());
+    /**
+     * Get a copy of the ContinuationState Stack of a message context, which shares its states with the message
+     * context until either of them changes a state.
+     *
+     * @param synCtx MessageContext
+     * @return copy of the ContinuationState Stack
+     */
+    public static Stack<ContinuationState> getSharedContinuationStateStack(MessageContext synCtx) {
+        Stack<ContinuationState> continuationStack = synCtx.getContinuationStateStack();
+        Stack<ContinuationState> copy = new Stack<ContinuationState>();
+        synchronized (continuationStack) {
+            for (ContinuationState continuationState : continuationStack) {
+                if (continuationState == null) {
+                    continue;
+                }
+                if (continuationState instanceof AbstractContinuationState) {
+                    ((AbstractContinuationState) continuationState).markShared();
+                }
+                copy.push(continuationState);
+            }
+        }
+        return copy;
+    }
 
-        clone.setPosition(oriConstState.getPosition());
-        if (oriConstState.hasChild()) {
-            clone.setChildContState(
-                    getClonedReliantContState(oriConstState.getChildContState()));
+    /**
+     * Get a ContinuationState which can be changed in place of the given state.
+     * A state which is held while the flow is mediated from it may have been shared with a clone of the message in
+     * the meantime. The flow has returned to the state by the time it is changed, hence its private counterpart is
+     * found in the top SeqContinuationState of the stack, which is copied as far as the state if it is shared.
+     *
+     * @param synCtx            MessageContext
+     * @param continuationState state to be changed
+     * @return the given state if it is not shared, its private counterpart otherwise
+     */
+    public static ContinuationState getWritableContinuationState(MessageContext synCtx,
+                                                                 ContinuationState continuationState) {
+        if (!(continuationState instanceof AbstractContinuationState)
+                || !((AbstractContinuationState) continuationState).isShared()) {
+            return continuationState;
         }
-        return clone;
+        AbstractContinuationState sharedState = (AbstractContinuationState) continuationState;
+        ContinuationState state = peakContinuationStateStack(synCtx);
+        while (state instanceof AbstractContinuationState) {
+            if (((AbstractContinuationState) state).isCopyOf(sharedState)) {
+                return state;
+            }
+            state = state.getChildContState();
+        }
+        // Ideally we should not get here.
+        log.warn("Shared ContinuationState is not found in the top of the Continuation Stack");
+        return continuationState;
     }
 
     /**
@@ -226,14 +267,22 @@ public class ContinuationStackManager {
     }
 
     /**
-     * Peek from Continuation Stack
+     * Peek from Continuation Stack.
+     * A shared state at the top of the stack is replaced with a private copy, which can be changed.
      * @return ContinuationState
      */
     public static ContinuationState peakContinuationStateStack(MessageContext synCtx){
         Stack<ContinuationState> continuationStack = synCtx.getContinuationStateStack();
         synchronized (continuationStack) {
             if (!continuationStack.isEmpty()) {
-                return continuationStack.peek();
+                ContinuationState continuationState = continuationStack.peek();
+                if (continuationState instanceof AbstractContinuationState
+                        && ((AbstractContinuationState) continuationState).isShared()) {
+                    // the state is changed through the top of the stack, hence it has to be a private copy
+                    continuationState = ((AbstractContinuationState) continuationState).copy();
+                    continuationStack.set(continuationStack.size() - 1, continuationState);
+                }
+                return continuationState;
             } else {
                 return null;
             }
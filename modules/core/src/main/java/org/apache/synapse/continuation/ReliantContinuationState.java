@@ -57,4 +57,9 @@ public class ReliantContinuationState extends AbstractContinuationState {
         this.subBranch = subBranch;
     }
 
+    @Override
+    protected AbstractContinuationState newInstance() {
+        return new ReliantContinuationState(subBranch);
+    }
+
 }
@@ -54,4 +54,9 @@ public class SeqContinuationState extends AbstractContinuationState {
         return seqName;
     }
 
+    @Override
+    protected AbstractContinuationState newInstance() {
+        return new SeqContinuationState(seqType, seqName);
+    }
+
 }
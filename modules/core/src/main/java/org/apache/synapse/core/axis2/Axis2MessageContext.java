@@ -42,6 +42,9 @@ import org.apache.synapse.endpoints.Endpoint;
 import org.apache.synapse.mediators.base.SequenceMediator;
 import org.apache.synapse.mediators.template.TemplateMediator;
 import org.apache.synapse.rest.RESTConstants;
+import org.apache.synapse.util.PropertySlots;
+import org.apache.synapse.util.PropertyStore;
+import org.apache.synapse.util.UnsynchronizedStack;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -53,6 +56,20 @@ import java.util.*;
  */
 public class Axis2MessageContext implements MessageContext {
 
+    static {
+        // properties set on most of the messages, the names used by the configuration are registered when deploying
+        for (String key : new String[]{SynapseConstants.RESPONSE, SynapseConstants.PROXY_SERVICE,
+                SynapseConstants.ARTIFACT_NAME, SynapseConstants.ERROR_CODE, SynapseConstants.ERROR_MESSAGE,
+                SynapseConstants.ERROR_DETAIL, SynapseConstants.ERROR_EXCEPTION, SynapseConstants.SENDING_FAULT,
+                SynapseConstants.SYNAPSE__FUNCTION__STACK, SynapseConstants.ANALYTICS_METADATA,
+                RESTConstants.SYNAPSE_REST_API, RESTConstants.SYNAPSE_REST_API_VERSION,
+                RESTConstants.SYNAPSE_RESOURCE, RESTConstants.REST_API_CONTEXT, RESTConstants.REST_METHOD,
+                RESTConstants.REST_FULL_REQUEST_PATH, RESTConstants.REST_SUB_REQUEST_PATH,
+                RESTConstants.REST_URL_PREFIX}) {
+            PropertySlots.PROPERTIES.register(key);
+        }
+    }
+
     /**
      * Holds the reference to the Synapse Message Context
      */
@@ -66,28 +83,28 @@ public class Axis2MessageContext implements MessageContext {
     /**
      * Synapse Message Context properties
      */
-    private final Map<String, Object> properties = new HashMap<String, Object>();
+    private final Map<String, Object> properties = new PropertyStore(PropertySlots.PROPERTIES);
 
     /**
      * Synapse Message Context variables
      */
-    private final Map<String, Object> variables = new HashMap<>();
+    private final Map<String, Object> variables = new PropertyStore(PropertySlots.VARIABLES);
 
     /**
      * Local entries fetched from the configuration or from the registry for the transactional
      * resource access
      */
-    private final Map<String, Object> localEntries = new HashMap<String, Object>();
+    private final Map<String, Object> localEntries = new PropertyStore();
 
     /**
      * Fault Handler stack which will be popped and called the handleFault in error states
      */
-    private final Stack<FaultHandler> faultStack = new Stack<FaultHandler>();
+    private final Stack<FaultHandler> faultStack = new UnsynchronizedStack<FaultHandler>();
 
     /**
      * ContinuationState stack which is used to store ContinuationStates of mediation flow
      */
-    private final Stack<ContinuationState> continuationStateStack = new Stack<ContinuationState>();
+    private final Stack<ContinuationState> continuationStateStack = new UnsynchronizedStack<ContinuationState>();
 
     /**
      * The Axis2 MessageContext reference
@@ -0,0 +1,140 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.core.axis2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Indexes the message IDs of the callbacks in the callback store by their timeout, so that the
+ * {@link TimeoutHandler} finds the expired callbacks without going through the whole store.
+ * <p>
+ * The timeouts are grouped into buckets of the resolution of the timeout handler, ordered by
+ * the time at which they expire. Adding and removing a callback touches a single bucket and does
+ * not lock the index, and the timeout handler takes the expired buckets out of the index as a
+ * whole, hence each expiry costs a constant time irrespective of the number of callbacks waiting.
+ * A callback expires at the end of the bucket of its timeout, that is at most one resolution
+ * after its timeout and never before.
+ */
+final class CallbackTimeoutIndex {
+
+    /** Buckets of message IDs, keyed by the time at which they expire in resolution units */
+    private final ConcurrentSkipListMap<Long, Set<String>> buckets =
+            new ConcurrentSkipListMap<Long, Set<String>>();
+
+    private final long resolution;
+
+    /**
+     * @param resolution width of the buckets in milliseconds, the interval of the timeout handler
+     */
+    CallbackTimeoutIndex(long resolution) {
+        this.resolution = Math.max(1, resolution);
+    }
+
+    /**
+     * Adds a callback to the index.
+     *
+     * @param messageID message ID of the callback
+     * @param timeOutOn time at which the callback times out
+     */
+    void add(String messageID, long timeOutOn) {
+        add(bucketOf(timeOutOn), messageID);
+    }
+
+    /**
+     * Removes a callback which completed before its timeout from the index.
+     *
+     * @param messageID message ID of the callback
+     * @param timeOutOn time at which the callback times out
+     */
+    void remove(String messageID, long timeOutOn) {
+        Long key = bucketOf(timeOutOn);
+        Set<String> bucket = buckets.get(key);
+        if (bucket != null && bucket.remove(messageID) && bucket.isEmpty() && buckets.remove(key, bucket)) {
+            // message IDs may have been added after the bucket was found to be empty
+            for (String added : bucket) {
+                add(key, added);
+            }
+        }
+    }
+
+    /**
+     * Takes the callbacks which have expired by the given time out of the index.
+     * A message ID may be returned although the callback was completed or added again in the
+     * meantime, hence the caller has to check the callback in the store.
+     *
+     * @param currentTime current time
+     * @return message IDs of the expired callbacks
+     */
+    List<String> removeExpired(long currentTime) {
+        List<String> expired = null;
+        long lastExpired = currentTime / resolution;
+        Map.Entry<Long, Set<String>> entry;
+        while ((entry = buckets.firstEntry()) != null && entry.getKey() <= lastExpired) {
+            if (buckets.remove(entry.getKey(), entry.getValue())) {
+                if (expired == null) {
+                    expired = new ArrayList<String>(entry.getValue());
+                } else {
+                    expired.addAll(entry.getValue());
+                }
+            }
+        }
+        if (expired == null) {
+            return Collections.emptyList();
+        }
+        return expired;
+    }
+
+    /**
+     * @return whether there is no callback in the index
+     */
+    boolean isEmpty() {
+        return buckets.isEmpty();
+    }
+
+    private void add(Long key, String messageID) {
+        while (true) {
+            Set<String> bucket = buckets.get(key);
+            if (bucket == null) {
+                Set<String> created = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                bucket = buckets.putIfAbsent(key, created);
+                if (bucket == null) {
+                    bucket = created;
+                }
+            }
+            bucket.add(messageID);
+            // the bucket may have been taken out of the index before the message ID was added to
+            // it, in which case the message ID is added again to a new bucket
+            if (buckets.get(key) == bucket) {
+                return;
+            }
+        }
+    }
+
+    private Long bucketOf(long timeOutOn) {
+        // rounded up, so that a callback never expires before its timeout
+        long bucket = timeOutOn / resolution;
+        return timeOutOn % resolution > 0 ? bucket + 1 : bucket;
+    }
+}
@@ -34,12 +34,14 @@ import org.apache.synapse.aspects.flow.statistics.collectors.CloseEventCollector
 import org.apache.synapse.aspects.flow.statistics.collectors.OpenEventCollector;
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.commons.CorrelationConstants;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.config.SynapsePropertiesLoader;
 import org.apache.synapse.transport.customlogsetter.CustomLogSetter;
 import org.apache.synapse.aspects.ComponentType;
 import org.apache.synapse.carbonext.TenantInfoConfigurator;
 import org.apache.synapse.debug.SynapseDebugManager;
 import org.apache.synapse.endpoints.Endpoint;
+import org.apache.synapse.metrics.LatencyRecorder;
 import org.apache.synapse.transport.http.conn.SynapseDebugInfoHolder;
 import org.apache.synapse.transport.http.conn.SynapseWireLogHolder;
 import org.apache.synapse.util.logging.LoggingUtils;
@@ -180,6 +182,11 @@ public class ProxyServiceMessageReceiver extends SynapseMessageReceiver {
             synCtx.setProperty(SynapseConstants.SYNAPSE_AVOID_BLOCKING_THREAD_SWITCH, "true");
         }
 
+        long metricsStartTime = LatencyRecorder.startTime();
+        if (metricsStartTime != 0) {
+            LatencyRecorder.recordTransportPhases(LatencyMetrics.ComponentType.PROXY, name, mc);
+        }
+
         try {
             if(synCtx.getEnvironment().isDebuggerEnabled()) {
                 SynapseDebugManager debugManager = synCtx.getEnvironment().getSynapseDebugManager();
@@ -286,6 +293,7 @@ public class ProxyServiceMessageReceiver extends SynapseMessageReceiver {
                 CloseEventCollector.tryEndFlow(synCtx, this.name, ComponentType.PROXYSERVICE,
                         statisticReportingIndex, true);
             }
+            LatencyRecorder.recordMediation(LatencyMetrics.ComponentType.PROXY, name, metricsStartTime);
             if(synCtx.getEnvironment().isDebuggerEnabled()) {
                 SynapseDebugManager debugManager = synCtx.getEnvironment().getSynapseDebugManager();
                 debugManager.advertiseMediationFlowTerminatePoint(synCtx);
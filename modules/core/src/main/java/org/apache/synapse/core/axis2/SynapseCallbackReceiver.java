@@ -35,7 +35,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.nio.NHttpServerConnection;
 import org.apache.synapse.CallbackAckConfigUtil;
-import org.apache.synapse.ContinuationState;
 import org.apache.synapse.FaultHandler;
 import org.apache.synapse.ServerContextInformation;
 import org.apache.synapse.SynapseConstants;
@@ -44,10 +43,12 @@ import org.apache.synapse.aspects.flow.statistics.collectors.CallbackStatisticCo
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.carbonext.TenantInfoConfigurator;
 import org.apache.synapse.commons.CorrelationConstants;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.commons.throttle.core.ConcurrentAccessController;
 import org.apache.synapse.commons.throttle.core.ConcurrentAccessReplicator;
 import org.apache.synapse.config.SynapseConfigUtils;
 import org.apache.synapse.config.SynapseConfiguration;
+import org.apache.synapse.continuation.ContinuationStackManager;
 import org.apache.synapse.endpoints.AbstractEndpoint;
 import org.apache.synapse.endpoints.Endpoint;
 import org.apache.synapse.endpoints.FailoverEndpoint;
@@ -58,6 +59,7 @@ import org.apache.synapse.endpoints.auth.oauth.MessageCache;
 import org.apache.synapse.endpoints.auth.oauth.OAuthUtils;
 import org.apache.synapse.mediators.MediatorFaultHandler;
 import org.apache.synapse.mediators.base.SequenceMediator;
+import org.apache.synapse.metrics.LatencyRecorder;
 import org.apache.synapse.transport.netty.BridgeConstants;
 import org.apache.synapse.transport.util.MessageHandlerProvider;
 import org.apache.synapse.transport.nhttp.NhttpConstants;
@@ -86,6 +88,8 @@ public class SynapseCallbackReceiver extends CallbackReceiver {
     private static final Log log = LogFactory.getLog(SynapseCallbackReceiver.class);
     private final boolean isCallbackControlledAckEnabled;
     private final boolean isClientApiNonBlockingModeEnabled;
+    /** The timeouts of the callbacks in the callback store */
+    private final CallbackTimeoutIndex timeoutIndex;
 
     /**
      * Create the *single* instance of this class that would be used by all anonymous services
@@ -96,14 +100,19 @@ public class SynapseCallbackReceiver extends CallbackReceiver {
     public SynapseCallbackReceiver(SynapseConfiguration synCfg,
                                    ServerContextInformation contextInformation) {
 
+        // the timeout handler runs at the resolution of the timeouts, as it only checks the
+        // callbacks which have expired
+        long timeoutHandlerInterval = Math.min(SynapseConfigUtils.getTimeoutHandlerInterval(),
+                SynapseConfigUtils.getTimeoutHandlerResolution());
+        timeoutIndex = new CallbackTimeoutIndex(timeoutHandlerInterval);
+
         // create the Timer object and a TimeoutHandler task
-        TimeoutHandler timeoutHandler = new TimeoutHandler(callbackStore, contextInformation);
+        TimeoutHandler timeoutHandler = new TimeoutHandler(callbackStore, timeoutIndex, contextInformation);
         isCallbackControlledAckEnabled = CallbackAckConfigUtil.isCallbackControlledAckEnabled();
         isClientApiNonBlockingModeEnabled = CallbackAckConfigUtil.isClientApiNonBlockingModeEnabled();
         Timer timeOutTimer = synCfg.getSynapseTimer();
-        long timeoutHandlerInterval = SynapseConfigUtils.getTimeoutHandlerInterval();
 
-        // schedule timeout handler to run every n seconds (n : specified or defaults to 15s)
+        // schedule timeout handler to run every n milliseconds (n : specified or defaults to 100ms)
         timeOutTimer.schedule(timeoutHandler, 0, timeoutHandlerInterval);
     }
 
@@ -113,6 +122,7 @@ public class SynapseCallbackReceiver extends CallbackReceiver {
 
     public void addCallback(String MsgID, AxisCallback callback) {
         callbackStore.put(MsgID, callback);
+        timeoutIndex.add(MsgID, ((AsyncCallback) callback).getTimeOutOn());
         if (log.isDebugEnabled()) {
             log.debug("Callback added. Total callbacks waiting for : " + callbackStore.size());
         }
@@ -166,8 +176,10 @@ public class SynapseCallbackReceiver extends CallbackReceiver {
          */
         if (messageCtx.getProperty(NhttpConstants.HTTP_202_RECEIVED) != null && "true".equals(
                 messageCtx.getProperty(NhttpConstants.HTTP_202_RECEIVED))) {
-            if (callbackStore.containsKey(messageCtx.getMessageID())) {
-                AsyncCallback callback = (AsyncCallback) callbackStore.remove(messageCtx.getMessageID());
+            // the timeout handler may remove the callback between the lookup and the removal
+            AsyncCallback callback = (AsyncCallback) callbackStore.remove(messageCtx.getMessageID());
+            if (callback != null) {
+                timeoutIndex.remove(messageCtx.getMessageID(), callback.getTimeOutOn());
                 if (RuntimeStatisticCollector.isStatisticsEnabled()) {
                     CallbackStatisticCollector.callbackCompletionEvent(callback.getSynapseOutMsgCtx(),
                             messageCtx.getMessageID());
@@ -205,6 +217,7 @@ public class SynapseCallbackReceiver extends CallbackReceiver {
             }
 
             if (callback != null) {
+                timeoutIndex.remove(messageID, callback.getTimeOutOn());
                 org.apache.synapse.MessageContext SynapseOutMsgCtx = callback.getSynapseOutMsgCtx();
                 ConcurrencyThrottlingUtils.decrementConcurrencyThrottleAccessController(SynapseOutMsgCtx);
                 boolean isMarkedForRemoval = false;
@@ -276,6 +289,9 @@ public class SynapseCallbackReceiver extends CallbackReceiver {
      */
     private void handleMessage(String messageID ,MessageContext response,
         org.apache.synapse.MessageContext synapseOutMsgCtx, AsyncCallback callback) throws AxisFault {
+        if (LatencyMetrics.getInstance().isEnabled()) {
+            LatencyRecorder.recordBackend(synapseOutMsgCtx);
+        }
         // apply the tenant information to the out message context
         TenantInfoConfigurator configurator = synapseOutMsgCtx.getEnvironment()
                 .getTenantInfoConfigurator();
@@ -678,11 +694,7 @@ public class SynapseCallbackReceiver extends CallbackReceiver {
                     synapseInMessageContext.setResponse(false);
                 }
 
-                Stack<ContinuationState> seqContinuationStates =
-                        synapseOutMsgCtx.getContinuationStateStack();
-                for (int i = 0; i < seqContinuationStates.size(); i++) {
-                    synapseInMessageContext.pushContinuationState(seqContinuationStates.get(i));
-                }
+                ContinuationStackManager.copyContinuationStateStack(synapseOutMsgCtx, synapseInMessageContext);
 
                 faultStack = synapseOutMsgCtx.getFaultStack();
                 if (faultStack != null) {
@@ -38,6 +38,7 @@ import org.apache.synapse.aspects.flow.statistics.collectors.OpenEventCollector;
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.aspects.flow.statistics.data.artifact.ArtifactHolder;
 import org.apache.synapse.commons.jmx.JmxConfigurationConstants;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.commons.throttle.core.ConcurrentAccessController;
 import org.apache.synapse.commons.throttle.core.ConcurrentAccessReplicator;
 import org.apache.synapse.commons.util.MiscellaneousUtil;
@@ -52,6 +53,7 @@ import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.core.axis2.Axis2SynapseEnvironment;
 import org.apache.synapse.mediators.MediatorFaultHandler;
 import org.apache.synapse.mediators.MediatorProperty;
+import org.apache.synapse.metrics.LatencyRecorder;
 import org.apache.synapse.transport.passthru.util.RelayConstants;
 import org.apache.synapse.util.logging.LoggingUtils;
 import org.json.JSONArray;
@@ -426,6 +428,10 @@ public abstract class AbstractEndpoint extends FaultHandler implements Endpoint,
             synCtx.getEnvelope().build();
         }
 
+        if (LatencyMetrics.getInstance().isEnabled()) {
+            LatencyRecorder.markBackendStart(synCtx, getReportingName());
+        }
+
         // Send the message through this endpoint
         synCtx.getEnvironment().send(definition, synCtx);
 
@@ -22,7 +22,6 @@ package org.apache.synapse.mediators;
 import org.apache.axiom.om.OMAbstractFactory;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
-import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.synapse.ManagedLifecycle;
 import org.apache.synapse.Mediator;
 import org.apache.synapse.MessageContext;
@@ -33,6 +32,7 @@ import org.apache.synapse.SynapseLog;
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.aspects.flow.statistics.data.artifact.ArtifactHolder;
 import org.apache.synapse.commons.json.Constants;
+import org.apache.synapse.commons.util.ErrorDetail;
 import org.apache.synapse.config.SynapsePropertiesLoader;
 import org.apache.synapse.core.SynapseEnvironment;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
@@ -43,11 +43,10 @@ import org.apache.synapse.transport.passthru.util.RelayUtils;
 import org.apache.synapse.transport.util.MessageHandlerProvider;
 import org.apache.synapse.unittest.MediatorRegistry;
 import org.apache.synapse.unittest.UnitTestModeUtils;
+import org.apache.synapse.util.ErrorClassifier;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static org.apache.synapse.unittest.Constants.COVERAGE_ARTIFACT_KEY;
 
@@ -59,21 +58,17 @@ import static org.apache.synapse.unittest.Constants.COVERAGE_ARTIFACT_KEY;
 public abstract class AbstractListMediator extends AbstractMediator
         implements ListMediator {
 
-    private static final String MSG_BUILD_FAILURE_EXCEPTION_PATTERN = ".*(Wstx)(.*Exception)" +
-            "|.*MalformedJsonException|.*(synapse\\.commons\\.staxon\\.core)|.*(com\\.fasterxml\\.jackson\\.core)" +
-            "|.*JsonSyntaxException";
-
     private static final String ORG_APACHE_SYNAPSE_COMMONS_JSON_IS_JSON_OBJECT =
             "org.apache.synapse.commons.json.JsonInputStream.IsJsonObject";
 
-    // Create a Pattern object
-    protected Pattern msgBuildFailureExpattern = Pattern.compile(MSG_BUILD_FAILURE_EXCEPTION_PATTERN);
-
     /** the list of child mediators held. These are executed sequentially */
     protected final List<Mediator> mediators = new ArrayList<Mediator>();
 
     private boolean sequenceContentAware = false;
 
+    /** the compiled children, null until the first message or after the children are changed */
+    private volatile MediationPlan plan;
+
     /**
      * Whether Streaming Xpath is enabled in synapse.properties file.
      */
@@ -92,13 +87,19 @@ public abstract class AbstractListMediator extends AbstractMediator
         // to pass it on; else, do nothing -> i.e. let the parents state flow
         setEffectiveTraceState(synCtx);
         int myEffectiveTraceState = synCtx.getTracingState();
-        if (this instanceof SequenceMediator & mediatorPosition == 0) {
-            List<SequenceFlowObserver> observers = synCtx.getEnvironment().getSequenceObservers();
+        MediationPlan plan = getPlan();
+        List<SequenceFlowObserver> observers = plan.isObserved() ?
+                synCtx.getEnvironment().getSequenceObservers() : null;
+        if (observers != null && observers.isEmpty()) {
+            observers = null;
+        }
+        if (observers != null && mediatorPosition == 0) {
             for (SequenceFlowObserver observer : observers) {
                 observer.start(synCtx, ((SequenceMediator) this).getName());
             }
         }
-        
+        boolean statisticsEnabled = RuntimeStatisticCollector.isStatisticsEnabled();
+
         Mediator mediator = null;
         Integer statisticReportingIndex = 0;
         boolean mediatorIdSet = false;
@@ -108,71 +109,53 @@ public abstract class AbstractListMediator extends AbstractMediator
                 synLog.traceOrDebug("Sequence <" + getType() + "> :: mediate()");
                 synLog.traceOrDebug("Mediation started from mediator position : " + mediatorPosition);
             }
-            for (int i = mediatorPosition; i < mediators.size(); i++) {
+            for (int i = mediatorPosition; i < plan.size(); i++) {
                 // ensure correct trace state after each invocation of a mediator
-                mediator = mediators.get(i);
+                mediator = plan.getMediator(i);
 
                 // Add mediator ID to synCtx and sync to ThreadContext for logging
-                if (mediator instanceof AbstractMediator) {
+                AbstractMediator identified = plan.getIdentifiedMediator(i);
+                if (identified != null) {
                     mediatorIdSet = MediatorIdLogSetter.getInstance().setMediatorId(synCtx,
-                        ((AbstractMediator) mediator).getMediatorId());
+                        identified.getMediatorId());
                 }
 
-                if (sequenceContentAware && (mediator.isContentAware() || isStreamXpathEnabled) &&
+                if (plan.isBuildBefore(i) &&
                         (!Boolean.TRUE.equals(synCtx.getProperty(PassThroughConstants.MESSAGE_BUILDER_INVOKED)))) {
                     buildMessage(synCtx, synLog);
                 }
 
-                if (RuntimeStatisticCollector.isStatisticsEnabled()) {
+                if (statisticsEnabled) {
                     statisticReportingIndex = mediator.reportOpenStatistics(synCtx, i == mediatorPosition);
-                    synCtx.setTracingState(myEffectiveTraceState);
+                }
+                synCtx.setTracingState(myEffectiveTraceState);
 
-                    // Track mediator execution for unit test coverage
-                    trackMediatorExecution(mediator, synCtx);
-                    if (!mediator.mediate(synCtx)) {
+                // Track mediator execution for unit test coverage
+                trackMediatorExecution(mediator, synCtx);
+                if (!mediator.mediate(synCtx)) {
+                    if (statisticsEnabled) {
                         mediator.reportCloseStatistics(synCtx, statisticReportingIndex);
-                        returnVal = false;
-                        break;
                     }
-                    if (i == mediators.size() - 1) {
-                        if (this instanceof SequenceMediator) {
-                            List<SequenceFlowObserver> observers = synCtx.getEnvironment().getSequenceObservers();
-                            for (SequenceFlowObserver observer : observers) {
-                                observer.complete(synCtx, ((SequenceMediator) this).getName());
-                            }
-                        }
+                    returnVal = false;
+                    break;
+                }
+                if (observers != null && plan.isLast(i)) {
+                    for (SequenceFlowObserver observer : observers) {
+                        observer.complete(synCtx, ((SequenceMediator) this).getName());
                     }
+                }
+                if (statisticsEnabled) {
                     mediator.reportCloseStatistics(synCtx, statisticReportingIndex);
-                } else {
-                    synCtx.setTracingState(myEffectiveTraceState);
-
-                    // Track mediator execution for unit test coverage
-                    trackMediatorExecution(mediator, synCtx);
-
-                    if (!mediator.mediate(synCtx)) {
-                        returnVal = false;
-                        break;
-                    }
-                    if (i == mediators.size() - 1) {
-                        if (this instanceof SequenceMediator) {
-                            List<SequenceFlowObserver> observers = synCtx.getEnvironment().getSequenceObservers();
-                            for (SequenceFlowObserver observer : observers) {
-                                observer.complete(synCtx, ((SequenceMediator) this).getName());
-                            }
-                        }
-                    }
                 }
             }
         } catch (SynapseException synEx) {
             reportStatistics(synCtx, mediator, statisticReportingIndex);
 
-            // Now create matcher object.
-            Matcher msgBuildFailureExMatcher = msgBuildFailureExpattern.matcher(ExceptionUtils.getStackTrace(synEx));
-            if (msgBuildFailureExMatcher.find()) {
+            if (ErrorClassifier.isMessageBuildFailure(synEx)) {
                 // Setting error details for parsing failures
                 synCtx.setProperty(SynapseConstants.ERROR_CODE, SynapseConstants.MESSAGE_PARSING_ERROR);
                 synCtx.setProperty(SynapseConstants.ERROR_MESSAGE, synEx.getMessage().split("\n")[0]);
-                synCtx.setProperty(SynapseConstants.ERROR_DETAIL, ExceptionUtils.getStackTrace(synEx));
+                synCtx.setProperty(SynapseConstants.ERROR_DETAIL, new ErrorDetail(synEx));
                 synCtx.setProperty(SynapseConstants.ERROR_EXCEPTION, synEx.toString());
                 
                 consumeInputOnOmException(synCtx);
@@ -182,12 +165,10 @@ public abstract class AbstractListMediator extends AbstractMediator
             reportStatistics(synCtx, mediator, statisticReportingIndex);
             String errorMsg = ex.getMessage();
 
-            // Now create matcher object.
-            Matcher msgBuildFailureExMatcher = msgBuildFailureExpattern.matcher(ExceptionUtils.getStackTrace(ex));
             if (errorMsg == null) {
                 errorMsg = "Runtime error occurred while mediating the message";
             }
-            if (msgBuildFailureExMatcher.find()) {
+            if (ErrorClassifier.isMessageBuildFailure(ex)) {
                 consumeInputOnOmException(synCtx);
             }
             handleException(errorMsg, ex, synCtx);
@@ -233,14 +214,17 @@ public abstract class AbstractListMediator extends AbstractMediator
     }
 
     public boolean addChild(Mediator m) {
+        plan = null;
         return mediators.add(m);
     }
 
     public void addChild(int index, Mediator m) {
+        plan = null;
         mediators.add(index, m);
     }
 
     public boolean addAll(List<Mediator> c) {
+        plan = null;
         return mediators.addAll(c);
     }
 
@@ -249,13 +233,30 @@ public abstract class AbstractListMediator extends AbstractMediator
     }
 
     public boolean removeChild(Mediator m) {
+        plan = null;
         return mediators.remove(m);
     }
 
     public Mediator removeChild(int pos) {
+        plan = null;
         return mediators.remove(pos);
     }
 
+    /**
+     * Returns the compiled children, compiling them if they are not compiled yet or have been changed.
+     *
+     * @return the plan the messages are dispatched through
+     */
+    MediationPlan getPlan() {
+        MediationPlan current = plan;
+        if (current == null || !current.isCompiledFrom(mediators)) {
+            current = MediationPlan.compile(mediators, sequenceContentAware, isStreamXpathEnabled,
+                    this instanceof SequenceMediator);
+            plan = current;
+        }
+        return current;
+    }
+
     /**
      * Initialize child mediators recursively
      * @param se synapse environment
@@ -280,6 +281,8 @@ public abstract class AbstractListMediator extends AbstractMediator
                 sequenceContentAware = true;
             }
         }
+        // the content awareness of the children is known once they are initialized
+        plan = null;
     }
 
     /**
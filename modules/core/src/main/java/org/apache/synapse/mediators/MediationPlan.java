@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.mediators;
+
+import org.apache.synapse.Mediator;
+
+import java.util.List;
+
+/**
+ * The compiled form of the children of a list mediator, which the list mediator dispatches each message through.
+ * Each instruction is a child mediator with the flags which do not change once the configuration is deployed, so
+ * they are not derived again for each mediator of each message. The index of an instruction is the position of the
+ * mediator in the list, hence the positions kept by the continuation states are the indexes of the plan.
+ * <p>
+ * The children which are list mediators themselves, such as filters, switch cases and templates, dispatch through
+ * their own plans.
+ */
+final class MediationPlan {
+
+    private static final MediationPlan EMPTY = new MediationPlan(new Mediator[0], new boolean[0], false);
+
+    private final Mediator[] mediators;
+
+    /** Children which carry a mediator id for logging, null for the others */
+    private final AbstractMediator[] identified;
+
+    /** Whether the message has to be built before the child is invoked */
+    private final boolean[] buildBefore;
+
+    /** Whether the sequence observers are notified at the start and the end of the list */
+    private final boolean observed;
+
+    private MediationPlan(Mediator[] mediators, boolean[] buildBefore, boolean observed) {
+        this.mediators = mediators;
+        this.buildBefore = buildBefore;
+        this.observed = observed;
+        this.identified = new AbstractMediator[mediators.length];
+        for (int i = 0; i < mediators.length; i++) {
+            if (mediators[i] instanceof AbstractMediator) {
+                identified[i] = (AbstractMediator) mediators[i];
+            }
+        }
+    }
+
+    /**
+     * Compiles the children of a list mediator.
+     *
+     * @param mediators      children of the list mediator
+     * @param contentAware   whether the list mediator is content aware
+     * @param streamingXpath whether streaming XPath is enabled, in which case the message is built before any child
+     * @param observed       whether the list mediator is a sequence which the sequence observers are notified of
+     * @return the plan
+     */
+    static MediationPlan compile(List<Mediator> mediators, boolean contentAware, boolean streamingXpath,
+                                 boolean observed) {
+        if (mediators.isEmpty() && !observed) {
+            return EMPTY;
+        }
+        Mediator[] instructions = mediators.toArray(new Mediator[0]);
+        boolean[] buildBefore = new boolean[instructions.length];
+        for (int i = 0; i < instructions.length; i++) {
+            buildBefore[i] = contentAware && (streamingXpath || instructions[i].isContentAware());
+        }
+        return new MediationPlan(instructions, buildBefore, observed);
+    }
+
+    int size() {
+        return mediators.length;
+    }
+
+    Mediator getMediator(int index) {
+        return mediators[index];
+    }
+
+    /**
+     * @return the child as an {@link AbstractMediator} if it carries a mediator id, null otherwise
+     */
+    AbstractMediator getIdentifiedMediator(int index) {
+        return identified[index];
+    }
+
+    boolean isBuildBefore(int index) {
+        return buildBefore[index];
+    }
+
+    boolean isLast(int index) {
+        return index == mediators.length - 1;
+    }
+
+    boolean isObserved() {
+        return observed;
+    }
+
+    /**
+     * Checks whether the plan still matches the children, which may have been changed through the live list. The
+     * children are compared by identity, so a child replaced in place is detected as well as an added or removed one.
+     */
+    boolean isCompiledFrom(List<Mediator> children) {
+        if (children.size() != mediators.length) {
+            return false;
+        }
+        for (int i = 0; i < mediators.length; i++) {
+            if (children.get(i) != mediators[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
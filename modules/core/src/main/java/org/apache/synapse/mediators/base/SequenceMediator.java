@@ -33,6 +33,7 @@ import org.apache.synapse.aspects.flow.statistics.collectors.CloseEventCollector
 import org.apache.synapse.aspects.flow.statistics.collectors.OpenEventCollector;
 import org.apache.synapse.aspects.flow.statistics.collectors.RuntimeStatisticCollector;
 import org.apache.synapse.aspects.flow.statistics.data.artifact.ArtifactHolder;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.transport.customlogsetter.CustomLogSetter;
 import org.apache.synapse.aspects.ComponentType;
 import org.apache.synapse.continuation.ContinuationStackManager;
@@ -42,6 +43,7 @@ import org.apache.synapse.mediators.AbstractListMediator;
 import org.apache.synapse.mediators.FlowContinuableMediator;
 import org.apache.synapse.mediators.MediatorFaultHandler;
 import org.apache.synapse.mediators.Value;
+import org.apache.synapse.metrics.LatencyRecorder;
 
 import java.util.Stack;
 
@@ -126,6 +128,7 @@ public class SequenceMediator extends AbstractListMediator implements Nameable,
             if (RuntimeStatisticCollector.isStatisticsEnabled()) {
                 statisticReportingIndex = reportOpenStatistics(synCtx, false);
             }
+            long metricsStartTime = sequenceType == SequenceType.NAMED ? LatencyRecorder.startTime() : 0;
             // Setting Required property to reportForComponent the sequence aspects
 
             try {
@@ -194,6 +197,7 @@ public class SequenceMediator extends AbstractListMediator implements Nameable,
                 if (RuntimeStatisticCollector.isStatisticsEnabled()) {
                     reportCloseStatistics(synCtx, statisticReportingIndex);
                 }
+                LatencyRecorder.recordMediation(LatencyMetrics.ComponentType.SEQUENCE, name, metricsStartTime);
             }
 
         } else {
@@ -264,6 +268,8 @@ public class SequenceMediator extends AbstractListMediator implements Nameable,
                 }
                 if (result) {
                     // if flow completed remove leaf child
+                    continuationState =
+                            ContinuationStackManager.getWritableContinuationState(synCtx, continuationState);
                     continuationState.removeLeafChild();
                 }
             } while (result && continuationState.hasChild());
@@ -22,22 +22,31 @@ import com.github.fge.jackson.JsonLoader;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.impl.llom.OMTextImpl;
 import org.apache.axis2.AxisFault;
+import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.synapse.MessageContext;
+import org.apache.synapse.SynapseConstants;
 import org.apache.synapse.SynapseLog;
 import org.apache.synapse.commons.json.JsonUtil;
 import org.apache.synapse.commons.json.jsonprocessor.exceptions.ParserException;
 import org.apache.synapse.commons.json.jsonprocessor.exceptions.ValidatorException;
+import org.apache.synapse.commons.json.jsonprocessor.parser.CompiledJsonSchema;
 import org.apache.synapse.commons.json.jsonprocessor.parser.JsonProcessor;
 import org.apache.synapse.commons.staxon.core.json.JsonXMLOutputFactory;
+import org.apache.synapse.config.SynapsePropertiesLoader;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.mediators.AbstractMediator;
 import org.apache.synapse.mediators.MediatorProperty;
 import org.apache.synapse.mediators.Value;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -53,6 +62,20 @@ public class JSONTransformMediator extends AbstractMediator {
      */
     private List<MediatorProperty> propertiesArrayList = new ArrayList<>();
     private JsonXMLOutputFactory jsonOutputFactory;
+    /**
+     * Maximum number of schemas kept, as the schema key may be evaluated from the message
+     */
+    private static final int MAX_CACHED_SCHEMAS = 100;
+    /**
+     * Schemas by the schema key, the least recently used schema is dropped once the cache is full
+     */
+    private final Map<String, CachedSchema> schemas =
+            Collections.synchronizedMap(new SchemaCache(MAX_CACHED_SCHEMAS));
+    /**
+     * Whether payloads are streamed through compiled schemas rather than validated as a tree
+     */
+    private final boolean streamingSchemaProcessing = SynapsePropertiesLoader.getBooleanProperty(
+            SynapseConstants.STREAMING_JSON_SCHEMA_PROCESSING, false);
 
     @Override
     public boolean mediate(MessageContext synCtx) {
@@ -91,38 +114,41 @@ public class JSONTransformMediator extends AbstractMediator {
             String generatedSchemaKey = schemaKey.evaluateValue(synCtx);
             Object jsonSchemaObj = synCtx.getEntry(generatedSchemaKey);
             if (jsonSchemaObj != null) {
-                String schema = "";
-                if (jsonSchemaObj instanceof OMTextImpl) {
-                    try {
-                        //reading the schema with the media-type application/json
-                        schema = JsonLoader.fromReader(
-                                new InputStreamReader(((OMTextImpl) jsonSchemaObj).getInputStream())).toString();
-                    } catch (OMException e) {
-                        //reading the schema with the media type "unknown"
-                        schema = ((OMTextImpl) jsonSchemaObj).getText();
-                    } catch (IOException e) {
-                        handleException("Error while reading schema from registry", e, synCtx);
-                    }
-                } else if (jsonSchemaObj instanceof String) {
-                    schema = (String) jsonSchemaObj;
-                } else {
-                    handleException("Can not find valid JSON Schema content", synCtx);
-                }
+                org.apache.axis2.context.MessageContext axis2MessageContext =
+                        ((Axis2MessageContext) synCtx).getAxis2MessageContext();
                 try {
-                    String jsonPayload;
-                    if (JsonUtil.hasAJsonPayload(((Axis2MessageContext) synCtx).getAxis2MessageContext())) {
-                        jsonPayload =
-                                JsonUtil.jsonPayloadToString(((Axis2MessageContext) synCtx).getAxis2MessageContext());
+                    CachedSchema cachedSchema = getSchema(generatedSchemaKey, jsonSchemaObj, synCtx);
+                    InputStream jsonPayload = cachedSchema.compiledSchema != null
+                            ? JsonUtil.getJsonPayload(axis2MessageContext) : null;
+                    if (jsonPayload != null) {
+                        // stream the payload through the compiled schema without building a tree of it
+                        ByteArrayOutputStream result = new ByteArrayOutputStream();
+                        cachedSchema.compiledSchema.transform(jsonPayload, result);
+                        if (result.size() > 0) {
+                            JsonUtil.getNewJsonPayload(axis2MessageContext, result.toInputStream(), true, true);
+                        } else {
+                            JsonUtil.getNewJsonPayload(axis2MessageContext, (String) null, true, true);
+                        }
+                        if (synLog.isTraceOrDebugEnabled()) {
+                            synLog.traceOrDebug("JSON stream after applying schema : " +
+                                    result.toString(StandardCharsets.UTF_8));
+                        }
                     } else {
-                        jsonPayload = JsonUtil.toJsonString(((Axis2MessageContext) synCtx).getAxis2MessageContext()
-                                .getEnvelope().getBody().getFirstElement()).toString();
-                    }
-                    String result = JsonProcessor.parseJson(jsonPayload, schema);
-                    JsonUtil.getNewJsonPayload(((Axis2MessageContext) synCtx).getAxis2MessageContext(),
-                            result, true, true);
-                    if (synLog.isTraceOrDebugEnabled()) {
-                        synLog.traceOrDebug("JSON stream after applying schema : " +
-                                ((result != null) ? result : ""));
+                        String jsonPayloadString;
+                        if (JsonUtil.hasAJsonPayload(axis2MessageContext)) {
+                            jsonPayloadString = JsonUtil.jsonPayloadToString(axis2MessageContext);
+                        } else {
+                            jsonPayloadString = JsonUtil.toJsonString(axis2MessageContext.getEnvelope().getBody()
+                                    .getFirstElement()).toString();
+                        }
+                        String result = cachedSchema.compiledSchema != null
+                                ? cachedSchema.compiledSchema.transform(jsonPayloadString)
+                                : JsonProcessor.parseJson(jsonPayloadString, cachedSchema.schema);
+                        JsonUtil.getNewJsonPayload(axis2MessageContext, result, true, true);
+                        if (synLog.isTraceOrDebugEnabled()) {
+                            synLog.traceOrDebug("JSON stream after applying schema : " +
+                                    ((result != null) ? result : ""));
+                        }
                     }
                 } catch (ValidatorException | ParserException e) {
                     handleException(e.getMessage(), e, synCtx);
@@ -138,6 +164,50 @@ public class JSONTransformMediator extends AbstractMediator {
         return true;
     }
 
+    /**
+     * Returns the schema of the given schema entry. The schema is read, and compiled when streaming is enabled, once
+     * and again only when the entry is reloaded. A reloaded entry, or an entry which the registry does not cache, is
+     * read again but compiled only if its content changed.
+     *
+     * @param key           schema key
+     * @param jsonSchemaObj schema entry
+     * @param synCtx        message context
+     * @return schema along with its compiled form, if streaming is enabled
+     */
+    private CachedSchema getSchema(String key, Object jsonSchemaObj, MessageContext synCtx)
+            throws ValidatorException, ParserException {
+        CachedSchema cachedSchema = schemas.get(key);
+        if (cachedSchema != null && cachedSchema.source == jsonSchemaObj) {
+            return cachedSchema;
+        }
+        String schema = "";
+        if (jsonSchemaObj instanceof OMTextImpl) {
+            try {
+                //reading the schema with the media-type application/json
+                schema = JsonLoader.fromReader(
+                        new InputStreamReader(((OMTextImpl) jsonSchemaObj).getInputStream())).toString();
+            } catch (OMException e) {
+                //reading the schema with the media type "unknown"
+                schema = ((OMTextImpl) jsonSchemaObj).getText();
+            } catch (IOException e) {
+                handleException("Error while reading schema from registry", e, synCtx);
+            }
+        } else if (jsonSchemaObj instanceof String) {
+            schema = (String) jsonSchemaObj;
+        } else {
+            handleException("Can not find valid JSON Schema content", synCtx);
+        }
+        CompiledJsonSchema compiledSchema;
+        if (cachedSchema != null && cachedSchema.schema.equals(schema)) {
+            compiledSchema = cachedSchema.compiledSchema;
+        } else {
+            compiledSchema = streamingSchemaProcessing ? JsonProcessor.compileSchema(schema) : null;
+        }
+        cachedSchema = new CachedSchema(jsonSchemaObj, schema, compiledSchema);
+        schemas.put(key, cachedSchema);
+        return cachedSchema;
+    }
+
     public Value getSchemaKey() {
         return schemaKey;
     }
@@ -158,4 +228,40 @@ public class JSONTransformMediator extends AbstractMediator {
     public List<MediatorProperty> getProperties() {
         return propertiesArrayList;
     }
+
+    /**
+     * A schema entry read into a string, along with its compiled form if streaming is enabled.
+     */
+    private static final class CachedSchema {
+
+        private final Object source;
+
+        private final String schema;
+
+        private final CompiledJsonSchema compiledSchema;
+
+        CachedSchema(Object source, String schema, CompiledJsonSchema compiledSchema) {
+            this.source = source;
+            this.schema = schema;
+            this.compiledSchema = compiledSchema;
+        }
+    }
+
+    /**
+     * A simple LRU cache of the schemas.
+     */
+    private static final class SchemaCache extends LinkedHashMap<String, CachedSchema> {
+
+        private final int maxSize;
+
+        SchemaCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedSchema> eldest) {
+            return size() > maxSize;
+        }
+    }
 }
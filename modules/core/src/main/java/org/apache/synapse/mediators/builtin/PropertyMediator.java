@@ -41,6 +41,7 @@ import org.apache.axiom.om.OMElement;
 import org.apache.axis2.util.JavaUtils;
 import org.apache.http.protocol.HTTP;
 import org.apache.synapse.util.MediatorPropertyUtils;
+import org.apache.synapse.util.PropertySlots;
 
 import java.util.Comparator;
 import java.util.Map;
@@ -327,6 +328,7 @@ public class PropertyMediator extends AbstractMediator {
 
     public void setName(String name) {
         this.name = name;
+        PropertySlots.PROPERTIES.register(name);
     }
 
     public Object getValue() {
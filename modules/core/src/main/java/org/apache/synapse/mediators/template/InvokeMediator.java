@@ -349,6 +349,8 @@ public class InvokeMediator extends AbstractMediator implements
 		        // Pre fetching invoke mediator flow completed.
 		        // Remove ContinuationState represent the prefetchInvoke mediator and
 		        // flip the subbranch to default flow
+		        continuationState =
+				        ContinuationStackManager.getWritableContinuationState(synCtx, continuationState);
 		        continuationState.removeLeafChild();
 		        ((ReliantContinuationState) continuationState).setSubBranch(0);
 		        // after prefetch invoke mediator flow, execute default flow
@@ -45,8 +45,16 @@ import org.apache.synapse.mediators.transform.pfutils.TemplateProcessor;
 import org.apache.synapse.mediators.transform.pfutils.TemplateProcessorException;
 import org.apache.synapse.util.AXIOMUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -81,6 +89,26 @@ public class PayloadFactoryMediator extends AbstractMediator {
     public static final String QUOTE_STRING_IN_PAYLOAD_FACTORY_JSON = "QUOTE_STRING_IN_PAYLOAD_FACTORY_JSON";
     private TemplateProcessor templateProcessor;
     private static final Log log = LogFactory.getLog(PayloadFactoryMediator.class);
+    /* Output buffer reused by the mediations of a thread, the payload is built from a copy of its content */
+    private static final ThreadLocal<StringBuilder> OUTPUT_BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(INITIAL_OUTPUT_BUFFER_SIZE);
+        }
+    };
+    private static final int INITIAL_OUTPUT_BUFFER_SIZE = 1024;
+    private static final int MAX_POOLED_OUTPUT_BUFFER_SIZE = 1024 * 1024;
+    private static final byte[] EMPTY_JSON_OBJECT = {'{', '}'};
+    /* Encoder of the JSON payloads of a thread, with the buffer it encodes into */
+    private static final ThreadLocal<CharsetEncoder> JSON_ENCODER = new ThreadLocal<CharsetEncoder>() {
+        @Override
+        protected CharsetEncoder initialValue() {
+            return StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    };
+    private static final ThreadLocal<ByteBuffer> ENCODE_BUFFER = new ThreadLocal<ByteBuffer>();
 
     public PayloadFactoryMediator() {
         TemplateProcessor.readInputFactoryProperties(inputFactory);
@@ -109,13 +137,47 @@ public class PayloadFactoryMediator extends AbstractMediator {
             return false;
         }
         org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) synCtx).getAxis2MessageContext();
-        StringBuilder result = new StringBuilder();
-        transform(result, synCtx, format);
-        String out = result.toString().trim();
-        String updatedFormat = templateProcessor.getFormat();
-        if (log.isDebugEnabled()) {
-            log.debug("#mediate. Transformed payload format>>> " + out);
+        StringBuilder result = borrowOutputBuffer();
+        try {
+            transform(result, synCtx, format);
+            int start = 0;
+            int end = result.length();
+            while (start < end && result.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && result.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("#mediate. Transformed payload format>>> " + result.substring(start, end));
+            }
+            if (mediaType.equals(JSON_TYPE)) {
+                // the JSON payload is read from the encoded bytes, no intermediate String is needed
+                byte[] json = encodeJson(result, start, end);
+                // as with a String payload, only an empty result is replaced with an empty object
+                InputStream in = new ByteArrayInputStream(json.length > 0 ? json : EMPTY_JSON_OBJECT);
+                try {
+                    JsonUtil.getNewJsonPayload(axis2MessageContext, in, true, true);
+                } catch (AxisFault axisFault) {
+                    handleException("Error creating JSON Payload from source " + result.substring(start, end),
+                            synCtx);
+                }
+            } else {
+                buildPayload(synCtx, axis2MessageContext, result.substring(start, end));
+            }
+        } finally {
+            releaseOutputBuffer(result);
         }
+        //need to honour a content-type of the payload media-type as output from the payload 
+        //{re-merging patch https://wso2.org/jira/browse/ESBJAVA-3014}
+        setContentType(synCtx);
+        return true;
+    }
+
+    private void buildPayload(MessageContext synCtx, org.apache.axis2.context.MessageContext axis2MessageContext,
+                              String out) {
+
+        String updatedFormat = templateProcessor.getFormat();
         if (mediaType.equals(XML_TYPE)) {
             try {
                 if (templateType.equals(FREEMARKER_TEMPLATE_TYPE)
@@ -130,20 +192,57 @@ public class PayloadFactoryMediator extends AbstractMediator {
             } catch (XMLStreamException e) {
                 handleException("Error creating SOAP Envelope from source " + out, synCtx);
             }
-        } else if  (mediaType.equals(JSON_TYPE)) {
-            try {
-                JsonUtil.getNewJsonPayload(axis2MessageContext, out, true, true);
-            } catch (AxisFault axisFault) {
-                handleException("Error creating JSON Payload from source " + out, synCtx);
-            }
         } else if  (mediaType.equals(TEXT_TYPE)) {
             JsonUtil.removeJsonPayload(axis2MessageContext);
             axis2MessageContext.getEnvelope().getBody().addChild(getTextElement(out));
         }
-        //need to honour a content-type of the payload media-type as output from the payload 
-        //{re-merging patch https://wso2.org/jira/browse/ESBJAVA-3014}
-        setContentType(synCtx);
-        return true;
+    }
+
+    /**
+     * Returns the output buffer of the current thread, or a new one if it is in use by an enclosing mediation.
+     */
+    private static StringBuilder borrowOutputBuffer() {
+
+        StringBuilder buffer = OUTPUT_BUFFER.get();
+        if (buffer == null) {
+            return new StringBuilder(INITIAL_OUTPUT_BUFFER_SIZE);
+        }
+        OUTPUT_BUFFER.set(null);
+        return buffer;
+    }
+
+    /**
+     * Hands the buffer back to the current thread, buffers grown by an unusually large payload are dropped.
+     */
+    private static void releaseOutputBuffer(StringBuilder buffer) {
+
+        if (buffer.capacity() <= MAX_POOLED_OUTPUT_BUFFER_SIZE) {
+            buffer.setLength(0);
+            OUTPUT_BUFFER.set(buffer);
+        }
+    }
+
+    /**
+     * Encodes the characters as UTF-8 into the encode buffer of the current thread. The bytes are returned in an
+     * array of their exact size, since the payload stream keeps reading from them after the mediation returns.
+     */
+    private static byte[] encodeJson(CharSequence chars, int start, int end) {
+
+        CharsetEncoder encoder = JSON_ENCODER.get();
+        int maxBytes = (int) Math.ceil((end - start) * (double) encoder.maxBytesPerChar());
+        ByteBuffer buffer = ENCODE_BUFFER.get();
+        if (buffer == null || buffer.capacity() < maxBytes) {
+            buffer = ByteBuffer.allocate(Math.max(maxBytes, INITIAL_OUTPUT_BUFFER_SIZE));
+            if (buffer.capacity() <= MAX_POOLED_OUTPUT_BUFFER_SIZE) {
+                ENCODE_BUFFER.set(buffer);
+            }
+        }
+        buffer.clear();
+        encoder.reset();
+        // the buffer holds the longest encoding of the characters, and malformed input is replaced
+        encoder.encode(CharBuffer.wrap(chars, start, end), buffer, true);
+        encoder.flush(buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
     }
 
     /**
@@ -193,7 +292,7 @@ public class PayloadFactoryMediator extends AbstractMediator {
     private void processTemplate(StringBuilder result, MessageContext synCtx, String text) {
 
         try {
-            result.append(templateProcessor.processTemplate(text, mediaType, synCtx));
+            templateProcessor.processTemplate(text, mediaType, synCtx, result);
         } catch (TemplateProcessorException e) {
             handleException(e.getMessage(), synCtx);
         }
@@ -0,0 +1,202 @@
+/*
+ *Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *WSO2 Inc. licenses this file to you under the Apache License,
+ *Version 2.0 (the "License"); you may not use this file except
+ *in compliance with the License.
+ *You may obtain a copy of the License at
+ *
+ *http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *Unless required by applicable law or agreed to in writing,
+ *software distributed under the License is distributed on an
+ *"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *KIND, either express or implied.  See the License for the
+ *specific language governing permissions and limitations
+ *under the License.
+ */
+
+package org.apache.synapse.mediators.transform.pfutils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A regex template compiled into the fixed sequence of literal text and placeholders it consists of, so that the
+ * format does not have to be matched against the placeholder pattern for every message.
+ */
+final class CompiledTemplate {
+
+    /**
+     * The kinds of segments of a template.
+     */
+    enum SegmentType {
+        /** Literal text which is copied as is. */
+        LITERAL,
+        /** A "${...}" placeholder including its quotes. */
+        QUOTED_EXPRESSION,
+        /** A ${...} placeholder. */
+        EXPRESSION,
+        /** A $n placeholder. */
+        ARGUMENT
+    }
+
+    /**
+     * A literal or a placeholder of the template. Placeholders keep the groups of their match, which a replacement
+     * value may refer to.
+     */
+    static final class Segment {
+
+        private final SegmentType type;
+
+        private final String[] groups;
+
+        private Segment(SegmentType type, String[] groups) {
+            this.type = type;
+            this.groups = groups;
+        }
+
+        SegmentType getType() {
+            return type;
+        }
+
+        /**
+         * @return the literal text, or the text matched by the placeholder
+         */
+        String getText() {
+            return groups[0];
+        }
+
+        /**
+         * @return the expression of an expression placeholder, or the argument number of an argument placeholder
+         */
+        String getValue() {
+            return type == SegmentType.QUOTED_EXPRESSION ? groups[1]
+                    : type == SegmentType.EXPRESSION ? groups[2] : groups[3];
+        }
+    }
+
+    private final String source;
+
+    private final String mediaType;
+
+    private final Segment[] segments;
+
+    private final int literalLength;
+
+    private CompiledTemplate(String source, String mediaType, Segment[] segments, int literalLength) {
+        this.source = source;
+        this.mediaType = mediaType;
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Splits the format into segments. Formats of media types other than JSON and text are wrapped in a
+     * pfPadding element.
+     *
+     * @param pattern   the placeholder pattern, with the quoted expression, the expression and the argument number as
+     *                  its three groups
+     * @param format    the template format
+     * @param mediaType the output media type
+     * @return the compiled template
+     */
+    static CompiledTemplate compile(Pattern pattern, String format, String mediaType) {
+        String text = TemplateProcessor.JSON_TYPE.equals(mediaType) || TemplateProcessor.TEXT_TYPE.equals(mediaType)
+                ? format : "<pfPadding>" + format + "</pfPadding>";
+        List<Segment> segments = new ArrayList<>();
+        int literalLength = 0;
+        int position = 0;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            if (matcher.start() > position) {
+                segments.add(literal(text.substring(position, matcher.start())));
+                literalLength += matcher.start() - position;
+            }
+            SegmentType type = matcher.group(1) != null ? SegmentType.QUOTED_EXPRESSION
+                    : matcher.group(2) != null ? SegmentType.EXPRESSION : SegmentType.ARGUMENT;
+            segments.add(new Segment(type, new String[]{matcher.group(), matcher.group(1), matcher.group(2),
+                    matcher.group(3)}));
+            position = matcher.end();
+        }
+        if (position < text.length()) {
+            segments.add(literal(text.substring(position)));
+            literalLength += text.length() - position;
+        }
+        return new CompiledTemplate(format, mediaType, segments.toArray(new Segment[0]), literalLength);
+    }
+
+    private static Segment literal(String text) {
+        return new Segment(SegmentType.LITERAL, new String[]{text});
+    }
+
+    /**
+     * @return whether this template was compiled from the given format for the given media type
+     */
+    boolean isCompiledFrom(String format, String mediaType) {
+        return source.equals(format) && this.mediaType.equals(mediaType);
+    }
+
+    Segment[] getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return the number of literal characters, a lower bound of the size of the output
+     */
+    int getLiteralLength() {
+        return literalLength;
+    }
+
+    /**
+     * Appends a replacement value the way {@link Matcher#appendReplacement(StringBuffer, String)} does, i.e. a
+     * backslash escapes the next character and $g refers to a group of the placeholder match.
+     *
+     * @param result      the output
+     * @param replacement the replacement value
+     * @param segment     the placeholder which is replaced
+     */
+    static void appendReplacement(StringBuilder result, String replacement, Segment segment) {
+        if (replacement.indexOf('\\') < 0 && replacement.indexOf('$') < 0) {
+            result.append(replacement);
+            return;
+        }
+        int cursor = 0;
+        int length = replacement.length();
+        while (cursor < length) {
+            char next = replacement.charAt(cursor++);
+            if (next == '\\') {
+                if (cursor == length) {
+                    throw new IllegalArgumentException("character to be escaped is missing");
+                }
+                result.append(replacement.charAt(cursor++));
+            } else if (next == '$') {
+                if (cursor == length) {
+                    throw new IllegalArgumentException("Illegal group reference: group index is missing");
+                }
+                int group = replacement.charAt(cursor++) - '0';
+                if (group < 0 || group > 9) {
+                    throw new IllegalArgumentException("Illegal group reference");
+                }
+                while (cursor < length) {
+                    int digit = replacement.charAt(cursor) - '0';
+                    if (digit < 0 || digit > 9 || group * 10 + digit >= segment.groups.length) {
+                        break;
+                    }
+                    group = group * 10 + digit;
+                    cursor++;
+                }
+                if (group >= segment.groups.length) {
+                    throw new IndexOutOfBoundsException("No group " + group);
+                }
+                if (segment.groups[group] != null) {
+                    result.append(segment.groups[group]);
+                }
+            } else {
+                result.append(next);
+            }
+        }
+    }
+}
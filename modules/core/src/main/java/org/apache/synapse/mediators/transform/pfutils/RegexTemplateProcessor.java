@@ -57,14 +57,23 @@ public class RegexTemplateProcessor extends TemplateProcessor {
     private final Gson gson = new Gson();
     private final Map<String, SynapseExpression> inlineExpressionCache = new ConcurrentHashMap<>();
 
+    /* The format compiled into segments, recompiled when a dynamic format or the media type changes */
+    private volatile CompiledTemplate compiledTemplate;
+
     @Override
     public String processTemplate(String template, String mediaType, MessageContext synCtx) {
 
-        StringBuffer result = new StringBuffer();
+        StringBuilder result = new StringBuilder();
         replace(template, result, mediaType, synCtx);
         return result.toString();
     }
 
+    @Override
+    public void processTemplate(String template, String mediaType, MessageContext synCtx, StringBuilder result) {
+
+        replace(template, result, mediaType, synCtx);
+    }
+
     @Override
     public void init() throws SynapseException {
         String format = getFormat();
@@ -75,10 +84,25 @@ public class RegexTemplateProcessor extends TemplateProcessor {
                 String msg = "Invalid Payload format : " + e.getMessage();
                 throw new SynapseException(msg);
             }
+            compiledTemplate = CompiledTemplate.compile(pattern, format, getMediaType());
         }
         this.readInputFactoryProperties();
     }
 
+    /**
+     * Returns the compiled form of the given format, compiling it if it is not the format the template was compiled
+     * from at deployment.
+     */
+    private CompiledTemplate getCompiledTemplate(String format, String mediaType) {
+
+        CompiledTemplate compiled = compiledTemplate;
+        if (compiled == null || !compiled.isCompiledFrom(format, mediaType)) {
+            compiled = CompiledTemplate.compile(pattern, format, mediaType);
+            compiledTemplate = compiled;
+        }
+        return compiled;
+    }
+
     /**
      * Replaces the payload format with SynapsePath arguments which are evaluated using getArgValues().
      *
@@ -86,88 +110,102 @@ public class RegexTemplateProcessor extends TemplateProcessor {
      * @param result
      * @param synCtx
      */
-    private void replace(String format, StringBuffer result, String mediaType, MessageContext synCtx) {
+    private void replace(String format, StringBuilder result, String mediaType, MessageContext synCtx) {
 
-        Map<String, Object> inlineExpressionResults = new ConcurrentHashMap<>();
+        CompiledTemplate compiled = getCompiledTemplate(format, mediaType);
+        CompiledTemplate.Segment[] segments = compiled.getSegments();
+        Map<String, Object> inlineExpressionResults = new HashMap<>();
         HashMap<String, ArgumentDetails>[] argValues = getArgValues(mediaType, synCtx);
         HashMap<String, ArgumentDetails> replacement;
         Map.Entry<String, ArgumentDetails> replacementEntry;
         String replacementValue;
-        Matcher matcher;
 
-        if (JSON_TYPE.equals(mediaType) || TEXT_TYPE.equals(mediaType)) {
-            matcher = pattern.matcher(format);
-        } else {
-            matcher = pattern.matcher("<pfPadding>" + format + "</pfPadding>");
-        }
+        result.ensureCapacity(result.length() + compiled.getLiteralLength());
+        int i = 0;
         try {
-            while (matcher.find()) {
-                if (matcher.group(1) != null) {
-                    // Handle "${...}" pattern (with quotes)
-                    String expression = matcher.group(1);
-                    Object expressionResult = evaluateExpression(expression, synCtx, inlineExpressionResults);
-                    if (expressionResult instanceof JsonPrimitive) {
-                        replacementValue = prepareJSONPrimitiveReplacementValue(expressionResult, mediaType);
-                    } else if (expressionResult instanceof JsonElement) {
-                        // Escape JSON object and Arrays since we need to consider it as
-                        replacementValue = escapeJson(Matcher.quoteReplacement(gson.toJson(expressionResult)));
-                        if (XML_TYPE.equals(mediaType)) {
-                            replacementValue = convertJsonToXML(replacementValue);
+            for (; i < segments.length; i++) {
+                CompiledTemplate.Segment segment = segments[i];
+                switch (segment.getType()) {
+                    case LITERAL:
+                        result.append(segment.getText());
+                        break;
+                    case QUOTED_EXPRESSION: {
+                        // Handle "${...}" pattern (with quotes)
+                        String expression = segment.getValue();
+                        Object expressionResult = evaluateExpression(expression, synCtx, inlineExpressionResults);
+                        if (expressionResult instanceof JsonPrimitive) {
+                            replacementValue = prepareJSONPrimitiveReplacementValue(expressionResult, mediaType);
+                        } else if (expressionResult instanceof JsonElement) {
+                            // Escape JSON object and Arrays since we need to consider it as
+                            replacementValue = escapeJson(Matcher.quoteReplacement(gson.toJson(expressionResult)));
+                            if (XML_TYPE.equals(mediaType)) {
+                                replacementValue = convertJsonToXML(replacementValue);
+                            }
+                        } else {
+                            replacementValue = expressionResult.toString();
+                            if (XML_TYPE.equals(mediaType)) {
+                                replacementValue = StringEscapeUtils.escapeXml10(replacementValue);
+                            } else if (JSON_TYPE.equals(mediaType)) {
+                                if (isXML(replacementValue)) {
+                                    // consider the replacement value as a literal XML
+                                    replacementValue = escapeSpecialChars(Matcher.quoteReplacement(replacementValue));
+                                } else {
+                                    replacementValue = escapeSpecialCharactersOfJson(replacementValue);
+                                }
+                            }
                         }
-                    } else {
+                        result.append('"');
+                        CompiledTemplate.appendReplacement(result, replacementValue, segment);
+                        result.append('"');
+                        break;
+                    }
+                    case EXPRESSION: {
+                        // Handle ${...} pattern (without quotes)
+                        String expression = segment.getValue();
+                        Object expressionResult = evaluateExpression(expression, synCtx, inlineExpressionResults);
                         replacementValue = expressionResult.toString();
-                        if (XML_TYPE.equals(mediaType)) {
-                            replacementValue = StringEscapeUtils.escapeXml10(replacementValue);
-                        } else if (JSON_TYPE.equals(mediaType)) {
-                            if (isXML(replacementValue)) {
-                                // consider the replacement value as a literal XML
-                                replacementValue = escapeSpecialChars(Matcher.quoteReplacement(replacementValue));
+                        if (expressionResult instanceof JsonPrimitive) {
+                            replacementValue = prepareJSONPrimitiveReplacementValue(expressionResult, mediaType);
+                        } else if (expressionResult instanceof JsonElement) {
+                            if (XML_TYPE.equals(mediaType)) {
+                                replacementValue = convertJsonToXML(replacementValue);
+                                replacementValue = Matcher.quoteReplacement(replacementValue);
                             } else {
-                                replacementValue = escapeSpecialCharactersOfJson(replacementValue);
+                                replacementValue = Matcher.quoteReplacement(gson.toJson(expressionResult));
                             }
-                        }
-                    }
-                    matcher.appendReplacement(result, "\"" + replacementValue + "\"");
-                } else if (matcher.group(2) != null) {
-                    // Handle ${...} pattern (without quotes)
-                    String expression = matcher.group(2);
-                    Object expressionResult = evaluateExpression(expression, synCtx, inlineExpressionResults);
-                    replacementValue = expressionResult.toString();
-                    if (expressionResult instanceof JsonPrimitive) {
-                        replacementValue = prepareJSONPrimitiveReplacementValue(expressionResult, mediaType);
-                    } else if (expressionResult instanceof JsonElement) {
-                        if (XML_TYPE.equals(mediaType)) {
-                            replacementValue = convertJsonToXML(replacementValue);
-                            replacementValue = Matcher.quoteReplacement(replacementValue);
-                        } else {
-                            replacementValue = Matcher.quoteReplacement(gson.toJson(expressionResult));
-                        }
-                    } else {
-                        if (JSON_TYPE.equals(mediaType) && isXML(replacementValue)) {
-                            replacementValue = convertXMLToJSON(replacementValue);
                         } else {
-                            if (XML_TYPE.equals(mediaType) && !isXML(replacementValue)) {
-                                replacementValue = StringEscapeUtils.escapeXml10(replacementValue);
+                            if (JSON_TYPE.equals(mediaType) && isXML(replacementValue)) {
+                                replacementValue = convertXMLToJSON(replacementValue);
+                            } else {
+                                if (XML_TYPE.equals(mediaType) && !isXML(replacementValue)) {
+                                    replacementValue = StringEscapeUtils.escapeXml10(replacementValue);
+                                }
+                                replacementValue = Matcher.quoteReplacement(replacementValue);
                             }
-                            replacementValue = Matcher.quoteReplacement(replacementValue);
                         }
+                        CompiledTemplate.appendReplacement(result, replacementValue, segment);
+                        break;
                     }
-                    matcher.appendReplacement(result, replacementValue);
-                } else if (matcher.group(3) != null) {
-                    // Handle $n pattern
-                    String matchSeq = matcher.group(3);
-                    replacement = getReplacementValue(argValues, matchSeq);
-                    replacementEntry = replacement.entrySet().iterator().next();
-                    replacementValue = prepareReplacementValue(mediaType, synCtx, replacementEntry);
-                    matcher.appendReplacement(result, replacementValue);
+                    case ARGUMENT:
+                        // Handle $n pattern
+                        replacement = getReplacementValue(argValues, segment.getValue());
+                        replacementEntry = replacement.entrySet().iterator().next();
+                        replacementValue = prepareReplacementValue(mediaType, synCtx, replacementEntry);
+                        CompiledTemplate.appendReplacement(result, replacementValue, segment);
+                        break;
+                    default:
+                        break;
                 }
             }
         } catch (ArrayIndexOutOfBoundsException e) {
             log.error("#replace. Mis-match detected between number of formatters and arguments", e);
+            // the rest of the format is kept as is
+            for (; i < segments.length; i++) {
+                result.append(segments[i].getText());
+            }
         } catch (JaxenException e) {
             throw new SynapseException("Error evaluating expression" , e);
         }
-        matcher.appendTail(result);
     }
 
     private String prepareJSONPrimitiveReplacementValue(Object expressionResult, String mediaType) {
@@ -88,6 +88,20 @@ public abstract class TemplateProcessor {
      */
     public abstract String processTemplate(String template, String mediaType, MessageContext synCtx);
 
+    /**
+     * Process the given template and append the output to the given builder. Processors which can render the
+     * template without an intermediate String should override this.
+     *
+     * @param template        Template string
+     * @param mediaType       Output media type
+     * @param synCtx          MessageContext
+     * @param result          Builder to append the processed output to
+     */
+    public void processTemplate(String template, String mediaType, MessageContext synCtx, StringBuilder result) {
+
+        result.append(processTemplate(template, mediaType, synCtx));
+    }
+
     /**
      * Execute pre-processing steps if needed
      */
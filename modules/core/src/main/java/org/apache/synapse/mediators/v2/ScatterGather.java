@@ -150,9 +150,8 @@ public class ScatterGather extends AbstractMediator implements ManagedLifecycle,
             }
         } else {
             //  Make a copy of ContinuationStateStack and set it to the sharedDataHolder to continue the flow after aggregation
-            Stack<ContinuationState> continuationStateStack = new Stack<>();
-            continuationStateStack.addAll(synCtx.getContinuationStateStack());
-            sharedDataHolder.setContinuationStateStack(continuationStateStack);
+            sharedDataHolder.setContinuationStateStack(
+                    ContinuationStackManager.getSharedContinuationStateStack(synCtx));
         }
 
         synCtx.setProperty(EIPConstants.EIP_SHARED_DATA_HOLDER + "." + id, sharedDataHolder);
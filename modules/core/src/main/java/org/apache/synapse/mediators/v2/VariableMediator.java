@@ -25,6 +25,7 @@ import org.apache.synapse.aspects.ComponentType;
 import org.apache.synapse.aspects.flow.statistics.collectors.CloseEventCollector;
 import org.apache.synapse.config.xml.SynapsePath;
 import org.apache.synapse.mediators.AbstractMediator;
+import org.apache.synapse.util.PropertySlots;
 
 import java.util.Set;
 
@@ -96,6 +97,7 @@ public class VariableMediator extends AbstractMediator {
     public void setName(String name) {
 
         this.name = name;
+        PropertySlots.VARIABLES.register(name);
     }
 
     public Object getValue() {
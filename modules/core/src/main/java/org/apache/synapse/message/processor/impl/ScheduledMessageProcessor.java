@@ -34,6 +34,7 @@ import org.apache.synapse.message.senders.blocking.BlockingMsgSender;
 import org.apache.synapse.registry.Registry;
 import org.apache.synapse.task.SynapseTaskException;
 import org.apache.synapse.task.Task;
+import org.apache.synapse.task.TaskConstants;
 import org.apache.synapse.task.TaskDescription;
 import org.apache.synapse.task.TaskManager;
 import org.apache.synapse.task.TaskManagerObserver;
@@ -182,14 +183,18 @@ public abstract class ScheduledMessageProcessor extends AbstractMessageProcessor
 			 * exception while building the task. So to get around that we are
 			 * setting threshold interval value of 1000 ms to the task
 			 * description here. But actual interval value may be less than 1000
-			 * ms, and hence isThrotling is set to TRUE.
+			 * ms, and hence isThrotling is set to TRUE. Task managers which
+			 * support such intervals are given the actual value, and the task
+			 * runs once per trigger with the interval in between.
 			 */
-			if (interval < MessageProcessorConstants.THRESHOULD_INTERVAL) {
+			if (interval < MessageProcessorConstants.THRESHOULD_INTERVAL
+					&& (interval <= 0 || !taskManager.isSubSecondIntervalSupported())) {
 				taskDescription.setInterval(MessageProcessorConstants.THRESHOULD_INTERVAL);
 			} else {
 				taskDescription.setInterval(interval);
 			}
 			taskDescription.setIntervalInMs(true);
+			taskDescription.addProperty(TaskConstants.SCHEDULE_MODE, TaskConstants.SCHEDULE_MODE_FIXED_DELAY);
 			taskDescription.addResource(TaskDescription.INSTANCE, task);
 			taskDescription.addResource(TaskDescription.CLASSNAME, task.getClass().getName());
 
@@ -495,6 +500,29 @@ public abstract class ScheduledMessageProcessor extends AbstractMessageProcessor
 		return interval < MessageProcessorConstants.THRESHOULD_INTERVAL;
 	}
 
+	/**
+	 * Same as {@link #isThrottling(long)}, but the task does not need to run on
+	 * throttle mode if the task manager of the given environment triggers it
+	 * at such intervals by itself.
+	 *
+	 * @param se
+	 *            the Synapse environment the processor is initialized with.
+	 * @param interval
+	 *            in which scheduler triggers its job.
+	 * @return true if it needs to run on throttle mode, <code>false</code>
+	 *         otherwise.
+	 */
+	protected boolean isThrottling(SynapseEnvironment se, final long interval) {
+		if (!isThrottling(interval)) {
+			return false;
+		}
+		TaskManager manager = taskManager;
+		if (manager == null && se != null && se.getSynapseConfiguration() != null) {
+			manager = se.getSynapseConfiguration().getTaskManager();
+		}
+		return interval <= 0 || manager == null || !manager.isSubSecondIntervalSupported();
+	}
+
 	public boolean isThrottling(final String cronExpression) {
 		return cronExpression != null;
 	}
@@ -246,9 +246,10 @@ public class FailoverForwardingService implements Task, ManagedLifecycle {
 			/*
 			 * If the interval is less than 1000 ms, then the scheduling is done
 			 * using the while loop since ntask rejects any intervals whose
-			 * value is less then 1000 ms.
+			 * value is less then 1000 ms. When not throttling, the task manager
+			 * triggers the task at the interval by itself.
 			 */
-            if (interval > 0 && interval < MessageProcessorConstants.THRESHOULD_INTERVAL) {
+            if (isThrottling && interval > 0 && interval < MessageProcessorConstants.THRESHOULD_INTERVAL) {
                 try {
                     Thread.sleep(interval);
                 } catch (InterruptedException e) {
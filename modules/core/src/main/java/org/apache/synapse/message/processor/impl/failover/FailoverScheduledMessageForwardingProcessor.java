@@ -33,7 +33,7 @@ public class FailoverScheduledMessageForwardingProcessor extends ScheduledMessag
 	@Override
 	public void init(SynapseEnvironment se) {
 		parameters.put(FailoverForwardingProcessorConstants.THROTTLE,
-		               String.valueOf((isThrottling(interval))));
+		               String.valueOf((isThrottling(se, interval))));
 		if (isThrottling(cronExpression)) {
 			parameters.put(FailoverForwardingProcessorConstants.THROTTLE_INTERVAL, String.valueOf(interval));
 			parameters.put(FailoverForwardingProcessorConstants.CRON_EXPRESSION, cronExpression);
@@ -339,9 +339,10 @@ public class ForwardingService implements Task, ManagedLifecycle {
 			 * using the while loop since ntask rejects any intervals whose
 			 * value is less then 1000 ms. Cron expressions are handled above so
 			 * we need to skip it here. Otherwise the cron expression is kept
-			 * sleeping twice as the forwarding interval.
+			 * sleeping twice as the forwarding interval. When not throttling,
+			 * the task manager triggers the task at the interval by itself.
 			 */
-			if (interval > 0 && interval < MessageProcessorConstants.THRESHOULD_INTERVAL &&
+			if (isThrottling && interval > 0 && interval < MessageProcessorConstants.THRESHOULD_INTERVAL &&
 					!isRunningUnderCronExpression()) {
 				try {
 					Thread.sleep(interval);
@@ -33,7 +33,7 @@ public class ScheduledMessageForwardingProcessor extends ScheduledMessageProcess
 	@Override
 	public void init(SynapseEnvironment se) {
 		parameters.put(ForwardingProcessorConstants.THROTTLE,
-		               String.valueOf((isThrottling(interval))));
+		               String.valueOf((isThrottling(se, interval))));
 		if (isThrottling(cronExpression)) {
 			parameters.put(ForwardingProcessorConstants.THROTTLE_INTERVAL, String.valueOf(interval));
 			parameters.put(ForwardingProcessorConstants.CRON_EXPRESSION, cronExpression);
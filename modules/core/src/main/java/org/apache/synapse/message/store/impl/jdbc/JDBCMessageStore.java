@@ -278,7 +278,7 @@ public class JDBCMessageStore extends AbstractMessageStore {
      * @param statements - Statement to process
      * @return - Success or Failure of the process
      */
-    private boolean processNonResultingStatement(List<Statement> statements) throws SynapseException {
+    protected boolean processNonResultingStatement(List<Statement> statements) throws SynapseException {
         Connection connection = null;
         boolean result;
         PreparedStatement preparedStatement = null;
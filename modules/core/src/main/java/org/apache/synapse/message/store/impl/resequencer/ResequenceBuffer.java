@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.message.store.impl.resequencer;
+
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * Bounded reorder window which sits in front of the DB for the {@link ResequenceMessageStore}.
+ * </p>
+ * <p>
+ * Entries are keyed by sequence id and are only accepted if they fall within
+ * [nextSequenceId, nextSequenceId + capacity). Contiguous runs starting at the next expected sequence id are
+ * released without going back to the DB. The buffer is not thread safe, the store is expected to access it from
+ * the single processor which peeks the messages.
+ * </p>
+ *
+ * @param <T> the type of the buffered element.
+ */
+class ResequenceBuffer<T> {
+
+    /**
+     * Maximum number of sequence ids the window spans.
+     */
+    private final int capacity;
+
+    /**
+     * Buffered elements ordered by the sequence id.
+     */
+    private final TreeMap<Long, T> window = new TreeMap<>();
+
+    /**
+     * The value of the next sequence id which should be released.
+     */
+    private long nextSequenceId;
+
+    ResequenceBuffer(int capacity, long nextSequenceId) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Re-sequence buffer size should be a positive value, but was: "
+                    + capacity);
+        }
+        this.capacity = capacity;
+        this.nextSequenceId = nextSequenceId;
+    }
+
+    /**
+     * Adds an element to the window.
+     *
+     * @param sequenceId the sequence id of the element.
+     * @param element    the element which should be buffered.
+     * @return true if the element was buffered, false if it is outside the window or is already buffered.
+     */
+    boolean offer(long sequenceId, T element) {
+        if (sequenceId < nextSequenceId || sequenceId >= windowEnd() || window.containsKey(sequenceId)) {
+            return false;
+        }
+        window.put(sequenceId, element);
+        return true;
+    }
+
+    /**
+     * Releases the element which carries the next expected sequence id.
+     *
+     * @return the next element in the sequence or null if there's a gap.
+     */
+    T poll() {
+        T element = window.remove(nextSequenceId);
+        if (element != null) {
+            nextSequenceId++;
+        }
+        return element;
+    }
+
+    /**
+     * <p>
+     * Returns the exclusive upper bound of the sequence ids which should be fetched from the DB in order to fill the
+     * gap in front of the window.
+     * </p>
+     * <p>
+     * Elements beyond the first buffered sequence id need not be fetched again, hence the range would be
+     * [nextSequenceId, fetchUpperBound).
+     * </p>
+     *
+     * @return the exclusive upper bound of the range which should be fetched.
+     */
+    long fetchUpperBound() {
+        if (window.isEmpty()) {
+            return windowEnd();
+        }
+        return window.firstKey();
+    }
+
+    /**
+     * Moves the window to start from the given sequence id, elements which fall behind it will be dropped.
+     *
+     * @param sequenceId the sequence id which should be released next.
+     */
+    void reset(long sequenceId) {
+        nextSequenceId = sequenceId;
+        window.headMap(sequenceId).clear();
+        if (!window.isEmpty() && window.lastKey() >= windowEnd()) {
+            window.tailMap(windowEnd()).clear();
+        }
+    }
+
+    /**
+     * Drops all the buffered elements while keeping the next expected sequence id.
+     */
+    void clear() {
+        window.clear();
+    }
+
+    long getNextSequenceId() {
+        return nextSequenceId;
+    }
+
+    int size() {
+        return window.size();
+    }
+
+    boolean isEmpty() {
+        return window.isEmpty();
+    }
+
+    private long windowEnd() {
+        return nextSequenceId + capacity;
+    }
+}
@@ -40,6 +40,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * This represents the store which will allow to re-sequence messages.
  * </p>
+ * <p>
+ * Messages are fetched from the DB in windows of sequence ids and are held in a bounded {@link ResequenceBuffer},
+ * so that a run of contiguous messages could be released without a DB round trip per message. Removal of the
+ * processed messages and the last processed id are written to the DB in batches.
+ * </p>
  *
  * @see JDBCMessageStore
  */
@@ -55,9 +60,42 @@ public class ResequenceMessageStore extends JDBCMessageStore {
     private static final int MILLISECONDS = 1000;
 
     /**
-     * The value of the next sequence id which should be processed.
+     * Holds the messages fetched from the DB which are yet to be processed, also tracks the value of the next
+     * sequence id which should be processed.
+     */
+    private ResequenceBuffer<MessageContext> reorderBuffer;
+
+    /**
+     * Number of sequence ids which would be buffered in memory.
+     */
+    private int reorderBufferSize = ResequenceMessageStoreConstants.DEFAULT_REORDER_BUFFER_SIZE;
+
+    /**
+     * Number of processed messages which would be removed from the DB as a single batch.
      */
-    private long nextSequenceId = 0;
+    private int checkpointBatchSize = ResequenceMessageStoreConstants.DEFAULT_CHECKPOINT_BATCH_SIZE;
+
+    /**
+     * Ids of the messages which were processed, but are yet to be removed from the DB.
+     */
+    private final List<String> pendingRemovals = new ArrayList<>();
+
+    /**
+     * Number of the pending removals, which is read by {@link #size()} without holding the lock of the store.
+     */
+    private volatile int pendingRemovalCount;
+
+    /**
+     * The sequence id of the last message which was processed, which will be check-pointed with the next batch.
+     */
+    private Long pendingLastProcessedId;
+
+    /**
+     * Messages which were returned to the processor and are yet to be removed.
+     * key - message id value.
+     * value - message context.
+     */
+    private final ConcurrentHashMap<String, MessageContext> inFlightMessages = new ConcurrentHashMap<>();
 
     /**
      * The xpath expression evaluated to identify sequence.
@@ -176,6 +214,18 @@ public class ResequenceMessageStore extends JDBCMessageStore {
         } else {
             nextElapsedTime = -1;
         }
+        String bufferSize = (String) parameters.get(ResequenceMessageStoreConstants.REORDER_BUFFER_SIZE);
+        if (bufferSize != null) {
+            reorderBufferSize = Integer.parseInt(bufferSize.trim());
+        }
+        String batchSize = (String) parameters.get(ResequenceMessageStoreConstants.CHECKPOINT_BATCH_SIZE);
+        if (batchSize != null) {
+            checkpointBatchSize = Math.max(1, Integer.parseInt(batchSize.trim()));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Resequencer buffer size configured as:" + reorderBufferSize + ", checkpoint batch size " +
+                    "configured as:" + checkpointBatchSize);
+        }
     }
 
     /**
@@ -193,9 +243,9 @@ public class ResequenceMessageStore extends JDBCMessageStore {
     @Override
     public void init(SynapseEnvironment synapseEnvironment) {
         super.init(synapseEnvironment);
-        nextSequenceId = readStartId() + 1;
+        reorderBuffer = new ResequenceBuffer<>(reorderBufferSize, readStartId() + 1);
         if (log.isDebugEnabled()) {
-            log.debug("Next sequence which will be processed:" + nextSequenceId);
+            log.debug("Next sequence which will be processed:" + reorderBuffer.getNextSequenceId());
         }
     }
 
@@ -217,39 +267,73 @@ public class ResequenceMessageStore extends JDBCMessageStore {
 
     /**
      * Will get the next message belonging to a sequence.
+     * <p>
+     * The message is served from the reorder buffer, the DB will only be queried if the buffer does not hold the next
+     * message in the sequence.
+     * </p>
      *
      * @return the next message in the sequence.
      */
     private MessageContext getNextMessage() {
-        MessageContext msg = null;
-        final int firstRowIndex = 0;
+        MessageContext msg = reorderBuffer.poll();
+        if (null == msg) {
+            fillReorderBuffer();
+            msg = reorderBuffer.poll();
+        }
+        if (null != msg) {
+            if (log.isTraceEnabled()) {
+                log.trace("Message with id " + msg.getMessageID() + " returned for sequence "
+                        + reorderBuffer.getNextSequenceId());
+            }
+        } else {
+            if (log.isTraceEnabled()) {
+                log.trace("Sequences not returned from DB, next sequence will be:"
+                        + reorderBuffer.getNextSequenceId());
+            }
+        }
+        return msg;
+    }
+
+    /**
+     * <p>
+     * Fetches the messages which fall in front of the reorder buffer from the DB.
+     * </p>
+     * <p>
+     * Only the range between the next sequence id and the first buffered sequence id is queried, hence messages which
+     * are already buffered will not be fetched again while waiting for a gap.
+     * </p>
+     */
+    private void fillReorderBuffer() {
+        long lowerBound = reorderBuffer.getNextSequenceId();
+        long upperBound = reorderBuffer.fetchUpperBound();
+        if (upperBound <= lowerBound) {
+            return;
+        }
+        String tableName = getJdbcConfiguration().getTableName();
+        String selectMessagesStatement = "SELECT message,seq_id FROM " + tableName + " WHERE "
+                + ResequenceMessageStoreConstants.SEQ_ID + ">= ? AND " + ResequenceMessageStoreConstants.SEQ_ID
+                + "< ? ORDER BY " + ResequenceMessageStoreConstants.SEQ_ID;
+        Statement statement = new Statement(selectMessagesStatement) {
+            @Override
+            public List<Map> getResult(ResultSet resultSet) throws SQLException {
+                return getMessageWithMinimumId(resultSet, this.getStatement());
+            }
+        };
+        statement.addParameter(lowerBound);
+        statement.addParameter(upperBound);
         try {
-            String tableName = getJdbcConfiguration().getTableName();
-            String selectMessageStatement = "SELECT message FROM " + tableName + " WHERE "
-                    + ResequenceMessageStoreConstants.SEQ_ID + "= ?";
-            Statement statement = new Statement(selectMessageStatement) {
-                @Override
-                public List<Map> getResult(ResultSet resultSet) throws SQLException {
-                    return messageContentResultSet(resultSet, this.getStatement());
-                }
-            };
-            statement.addParameter(nextSequenceId);
             List<Map> processedRows = getProcessedRows(statement);
-            if (!processedRows.isEmpty()) {
-                msg = getMessageContext(processedRows, firstRowIndex);
-                nextSequenceId++;
-                if (log.isTraceEnabled()) {
-                    log.trace("Message with id " + msg.getMessageID() + " returned for sequence " + nextSequenceId);
-                }
-            } else {
-                if (log.isTraceEnabled()) {
-                    log.trace("Sequences not returned from DB, next sequence will be:" + nextSequenceId);
-                }
+            for (int rowIndex = 0; rowIndex < processedRows.size(); rowIndex++) {
+                reorderBuffer.offer(getSequenceId(processedRows, rowIndex), getMessageContext(processedRows,
+                        rowIndex));
+            }
+            if (log.isTraceEnabled()) {
+                log.trace(processedRows.size() + " messages fetched for the sequence range [" + lowerBound + ","
+                        + upperBound + "), buffered message count:" + reorderBuffer.size());
             }
         } catch (SynapseException ex) {
             throw new SynapseException("Error while peek the message", ex);
         }
-        return msg;
     }
 
     /**
@@ -267,10 +351,24 @@ public class ResequenceMessageStore extends JDBCMessageStore {
     @Override
     protected List<Statement> removeMessageStatement(String msgId) {
         Long messageSequenceId = sequenceIdMapper.remove(msgId);
-        String messageStoreName = this.getName();
+        inFlightMessages.remove(msgId);
         if (messageSequenceId == null) {
             log.error("The message with id " + msgId + " is not tracked within the memory.");
         }
+        ArrayList<String> msgIds = new ArrayList<>();
+        msgIds.add(msgId);
+        return removeMessageStatements(msgIds, messageSequenceId);
+    }
+
+    /**
+     * Builds the statements which would remove a batch of processed messages and record the last processed id.
+     *
+     * @param msgIds            ids of the messages which should be removed.
+     * @param lastProcessedId   the sequence id which should be recorded as the last processed.
+     * @return the list of statements which should be executed in a single transaction.
+     */
+    private List<Statement> removeMessageStatements(List<String> msgIds, Long lastProcessedId) {
+        String messageStoreName = this.getName();
         ArrayList<Statement> statements = new ArrayList<>();
         final String deleteMessageStatement = "DELETE FROM " + getJdbcConfiguration().getTableName()
                 + " WHERE msg_id=?";
@@ -283,24 +381,71 @@ public class ResequenceMessageStore extends JDBCMessageStore {
                 throw new UnsupportedOperationException();
             }
         };
-        Statement deleteMessage = new Statement(deleteMessageStatement) {
-            @Override
-            public List<Map> getResult(ResultSet resultSet) throws SQLException {
-                throw new UnsupportedOperationException();
-            }
-        };
-        deleteMessage.addParameter(msgId);
+        for (String msgId : msgIds) {
+            Statement deleteMessage = new Statement(deleteMessageStatement) {
+                @Override
+                public List<Map> getResult(ResultSet resultSet) throws SQLException {
+                    throw new UnsupportedOperationException();
+                }
+            };
+            deleteMessage.addParameter(msgId);
+            statements.add(deleteMessage);
+        }
         sequenceIdUpdateStatement.addParameter(messageStoreName);
-        sequenceIdUpdateStatement.addParameter(messageSequenceId);
-        sequenceIdUpdateStatement.addParameter(messageSequenceId);
-        statements.add(deleteMessage);
+        sequenceIdUpdateStatement.addParameter(lastProcessedId);
+        sequenceIdUpdateStatement.addParameter(lastProcessedId);
         statements.add(sequenceIdUpdateStatement);
         if (log.isDebugEnabled()) {
-            log.debug("Removing message with id:" + msgId + " and last process id:" + messageSequenceId);
+            log.debug("Removing messages with ids:" + msgIds + " and last process id:" + lastProcessedId);
         }
         return statements;
     }
 
+    /**
+     * <p>
+     * Removes a message which was returned through {@link #peek()}.
+     * </p>
+     * <p>
+     * The removal is deferred until {@link ResequenceMessageStoreConstants#CHECKPOINT_BATCH_SIZE} messages are
+     * processed or until the store runs out of messages in sequence, the pending removals and the last processed id
+     * are then written in a single transaction. Until then the removed messages would still be visible through
+     * {@link #get(String)} and {@link #getAll()}. If the node crashes before the batch is written, the messages in
+     * the batch would be processed again.
+     * </p>
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized MessageContext remove(String msgId) throws SynapseException {
+        MessageContext msg = inFlightMessages.remove(msgId);
+        if (null == msg) {
+            return super.remove(msgId);
+        }
+        pendingRemovals.add(msgId);
+        pendingRemovalCount = pendingRemovals.size();
+        pendingLastProcessedId = sequenceIdMapper.remove(msgId);
+        if (pendingRemovals.size() >= checkpointBatchSize) {
+            flushPendingRemovals();
+        }
+        return msg;
+    }
+
+    /**
+     * Removes the processed messages from the DB and records the last processed id.
+     */
+    private void flushPendingRemovals() {
+        if (pendingRemovals.isEmpty()) {
+            return;
+        }
+        try {
+            processNonResultingStatement(removeMessageStatements(pendingRemovals, pendingLastProcessedId));
+            pendingRemovals.clear();
+            pendingRemovalCount = 0;
+        } catch (Exception e) {
+            throw new SynapseException("Removing messages with ids = " + pendingRemovals + " failed !", e);
+        }
+    }
+
     /**
      * Identify the message context from the processed rows.
      *
@@ -369,6 +514,8 @@ public class ResequenceMessageStore extends JDBCMessageStore {
      * @return the message context of the next sequence
      */
     private MessageContext getMessageWithMinimumSequence() {
+        // Processed messages should not be picked as the minimum
+        flushPendingRemovals();
         String tableName = getJdbcConfiguration().getTableName();
         String selectMinimumSequenceIdStatement = "SELECT message,seq_id FROM " + tableName + " WHERE "
                 + ResequenceMessageStoreConstants.SEQ_ID + "=(SELECT min("
@@ -386,10 +533,10 @@ public class ResequenceMessageStore extends JDBCMessageStore {
             if (!processedRows.isEmpty()) {
                 msg = getMessageContext(processedRows, firstRowIndex);
                 long sequenceId = getSequenceId(processedRows, firstRowIndex);
-                nextSequenceId = sequenceId + 1;
+                reorderBuffer.reset(sequenceId + 1);
                 if (log.isTraceEnabled()) {
                     log.trace("Message with id " + msg.getMessageID() + " returned as the minimum, the minimum " +
-                            "sequence " + "will be marked as " + nextSequenceId);
+                            "sequence " + "will be marked as " + reorderBuffer.getNextSequenceId());
                 }
             }
         } catch (SynapseException ex) {
@@ -432,20 +579,26 @@ public class ResequenceMessageStore extends JDBCMessageStore {
      * {@inheritDoc}
      */
     @Override
-    public MessageContext peek() throws SynapseException {
+    public synchronized MessageContext peek() throws SynapseException {
         MessageContext msg;
         if(!hasStarted){
-             nextSequenceId = readStartId() + 1;
+             reorderBuffer.reset(readStartId() + 1);
+             reorderBuffer.clear();
              hasStarted = true;
         }
         msg = getNextMessage();
-        if (null == msg && !shouldWait()) {
-            msg = getMessageWithMinimumSequence();
+        if (null == msg) {
+            // Nothing to process in sequence, write the processed batch instead of waiting for it to fill
+            flushPendingRemovals();
+            if (!shouldWait()) {
+                msg = getMessageWithMinimumSequence();
+            }
         }
         if (null != msg) {
-            long currentSequenceId = nextSequenceId - 1;
+            long currentSequenceId = reorderBuffer.getNextSequenceId() - 1;
             String messageId = msg.getMessageID();
             sequenceIdMapper.put(messageId, currentSequenceId);
+            inFlightMessages.put(messageId, msg);
             if (nextElapsedTime > 0) {
                 nextElapsedTime = System.currentTimeMillis() + gapTimeoutInterval;
             }
@@ -457,4 +610,42 @@ public class ResequenceMessageStore extends JDBCMessageStore {
         }
         return msg;
     }
+
+    /**
+     * The messages which were removed, but are yet to be deleted from the DB are not counted.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return Math.max(0, super.size() - pendingRemovalCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        pendingRemovals.clear();
+        pendingRemovalCount = 0;
+        inFlightMessages.clear();
+        sequenceIdMapper.clear();
+        if (reorderBuffer != null) {
+            reorderBuffer.clear();
+        }
+        super.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void destroy() {
+        try {
+            flushPendingRemovals();
+        } catch (SynapseException e) {
+            log.error("Error while removing the processed messages from the store " + getName(), e);
+        }
+        super.destroy();
+    }
 }
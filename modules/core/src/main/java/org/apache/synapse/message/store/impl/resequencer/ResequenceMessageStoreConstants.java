@@ -30,6 +30,23 @@ class ResequenceMessageStoreConstants {
      * Specifies the property name of maximum number of peeks the gap would be detected for.
      */
     static final String MAX_NUMBER_OF_WAITING_COUNT = "store.resequence.timeout";
+    /**
+     * Specifies the property name of the number of sequence ids which would be buffered in memory.
+     */
+    static final String REORDER_BUFFER_SIZE = "store.resequence.buffer.size";
+    /**
+     * Default number of sequence ids which would be buffered in memory.
+     */
+    static final int DEFAULT_REORDER_BUFFER_SIZE = 100;
+    /**
+     * Specifies the property name of the number of processed messages which would be removed from the DB and
+     * check-pointed as a single batch.
+     */
+    static final String CHECKPOINT_BATCH_SIZE = "store.resequence.checkpoint.batch.size";
+    /**
+     * Default number of processed messages which would be check-pointed as a single batch.
+     */
+    static final int DEFAULT_CHECKPOINT_BATCH_SIZE = 10;
     /**
      * Sequence id column name.
      */
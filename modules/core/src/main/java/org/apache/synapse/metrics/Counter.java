@@ -18,6 +18,9 @@
  */
 
 package org.apache.synapse.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
 /*
  * This is the basic unit to get Global, Proxy Service or
  * Proxy Opertaion Level hit count. 
@@ -25,13 +28,13 @@ package org.apache.synapse.metrics;
 
 public class Counter {
 
-    private long count = 0;
+    private final LongAdder count = new LongAdder();
 
-    public synchronized void increment(){
-        count++;
+    public void increment(){
+        count.increment();
     }
 
     public long getCount() {
-        return count;
+        return count.sum();
     }
 }
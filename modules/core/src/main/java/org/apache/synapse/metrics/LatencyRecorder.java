@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.metrics;
+
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+
+/**
+ * Records the latencies of the mediation components into {@link LatencyMetrics}. Every method expects the caller to
+ * have checked {@link LatencyMetrics#isEnabled()} so that nothing is computed while the metrics are disabled.
+ */
+public final class LatencyRecorder {
+
+    private LatencyRecorder() {
+    }
+
+    /**
+     * @return the start time to pass to {@link #recordMediation}, or 0 if the latency metrics are disabled
+     */
+    public static long startTime() {
+        return LatencyMetrics.getInstance().isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time spent mediating a message through a component.
+     *
+     * @param type      the type of the component
+     * @param name      the name of the component
+     * @param startTime the value returned by {@link #startTime()} when the mediation started
+     */
+    public static void recordMediation(LatencyMetrics.ComponentType type, String name, long startTime) {
+        if (startTime != 0) {
+            LatencyMetrics.getInstance().record(type, name, LatencyMetrics.Phase.MEDIATION,
+                    System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Records the transport receive and queue wait times set on the request by the transport against the component
+     * which received the request.
+     *
+     * @param type     the type of the component
+     * @param name     the name of the component
+     * @param axis2Ctx the axis2 message context of the request
+     */
+    public static void recordTransportPhases(LatencyMetrics.ComponentType type, String name,
+                                             org.apache.axis2.context.MessageContext axis2Ctx) {
+        LatencyMetrics metrics = LatencyMetrics.getInstance();
+        Object receiveTime = axis2Ctx.getProperty(LatencyMetrics.TRANSPORT_RECEIVE_NANOS);
+        if (receiveTime instanceof Long) {
+            metrics.record(type, name, LatencyMetrics.Phase.TRANSPORT_RECEIVE, (Long) receiveTime);
+        }
+        Object queueWaitTime = axis2Ctx.getProperty(LatencyMetrics.QUEUE_WAIT_NANOS);
+        if (queueWaitTime instanceof Long) {
+            metrics.record(type, name, LatencyMetrics.Phase.QUEUE_WAIT, (Long) queueWaitTime);
+        }
+    }
+
+    /**
+     * @see #recordTransportPhases(LatencyMetrics.ComponentType, String, org.apache.axis2.context.MessageContext)
+     */
+    public static void recordTransportPhases(LatencyMetrics.ComponentType type, String name, MessageContext synCtx) {
+        if (synCtx instanceof Axis2MessageContext) {
+            recordTransportPhases(type, name, ((Axis2MessageContext) synCtx).getAxis2MessageContext());
+        }
+    }
+
+    /**
+     * Marks the time at which a request is handed over to the transport by an endpoint, the backend time is
+     * recorded by {@link #recordBackend(MessageContext)} once the response or error arrives.
+     *
+     * @param synCtx       the outgoing message context
+     * @param endpointName the name of the endpoint
+     */
+    public static void markBackendStart(MessageContext synCtx, String endpointName) {
+        if (endpointName != null) {
+            synCtx.setProperty(MetricsConstants.BACKEND_ENDPOINT_NAME, endpointName);
+            synCtx.setProperty(MetricsConstants.BACKEND_START_NANOS, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records the backend time of the endpoint which sent the given request, if the request was marked by
+     * {@link #markBackendStart(MessageContext, String)}.
+     *
+     * @param synapseOutMsgCtx the outgoing message context the response belongs to
+     */
+    public static void recordBackend(MessageContext synapseOutMsgCtx) {
+        Object startTime = synapseOutMsgCtx.getProperty(MetricsConstants.BACKEND_START_NANOS);
+        Object endpointName = synapseOutMsgCtx.getProperty(MetricsConstants.BACKEND_ENDPOINT_NAME);
+        if (startTime instanceof Long && endpointName instanceof String) {
+            LatencyMetrics.getInstance().record(LatencyMetrics.ComponentType.ENDPOINT, (String) endpointName,
+                    LatencyMetrics.Phase.BACKEND, System.nanoTime() - (Long) startTime);
+        }
+    }
+}
@@ -25,5 +25,8 @@ package org.apache.synapse.metrics;
 public final class MetricsConstants {
     public static final String GLOBAL_REQUEST_COUNTER = "__GLOBAL_REQUEST_COUNTER__";
     public static final String REQUEST_RECEIVED_TIME = "__REQUEST_RECEIVED_TIME__";
+    public static final String BACKEND_START_NANOS = "__METRICS_BACKEND_START_NANOS__";
+    public static final String BACKEND_ENDPOINT_NAME = "__METRICS_BACKEND_ENDPOINT_NAME__";
+    public static final String LATENCY_METRICS_ENABLED = "synapse.metrics.latency.enabled";
 }
 
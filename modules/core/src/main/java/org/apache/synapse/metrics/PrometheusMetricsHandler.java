@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.metrics;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.SynapseConstants;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
+import org.apache.synapse.commons.metrics.PrometheusTextFormat;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.core.axis2.Axis2Sender;
+import org.apache.synapse.rest.AbstractHandler;
+import org.apache.synapse.transport.passthru.PassThroughConstants;
+import org.apache.synapse.transport.passthru.util.RelayUtils;
+import org.apache.synapse.util.PayloadHelper;
+
+/**
+ * API handler which answers every request of the API it is engaged on with the {@link LatencyMetrics} in the
+ * Prometheus text format, e.g.
+ * <pre>
+ * &lt;api name="Metrics" context="/metrics"&gt;
+ *     ...
+ *     &lt;handlers&gt;
+ *         &lt;handler class="org.apache.synapse.metrics.PrometheusMetricsHandler"/&gt;
+ *     &lt;/handlers&gt;
+ * &lt;/api&gt;
+ * </pre>
+ */
+public class PrometheusMetricsHandler extends AbstractHandler {
+
+    private static final Log log = LogFactory.getLog(PrometheusMetricsHandler.class);
+
+    private static final String TEXT_PLAIN = "text/plain";
+
+    public boolean handleRequest(MessageContext synCtx) {
+        org.apache.axis2.context.MessageContext axis2Ctx = ((Axis2MessageContext) synCtx).getAxis2MessageContext();
+        try {
+            RelayUtils.discardRequestMessage(axis2Ctx);
+            PayloadHelper.setTextPayload(synCtx, PrometheusTextFormat.toText(LatencyMetrics.getInstance()));
+        } catch (AxisFault e) {
+            log.error("Error while writing the latency metrics", e);
+            axis2Ctx.setProperty(SynapseConstants.HTTP_SC, 500);
+            axis2Ctx.setProperty(PassThroughConstants.NO_ENTITY_BODY, Boolean.TRUE);
+            sendBack(synCtx);
+            return false;
+        }
+        axis2Ctx.removeProperty(PassThroughConstants.NO_ENTITY_BODY);
+        axis2Ctx.setProperty(Constants.Configuration.MESSAGE_TYPE, TEXT_PLAIN);
+        axis2Ctx.setProperty(Constants.Configuration.CONTENT_TYPE, PrometheusTextFormat.CONTENT_TYPE);
+        axis2Ctx.setProperty(SynapseConstants.HTTP_SC, 200);
+        sendBack(synCtx);
+        return false;
+    }
+
+    public boolean handleResponse(MessageContext synCtx) {
+        return true;
+    }
+
+    private void sendBack(MessageContext synCtx) {
+        synCtx.setTo(null);
+        synCtx.setResponse(true);
+        Axis2Sender.sendBack(synCtx);
+    }
+}
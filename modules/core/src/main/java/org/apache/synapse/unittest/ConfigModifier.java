@@ -20,6 +20,7 @@ package org.apache.synapse.unittest;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.emulator.http.HTTPProtocolEmulator;
 import org.apache.synapse.unittest.testcase.data.classes.ServiceResource;
 import org.apache.synapse.unittest.testcase.data.holders.MockServiceData;
 
@@ -28,7 +29,9 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.synapse.unittest.Constants.BACK_SLASH;
 import static org.apache.synapse.unittest.Constants.EMPTY_VALUE;
@@ -47,7 +50,7 @@ public class ConfigModifier {
 
     private static Log log = LogFactory.getLog(ConfigModifier.class.getName());
 
-    public static Map<String, Map<String, String>> unitTestMockEndpointMap = new HashMap<>();
+    public static Map<String, Map<String, String>> unitTestMockEndpointMap = new ConcurrentHashMap<>();
 
     /**
      * Method parse the artifact data received and replaces actual endpoint urls with mock urls.
@@ -55,9 +58,10 @@ public class ConfigModifier {
      * Thread waits until all mock services are starts by checking port availability
      *
      * @param mockServiceData mock service data received from descriptor data
+     * @param startedServices list to add the started mock services to
      * @return return a exception of error occurred while creating mock services
      */
-    static String mockServiceLoader(MockServiceData mockServiceData) {
+    static String mockServiceLoader(MockServiceData mockServiceData, List<HTTPProtocolEmulator> startedServices) {
 
         ArrayList<Integer> mockServicePorts = new ArrayList<>();
 
@@ -82,8 +86,11 @@ public class ConfigModifier {
             unitTestMockEndpointMap.put(endpointName, mockServiceResources);
 
             log.info("Mock service creator ready to start service for " + endpointName);
-            MockServiceCreator.startMockServiceServer(endpointName, SERVICE_HOST, port, context,
-                    mockServiceData.getMockServices(serviceElementIndex).getResources());
+            HTTPProtocolEmulator mockService = MockServiceCreator.startMockServiceServer(endpointName, SERVICE_HOST,
+                    port, context, mockServiceData.getMockServices(serviceElementIndex).getResources());
+            if (mockService != null) {
+                startedServices.add(mockService);
+            }
         }
 
         //check services are ready to serve by checking the ports
@@ -97,6 +104,17 @@ public class ConfigModifier {
         return null;
     }
 
+    /**
+     * Remove the mock endpoints of a test suite.
+     *
+     * @param mockServiceData mock service data of the test suite
+     */
+    static void removeMockEndpoints(MockServiceData mockServiceData) {
+        for (int i = 0; i < mockServiceData.getMockServicesCount(); i++) {
+            unitTestMockEndpointMap.remove(mockServiceData.getMockServices(i).getServiceName());
+        }
+    }
+
     /**
      * Check services are ready to serve in given ports.
      *
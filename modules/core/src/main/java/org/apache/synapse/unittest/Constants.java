@@ -138,6 +138,11 @@ public class Constants {
     static final String ASSERTION_TYPE = "assertionType";
     static final String FAILURE_ASSERTIONS = "failureAssertions";
     static final String ASSERTION_DESCRIPTION = "assertionDescription";
+    static final String EXECUTION_TIME = "executionTime";
+
+    //parallel execution constants
+    static final String TEST_CASE_PARALLELISM = "synapseTestCaseParallelism";
+    static final String TEST_SUITE_PARALLELISM = "synapseTestSuiteParallelism";
 
     //parameter constants
     static final String PRAM_TEMP_DIR = "java.io.tmpdir";
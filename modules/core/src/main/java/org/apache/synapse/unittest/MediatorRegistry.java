@@ -45,6 +45,7 @@ import org.apache.synapse.mediators.v2.ForEachMediatorV2;
 import org.apache.synapse.mediators.v2.ScatterGather;
 import org.apache.synapse.mediators.v2.VariableMediator;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -870,6 +871,19 @@ public class MediatorRegistry {
         return refs != null ? new HashSet<>(refs) : new HashSet<>();
     }
 
+    /**
+     * Remove the given artifacts from the registry, keeping the artifacts of other test suites.
+     *
+     * @param artifactKeys artifact keys to remove
+     */
+    public void clear(Collection<String> artifactKeys) {
+        for (String artifactKey : artifactKeys) {
+            registeredMediators.remove(artifactKey);
+            executedMediators.remove(artifactKey);
+            artifactDependencies.remove(artifactKey);
+        }
+    }
+
     /**
      * Clear all registry data.
      */
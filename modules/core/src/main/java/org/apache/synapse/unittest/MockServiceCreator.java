@@ -54,7 +54,6 @@ import static org.apache.synapse.unittest.Constants.PATCH_METHOD;
 class MockServiceCreator {
 
     private static Log log = LogFactory.getLog(MockServiceCreator.class.getName());
-    private static List<HTTPProtocolEmulator> emulatorServiceList = new ArrayList<>();
     private MockServiceCreator() {
     }
 
@@ -65,13 +64,13 @@ class MockServiceCreator {
      * @param host            domain of the url
      * @param context         path of the url
      * @param resources       resources of the service
+     * @return started emulator service, null if the service failed to start
      */
-    static void startMockServiceServer(String mockServiceName, String host, int port, String context,
-                                              List<ServiceResource> resources) {
+    static HTTPProtocolEmulator startMockServiceServer(String mockServiceName, String host, int port, String context,
+                                                       List<ServiceResource> resources) {
 
         try {
             HTTPProtocolEmulator httpEmulator = new Emulator().getHttpProtocolEmulator();
-            emulatorServiceList.add(httpEmulator);
             HttpConsumerContext emulator = httpEmulator
                     .consumer()
                     .host(host)
@@ -84,10 +83,11 @@ class MockServiceCreator {
 
             emulator.operations().start();
             log.info("Mock service started for " + mockServiceName + " in - http://" + host + ":" + port + context);
+            return httpEmulator;
         } catch (Exception e) {
             log.error("Error in initiating mock service named " + mockServiceName, e);
         }
-
+        return null;
     }
 
     /**
@@ -169,14 +169,16 @@ class MockServiceCreator {
     }
 
     /**
-     * Stop all services created from the emulator by checking thread-id.
+     * Stop the given services created from the emulator.
+     *
+     * @param emulatorServices services started for a test suite
      */
-    static void stopServices() {
-        for (HTTPProtocolEmulator emulatorService : emulatorServiceList) {
+    static void stopServices(List<HTTPProtocolEmulator> emulatorServices) {
+        for (HTTPProtocolEmulator emulatorService : emulatorServices) {
             emulatorService.shutdown();
         }
 
-        emulatorServiceList.clear();
+        emulatorServices.clear();
     }
 
     /**
@@ -23,6 +23,7 @@ import com.google.gson.JsonObject;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.emulator.http.HTTPProtocolEmulator;
 import org.apache.synapse.config.SynapseConfiguration;
 import org.apache.synapse.unittest.testcase.data.classes.RegistryResource;
 import org.apache.synapse.unittest.testcase.data.classes.SynapseTestCase;
@@ -42,7 +43,10 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Class is implements with Runnable.
@@ -57,6 +61,8 @@ public class RequestHandler implements Runnable {
     private boolean isTransportPassThroughPortChecked = false;
     private String exception;
     private TestSuiteSummary testSuiteSummary = new TestSuiteSummary();
+    private MockServiceData mockServiceData = new MockServiceData();
+    private List<HTTPProtocolEmulator> mockServices = new ArrayList<>();
 
     /**
      * Initializing RequestHandler withe the client socket connection.
@@ -73,15 +79,10 @@ public class RequestHandler implements Runnable {
 
             String receivedData = readData();
 
-            SynapseConfiguration synapseConfiguration = UnitTestingExecutor.getExecuteInstance().
-                    getSynapseConfiguration();
-            synapseConfiguration.setProperty(Constants.IS_RUNNING_AS_UNIT_TEST, "true");
-
-            SynapseTestCase synapseTestCases = preProcessingData(receivedData);
+            SynapseTestCase synapseTestCases = readTestSuiteData(receivedData);
 
             if (synapseTestCases != null) {
-                runTestingAgent(synapseTestCases);
-                clearRegistryAndConnectorResources(synapseTestCases);
+                runTestSuite(synapseTestCases);
             } else {
                 log.error("Reading Synapse testcase data failed");
                 testSuiteSummary.setDescription("Failed while reading synapseTestCase data");
@@ -90,8 +91,10 @@ public class RequestHandler implements Runnable {
             }
 
             writeData(testSuiteSummary);
-            MockServiceCreator.stopServices();
             log.info("End processing test-case handler");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting to run the test suite", e);
         } catch (Exception e) {
             log.error("Error while running client request in test agent", e);
         } finally {
@@ -99,6 +102,57 @@ public class RequestHandler implements Runnable {
         }
     }
 
+    /**
+     * Run the test suite once the suites which use the same artifacts, mock services or registry resources are
+     * over. The mock services, registry resources and coverage data of the suite are removed afterwards.
+     *
+     * @param synapseTestCases test suite data received from client
+     */
+    private void runTestSuite(SynapseTestCase synapseTestCases) throws InterruptedException {
+        Set<String> suiteResources = TestSuiteScheduler.getSuiteResources(synapseTestCases.getArtifacts(),
+                mockServiceData);
+        TestSuiteScheduler scheduler = TestSuiteScheduler.getInstance();
+        scheduler.acquire(suiteResources, new Runnable() {
+            @Override
+            public void run() {
+                UnitTestingExecutor.getExecuteInstance().getSynapseConfiguration()
+                        .setProperty(Constants.IS_RUNNING_AS_UNIT_TEST, "true");
+            }
+        });
+
+        long startTime = System.currentTimeMillis();
+        TestingAgent agent = null;
+        try {
+            if (prepareTestSuite(synapseTestCases)) {
+                agent = runTestingAgent(synapseTestCases);
+            } else {
+                log.error("Preparing Synapse testcase resources failed");
+                testSuiteSummary.setDescription("Failed while reading synapseTestCase data");
+                testSuiteSummary.setDeploymentStatus(Constants.SKIPPED_KEY);
+                testSuiteSummary.setDeploymentException(exception);
+            }
+        } finally {
+            MockServiceCreator.stopServices(mockServices);
+            clearRegistryAndConnectorResources(synapseTestCases);
+            ConfigModifier.removeMockEndpoints(mockServiceData);
+            if (agent != null) {
+                // the referenced artifacts may be in use by the other test suites
+                MediatorRegistry.getInstance().clear(agent.getDeployedArtifactKeys());
+            }
+            testSuiteSummary.setExecutionTime(System.currentTimeMillis() - startTime);
+            scheduler.release(suiteResources, new Runnable() {
+                @Override
+                public void run() {
+                    UnitTestingExecutor.getExecuteInstance().getSynapseConfiguration()
+                            .setProperty(Constants.IS_RUNNING_AS_UNIT_TEST, "false");
+                    //clear coverage tracker
+                    MediatorRegistry.getInstance().clear();
+                }
+            });
+        }
+        log.info("Test suite completed in " + testSuiteSummary.getExecutionTime() + " ms");
+    }
+
     /**
      * Read input data from the unit testing client.
      *
@@ -123,12 +177,11 @@ public class RequestHandler implements Runnable {
 
     /**
      * Processed received message data and stores those data in relevant data holders.
-     * Uses configModifier if there are some mock services to start
      *
      * @param receivedMessage received synapseTestcase data message as String
-     * @return SynapaseTestCase object contains artifact, test cases and mock services data
+     * @return SynapaseTestCase object contains artifact and test cases data
      */
-    private SynapseTestCase preProcessingData(String receivedMessage) {
+    private SynapseTestCase readTestSuiteData(String receivedMessage) {
 
         try {
             //Read relevant data from the received message and add to the relevant data holders
@@ -136,7 +189,34 @@ public class RequestHandler implements Runnable {
 
             ArtifactData readArtifactData = synapseTestcaseDataReader.readAndStoreArtifactData();
             TestCaseData readTestCaseData = synapseTestcaseDataReader.readAndStoreTestCaseData();
-            MockServiceData readMockServiceData = synapseTestcaseDataReader.readAndStoreMockServiceData();
+            mockServiceData = synapseTestcaseDataReader.readAndStoreMockServiceData();
+
+            //wrap the artifact data, testcase data and mock service data as one
+            SynapseTestCase synapseTestCases = new SynapseTestCase();
+            synapseTestCases.setArtifacts(readArtifactData);
+            synapseTestCases.setTestCases(readTestCaseData);
+
+            return synapseTestCases;
+
+        } catch (Exception e) {
+            log.error("Error while reading data from received message", e);
+            exception = CommonUtils.stackTraceToString(e);
+            return null;
+        }
+
+    }
+
+    /**
+     * Deploys the connector and registry resources of the test suite.
+     * Uses configModifier if there are some mock services to start
+     *
+     * @param synapseTestCases test suite data received from client
+     * @return true if the resources of the test suite are ready
+     */
+    private boolean prepareTestSuite(SynapseTestCase synapseTestCases) {
+
+        try {
+            ArtifactData readArtifactData = synapseTestCases.getArtifacts();
 
             //configure connector resources if exists
             if (!readArtifactData.getConnectorResources().isEmpty()) {
@@ -150,27 +230,22 @@ public class RequestHandler implements Runnable {
 
             //configure the artifact if there are mock-services to append
             String exceptionWhileMocking = null;
-            if (readMockServiceData.getMockServicesCount() > 0) {
-                exceptionWhileMocking = ConfigModifier.mockServiceLoader(readMockServiceData);
+            if (mockServiceData.getMockServicesCount() > 0) {
+                exceptionWhileMocking = ConfigModifier.mockServiceLoader(mockServiceData, mockServices);
             }
 
             //check is there any error occurred while mocking endpoints if yes stop the testing and return the exception
             if (exceptionWhileMocking != null) {
                 exception = exceptionWhileMocking;
-                return null;
+                return false;
             }
 
-            //wrap the artifact data, testcase data and mock service data as one
-            SynapseTestCase synapseTestCases = new SynapseTestCase();
-            synapseTestCases.setArtifacts(readArtifactData);
-            synapseTestCases.setTestCases(readTestCaseData);
-
-            return synapseTestCases;
+            return true;
 
         } catch (Exception e) {
             log.error("Error while reading data from received message", e);
             exception = CommonUtils.stackTraceToString(e);
-            return null;
+            return false;
         }
 
     }
@@ -179,8 +254,9 @@ public class RequestHandler implements Runnable {
      * Execute test agent for artifact deployment and mediation using receiving JSON message.
      *
      * @param synapseTestCase test cases data received from client
+     * @return testing agent which deployed the artifacts
      */
-    private void runTestingAgent(SynapseTestCase synapseTestCase) {
+    private TestingAgent runTestingAgent(SynapseTestCase synapseTestCase) {
 
         TestingAgent agent = new TestingAgent();
         Map.Entry<Boolean, TestSuiteSummary> supportiveArtifactDeployment = new AbstractMap.SimpleEntry<>(false, null);
@@ -227,12 +303,7 @@ public class RequestHandler implements Runnable {
 
         //undeploy all the deployed artifacts
         agent.artifactUndeployer();
-        ConfigModifier.unitTestMockEndpointMap.clear();
-        UnitTestingExecutor.getExecuteInstance().getSynapseConfiguration().
-                setProperty(Constants.IS_RUNNING_AS_UNIT_TEST, "false");
-        
-        //clear coverage tracker
-        MediatorRegistry.getInstance().clear();
+        return agent;
     }
 
     /**
@@ -259,6 +330,7 @@ public class RequestHandler implements Runnable {
         jsonResponse.addProperty(Constants.MEDIATION_STATUS, testSummary.getMediationStatus());
         jsonResponse.addProperty(Constants.CURRENT_TESTCASE, testSummary.getRecentTestCaseName());
         jsonResponse.addProperty(Constants.MEDIATION_EXCEPTION, testSummary.getMediationException());
+        jsonResponse.addProperty(Constants.EXECUTION_TIME, testSummary.getExecutionTime());
 
         JsonArray jsonArray = new JsonArray();
         for (TestCaseSummary summary : testSummary.getTestCaseSumamryList()) {
@@ -267,6 +339,7 @@ public class RequestHandler implements Runnable {
             testObject.addProperty(Constants.MEDIATION_STATUS, summary.getMediationStatus());
             testObject.addProperty(Constants.ASSERTION_STATUS, summary.getAssertionStatus());
             testObject.addProperty(Constants.ASSERTION_EXCEPTION, summary.getTestException());
+            testObject.addProperty(Constants.EXECUTION_TIME, summary.getExecutionTime());
 
             JsonArray jsonFailedAssertionArray = new JsonArray();
             for (TestCaseAssertionSummary assertionFailure : summary.getTestCaseAssertionList()) {
@@ -374,7 +447,9 @@ public class RequestHandler implements Runnable {
                 SynapseConfiguration synapseConfiguration = UnitTestingExecutor.getExecuteInstance()
                         .getSynapseConfiguration();
                 UnitTestMockRegistry mockRegistry = (UnitTestMockRegistry) synapseConfiguration.getRegistry();
-                mockRegistry.clearResources();
+                for (String resourceKey : readArtifactData.getRegistryResources().keySet()) {
+                    mockRegistry.removeResource(resourceKey);
+                }
 
                 log.info("Clear registry resources from the UnitTestMockRegistry");
             }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.unittest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.unittest.testcase.data.classes.Artifact;
+import org.apache.synapse.unittest.testcase.data.holders.ArtifactData;
+import org.apache.synapse.unittest.testcase.data.holders.MockServiceData;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import javax.xml.namespace.QName;
+
+/**
+ * Decides when a received test suite may run. Test suites deploy their artifacts, mock services and registry
+ * resources into the one running server, hence suites are only run side by side when they do not share any of
+ * those. A suite waits until the suites it conflicts with are over, and at most the configured number of suites
+ * run at the same time.
+ */
+class TestSuiteScheduler {
+
+    private static Log log = LogFactory.getLog(TestSuiteScheduler.class.getName());
+
+    private static final String CONNECTOR_RESOURCE = "connector";
+    private static TestSuiteScheduler instance = new TestSuiteScheduler(getSuiteParallelism());
+
+    private final int maxConcurrentSuites;
+    private final Set<String> claimedResources = new HashSet<>();
+    private int runningSuites = 0;
+
+    TestSuiteScheduler(int maxConcurrentSuites) {
+        this.maxConcurrentSuites = maxConcurrentSuites;
+    }
+
+    /**
+     * Return the scheduler of the unit testing agent.
+     */
+    static TestSuiteScheduler getInstance() {
+        return instance;
+    }
+
+    /**
+     * Wait until the suite which uses the given resources can run and claim those resources.
+     *
+     * @param resources resources used by the test suite
+     * @param onFirstSuite task to run when no other suite is running, e.g. to switch the server to unit test mode
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    synchronized void acquire(Set<String> resources, Runnable onFirstSuite) throws InterruptedException {
+        boolean waiting = false;
+        while (runningSuites >= maxConcurrentSuites || !Collections.disjoint(claimedResources, resources)) {
+            if (!waiting && log.isDebugEnabled()) {
+                log.debug("Test suite waits for " + runningSuites + " running test suite(s)");
+            }
+            waiting = true;
+            wait();
+        }
+        claimedResources.addAll(resources);
+        runningSuites++;
+        if (runningSuites == 1 && onFirstSuite != null) {
+            onFirstSuite.run();
+        }
+    }
+
+    /**
+     * Release the resources of a completed suite and wake up the waiting suites.
+     *
+     * @param resources resources used by the test suite
+     * @param onLastSuite task to run when no other suite is running, e.g. to clear the state shared by the suites
+     */
+    synchronized void release(Set<String> resources, Runnable onLastSuite) {
+        claimedResources.removeAll(resources);
+        runningSuites--;
+        if (runningSuites == 0 && onLastSuite != null) {
+            onLastSuite.run();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Get the resources of the server which a test suite deploys or binds to.
+     *
+     * @param artifactData artifact data of the test suite
+     * @param mockServiceData mock service data of the test suite
+     * @return resource identifiers, equal for suites which can not run side by side
+     */
+    static Set<String> getSuiteResources(ArtifactData artifactData, MockServiceData mockServiceData) {
+        Set<String> resources = new HashSet<>();
+        if (artifactData.getTestArtifact() != null) {
+            addArtifactResources(artifactData.getTestArtifact(), resources);
+        }
+        for (int i = 0; i < artifactData.getSupportiveArtifactCount(); i++) {
+            addArtifactResources(artifactData.getSupportiveArtifact(i), resources);
+        }
+        for (String registryKey : artifactData.getRegistryResources().keySet()) {
+            resources.add("registry:" + registryKey);
+        }
+        if (!artifactData.getConnectorResources().isEmpty()) {
+            // connectors are extracted to the same temp directory
+            resources.add(CONNECTOR_RESOURCE);
+        }
+        if (mockServiceData != null) {
+            for (int i = 0; i < mockServiceData.getMockServicesCount(); i++) {
+                resources.add("endpoint:" + mockServiceData.getMockServices(i).getServiceName());
+                resources.add("port:" + mockServiceData.getMockServices(i).getPort());
+            }
+        }
+        return resources;
+    }
+
+    private static void addArtifactResources(Artifact artifact, Set<String> resources) {
+        resources.add(artifact.getArtifactType() + ":" + artifact.getArtifactNameOrKey());
+        if (Constants.TYPE_API.equals(artifact.getArtifactType()) && artifact.getArtifact() != null) {
+            // APIs with different names may still be dispatched by the same context
+            String context = artifact.getArtifact().getAttributeValue(new QName(Constants.API_CONTEXT));
+            if (context != null) {
+                resources.add("context:" + context);
+            }
+        }
+    }
+
+    /**
+     * Get the number of test suites which may run at the same time, one unless configured otherwise.
+     */
+    private static int getSuiteParallelism() {
+        return getParallelism(Constants.TEST_SUITE_PARALLELISM);
+    }
+
+    /**
+     * Read a parallelism system property, falling back to one on a missing or invalid value.
+     *
+     * @param property system property name
+     * @return configured parallelism
+     */
+    static int getParallelism(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isEmpty()) {
+            return 1;
+        }
+        try {
+            int parallelism = Integer.parseInt(value.trim());
+            if (parallelism > 0) {
+                return parallelism;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the warning
+        }
+        log.warn("Given " + property + " \"" + value + "\" is not a positive number, running sequentially");
+        return 1;
+    }
+}
@@ -49,9 +49,20 @@ import org.jaxen.JaxenException;
 
 import java.io.IOException;
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.namespace.QName;
 
 import static org.apache.synapse.unittest.Constants.API_CONTEXT;
@@ -78,6 +89,7 @@ class TestingAgent {
     private OMElement artifactNode = null;
     private String exception = null;
     private Map<String, String> deploymentStats = new HashMap<>();
+    private Set<String> coverageArtifactKeys = new HashSet<>();
 
     /**
      * Check artifact type and pass the test-artifact data to the relevant deployment mechanism.
@@ -287,72 +299,164 @@ class TestingAgent {
 
     /**
      * Check artifact type and pass the test case data to the relevant mediation.
+     * Test cases run one after the other unless a test case parallelism is configured, in which case independent
+     * test cases run side by side against the deployed artifacts. Results are reported in the test case order.
      *
      * @param synapseTestCase test cases data received from client
      */
     void processTestCases(SynapseTestCase synapseTestCase, TestSuiteSummary testSuiteSummary) {
         int testCaseCount = synapseTestCase.getTestCases().getTestCaseCount();
+        int parallelism = Math.min(TestSuiteScheduler.getParallelism(Constants.TEST_CASE_PARALLELISM),
+                testCaseCount);
         log.info(testCaseCount + " Test case(s) ready to execute");
+        long startTime = System.currentTimeMillis();
+
+        if (parallelism > 1) {
+            processTestCasesInParallel(synapseTestCase, testSuiteSummary, parallelism);
+        } else {
+            String currentTestCaseName = null;
+            try {
+                //execute test cases with synapse configurations and test data
+                for (int i = 0; i < testCaseCount; i++) {
+                    TestCase currentTestCase = synapseTestCase.getTestCases().getTestCase(i);
+                    currentTestCaseName = currentTestCase.getTestCaseName();
+                    testSuiteSummary.setRecentTestCaseName(currentTestCaseName);
+
+                    TestCaseSummary testSummary = processTestCase(currentTestCase);
+                    testSuiteSummary.setMediationStatus(Constants.PASSED_KEY);
+                    testSuiteSummary.addTestCaseSumamry(testSummary);
+                }
+            } catch (Exception e) {
+                reportTestCaseFailure(testSuiteSummary, currentTestCaseName, e);
+            }
+        }
+
+        logExecutionTime(testSuiteSummary, parallelism, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Run the test cases on a pool of the given size and collect their results in the test case order. As with
+     * sequential execution, results after the first failed test case are not reported.
+     *
+     * @param synapseTestCase test cases data received from client
+     * @param testSuiteSummary test suite summary to add the results to
+     * @param parallelism number of test cases to run at the same time
+     */
+    private void processTestCasesInParallel(SynapseTestCase synapseTestCase, TestSuiteSummary testSuiteSummary,
+                                            int parallelism) {
+        int testCaseCount = synapseTestCase.getTestCases().getTestCaseCount();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<Future<TestCaseSummary>> results = new ArrayList<>(testCaseCount);
         String currentTestCaseName = null;
 
         try {
-            //execute test cases with synapse configurations and test data
             for (int i = 0; i < testCaseCount; i++) {
-                TestCaseSummary testSummary = new TestCaseSummary();
-                TestCase currentTestCase = synapseTestCase.getTestCases().getTestCase(i);
-                currentTestCaseName = currentTestCase.getTestCaseName();
-                testSummary.setTestCaseName(currentTestCaseName);
-                testSuiteSummary.setRecentTestCaseName(currentTestCaseName);
+                final TestCase currentTestCase = synapseTestCase.getTestCases().getTestCase(i);
+                results.add(executor.submit(new Callable<TestCaseSummary>() {
+                    @Override
+                    public TestCaseSummary call() throws Exception {
+                        return processTestCase(currentTestCase);
+                    }
+                }));
+            }
 
-                switch (mainTestArtifactType) {
-                    case TYPE_SEQUENCE:
-                        Map.Entry<Boolean, MessageContext> mediateResult =
-                                TestCasesMediator.sequenceMediate(currentTestCase, synapseConfiguration, key);
+            for (int i = 0; i < testCaseCount; i++) {
+                currentTestCaseName = synapseTestCase.getTestCases().getTestCase(i).getTestCaseName();
+                testSuiteSummary.setRecentTestCaseName(currentTestCaseName);
+                try {
+                    TestCaseSummary testSummary = results.get(i).get();
+                    testSuiteSummary.setMediationStatus(Constants.PASSED_KEY);
+                    testSuiteSummary.addTestCaseSumamry(testSummary);
+                } catch (ExecutionException e) {
+                    reportTestCaseFailure(testSuiteSummary, currentTestCaseName, e.getCause());
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reportTestCaseFailure(testSuiteSummary, currentTestCaseName, e);
+        } finally {
+            for (Future<TestCaseSummary> result : results) {
+                result.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
 
-                        testSuiteSummary.setMediationStatus(Constants.PASSED_KEY);
-                        Boolean mediationResult = mediateResult.getKey();
-                        MessageContext resultedMessageContext = mediateResult.getValue();
+    /**
+     * Mediate a test case through the deployed test artifact and assert the result.
+     *
+     * @param currentTestCase test case to run
+     * @return summary of the test case
+     */
+    TestCaseSummary processTestCase(TestCase currentTestCase) throws Exception {
+        long startTime = System.currentTimeMillis();
+        TestCaseSummary testSummary = new TestCaseSummary();
+        testSummary.setTestCaseName(currentTestCase.getTestCaseName());
 
-                        //check whether mediation is success or not
-                        checkAssertionWithSequenceMediation
-                                (mediationResult, resultedMessageContext, currentTestCase, testSummary);
-                        break;
+        switch (mainTestArtifactType) {
+            case TYPE_SEQUENCE:
+                Map.Entry<Boolean, MessageContext> mediateResult =
+                        TestCasesMediator.sequenceMediate(currentTestCase, synapseConfiguration, key);
 
-                    case TYPE_PROXY:
-                        Map.Entry<String, HttpResponse> invokedProxyResult = TestCasesMediator
-                                .proxyServiceExecutor(currentTestCase, proxyTransportMethod, key);
+                Boolean mediationResult = mediateResult.getKey();
+                MessageContext resultedMessageContext = mediateResult.getValue();
 
-                        testSuiteSummary.setMediationStatus(Constants.PASSED_KEY);
-                        checkAssertionWithProxyMediation(invokedProxyResult, currentTestCase, testSummary);
-                        break;
+                //check whether mediation is success or not
+                checkAssertionWithSequenceMediation
+                        (mediationResult, resultedMessageContext, currentTestCase, testSummary);
+                break;
 
-                    case TYPE_API:
-                        String context = artifactNode.getAttributeValue(new QName(API_CONTEXT));
-                        String resourceMethod = currentTestCase.getRequestMethod();
-                        String protocolType = currentTestCase.getProtocolType();
-                        if (protocolType == null || protocolType.isEmpty()) {
-                            protocolType = HTTP_KEY;
-                        }
-                        Map.Entry<String, HttpResponse> invokedApiResult = TestCasesMediator.apiResourceExecutor
-                                (currentTestCase, context, resourceMethod, protocolType);
+            case TYPE_PROXY:
+                Map.Entry<String, HttpResponse> invokedProxyResult = TestCasesMediator
+                        .proxyServiceExecutor(currentTestCase, proxyTransportMethod, key);
 
-                        testSuiteSummary.setMediationStatus(Constants.PASSED_KEY);
-                        checkAssertionWithAPIMediation(invokedApiResult, currentTestCase, testSummary);
-                        break;
+                checkAssertionWithProxyMediation(invokedProxyResult, currentTestCase, testSummary);
+                break;
 
-                    default:
-                        break;
+            case TYPE_API:
+                String context = artifactNode.getAttributeValue(new QName(API_CONTEXT));
+                String resourceMethod = currentTestCase.getRequestMethod();
+                String protocolType = currentTestCase.getProtocolType();
+                if (protocolType == null || protocolType.isEmpty()) {
+                    protocolType = HTTP_KEY;
                 }
+                Map.Entry<String, HttpResponse> invokedApiResult = TestCasesMediator.apiResourceExecutor
+                        (currentTestCase, context, resourceMethod, protocolType);
 
-                testSuiteSummary.addTestCaseSumamry(testSummary);
-            }
-        } catch (Exception e) {
-            log.error("Error occurred while running test cases", e);
-            exception = CommonUtils.stackTraceToString(e);
-            testSuiteSummary.setRecentTestCaseName(currentTestCaseName);
-            testSuiteSummary.setMediationStatus(Constants.FAILED_KEY);
-            testSuiteSummary.setMediationException(exception);
+                checkAssertionWithAPIMediation(invokedApiResult, currentTestCase, testSummary);
+                break;
+
+            default:
+                break;
         }
+
+        testSummary.setExecutionTime(System.currentTimeMillis() - startTime);
+        return testSummary;
+    }
+
+    /**
+     * Report a test case which failed with an exception in the test suite summary.
+     */
+    private void reportTestCaseFailure(TestSuiteSummary testSuiteSummary, String testCaseName, Throwable e) {
+        log.error("Error occurred while running test cases", e);
+        exception = CommonUtils.stackTraceToString(e);
+        testSuiteSummary.setRecentTestCaseName(testCaseName);
+        testSuiteSummary.setMediationStatus(Constants.FAILED_KEY);
+        testSuiteSummary.setMediationException(exception);
+    }
+
+    /**
+     * Log the wall-clock time of the test cases next to the sum of the test case times.
+     */
+    private void logExecutionTime(TestSuiteSummary testSuiteSummary, int parallelism, long wallClockTime) {
+        long testCaseTime = 0;
+        for (TestCaseSummary summary : testSuiteSummary.getTestCaseSumamryList()) {
+            testCaseTime += summary.getExecutionTime();
+        }
+        log.info(testSuiteSummary.getTestCaseSumamryList().size() + " Test case(s) executed in " + wallClockTime
+                + " ms with parallelism " + Math.max(parallelism, 1) + ", total test case time " + testCaseTime
+                + " ms");
     }
 
     /**
@@ -498,6 +602,7 @@ class TestingAgent {
             API api = synapseConfig.getAPI(apiName);
             if (api != null) {
                 MediatorRegistry.getInstance().registerAPI(api);
+                coverageArtifactKeys.add("API:" + apiName);
             }
         } catch (Exception e) {
             log.warn("Failed to register API for coverage tracking: " + apiName, e);
@@ -515,6 +620,7 @@ class TestingAgent {
             SequenceMediator sequence = (SequenceMediator) synapseConfig.getSequence(sequenceName);
             if (sequence != null) {
                 MediatorRegistry.getInstance().registerSequence(sequence, null);
+                coverageArtifactKeys.add("Sequence:" + sequenceName);
             }
         } catch (Exception e) {
             log.warn("Failed to register Sequence for coverage tracking: " + sequenceName, e);
@@ -532,12 +638,44 @@ class TestingAgent {
             TemplateMediator template = synapseConfig.getSequenceTemplate(templateName);
             if (template != null) {
                 MediatorRegistry.getInstance().registerTemplate(template);
+                coverageArtifactKeys.add("Template:" + templateName);
             }
         } catch (Exception e) {
             log.warn("Failed to register Template for coverage tracking: " + templateName, e);
         }
     }
 
+    /**
+     * Get the coverage artifact keys of the artifacts deployed by this agent. Unlike
+     * {@link #getCoverageArtifactKeys()} these do not include the referenced artifacts, which may be shared with
+     * the other test suites running at the same time.
+     *
+     * @return coverage artifact keys of the artifacts deployed by the test suite
+     */
+    Set<String> getDeployedArtifactKeys() {
+        return Collections.unmodifiableSet(coverageArtifactKeys);
+    }
+
+    /**
+     * Get the coverage artifact keys of the artifacts deployed by this agent and the artifacts they refer to.
+     * Other test suites running at the same time use different artifacts, hence only these belong to the
+     * coverage report of this test suite.
+     *
+     * @return registered coverage artifact keys of the test suite
+     */
+    Set<String> getCoverageArtifactKeys() {
+        MediatorRegistry tracker = MediatorRegistry.getInstance();
+        Set<String> artifactKeys = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(coverageArtifactKeys);
+        while (!pending.isEmpty()) {
+            String artifactKey = pending.pop();
+            if (tracker.isArtifactRegistered(artifactKey) && artifactKeys.add(artifactKey)) {
+                pending.addAll(tracker.getReferencedArtifacts(artifactKey));
+            }
+        }
+        return artifactKeys;
+    }
+
     /**
      * Generate coverage report and add to test suite summary.
      *
@@ -547,7 +685,7 @@ class TestingAgent {
         try {
             MediatorRegistry tracker = MediatorRegistry.getInstance();
 
-            for (String artifactKey : tracker.getRegisteredArtifacts()) {
+            for (String artifactKey : getCoverageArtifactKeys()) {
                 String[] parts = artifactKey.split(":", 2);
                 if (parts.length == 2) {
                     String artifactType = parts[0];
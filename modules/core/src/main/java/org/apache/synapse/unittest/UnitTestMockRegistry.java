@@ -37,9 +37,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.activation.DataHandler;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -57,7 +57,7 @@ public class UnitTestMockRegistry extends AbstractRegistry {
     protected final Properties properties = new Properties();
 
     //The list of registry resources
-    private Map<String, RegistryResource> testMockRegistry = new HashMap<>();
+    private Map<String, RegistryResource> testMockRegistry = new ConcurrentHashMap<>();
 
     private static final String LOCAL_REGISTRY_PATH = "/_system/local";
     private static final String CONFIGURATION_REGISTRY_PATH = "/_system/config";
@@ -84,6 +84,15 @@ public class UnitTestMockRegistry extends AbstractRegistry {
         testMockRegistry.put(key, resource);
     }
 
+    /**
+     * Remove a registry resource from the map.
+     *
+     * @param key resource key
+     */
+    public void removeResource(String key) {
+        testMockRegistry.remove(key);
+    }
+
     /**
      * Clear registry resource map.
      */
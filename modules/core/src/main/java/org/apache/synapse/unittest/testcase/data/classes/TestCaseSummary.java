@@ -30,6 +30,7 @@ public class TestCaseSummary {
     private String mediationStatus = SKIPPED_STATE;
     private String assertionStatus = SKIPPED_STATE;
     private List<TestCaseAssertionSummary> testCaseAssertions = new ArrayList<>();
+    private long executionTime;
 
     /**
      * Get failure exception.
@@ -137,4 +138,22 @@ public class TestCaseSummary {
     public List<TestCaseAssertionSummary> getTestCaseAssertionList() {
         return testCaseAssertions;
     }
+
+    /**
+     * Get test case execution time.
+     *
+     * @return time taken to mediate and assert the test case in milliseconds
+     */
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * Set test case execution time.
+     *
+     * @param executionTime time taken to mediate and assert the test case in milliseconds
+     */
+    public void setExecutionTime(long executionTime) {
+        this.executionTime = executionTime;
+    }
 }
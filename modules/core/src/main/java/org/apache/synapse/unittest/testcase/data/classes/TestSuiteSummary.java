@@ -40,6 +40,7 @@ public class TestSuiteSummary {
     private MediatorCoverage primaryCoverage;
     private List<MediatorCoverage> mediatorCoverageList = new ArrayList<>();
     private String coverageReportJson;
+    private long executionTime;
 
     /**
      * Get test case deployment status.
@@ -247,6 +248,24 @@ public class TestSuiteSummary {
         return coverageReportJson;
     }
 
+    /**
+     * Get test suite execution time.
+     *
+     * @return wall-clock time taken to deploy and run the test suite in milliseconds
+     */
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * Set test suite execution time.
+     *
+     * @param executionTime wall-clock time taken to deploy and run the test suite in milliseconds
+     */
+    public void setExecutionTime(long executionTime) {
+        this.executionTime = executionTime;
+    }
+
     /**
      * Generate coverage report JSON from mediator coverage list.
      *
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.util;
+
+/**
+ * Classifies the errors of the mediation by the types in their cause chain, without formatting their stack traces.
+ */
+public final class ErrorClassifier {
+
+    /** Packages of the parsers which fail while building a message */
+    private static final String[] PARSER_PACKAGES = {
+            "com.ctc.wstx.", "org.apache.synapse.commons.staxon.core.", "com.fasterxml.jackson.core."
+    };
+
+    /** Exceptions of the JSON parsers, which may be thrown outside of the parser packages */
+    private static final String[] PARSER_EXCEPTIONS = {
+            "MalformedJsonException", "JsonSyntaxException"
+    };
+
+    /** Bound of the cause chain walked, which also ends a cyclic chain */
+    private static final int MAX_CAUSE_DEPTH = 32;
+
+    private ErrorClassifier() {
+    }
+
+    /**
+     * Checks whether the error was raised while building the message, i.e. the message could not be parsed. This is
+     * the case if an exception of the XML or JSON parsers is in the cause chain, or if the deepest cause was thrown
+     * through a parser.
+     *
+     * @param error the error raised by the mediation
+     * @return true if the message could not be built
+     */
+    public static boolean isMessageBuildFailure(Throwable error) {
+        Throwable rootCause = null;
+        for (int depth = 0; error != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            String className = error.getClass().getName();
+            if (isParserClass(className) || isParserException(className)) {
+                return true;
+            }
+            rootCause = error;
+            Throwable cause = error.getCause();
+            error = cause == error ? null : cause;
+        }
+        if (rootCause != null) {
+            // the frames are only read for the deepest cause, which is where a parser fails
+            for (StackTraceElement frame : rootCause.getStackTrace()) {
+                if (isParserClass(frame.getClassName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isParserClass(String className) {
+        for (String parserPackage : PARSER_PACKAGES) {
+            if (className.startsWith(parserPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isParserException(String className) {
+        for (String exception : PARSER_EXCEPTIONS) {
+            if (className.endsWith(exception)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
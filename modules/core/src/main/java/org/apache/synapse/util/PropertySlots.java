@@ -0,0 +1,134 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.util;
+
+/**
+ * Assigns the integer slots of a {@link PropertyStore} to the keys which are known when the configuration is
+ * deployed, such as the names used by the property and variable mediators and by the expressions. The keys are
+ * registered while deploying and looked up for each message, hence a lookup reads an immutable table without any
+ * locking and a registration copies the table.
+ * <p>
+ * The number of slots is bounded, the keys registered after that are kept in the fallback map of the store.
+ */
+public final class PropertySlots {
+
+    /** Slots of the message context properties */
+    public static final PropertySlots PROPERTIES = new PropertySlots(256);
+
+    /** Slots of the message context variables */
+    public static final PropertySlots VARIABLES = new PropertySlots(128);
+
+    private final int maxSlots;
+
+    private volatile Table table = new Table(new String[16], new int[16], new String[0]);
+
+    public PropertySlots(int maxSlots) {
+        this.maxSlots = maxSlots;
+    }
+
+    /**
+     * Assigns a slot to the given key if it does not have one yet.
+     *
+     * @param key property or variable name
+     * @return the slot of the key, or -1 if all the slots are taken
+     */
+    public synchronized int register(String key) {
+        if (key == null) {
+            return -1;
+        }
+        Table current = table;
+        int slot = current.slotOf(key);
+        if (slot >= 0 || current.names.length == maxSlots) {
+            return slot;
+        }
+        slot = current.names.length;
+        String[] names = new String[slot + 1];
+        System.arraycopy(current.names, 0, names, 0, slot);
+        names[slot] = key;
+
+        // keep the table at most half full so that a lookup of an unknown key ends quickly
+        int capacity = current.keys.length;
+        while (capacity < names.length * 2) {
+            capacity <<= 1;
+        }
+        String[] keys = new String[capacity];
+        int[] slots = new int[capacity];
+        for (int i = 0; i < names.length; i++) {
+            int index = Table.hash(names[i]) & (capacity - 1);
+            while (keys[index] != null) {
+                index = (index + 1) & (capacity - 1);
+            }
+            keys[index] = names[i];
+            slots[index] = i;
+        }
+        table = new Table(keys, slots, names);
+        return slot;
+    }
+
+    /**
+     * @return the slot of the given key, or -1 if the key does not have a slot
+     */
+    public int slotOf(String key) {
+        return key == null ? -1 : table.slotOf(key);
+    }
+
+    /**
+     * @return the number of slots assigned so far
+     */
+    public int size() {
+        return table.names.length;
+    }
+
+    String nameOf(int slot) {
+        return table.names[slot];
+    }
+
+    private static final class Table {
+
+        private final String[] keys;
+
+        private final int[] slots;
+
+        private final String[] names;
+
+        private Table(String[] keys, int[] slots, String[] names) {
+            this.keys = keys;
+            this.slots = slots;
+            this.names = names;
+        }
+
+        private static int hash(String key) {
+            int h = key.hashCode();
+            return h ^ (h >>> 16);
+        }
+
+        private int slotOf(String key) {
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            String candidate;
+            while ((candidate = keys[index]) != null) {
+                if (candidate == key || candidate.equals(key)) {
+                    return slots[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.util;
+
+import org.apache.synapse.commons.util.DeferredValue;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The properties or variables of a message. The values of the keys which have a slot in the {@link PropertySlots} of
+ * the store are held in an array indexed by the slot, and the values of the other keys in a small open addressing
+ * map, so that setting a property does not allocate an entry as a {@link java.util.HashMap} does. Both arrays are
+ * created when the first value is put into them.
+ * <p>
+ * A store does not hold null values, putting a null value removes the key. A {@link DeferredValue} is resolved and
+ * replaced with its value the first time it is read. As the maps it replaces, a store is not thread safe and its
+ * iterators are fail-fast.
+ */
+public class PropertyStore extends AbstractMap<String, Object> {
+
+    private static final int INITIAL_SLOT_CAPACITY = 8;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Key of a removed entry of the fallback map, which keeps the other keys reachable */
+    private static final Object REMOVED = new Object();
+
+    /** Key under which a null key is kept in the fallback map */
+    private static final Object NULL_KEY = new Object();
+
+    /** Slots of the known keys, a key which gets a slot after its value was put is moved on its next put */
+    private final PropertySlots slots;
+
+    /** Values by slot */
+    private Object[] slotValues;
+
+    private int slotSize;
+
+    /** Keys and values of the fallback map */
+    private Object[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    /** Number of the removed entries of the fallback map */
+    private int removed;
+
+    private int modCount;
+
+    private Set<String> keySet;
+
+    private Set<Map.Entry<String, Object>> entrySet;
+
+    /**
+     * Creates a store which keeps all the keys in the fallback map.
+     */
+    public PropertyStore() {
+        this(null);
+    }
+
+    /**
+     * @param slots the slots of the known keys, or null to keep all the keys in the fallback map
+     */
+    public PropertyStore(PropertySlots slots) {
+        this.slots = slots;
+    }
+
+    @Override
+    public int size() {
+        return slotSize + size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return slotSize + size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (key != null && !(key instanceof String)) {
+            return null;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            Object value = slotValues != null && slot < slotValues.length ? slotValues[slot] : null;
+            if (value instanceof DeferredValue) {
+                value = ((DeferredValue) value).resolve();
+                slotValues[slot] = value;
+                if (value == null) {
+                    slotSize--;
+                    modCount++;
+                }
+            }
+            if (value != null || size == 0) {
+                return value;
+            }
+        }
+        if (keys == null) {
+            return null;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Object value = values[index];
+        if (value instanceof DeferredValue) {
+            value = ((DeferredValue) value).resolve();
+            values[index] = value;
+            if (value == null) {
+                removeIndex(index);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (value == null) {
+            return remove(key);
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            if (slotValues == null || slot >= slotValues.length) {
+                growSlots(slot);
+            }
+            Object previous = slotValues[slot];
+            slotValues[slot] = value;
+            if (previous == null) {
+                slotSize++;
+                modCount++;
+                if (size > 0) {
+                    // the key may have been put into the fallback map before it got the slot
+                    int index = indexOf(key);
+                    if (index >= 0) {
+                        previous = removeIndex(index);
+                    }
+                }
+            }
+            return previous;
+        }
+
+        if (keys == null) {
+            keys = new Object[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            Object previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        if ((size + removed + 1) * 4 > keys.length * 3) {
+            rehash();
+        }
+        Object k = key == null ? NULL_KEY : key;
+        int mask = keys.length - 1;
+        int i = hash(k) & mask;
+        while (keys[i] != null && keys[i] != REMOVED) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == REMOVED) {
+            removed--;
+        }
+        keys[i] = k;
+        values[i] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (key != null && !(key instanceof String)) {
+            return null;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0 && slotValues != null && slot < slotValues.length && slotValues[slot] != null) {
+            return removeSlot(slot);
+        }
+        if (keys == null) {
+            return null;
+        }
+        int index = indexOf(key);
+        return index >= 0 ? removeIndex(index) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (slotValues != null) {
+            for (int i = 0; i < slotValues.length; i++) {
+                slotValues[i] = null;
+            }
+        }
+        if (keys != null) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = null;
+                values[i] = null;
+            }
+        }
+        slotSize = 0;
+        size = 0;
+        removed = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<String>() {
+                @Override
+                public Iterator<String> iterator() {
+                    return new StoreIterator<String>() {
+                        @Override
+                        String current() {
+                            return currentKey();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return PropertyStore.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    return PropertyStore.this.remove(o) != null;
+                }
+
+                @Override
+                public void clear() {
+                    PropertyStore.this.clear();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    return new StoreIterator<Map.Entry<String, Object>>() {
+                        @Override
+                        Map.Entry<String, Object> current() {
+                            final String key = currentKey();
+                            return new SimpleEntry<String, Object>(key, get(key)) {
+                                @Override
+                                public Object setValue(Object value) {
+                                    if (value == null) {
+                                        throw new IllegalArgumentException("A property can not be set to null");
+                                    }
+                                    super.setValue(value);
+                                    return put(key, value);
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return PropertyStore.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    PropertyStore.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int slotOf(Object key) {
+        return slots == null ? -1 : slots.slotOf((String) key);
+    }
+
+    private void growSlots(int slot) {
+        // the slots are registered when deploying, so the array rarely grows beyond the first size
+        int capacity = Math.max(slot + 1, Math.min(slots.size(),
+                slotValues == null ? INITIAL_SLOT_CAPACITY : slotValues.length * 2));
+        Object[] grown = new Object[capacity];
+        if (slotValues != null) {
+            System.arraycopy(slotValues, 0, grown, 0, slotValues.length);
+        }
+        slotValues = grown;
+    }
+
+    private Object removeSlot(int slot) {
+        Object previous = slotValues[slot];
+        slotValues[slot] = null;
+        slotSize--;
+        modCount++;
+        return previous;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(Object key) {
+        Object k = key == null ? NULL_KEY : key;
+        int mask = keys.length - 1;
+        int i = hash(k) & mask;
+        Object candidate;
+        while ((candidate = keys[i]) != null) {
+            if (candidate == k || (candidate != REMOVED && candidate.equals(k))) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private Object removeIndex(int index) {
+        Object previous = values[index];
+        keys[index] = REMOVED;
+        values[index] = null;
+        size--;
+        removed++;
+        modCount++;
+        return previous;
+    }
+
+    private void rehash() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int capacity = oldKeys.length;
+        // only grow if the removed entries do not free enough space
+        if ((size + 1) * 2 > capacity) {
+            capacity <<= 1;
+        }
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        removed = 0;
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k != null && k != REMOVED) {
+                int i = hash(k) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Iterates over the slots and then over the fallback map. An entry removed through the iterator does not move
+     * the other entries, hence the iteration goes on from the same position.
+     */
+    private abstract class StoreIterator<T> implements Iterator<T> {
+
+        private int expectedModCount = modCount;
+
+        /** Position of the next entry, the slots come before the indexes of the fallback map */
+        private int next = -1;
+
+        private int last = -1;
+
+        private final int slotCount = slotValues == null ? 0 : slotValues.length;
+
+        StoreIterator() {
+            advance();
+        }
+
+        abstract T current();
+
+        private void advance() {
+            next++;
+            for (; next < slotCount; next++) {
+                if (slotValues[next] != null) {
+                    return;
+                }
+            }
+            int capacity = keys == null ? 0 : keys.length;
+            for (; next < slotCount + capacity; next++) {
+                Object k = keys[next - slotCount];
+                if (k != null && k != REMOVED) {
+                    return;
+                }
+            }
+        }
+
+        String currentKey() {
+            if (last < slotCount) {
+                return slots.nameOf(last);
+            }
+            Object k = keys[last - slotCount];
+            return k == NULL_KEY ? null : (String) k;
+        }
+
+        public boolean hasNext() {
+            return next < slotCount + (keys == null ? 0 : keys.length);
+        }
+
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return current();
+        }
+
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (last < slotCount) {
+                removeSlot(last);
+            } else {
+                removeIndex(last - slotCount);
+            }
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
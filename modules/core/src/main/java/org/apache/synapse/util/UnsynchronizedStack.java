@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.util;
+
+import java.util.EmptyStackException;
+import java.util.Stack;
+
+/**
+ * A {@link Stack} of a single message, which is only used by one thread at a time. The stack operations do not
+ * lock the stack, while the other methods of the {@link java.util.Vector} keep working on the same elements.
+ *
+ * @param <E> type of the elements
+ */
+public class UnsynchronizedStack<E> extends Stack<E> {
+
+    private static final long serialVersionUID = -2403165287016546383L;
+
+    @Override
+    public E push(E item) {
+        if (elementCount == elementData.length) {
+            ensureCapacity(elementCount + 1);
+        }
+        elementData[elementCount++] = item;
+        modCount++;
+        return item;
+    }
+
+    @Override
+    public E pop() {
+        E item = peek();
+        elementData[--elementCount] = null;
+        modCount++;
+        return item;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (elementCount == 0) {
+            throw new EmptyStackException();
+        }
+        return (E) elementData[elementCount - 1];
+    }
+
+    @Override
+    public boolean empty() {
+        return elementCount == 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elementCount == 0;
+    }
+
+    @Override
+    public int size() {
+        return elementCount;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index >= elementCount) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return (E) elementData[index];
+    }
+}
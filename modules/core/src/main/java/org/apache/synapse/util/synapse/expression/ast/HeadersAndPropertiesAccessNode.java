@@ -21,6 +21,7 @@ package org.apache.synapse.util.synapse.expression.ast;
 import org.apache.synapse.SynapseConstants;
 import org.apache.synapse.commons.property.PropertyHolder;
 import org.apache.synapse.commons.resolvers.ResolverException;
+import org.apache.synapse.util.PropertySlots;
 import org.apache.synapse.util.synapse.expression.constants.ExpressionConstants;
 import org.apache.synapse.util.synapse.expression.context.EvaluationContext;
 import org.apache.synapse.util.synapse.expression.exception.EvaluationException;
@@ -55,6 +56,10 @@ public class HeadersAndPropertiesAccessNode implements ExpressionNode {
         this.key = node;
         this.scope = scope;
         this.type = Type.PROPERTY;
+        if (SynapseConstants.SYNAPSE.equals(scope) && node instanceof LiteralNode) {
+            // give the property a slot of the message context while the expression is compiled
+            PropertySlots.PROPERTIES.register(((LiteralNode) node).getStringValue());
+        }
     }
 
     @Override
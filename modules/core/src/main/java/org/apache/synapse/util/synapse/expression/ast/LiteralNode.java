@@ -49,6 +49,13 @@ public class LiteralNode implements ExpressionNode {
         this.value = "";
     }
 
+    /**
+     * @return the value of a string literal, null for the other literals
+     */
+    String getStringValue() {
+        return type == Type.STRING ? value : null;
+    }
+
     @Override
     public ExpressionResult evaluate(EvaluationContext context, boolean isObjectValue) {
         switch (type) {
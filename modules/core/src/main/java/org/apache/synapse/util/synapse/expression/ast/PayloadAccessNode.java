@@ -24,6 +24,7 @@ import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import org.apache.axiom.om.OMNode;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.synapse.util.PropertySlots;
 import org.apache.synapse.util.synapse.expression.constants.ExpressionConstants;
 import org.apache.synapse.util.synapse.expression.context.EvaluationContext;
 import org.apache.synapse.util.synapse.expression.exception.EvaluationException;
@@ -58,12 +59,19 @@ public class PayloadAccessNode implements ExpressionNode {
     private final Type type;
     private final ExpressionNode predefinedFunctionNode;
 
+    private static final String VARIABLE_PREFIX = "vars.";
+
     public PayloadAccessNode(String expression, Map<String, ExpressionNode> arguments, Type type,
                              ExpressionNode predefinedFunctionNode) {
         this.unProcessedExpression = expression;
         this.arguments = arguments;
         this.type = type;
         this.predefinedFunctionNode = predefinedFunctionNode;
+        if (type == Type.VARIABLE && expression.startsWith(VARIABLE_PREFIX)
+                && !expression.startsWith(VARIABLE_PREFIX + "[")) {
+            // give the variable a slot of the message context while the expression is compiled
+            PropertySlots.VARIABLES.register(ExpressionUtils.extractVariableAndJsonPath(expression)[0]);
+        }
     }
 
     @Override
@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.aspects.flow.statistics.tracing.opentelemetry.management.sampling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the head sampling decisions of TraceSampler.
+ */
+public class TraceSamplerTest {
+
+    private static final String SAMPLED_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+    private static final String UNSAMPLED_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00";
+
+    @Test
+    public void testSamplingAll() {
+        TraceSampler sampler = new TraceSampler(1, -1, false, 1000, 100);
+        Assert.assertTrue(sampler.isSamplingAll());
+        Assert.assertEquals(TraceSampler.Decision.SAMPLED, sampler.sample(null));
+    }
+
+    @Test
+    public void testRatio() {
+        TraceSampler never = new TraceSampler(0, -1, false, 1000, 100);
+        Assert.assertFalse(never.isSamplingAll());
+        Assert.assertEquals(TraceSampler.Decision.NOT_SAMPLED, never.sample(null));
+
+        TraceSampler half = new TraceSampler(0.5, -1, false, 1000, 100);
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (half.sample(null) == TraceSampler.Decision.SAMPLED) {
+                sampled++;
+            }
+        }
+        Assert.assertTrue("sampled " + sampled, sampled > 4000 && sampled < 6000);
+    }
+
+    @Test
+    public void testParentSampledFlag() {
+        TraceSampler sampler = new TraceSampler(0, -1, false, 1000, 100);
+        Assert.assertEquals(TraceSampler.Decision.SAMPLED, sampler.sample(headers(SAMPLED_PARENT)));
+        Assert.assertEquals(TraceSampler.Decision.NOT_SAMPLED,
+                new TraceSampler(1, 10, false, 1000, 100).sample(headers(UNSAMPLED_PARENT)));
+        Assert.assertNull(TraceSampler.getParentSampledFlag(headers("00-malformed")));
+    }
+
+    @Test
+    public void testTailSamplingCandidate() {
+        TraceSampler sampler = new TraceSampler(0, -1, true, 1000, 100);
+        Assert.assertEquals(TraceSampler.Decision.TAIL_SAMPLING_CANDIDATE, sampler.sample(null));
+    }
+
+    @Test
+    public void testRateLimit() {
+        TraceSampler sampler = new TraceSampler(1, 10, false, 1000, 100);
+        long now = System.nanoTime();
+        int permits = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.acquirePermit(now)) {
+                permits++;
+            }
+        }
+        Assert.assertEquals(10, permits);
+        Assert.assertFalse(sampler.acquirePermit(now + TimeUnit.MILLISECONDS.toNanos(50)));
+        Assert.assertTrue(sampler.acquirePermit(now + TimeUnit.MILLISECONDS.toNanos(150)));
+    }
+
+    private static Map<String, String> headers(String traceParent) {
+        return Collections.singletonMap("traceparent", traceParent);
+    }
+}
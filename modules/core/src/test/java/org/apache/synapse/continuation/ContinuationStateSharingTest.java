@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.continuation;
+
+import junit.framework.TestCase;
+import org.apache.synapse.ContinuationState;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.SequenceType;
+import org.apache.synapse.mediators.TestUtils;
+
+public class ContinuationStateSharingTest extends TestCase {
+
+    /**
+     * Creates a sequence state with a chain of reliant states, the position of each state is its depth.
+     */
+    private static SeqContinuationState createState(int depth) {
+        SeqContinuationState state = new SeqContinuationState(SequenceType.NAMED, "main");
+        for (int i = 1; i <= depth; i++) {
+            state.getLeafChild().setPosition(i - 1);
+            state.addLeafChild(new ReliantContinuationState(i));
+        }
+        state.getLeafChild().setPosition(depth);
+        return state;
+    }
+
+    private static int depth(ContinuationState state) {
+        int depth = 0;
+        while (state.hasChild()) {
+            state = state.getChildContState();
+            depth++;
+        }
+        return depth;
+    }
+
+    private static void assertState(ContinuationState state, int depth) {
+        assertEquals(depth, depth(state));
+        for (int i = 0; i <= depth; i++) {
+            assertEquals(i, state.getPosition());
+            if (i > 0) {
+                assertEquals(i, ((ReliantContinuationState) state).getSubBranch());
+            }
+            state = state.getChildContState();
+        }
+    }
+
+    /**
+     * Checks the positions of a sequence state and its chain of reliant states, the sub branch of each reliant state
+     * is its depth.
+     */
+    private static void assertPositions(ContinuationState state, int... positions) {
+        assertEquals(positions.length - 1, depth(state));
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(positions[i], state.getPosition());
+            if (i > 0) {
+                assertEquals(i, ((ReliantContinuationState) state).getSubBranch());
+            }
+            state = state.getChildContState();
+        }
+    }
+
+    private static MessageContext createMessageContext() throws Exception {
+        MessageContext synCtx = TestUtils.getTestContextWithAxis2("<empty/>");
+        synCtx.setContinuationEnabled(true);
+        return synCtx;
+    }
+
+    /**
+     * A message is copied while a sequence mediator and an invoke mediator hold the states they resume from, as
+     * when a callback is registered mid flow. Both messages then resume, each from the positions it had.
+     */
+    public void testMessageClonedMidFlow() throws Exception {
+        MessageContext synCtx = createMessageContext();
+        ContinuationStackManager.addSeqContinuationState(synCtx, "main", SequenceType.NAMED);
+        ContinuationStackManager.addReliantContinuationState(synCtx, 1, 2);
+        ContinuationStackManager.addReliantContinuationState(synCtx, 2, 3);
+        ContinuationStackManager.updateSeqContinuationState(synCtx, 4);
+        // the sequence mediator holds the top state, the invoke mediator the reliant state of its branch
+        ContinuationState sequenceState = ContinuationStackManager.peakContinuationStateStack(synCtx);
+        ContinuationState invokeState = sequenceState.getChildContState();
+
+        MessageContext clone = createMessageContext();
+        ContinuationStackManager.copyContinuationStateStack(synCtx, clone);
+        assertSame(sequenceState, clone.getContinuationStateStack().peek());
+        assertTrue(((AbstractContinuationState) sequenceState).isShared());
+
+        // the original completes the innermost branch and moves on in the invoke mediator
+        ContinuationState writableInvokeState =
+                ContinuationStackManager.getWritableContinuationState(synCtx, invokeState);
+        assertNotSame(invokeState, writableInvokeState);
+        ContinuationState top = synCtx.getContinuationStateStack().peek();
+        assertNotSame(sequenceState, top);
+        assertSame(writableInvokeState, top.getChildContState());
+        writableInvokeState.removeLeafChild();
+        ContinuationStackManager.updateSeqContinuationState(synCtx, 5);
+        assertSame(top, ContinuationStackManager.getWritableContinuationState(synCtx, sequenceState));
+        assertPositions(top, 2, 5);
+
+        // the clone resumes from the positions at which it was copied
+        ContinuationState resumed = ContinuationStackManager.peakContinuationStateStack(clone);
+        assertNotSame(sequenceState, resumed);
+        assertNotSame(top, resumed);
+        assertPositions(resumed, 2, 3, 4);
+        assertSame(resumed, ContinuationStackManager.getWritableContinuationState(clone, sequenceState));
+        ContinuationState resumedInvokeState =
+                ContinuationStackManager.getWritableContinuationState(clone, invokeState);
+        assertSame(resumed.getChildContState(), resumedInvokeState);
+        assertNotSame(writableInvokeState, resumedInvokeState);
+
+        // the clone completes both branches, the original is not changed
+        ContinuationStackManager.removeReliantContinuationState(clone);
+        ContinuationStackManager.removeReliantContinuationState(clone);
+        ContinuationStackManager.updateSeqContinuationState(clone, 6);
+        assertPositions(resumed, 6);
+        assertPositions(top, 2, 5);
+        assertPositions(sequenceState, 2, 3, 4);
+
+        ContinuationStackManager.popContinuationStateStack(clone);
+        assertTrue(clone.getContinuationStateStack().isEmpty());
+        assertSame(top, ContinuationStackManager.peakContinuationStateStack(synCtx));
+    }
+
+    public void testCloneIsIsolated() {
+        SeqContinuationState original = createState(3);
+        SeqContinuationState clone = ContinuationStackManager.getClonedSeqContinuationState(original);
+        assertNotSame(original, clone);
+        assertEquals(SequenceType.NAMED, clone.getSeqType());
+        assertEquals("main", clone.getSeqName());
+        assertFalse(clone.isShared());
+        assertTrue(clone.isCopyOf(original));
+
+        clone.getLeafChild().setPosition(42);
+        clone.addLeafChild(new ReliantContinuationState(7));
+        assertState(original, 3);
+        assertEquals(4, depth(clone));
+
+        clone.removeLeafChild();
+        clone.removeLeafChild();
+        clone.removeLeafChild();
+        assertEquals(1, depth(clone));
+        assertState(original, 3);
+    }
+
+    public void testOriginalIsIsolated() {
+        SeqContinuationState original = createState(3);
+        SeqContinuationState clone = ContinuationStackManager.getClonedSeqContinuationState(original);
+
+        // the original is not shared itself, its children are copied once they are read
+        assertFalse(original.isShared());
+        original.getLeafChild().setPosition(42);
+        original.removeLeafChild();
+        original.removeLeafChild();
+        assertEquals(1, depth(original));
+        assertState(clone, 3);
+    }
+
+    public void testSharedStateIsCopiedOnce() {
+        SeqContinuationState original = createState(2);
+        original.markShared();
+        assertTrue(((AbstractContinuationState) original.getChildContState()).isShared());
+
+        AbstractContinuationState copy = original.copy();
+        ContinuationState child = copy.getChildContState();
+        assertFalse(((AbstractContinuationState) child).isShared());
+        assertSame(child, copy.getChildContState());
+        assertTrue(((AbstractContinuationState) child).isCopyOf(
+                (AbstractContinuationState) original.getChildContState()));
+        assertSame(child.getLeafChild(), copy.getLeafChild());
+    }
+
+    /**
+     * Clones of a deep state spread to many branches, each of which pushes and pops its own reliant states. The
+     * branches must not see the changes of each other, nor of the original.
+     */
+    public void testDeepNestingWithWideFanOut() {
+        int depth = 64;
+        int branches = 2000;
+        SeqContinuationState original = createState(depth);
+        SeqContinuationState[] clones = new SeqContinuationState[branches];
+        for (int i = 0; i < branches; i++) {
+            clones[i] = ContinuationStackManager.getClonedSeqContinuationState(original);
+        }
+        for (int i = 0; i < branches; i++) {
+            SeqContinuationState clone = clones[i];
+            clone.getLeafChild().setPosition(-i);
+            for (int j = 0; j < i % 5; j++) {
+                clone.addLeafChild(new ReliantContinuationState(i));
+            }
+            assertEquals(depth + i % 5, depth(clone));
+            for (int j = 0; j < i % 5; j++) {
+                clone.removeLeafChild();
+            }
+            clone.removeLeafChild();
+        }
+        assertState(original, depth);
+        for (int i = 0; i < branches; i++) {
+            assertEquals(depth - 1, depth(clones[i]));
+            ContinuationState leaf = clones[i].getLeafChild();
+            assertEquals(depth - 1, leaf.getPosition());
+            assertEquals(depth - 1, ((ReliantContinuationState) leaf).getSubBranch());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.core.axis2;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CallbackTimeoutIndexTest extends TestCase {
+
+    private static final int CALLBACKS = 100000;
+
+    private static final long RESOLUTION = 100;
+
+    public void testExpiryAccuracy() {
+        CallbackTimeoutIndex index = new CallbackTimeoutIndex(RESOLUTION);
+        Map<String, Long> timeouts = new HashMap<String, Long>();
+        Random random = new Random(7);
+        long start = 1000000;
+        for (int i = 0; i < CALLBACKS; i++) {
+            long timeOutOn = start + random.nextInt(60000);
+            timeouts.put("urn:uuid:" + i, timeOutOn);
+            index.add("urn:uuid:" + i, timeOutOn);
+        }
+        // a callback without a timeout expires on the next run
+        index.add("out-only", 0);
+        assertEquals(1, index.removeExpired(start - 1).size());
+
+        int expired = 0;
+        for (long now = start; now <= start + 60000 + RESOLUTION; now += 10) {
+            for (String messageID : index.removeExpired(now)) {
+                long timeOutOn = timeouts.remove(messageID);
+                assertTrue("Expired before the timeout", timeOutOn <= now);
+                assertTrue("Expired " + (now - timeOutOn) + "ms after the timeout",
+                        now - timeOutOn < RESOLUTION + 10);
+                expired++;
+            }
+        }
+        assertEquals(CALLBACKS, expired);
+        assertTrue(timeouts.isEmpty());
+        assertTrue(index.isEmpty());
+    }
+
+    public void testCompletedCallbacks() {
+        CallbackTimeoutIndex index = new CallbackTimeoutIndex(RESOLUTION);
+        for (int i = 0; i < 1000; i++) {
+            index.add("id-" + i, 5000 + i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            index.remove("id-" + i, 5000 + i);
+        }
+        // removing an unknown callback does not affect the others
+        index.remove("unknown", 5000);
+        assertTrue(index.removeExpired(4999).isEmpty());
+
+        List<String> expired = index.removeExpired(7000);
+        assertEquals(500, expired.size());
+        for (String messageID : expired) {
+            assertEquals(1, Integer.parseInt(messageID.substring(3)) % 2);
+        }
+
+        // the buckets of the completed callbacks do not remain in the index
+        index.add("id", 8000);
+        index.remove("id", 8000);
+        assertTrue(index.isEmpty());
+    }
+
+    /**
+     * Callbacks are added and completed by many threads while the timeout handler expires them,
+     * none of the operations should wait for the others and the callbacks should expire close to
+     * their timeouts. The timeouts are measured on a simulated clock, which the timeout handler
+     * advances by a fixed step on each run, so that a slow machine does not fail the test.
+     */
+    public void testConcurrentCallbacks() throws Exception {
+        final CallbackTimeoutIndex index = new CallbackTimeoutIndex(RESOLUTION);
+        final AtomicLong clock = new AtomicLong(1000000);
+        final long step = 10;
+        final Map<String, Long> pending = new ConcurrentHashMap<String, Long>();
+        final Map<String, Long> addedOn = new ConcurrentHashMap<String, Long>();
+        final Map<String, Long> lateness = new ConcurrentHashMap<String, Long>();
+        final AtomicLong maxSendPathTime = new AtomicLong();
+        final AtomicLong maxHandlerTime = new AtomicLong();
+        final int threads = 8;
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long start = System.currentTimeMillis();
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            new Thread() {
+                public void run() {
+                    Random random = new Random(thread);
+                    for (int i = 0; i < CALLBACKS / threads; i++) {
+                        String messageID = thread + ":" + i;
+                        long timeOutOn = clock.get() + random.nextInt(1000);
+                        long before = System.nanoTime();
+                        if (i % 4 == 0) {
+                            // a response is received before the timeout
+                            index.add(messageID, timeOutOn);
+                            index.remove(messageID, timeOutOn);
+                        } else {
+                            pending.put(messageID, timeOutOn);
+                            index.add(messageID, timeOutOn);
+                            // the clock may have passed the timeout while the callback was added
+                            addedOn.put(messageID, clock.get());
+                        }
+                        updateMax(maxSendPathTime, System.nanoTime() - before);
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+
+        while (done.getCount() > 0 || !pending.isEmpty()) {
+            long now = clock.addAndGet(step);
+            long before = System.nanoTime();
+            List<String> expired = index.removeExpired(now);
+            updateMax(maxHandlerTime, System.nanoTime() - before);
+            for (String messageID : expired) {
+                Long timeOutOn = pending.remove(messageID);
+                if (timeOutOn != null) {
+                    assertTrue("Expired before the timeout", timeOutOn <= now);
+                    Long added = addedOn.get(messageID);
+                    lateness.put(messageID, now - Math.max(timeOutOn, added != null ? added : now));
+                }
+            }
+            assertTrue("Callbacks did not expire", System.currentTimeMillis() - start < 120000);
+            Thread.sleep(1);
+        }
+
+        assertEquals(CALLBACKS - CALLBACKS / 4, lateness.size());
+        long maxLateness = 0;
+        for (long late : lateness.values()) {
+            maxLateness = Math.max(maxLateness, late);
+        }
+        // one resolution and one run of the handler
+        assertTrue("Expired " + maxLateness + "ms after the timeout", maxLateness <= RESOLUTION + step);
+        // neither side waits for the other, the limits only leave room for a slow machine
+        assertTrue("Send path held for " + maxSendPathTime.get() / 1000000 + "ms",
+                maxSendPathTime.get() < 5000 * 1000000L);
+        assertTrue("Timeout handler held for " + maxHandlerTime.get() / 1000000 + "ms",
+                maxHandlerTime.get() < 5000 * 1000000L);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.mediators;
+
+import junit.framework.TestCase;
+import org.apache.synapse.Mediator;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.mediators.base.SequenceMediator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class MediationPlanTest extends TestCase {
+
+    private StringBuffer result = new StringBuffer();
+
+    private TestMediator createMediator(final String name) {
+        TestMediator mediator = new TestMediator();
+        mediator.setHandler(
+            new TestMediateHandler() {
+                public void handle(MessageContext synCtx) {
+                    result.append(name);
+                }
+            });
+        return mediator;
+    }
+
+    public void testCompile() {
+        List<Mediator> children = new ArrayList<Mediator>();
+        children.add(createMediator("T1"));
+        children.add(new AbstractMediator() {
+            public boolean mediate(MessageContext synCtx) {
+                return true;
+            }
+
+            @Override
+            public boolean isContentAware() {
+                return false;
+            }
+        });
+
+        MediationPlan plan = MediationPlan.compile(children, true, false, true);
+        assertEquals(2, plan.size());
+        assertSame(children.get(0), plan.getMediator(0));
+        assertSame(children.get(0), plan.getIdentifiedMediator(0));
+        assertTrue(plan.isBuildBefore(0));
+        assertFalse(plan.isBuildBefore(1));
+        assertFalse(plan.isLast(0));
+        assertTrue(plan.isLast(1));
+        assertTrue(plan.isObserved());
+
+        assertTrue(MediationPlan.compile(children, true, true, false).isBuildBefore(1));
+        assertFalse(MediationPlan.compile(children, false, true, false).isBuildBefore(0));
+    }
+
+    public void testChangedChildren() throws Exception {
+        SequenceMediator seq = new SequenceMediator();
+        seq.addChild(createMediator("T1."));
+        seq.addChild(createMediator("T2."));
+        seq.mediate(TestUtils.getTestContext("<empty/>"));
+        MediationPlan plan = seq.getPlan();
+
+        seq.addChild(createMediator("T3"));
+        assertNotSame(plan, seq.getPlan());
+        assertEquals(3, seq.getPlan().size());
+
+        // a child added through the live list is picked up as well
+        seq.getList().add(createMediator("."));
+        result.setLength(0);
+        seq.mediate(TestUtils.getTestContext("<empty/>"));
+        assertEquals("T1.T2.T3.", result.toString());
+
+        // as well as a child replaced or moved through the live list, which keeps the number of children
+        seq.getList().set(1, createMediator("R2."));
+        result.setLength(0);
+        seq.mediate(TestUtils.getTestContext("<empty/>"));
+        assertEquals("T1.R2.T3.", result.toString());
+
+        Collections.swap(seq.getList(), 0, 2);
+        result.setLength(0);
+        seq.mediate(TestUtils.getTestContext("<empty/>"));
+        assertEquals("T3R2.T1..", result.toString());
+    }
+
+    public void testResumeFromPosition() throws Exception {
+        SequenceMediator seq = new SequenceMediator();
+        seq.addChild(createMediator("T1."));
+        seq.addChild(createMediator("T2."));
+        seq.addChild(createMediator("T3"));
+
+        seq.mediate(TestUtils.getTestContext("<empty/>"), 1);
+        assertEquals("T2.T3", result.toString());
+    }
+}
@@ -20,6 +20,8 @@ package org.apache.synapse.mediators.transform;
 
 import junit.framework.TestCase;
 import org.apache.synapse.MessageContext;
+import org.apache.synapse.commons.json.JsonUtil;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.mediators.TestUtils;
 import org.apache.synapse.mediators.transform.pfutils.RegexTemplateProcessor;
 import org.apache.synapse.util.xpath.SynapseXPath;
@@ -138,4 +140,63 @@ public class PayloadFactoryMediatorTest extends TestCase {
         assertEquals("PayloadFactory mediator has not "
                 + "set expected format", expectedEnvelope, synCtx.getEnvelope().getBody().toString());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test payloadFactory Mediator with a JSON result of a single character
+     * @throws Exception in case of argument evaluation issue
+     */
+    public void testWithSingleCharacterJsonPayload() throws Exception {
+
+        PayloadFactoryMediator payloadFactoryMediator = new PayloadFactoryMediator();
+        RegexTemplateProcessor templateProcessor = new RegexTemplateProcessor();
+        templateProcessor.setMediaType("json");
+        payloadFactoryMediator.setTemplateProcessor(templateProcessor);
+        payloadFactoryMediator.setType("json");
+        payloadFactoryMediator.setFormat("$1");
+
+        Argument argument = new Argument();
+        argument.setValue("7");
+        payloadFactoryMediator.getTemplateProcessor().addPathArgument(argument);
+
+        //do mediation
+        MessageContext synCtx = TestUtils.getAxis2MessageContext(inputPayload, null);
+        payloadFactoryMediator.mediate(synCtx);
+
+        assertEquals("PayloadFactory mediator has not set the expected JSON payload", "7",
+                JsonUtil.jsonPayloadToString(((Axis2MessageContext) synCtx).getAxis2MessageContext()));
+    }
+
+    /**
+     * Test payloadFactory Mediator with JSON results built one after the other on the same thread
+     * @throws Exception in case of argument evaluation issue
+     */
+    public void testWithSuccessiveJsonPayloads() throws Exception {
+
+        MessageContext first = mediateJson("{\"city\":\"Zürich\",\"id\":$1}");
+        MessageContext second = mediateJson("{\"city\":\"Kraków\",\"id\":$1,\"note\":\"a longer payload\"}");
+
+        // the first payload is not changed by the encoding of the second one
+        assertEquals("{\"city\":\"Zürich\",\"id\":7}",
+                JsonUtil.jsonPayloadToString(((Axis2MessageContext) first).getAxis2MessageContext()));
+        assertEquals("{\"city\":\"Kraków\",\"id\":7,\"note\":\"a longer payload\"}",
+                JsonUtil.jsonPayloadToString(((Axis2MessageContext) second).getAxis2MessageContext()));
+    }
+
+    private MessageContext mediateJson(String format) throws Exception {
+
+        PayloadFactoryMediator payloadFactoryMediator = new PayloadFactoryMediator();
+        RegexTemplateProcessor templateProcessor = new RegexTemplateProcessor();
+        templateProcessor.setMediaType("json");
+        payloadFactoryMediator.setTemplateProcessor(templateProcessor);
+        payloadFactoryMediator.setType("json");
+        payloadFactoryMediator.setFormat(format);
+
+        Argument argument = new Argument();
+        argument.setValue("7");
+        payloadFactoryMediator.getTemplateProcessor().addPathArgument(argument);
+
+        MessageContext synCtx = TestUtils.getAxis2MessageContext(inputPayload, null);
+        payloadFactoryMediator.mediate(synCtx);
+        return synCtx;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ *  WSO2 LLC. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.mediators.transform.pfutils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unit tests for the compiled form of the payload factory regex templates.
+ */
+public class CompiledTemplateTest {
+
+    private static final Pattern PATTERN = Pattern.compile("\"\\$\\{([^}]+)\\}\"|\\$\\{([^}]+)\\}|\\$(\\d+)");
+
+    @Test
+    public void testSegments() {
+
+        CompiledTemplate template = CompiledTemplate.compile(PATTERN,
+                "{\"id\": $1, \"name\": \"${payload.name}\", \"tags\": ${payload.tags}}", "json");
+        CompiledTemplate.Segment[] segments = template.getSegments();
+        Assert.assertEquals(7, segments.length);
+        Assert.assertEquals(CompiledTemplate.SegmentType.LITERAL, segments[0].getType());
+        Assert.assertEquals("{\"id\": ", segments[0].getText());
+        Assert.assertEquals(CompiledTemplate.SegmentType.ARGUMENT, segments[1].getType());
+        Assert.assertEquals("1", segments[1].getValue());
+        Assert.assertEquals(CompiledTemplate.SegmentType.QUOTED_EXPRESSION, segments[3].getType());
+        Assert.assertEquals("payload.name", segments[3].getValue());
+        Assert.assertEquals("\"${payload.name}\"", segments[3].getText());
+        Assert.assertEquals(CompiledTemplate.SegmentType.EXPRESSION, segments[5].getType());
+        Assert.assertEquals("payload.tags", segments[5].getValue());
+        Assert.assertEquals("}", segments[6].getText());
+        Assert.assertTrue(template.isCompiledFrom(
+                "{\"id\": $1, \"name\": \"${payload.name}\", \"tags\": ${payload.tags}}", "json"));
+        Assert.assertFalse(template.isCompiledFrom(
+                "{\"id\": $1, \"name\": \"${payload.name}\", \"tags\": ${payload.tags}}", "xml"));
+    }
+
+    @Test
+    public void testXmlFormatIsPadded() {
+
+        CompiledTemplate template = CompiledTemplate.compile(PATTERN, "<a>$1</a>", "xml");
+        CompiledTemplate.Segment[] segments = template.getSegments();
+        Assert.assertEquals(3, segments.length);
+        Assert.assertEquals("<pfPadding><a>", segments[0].getText());
+        Assert.assertEquals("</a></pfPadding>", segments[2].getText());
+    }
+
+    @Test
+    public void testAppendReplacementMatchesMatcher() {
+
+        String[] replacements = {"plain", "a\\$b", "c\\\\d", "group $0 and $3 and $2", "$12", "\\\"quoted\\\""};
+        for (String replacement : replacements) {
+            Matcher matcher = PATTERN.matcher("x $1 y");
+            Assert.assertTrue(matcher.find());
+            StringBuffer expected = new StringBuffer();
+            matcher.appendReplacement(expected, replacement);
+
+            CompiledTemplate template = CompiledTemplate.compile(PATTERN, "x $1 y", "text");
+            StringBuilder actual = new StringBuilder(template.getSegments()[0].getText());
+            CompiledTemplate.appendReplacement(actual, replacement, template.getSegments()[1]);
+            Assert.assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDanglingEscape() {
+
+        CompiledTemplate template = CompiledTemplate.compile(PATTERN, "$1", "text");
+        CompiledTemplate.appendReplacement(new StringBuilder(), "value\\", template.getSegments()[0]);
+    }
+}
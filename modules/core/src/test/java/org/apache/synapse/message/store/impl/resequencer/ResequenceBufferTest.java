@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.message.store.impl.resequencer;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Drives the {@link ResequenceBuffer} with shuffled input the same way {@link ResequenceMessageStore} does, with a
+ * sorted map standing in for the DB table.
+ */
+public class ResequenceBufferTest extends TestCase {
+
+    private static final int MESSAGE_COUNT = 5000;
+
+    /**
+     * Messages arrive almost in order, each one is displaced by at most a few positions.
+     */
+    public void testNearlyOrderedInput() {
+        List<Long> arrivals = nearlyOrdered(MESSAGE_COUNT, 8, new Random(26));
+        List<Long> released = drain(arrivals, 16);
+        assertInSequence(released, MESSAGE_COUNT);
+    }
+
+    /**
+     * Messages arrive in a completely random order, displacement is larger than the window.
+     */
+    public void testFullyShuffledInput() {
+        List<Long> arrivals = new ArrayList<>();
+        for (long i = 1; i <= MESSAGE_COUNT; i++) {
+            arrivals.add(i);
+        }
+        Collections.shuffle(arrivals, new Random(42));
+        List<Long> released = drain(arrivals, 32);
+        assertInSequence(released, MESSAGE_COUNT);
+    }
+
+    /**
+     * Contiguous runs which are already buffered should be released without fetching again.
+     */
+    public void testContiguousRunReleasedFromMemory() {
+        ResequenceBuffer<String> buffer = new ResequenceBuffer<>(10, 1);
+        for (long i = 5; i >= 1; i--) {
+            assertTrue(buffer.offer(i, "msg" + i));
+        }
+        for (int i = 1; i <= 5; i++) {
+            assertEquals("msg" + i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+        assertEquals(6, buffer.getNextSequenceId());
+    }
+
+    /**
+     * Elements outside the window, behind it or already buffered should be rejected.
+     */
+    public void testWindowBounds() {
+        ResequenceBuffer<String> buffer = new ResequenceBuffer<>(4, 10);
+        assertFalse(buffer.offer(9, "behind"));
+        assertFalse(buffer.offer(14, "beyond"));
+        assertTrue(buffer.offer(13, "last"));
+        assertFalse(buffer.offer(13, "duplicate"));
+        assertEquals(13, buffer.fetchUpperBound());
+        assertTrue(buffer.offer(11, "gap"));
+        assertEquals(11, buffer.fetchUpperBound());
+        assertNull(buffer.poll());
+        assertEquals(2, buffer.size());
+    }
+
+    /**
+     * Once the gap timeout elapses the store resets the buffer to the minimum sequence in the DB.
+     */
+    public void testResetOnGapTimeout() {
+        ResequenceBuffer<String> buffer = new ResequenceBuffer<>(10, 1);
+        buffer.offer(3, "msg3");
+        buffer.offer(4, "msg4");
+        assertNull(buffer.poll());
+        // The minimum sequence id 3 was returned from the DB
+        buffer.reset(4);
+        assertEquals("msg4", buffer.poll());
+        assertNull(buffer.poll());
+        assertEquals(5, buffer.getNextSequenceId());
+        assertTrue(buffer.isEmpty());
+    }
+
+    public void testInvalidCapacity() {
+        try {
+            new ResequenceBuffer<String>(0, 1);
+            fail("Buffer should not be created with a zero capacity");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /**
+     * Stores the arrivals one by one and peeks after each arrival, the gap is skipped by moving to the minimum
+     * stored sequence id once there are no more arrivals.
+     */
+    private List<Long> drain(List<Long> arrivals, int capacity) {
+        TreeMap<Long, String> table = new TreeMap<>();
+        ResequenceBuffer<String> buffer = new ResequenceBuffer<>(capacity, 1);
+        List<Long> released = new ArrayList<>();
+        for (Long sequenceId : arrivals) {
+            table.put(sequenceId, "msg" + sequenceId);
+            String msg;
+            while ((msg = peek(buffer, table)) != null) {
+                released.add(Long.parseLong(msg.substring(3)));
+            }
+        }
+        assertTrue(table.isEmpty());
+        assertTrue(buffer.isEmpty());
+        return released;
+    }
+
+    private String peek(ResequenceBuffer<String> buffer, TreeMap<Long, String> table) {
+        String msg = buffer.poll();
+        if (msg == null) {
+            long lowerBound = buffer.getNextSequenceId();
+            long upperBound = buffer.fetchUpperBound();
+            for (Map.Entry<Long, String> row : table.subMap(lowerBound, upperBound).entrySet()) {
+                assertTrue(buffer.offer(row.getKey(), row.getValue()));
+            }
+            msg = buffer.poll();
+        }
+        if (msg != null) {
+            table.remove(buffer.getNextSequenceId() - 1);
+        }
+        return msg;
+    }
+
+    private static List<Long> nearlyOrdered(int count, int maxDisplacement, Random random) {
+        List<Long> arrivals = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            arrivals.add(i);
+        }
+        for (int i = 0; i < count; i++) {
+            int j = Math.min(count - 1, i + random.nextInt(maxDisplacement));
+            Collections.swap(arrivals, i, j);
+        }
+        return arrivals;
+    }
+
+    private static void assertInSequence(List<Long> released, int count) {
+        assertEquals(count, released.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(Long.valueOf(i + 1), released.get(i));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.unittest;
+
+import junit.framework.TestCase;
+import org.apache.synapse.unittest.testcase.data.classes.Artifact;
+import org.apache.synapse.unittest.testcase.data.classes.MockService;
+import org.apache.synapse.unittest.testcase.data.classes.RegistryResource;
+import org.apache.synapse.unittest.testcase.data.holders.ArtifactData;
+import org.apache.synapse.unittest.testcase.data.holders.MockServiceData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the scheduling of unit test suites.
+ */
+public class TestSuiteSchedulerTest extends TestCase {
+
+    public void testConflictingSuiteWaitsForRelease() throws Exception {
+        TestSuiteScheduler scheduler = new TestSuiteScheduler(2);
+        Set<String> first = resources("api:StockQuoteAPI", "port:9090");
+        Set<String> second = resources("api:StockQuoteAPI", "port:9091");
+
+        scheduler.acquire(first, null);
+        SuiteThread suite = new SuiteThread(scheduler, second);
+        suite.start();
+
+        assertFalse("Conflicting suite should wait", suite.started.await(200, TimeUnit.MILLISECONDS));
+        scheduler.release(first, null);
+        assertTrue("Conflicting suite should run after release", suite.started.await(5, TimeUnit.SECONDS));
+        scheduler.release(second, null);
+        suite.join();
+    }
+
+    public void testIndependentSuitesRunTogether() throws Exception {
+        TestSuiteScheduler scheduler = new TestSuiteScheduler(2);
+        Set<String> first = resources("api:StockQuoteAPI", "port:9090");
+        Set<String> second = resources("api:OrderAPI", "port:9091");
+
+        scheduler.acquire(first, null);
+        SuiteThread suite = new SuiteThread(scheduler, second);
+        suite.start();
+
+        assertTrue("Independent suite should not wait", suite.started.await(5, TimeUnit.SECONDS));
+        scheduler.release(second, null);
+        scheduler.release(first, null);
+        suite.join();
+    }
+
+    public void testConcurrencyLimit() throws Exception {
+        TestSuiteScheduler scheduler = new TestSuiteScheduler(1);
+        Set<String> first = resources("sequence:FirstSequence");
+        Set<String> second = resources("sequence:SecondSequence");
+
+        scheduler.acquire(first, null);
+        SuiteThread suite = new SuiteThread(scheduler, second);
+        suite.start();
+
+        assertFalse("Suite should wait for the concurrency limit", suite.started.await(200, TimeUnit.MILLISECONDS));
+        scheduler.release(first, null);
+        assertTrue("Suite should run once a suite completes", suite.started.await(5, TimeUnit.SECONDS));
+        scheduler.release(second, null);
+        suite.join();
+    }
+
+    public void testFirstAndLastSuiteTasks() throws Exception {
+        TestSuiteScheduler scheduler = new TestSuiteScheduler(2);
+        final AtomicInteger firstSuiteCalls = new AtomicInteger();
+        final AtomicInteger lastSuiteCalls = new AtomicInteger();
+        Runnable onFirstSuite = new Runnable() {
+            @Override
+            public void run() {
+                firstSuiteCalls.incrementAndGet();
+            }
+        };
+        Runnable onLastSuite = new Runnable() {
+            @Override
+            public void run() {
+                lastSuiteCalls.incrementAndGet();
+            }
+        };
+        Set<String> first = resources("api:StockQuoteAPI");
+        Set<String> second = resources("api:OrderAPI");
+
+        scheduler.acquire(first, onFirstSuite);
+        scheduler.acquire(second, onFirstSuite);
+        assertEquals(1, firstSuiteCalls.get());
+        scheduler.release(first, onLastSuite);
+        assertEquals(0, lastSuiteCalls.get());
+        scheduler.release(second, onLastSuite);
+        assertEquals(1, lastSuiteCalls.get());
+    }
+
+    public void testApisWithSameContextConflict() throws Exception {
+        Set<String> first = TestSuiteScheduler.getSuiteResources(
+                artifactData(api("StockQuoteAPI", "/stock")), null);
+        Set<String> second = TestSuiteScheduler.getSuiteResources(
+                artifactData(api("StockQuoteAPIv2", "/stock")), null);
+        Set<String> third = TestSuiteScheduler.getSuiteResources(
+                artifactData(api("OrderAPI", "/order")), null);
+
+        assertFalse("APIs with the same context should conflict", Collections.disjoint(first, second));
+        assertTrue("APIs with different names and contexts should not conflict", Collections.disjoint(first, third));
+    }
+
+    public void testSupportiveArtifactsConflict() throws Exception {
+        ArtifactData firstData = artifactData(sequence("FirstSequence"));
+        firstData.addSupportiveArtifact(sequence("SharedSequence"));
+        firstData.setSupportiveArtifactCount(1);
+        ArtifactData secondData = artifactData(sequence("SecondSequence"));
+        secondData.addSupportiveArtifact(sequence("SharedSequence"));
+        secondData.setSupportiveArtifactCount(1);
+
+        assertFalse("Suites deploying the same supportive artifact should conflict", Collections.disjoint(
+                TestSuiteScheduler.getSuiteResources(firstData, null),
+                TestSuiteScheduler.getSuiteResources(secondData, null)));
+    }
+
+    public void testRegistryResourcesAndConnectorsConflict() throws Exception {
+        ArtifactData firstData = artifactData(sequence("FirstSequence"));
+        firstData.addRegistryResource("conf:/transform.xslt", new RegistryResource());
+        ArtifactData secondData = artifactData(sequence("SecondSequence"));
+        secondData.addRegistryResource("conf:/transform.xslt", new RegistryResource());
+        ArtifactData thirdData = artifactData(sequence("ThirdSequence"));
+        thirdData.addConnectorResource("Y29ubmVjdG9y");
+        ArtifactData fourthData = artifactData(sequence("FourthSequence"));
+        fourthData.addConnectorResource("Y29ubmVjdG9y");
+
+        assertFalse("Suites using the same registry resource should conflict", Collections.disjoint(
+                TestSuiteScheduler.getSuiteResources(firstData, null),
+                TestSuiteScheduler.getSuiteResources(secondData, null)));
+        assertFalse("Suites using connectors should conflict", Collections.disjoint(
+                TestSuiteScheduler.getSuiteResources(thirdData, null),
+                TestSuiteScheduler.getSuiteResources(fourthData, null)));
+        assertTrue("Suites without shared resources should not conflict", Collections.disjoint(
+                TestSuiteScheduler.getSuiteResources(firstData, null),
+                TestSuiteScheduler.getSuiteResources(thirdData, null)));
+    }
+
+    public void testMockServicesConflict() throws Exception {
+        Set<String> first = TestSuiteScheduler.getSuiteResources(artifactData(sequence("FirstSequence")),
+                mockServiceData(mockService("StockQuoteEP", 9090)));
+        Set<String> samePort = TestSuiteScheduler.getSuiteResources(artifactData(sequence("SecondSequence")),
+                mockServiceData(mockService("OrderEP", 9090)));
+        Set<String> sameEndpoint = TestSuiteScheduler.getSuiteResources(artifactData(sequence("ThirdSequence")),
+                mockServiceData(mockService("StockQuoteEP", 9091)));
+        Set<String> other = TestSuiteScheduler.getSuiteResources(artifactData(sequence("FourthSequence")),
+                mockServiceData(mockService("OrderEP", 9092)));
+
+        assertFalse("Mock services on the same port should conflict", Collections.disjoint(first, samePort));
+        assertFalse("Mock services of the same endpoint should conflict", Collections.disjoint(first, sameEndpoint));
+        assertTrue("Other mock services should not conflict", Collections.disjoint(first, other));
+    }
+
+    public void testInvalidParallelismRunsSequentially() {
+        String property = "synapseTestSchedulerParallelism";
+        try {
+            System.setProperty(property, "4");
+            assertEquals(4, TestSuiteScheduler.getParallelism(property));
+            System.setProperty(property, "0");
+            assertEquals(1, TestSuiteScheduler.getParallelism(property));
+            System.setProperty(property, "many");
+            assertEquals(1, TestSuiteScheduler.getParallelism(property));
+        } finally {
+            System.clearProperty(property);
+        }
+        assertEquals(1, TestSuiteScheduler.getParallelism(property));
+    }
+
+    private static Set<String> resources(String... resources) {
+        return new HashSet<>(Arrays.asList(resources));
+    }
+
+    private static ArtifactData artifactData(Artifact testArtifact) {
+        ArtifactData artifactData = new ArtifactData();
+        artifactData.setTestArtifact(testArtifact);
+        return artifactData;
+    }
+
+    private static Artifact api(String name, String context) throws Exception {
+        Artifact artifact = new Artifact();
+        artifact.setArtifactType(Constants.TYPE_API);
+        artifact.setArtifactNameOrKey(name);
+        artifact.setArtifact("<api xmlns=\"http://ws.apache.org/ns/synapse\" name=\"" + name + "\" context=\""
+                + context + "\"/>");
+        return artifact;
+    }
+
+    private static Artifact sequence(String name) throws Exception {
+        Artifact artifact = new Artifact();
+        artifact.setArtifactType(Constants.TYPE_SEQUENCE);
+        artifact.setArtifactNameOrKey(name);
+        artifact.setArtifact("<sequence xmlns=\"http://ws.apache.org/ns/synapse\" name=\"" + name + "\"/>");
+        return artifact;
+    }
+
+    private static MockService mockService(String name, int port) {
+        MockService mockService = new MockService();
+        mockService.setServiceName(name);
+        mockService.setPort(port);
+        return mockService;
+    }
+
+    private static MockServiceData mockServiceData(MockService mockService) {
+        MockServiceData mockServiceData = new MockServiceData();
+        mockServiceData.addMockServices(mockService);
+        mockServiceData.setMockServicesCount(1);
+        return mockServiceData;
+    }
+
+    /**
+     * Claims the resources of a suite on a separate thread, as a request handler does.
+     */
+    private static class SuiteThread extends Thread {
+
+        private final TestSuiteScheduler scheduler;
+        private final Set<String> resources;
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        SuiteThread(TestSuiteScheduler scheduler, Set<String> resources) {
+            this.scheduler = scheduler;
+            this.resources = resources;
+        }
+
+        @Override
+        public void run() {
+            try {
+                scheduler.acquire(resources, null);
+                started.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.unittest;
+
+import junit.framework.TestCase;
+import org.apache.synapse.mediators.base.SequenceMediator;
+import org.apache.synapse.unittest.testcase.data.classes.SynapseTestCase;
+import org.apache.synapse.unittest.testcase.data.classes.TestCaseSummary;
+import org.apache.synapse.unittest.testcase.data.classes.TestSuiteSummary;
+import org.apache.synapse.unittest.testcase.data.holders.TestCaseData;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for running the test cases of a test suite one after the other and side by side.
+ */
+public class TestingAgentTest extends TestCase {
+
+    private static final int TEST_CASE_COUNT = 6;
+
+    @Override
+    protected void tearDown() throws Exception {
+        System.clearProperty(Constants.TEST_CASE_PARALLELISM);
+        super.tearDown();
+    }
+
+    public void testParallelResultsInTestCaseOrder() {
+        SleepingTestingAgent sequentialAgent = new SleepingTestingAgent(-1);
+        TestSuiteSummary sequentialSummary = new TestSuiteSummary();
+        sequentialAgent.processTestCases(createTestCases(), sequentialSummary);
+
+        System.setProperty(Constants.TEST_CASE_PARALLELISM, "3");
+        SleepingTestingAgent parallelAgent = new SleepingTestingAgent(-1);
+        TestSuiteSummary parallelSummary = new TestSuiteSummary();
+        parallelAgent.processTestCases(createTestCases(), parallelSummary);
+
+        assertEquals(1, sequentialAgent.maxRunning.get());
+        assertTrue("Test cases should run side by side", parallelAgent.maxRunning.get() > 1);
+        assertEquals(TEST_CASE_COUNT, parallelSummary.getTestCaseSumamryList().size());
+        assertEquals(getTestCaseNames(sequentialSummary), getTestCaseNames(parallelSummary));
+        assertEquals(sequentialSummary.getMediationStatus(), parallelSummary.getMediationStatus());
+        assertEquals(sequentialSummary.getRecentTestCaseName(), parallelSummary.getRecentTestCaseName());
+    }
+
+    public void testParallelResultsStopAtFirstFailure() {
+        TestSuiteSummary sequentialSummary = new TestSuiteSummary();
+        new SleepingTestingAgent(2).processTestCases(createTestCases(), sequentialSummary);
+
+        System.setProperty(Constants.TEST_CASE_PARALLELISM, "3");
+        TestSuiteSummary parallelSummary = new TestSuiteSummary();
+        new SleepingTestingAgent(2).processTestCases(createTestCases(), parallelSummary);
+
+        assertEquals(Constants.FAILED_KEY, sequentialSummary.getMediationStatus());
+        assertEquals(Constants.FAILED_KEY, parallelSummary.getMediationStatus());
+        assertEquals(2, parallelSummary.getTestCaseSumamryList().size());
+        assertEquals(getTestCaseNames(sequentialSummary), getTestCaseNames(parallelSummary));
+        assertEquals("TestCase2", sequentialSummary.getRecentTestCaseName());
+        assertEquals("TestCase2", parallelSummary.getRecentTestCaseName());
+    }
+
+    public void testSharedReferencedArtifactsAreKeptOnCleanUp() throws Exception {
+        MediatorRegistry registry = MediatorRegistry.getInstance();
+        SequenceMediator shared = new SequenceMediator();
+        shared.setName("sharedFaultSequence");
+        registry.registerSequence(shared, null);
+        SequenceMediator deployed = new SequenceMediator();
+        deployed.setName("suiteSequence");
+        deployed.setErrorHandler("sharedFaultSequence");
+        registry.registerSequence(deployed, null);
+        try {
+            TestingAgent agent = new TestingAgent();
+            getCoverageArtifactKeys(agent).add("Sequence:suiteSequence");
+            assertTrue(agent.getCoverageArtifactKeys().contains("Sequence:sharedFaultSequence"));
+
+            // the suite clears only the artifacts it deployed, another suite may still be using the shared one
+            registry.clear(agent.getDeployedArtifactKeys());
+            assertFalse(registry.isArtifactRegistered("Sequence:suiteSequence"));
+            assertTrue(registry.isArtifactRegistered("Sequence:sharedFaultSequence"));
+        } finally {
+            registry.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> getCoverageArtifactKeys(TestingAgent agent) throws Exception {
+        Field field = TestingAgent.class.getDeclaredField("coverageArtifactKeys");
+        field.setAccessible(true);
+        return (Set<String>) field.get(agent);
+    }
+
+    private static SynapseTestCase createTestCases() {
+        TestCaseData testCaseData = new TestCaseData();
+        for (int i = 0; i < TEST_CASE_COUNT; i++) {
+            org.apache.synapse.unittest.testcase.data.classes.TestCase testCase =
+                    new org.apache.synapse.unittest.testcase.data.classes.TestCase();
+            testCase.setTestCaseName("TestCase" + i);
+            testCaseData.setTestCases(testCase);
+        }
+        testCaseData.setTestCaseCount(TEST_CASE_COUNT);
+        SynapseTestCase synapseTestCase = new SynapseTestCase();
+        synapseTestCase.setTestCases(testCaseData);
+        return synapseTestCase;
+    }
+
+    private static List<String> getTestCaseNames(TestSuiteSummary testSuiteSummary) {
+        List<String> names = new ArrayList<>();
+        for (TestCaseSummary summary : testSuiteSummary.getTestCaseSumamryList()) {
+            names.add(summary.getTestCaseName());
+        }
+        return names;
+    }
+
+    /**
+     * Testing agent whose earlier test cases take longer, so that parallel test cases complete out of order.
+     */
+    private static class SleepingTestingAgent extends TestingAgent {
+
+        private final int failingTestCase;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        SleepingTestingAgent(int failingTestCase) {
+            this.failingTestCase = failingTestCase;
+        }
+
+        @Override
+        TestCaseSummary processTestCase(org.apache.synapse.unittest.testcase.data.classes.TestCase currentTestCase)
+                throws Exception {
+            int index = Integer.parseInt(currentTestCase.getTestCaseName().substring("TestCase".length()));
+            int current = running.incrementAndGet();
+            try {
+                int max = maxRunning.get();
+                while (current > max && !maxRunning.compareAndSet(max, current)) {
+                    max = maxRunning.get();
+                }
+                Thread.sleep((TEST_CASE_COUNT - index) * 20L);
+                if (index == failingTestCase) {
+                    throw new Exception("Test case " + index + " failed");
+                }
+                TestCaseSummary testSummary = new TestCaseSummary();
+                testSummary.setTestCaseName(currentTestCase.getTestCaseName());
+                testSummary.setMediationStatus(Constants.PASSED_KEY);
+                return testSummary;
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
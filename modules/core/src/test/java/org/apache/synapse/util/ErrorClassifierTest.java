@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.util;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import junit.framework.TestCase;
+import org.apache.synapse.SynapseConstants;
+import org.apache.synapse.SynapseException;
+import org.apache.synapse.commons.util.DeferredValue;
+import org.apache.synapse.commons.util.ErrorDetail;
+
+import java.io.StringReader;
+import java.net.ConnectException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+public class ErrorClassifierTest extends TestCase {
+
+    public void testMessageBuildFailure() throws Exception {
+        Exception parseError = null;
+        try {
+            XMLStreamReader reader = new WstxInputFactory().createXMLStreamReader(new StringReader("<a><b></a>"));
+            while (reader.hasNext()) {
+                reader.next();
+            }
+        } catch (XMLStreamException e) {
+            parseError = e;
+        }
+        assertNotNull(parseError);
+        assertTrue(ErrorClassifier.isMessageBuildFailure(parseError));
+        assertTrue(ErrorClassifier.isMessageBuildFailure(
+                new SynapseException("Error while building the message", new RuntimeException(parseError))));
+        assertFalse(ErrorClassifier.isMessageBuildFailure(new SynapseException("Error while mediating")));
+        assertFalse(ErrorClassifier.isMessageBuildFailure(
+                new SynapseException("Error while sending", new ConnectException("Connection refused"))));
+    }
+
+    public void testFailureThrownThroughParser() {
+        RuntimeException error = new IllegalStateException("Unexpected end of input");
+        error.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("org.apache.synapse.commons.staxon.core.json.stream.impl.JsonScanner",
+                        "nextSymbol", "JsonScanner.java", 120),
+                new StackTraceElement("org.apache.synapse.mediators.AbstractListMediator", "mediate",
+                        "AbstractListMediator.java", 140)
+        });
+        assertTrue(ErrorClassifier.isMessageBuildFailure(new SynapseException("Error while building", error)));
+    }
+
+    public void testCyclicCauseChain() {
+        final Exception first = new Exception("first");
+        Exception second = new Exception("second", first);
+        first.initCause(second);
+        assertFalse(ErrorClassifier.isMessageBuildFailure(first));
+    }
+
+    /**
+     * Raises the faults of a backend outage, none of which reads ERROR_DETAIL.
+     */
+    public void testErrorStorm() {
+        for (int i = 0; i < 50000; i++) {
+            SynapseException error = new SynapseException("Error connecting to the back end",
+                    new ConnectException("Connection refused"));
+            PropertyStore properties = new PropertyStore(PropertySlots.PROPERTIES);
+            assertFalse(ErrorClassifier.isMessageBuildFailure(error));
+            properties.put(SynapseConstants.ERROR_CODE, 101503);
+            properties.put(SynapseConstants.ERROR_MESSAGE, error.getMessage());
+            properties.put(SynapseConstants.ERROR_DETAIL, new ErrorDetail(error));
+            assertEquals(101503, properties.get(SynapseConstants.ERROR_CODE));
+        }
+
+        PropertyStore properties = new PropertyStore(PropertySlots.PROPERTIES);
+        SynapseException error = new SynapseException("Error connecting to the back end");
+        properties.put(SynapseConstants.ERROR_DETAIL, new ErrorDetail(error));
+        Object detail = properties.get(SynapseConstants.ERROR_DETAIL);
+        assertTrue(detail instanceof String);
+        assertEquals(ErrorDetail.getStackTrace(error), detail);
+        assertSame(detail, properties.get(SynapseConstants.ERROR_DETAIL));
+        assertFalse(properties.values().iterator().next() instanceof DeferredValue);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.util;
+
+import junit.framework.TestCase;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Stack;
+
+public class PropertyStoreTest extends TestCase {
+
+    public void testSlots() {
+        PropertySlots slots = new PropertySlots(3);
+        assertEquals(0, slots.register("a"));
+        assertEquals(1, slots.register("b"));
+        assertEquals(0, slots.register(new String("a")));
+        assertEquals(2, slots.register("c"));
+        assertEquals(-1, slots.register("d"));
+        assertEquals(3, slots.size());
+        assertEquals(1, slots.slotOf("b"));
+        assertEquals(-1, slots.slotOf("d"));
+        assertEquals(-1, slots.slotOf(null));
+    }
+
+    public void testSlotAndFallbackKeys() {
+        PropertySlots slots = new PropertySlots(8);
+        slots.register("known");
+        PropertyStore store = new PropertyStore(slots);
+
+        assertNull(store.put("known", "1"));
+        assertNull(store.put("unknown", "2"));
+        assertEquals("1", store.put("known", "3"));
+        assertEquals(2, store.size());
+        assertEquals("3", store.get("known"));
+        assertEquals("2", store.get("unknown"));
+        assertNull(store.get("missing"));
+
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("known", "3");
+        expected.put("unknown", "2");
+        assertEquals(expected, store);
+
+        assertTrue(store.keySet().remove("known"));
+        assertFalse(store.keySet().remove("known"));
+        assertFalse(store.containsKey("known"));
+        store.put("unknown", null);
+        assertTrue(store.isEmpty());
+    }
+
+    public void testKeyRegisteredAfterPut() {
+        PropertySlots slots = new PropertySlots(8);
+        PropertyStore store = new PropertyStore(slots);
+        store.put("late", "1");
+        store.put("other", "2");
+        slots.register("late");
+
+        assertEquals("1", store.get("late"));
+        assertEquals("1", store.put("late", "3"));
+        assertEquals(2, store.size());
+        assertEquals("3", store.remove("late"));
+        assertNull(store.get("late"));
+        assertEquals(1, store.size());
+    }
+
+    public void testAgainstHashMap() {
+        PropertySlots slots = new PropertySlots(16);
+        for (int i = 0; i < 10; i++) {
+            slots.register("key" + i);
+        }
+        PropertyStore store = new PropertyStore(slots);
+        Map<String, Object> expected = new HashMap<String, Object>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            String key = random.nextInt(20) == 0 ? null : "key" + random.nextInt(40);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    Integer value = random.nextInt();
+                    assertEquals(expected.put(key, value), store.put(key, value));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), store.remove(key));
+                    break;
+                default:
+                    Iterator<String> iterator = store.keySet().iterator();
+                    while (iterator.hasNext()) {
+                        if (random.nextBoolean()) {
+                            expected.remove(iterator.next());
+                            iterator.remove();
+                        } else {
+                            iterator.next();
+                        }
+                    }
+                    break;
+            }
+            assertEquals(expected.get(key), store.get(key));
+            assertEquals(expected.size(), store.size());
+        }
+        assertEquals(expected, store);
+        assertEquals(expected.keySet(), store.keySet());
+    }
+
+    public void testFailFastIterator() {
+        PropertyStore store = new PropertyStore();
+        store.put("a", "1");
+        store.put("b", "2");
+        try {
+            for (String key : store.keySet()) {
+                store.put(key + key, "3");
+            }
+            fail("Concurrent modification not detected");
+        } catch (ConcurrentModificationException expected) {
+            // expected
+        }
+    }
+
+    public void testUnsynchronizedStack() {
+        Stack<String> stack = new UnsynchronizedStack<String>();
+        for (int i = 0; i < 50; i++) {
+            stack.push(String.valueOf(i));
+        }
+        assertEquals(50, stack.size());
+        assertEquals("49", stack.peek());
+        assertEquals("49", stack.pop());
+        assertEquals("10", stack.get(10));
+        assertEquals(49, stack.size());
+
+        Stack<String> copy = new Stack<String>();
+        copy.addAll(stack);
+        assertEquals(stack, copy);
+        stack.clear();
+        assertTrue(stack.empty());
+    }
+}
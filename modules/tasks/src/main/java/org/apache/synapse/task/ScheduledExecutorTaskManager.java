@@ -0,0 +1,583 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.synapse.task;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.util.PropertyHelper;
+import org.quartz.CronExpression;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TaskManager} which triggers the tasks from a scheduled thread pool instead of a Quartz scheduler. Intervals
+ * are honoured down to the millisecond, so a task which should run more often than once a second need not hold on to
+ * the thread it is executed on and loop.
+ *
+ * Interval triggers run at a fixed rate by default, the {@link TaskConstants#SCHEDULE_MODE} property of the task
+ * description switches them to a fixed delay between the end of one execution and the start of the next. Triggers
+ * which were missed while the task was still running or paused are not fired in a burst afterwards. Cron expressions
+ * follow the Quartz syntax. A task is never executed concurrently with itself.
+ *
+ * The task instance should be given as the {@link TaskDescription#INSTANCE} resource, otherwise the class of the task
+ * is instantiated and its static properties are set, but it is not initialized with the Synapse environment.
+ */
+public class ScheduledExecutorTaskManager implements TaskManager {
+
+    private static final Log logger = LogFactory.getLog(ScheduledExecutorTaskManager.class.getName());
+
+    /**
+     * Property look up key for the number of threads which execute the tasks
+     */
+    public final static String THREAD_COUNT = "synapse.task.threadCount";
+
+    private static final int DEFAULT_THREAD_COUNT = 10;
+
+    private final Object lock = new Object();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private volatile boolean initialized = false;
+
+    private volatile boolean started = false;
+
+    /** Scheduled tasks by name */
+    private final Map<String, ScheduledTask> tasks = new ConcurrentHashMap<String, ScheduledTask>();
+
+    private final AtomicInteger runningTasks = new AtomicInteger();
+
+    private final CopyOnWriteArrayList<TaskManagerObserver> observers =
+            new CopyOnWriteArrayList<TaskManagerObserver>();
+
+    private final Map<String, Object> properties = new ConcurrentHashMap<String, Object>(5);
+
+    protected final Properties configProperties = new Properties();
+
+    private String name;
+
+    @Override
+    public boolean schedule(TaskDescription taskDescription) {
+        assertInitialized();
+        assertStarted();
+        if (taskDescription == null) {
+            throw new SynapseTaskException("Task Description cannot be found", logger);
+        }
+        String taskName = taskDescription.getName();
+        if (taskName == null || "".equals(taskName)) {
+            throw new SynapseTaskException("Name of the Task cannot be null", logger);
+        }
+        Task task = createTask(taskDescription);
+        if (task == null) {
+            return false;
+        }
+        if (taskDescription.getCount() == 0) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("did not schedule the task : " + taskName + ". count is zero.");
+            }
+            return true;
+        }
+        ScheduledTask scheduledTask = new ScheduledTask(taskDescription, task);
+        if (tasks.putIfAbsent(taskName, scheduledTask) != null) {
+            logger.warn("did not schedule the task : " + taskName + ". the task is already scheduled.");
+            return true;
+        }
+        scheduledTask.start();
+        logger.info("Scheduled task [" + taskName + "::" + taskDescription.getTaskGroup() + "]");
+        return true;
+    }
+
+    @Override
+    public boolean reschedule(String name, TaskDescription taskDescription) {
+        if (name == null || taskDescription == null) {
+            return false;
+        }
+        ScheduledTask scheduledTask = tasks.remove(name);
+        if (scheduledTask != null) {
+            scheduledTask.cancel();
+        }
+        return schedule(taskDescription);
+    }
+
+    @Override
+    public boolean delete(String nameGroup) {
+        if (nameGroup == null) {
+            return false;
+        }
+        assertInitialized();
+        String taskName = nameGroup.split("::")[0];
+        if (taskName == null || "".equals(taskName)) {
+            throw new SynapseTaskException("Task name is null", logger);
+        }
+        ScheduledTask scheduledTask = tasks.remove(taskName);
+        if (scheduledTask != null) {
+            scheduledTask.cancel();
+        }
+        logger.debug("Deleted task [" + nameGroup + "] [" + (scheduledTask != null) + "]");
+        return true;
+    }
+
+    @Override
+    public boolean pause(String name) {
+        ScheduledTask scheduledTask = name != null ? tasks.get(name) : null;
+        if (scheduledTask == null) {
+            return false;
+        }
+        scheduledTask.pause();
+        return true;
+    }
+
+    @Override
+    public boolean pauseAll() {
+        assertInitialized();
+        for (ScheduledTask scheduledTask : tasks.values()) {
+            scheduledTask.pause();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean resume(String name) {
+        ScheduledTask scheduledTask = name != null ? tasks.get(name) : null;
+        if (scheduledTask == null) {
+            return false;
+        }
+        scheduledTask.resume();
+        return true;
+    }
+
+    @Override
+    public boolean resumeAll() {
+        assertInitialized();
+        for (ScheduledTask scheduledTask : tasks.values()) {
+            scheduledTask.resume();
+        }
+        return true;
+    }
+
+    @Override
+    public TaskDescription getTask(String name) {
+        ScheduledTask scheduledTask = name != null ? tasks.get(name) : null;
+        return scheduledTask != null ? scheduledTask.description : null;
+    }
+
+    @Override
+    public String[] getTaskNames() {
+        return tasks.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public boolean init(Properties properties) {
+        int threadCount = DEFAULT_THREAD_COUNT;
+        if (properties != null && properties.getProperty(THREAD_COUNT) != null) {
+            try {
+                threadCount = Math.max(1, Integer.parseInt(properties.getProperty(THREAD_COUNT).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid task thread count : " + properties.getProperty(THREAD_COUNT)
+                        + ", using the default of " + DEFAULT_THREAD_COUNT);
+            }
+        }
+        synchronized (lock) {
+            if (initialized) {
+                return true;
+            }
+            final String prefix = "synapse-task-" + (name != null ? name + "-" : "");
+            executor = new ScheduledThreadPoolExecutor(threadCount, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, prefix + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            initialized = true;
+            logger.info("initialized with " + threadCount + " threads");
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    @Override
+    public boolean start() {
+        assertInitialized();
+        synchronized (lock) {
+            if (started) {
+                return true;
+            }
+            started = true;
+        }
+        for (TaskManagerObserver observer : observers) {
+            observer.update();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean stop() {
+        synchronized (lock) {
+            if (!initialized) {
+                return false;
+            }
+            for (ScheduledTask scheduledTask : tasks.values()) {
+                scheduledTask.cancel();
+            }
+            tasks.clear();
+            if (logger.isDebugEnabled()) {
+                logger.debug("ShuttingDown Task Scheduler : " + name);
+            }
+            executor.shutdown();
+            initialized = false;
+            started = false;
+        }
+        return false;
+    }
+
+    @Override
+    public int getRunningTaskCount() {
+        return runningTasks.get();
+    }
+
+    @Override
+    public boolean isTaskRunning(Object taskKey) {
+        return taskKey instanceof String && isTaskRunning((String) taskKey);
+    }
+
+    @Override
+    public boolean setProperties(Map<String, Object> properties) {
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            setProperty(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setProperty(String name, Object property) {
+        if (name == null || property == null) {
+            return false;
+        }
+        properties.put(name, property);
+        return true;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        if (name == null) {
+            return null;
+        }
+        return properties.get(name);
+    }
+
+    @Override
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getProviderClass() {
+        return this.getClass().getName();
+    }
+
+    @Override
+    public Properties getConfigurationProperties() {
+        synchronized (lock) {
+            return configProperties;
+        }
+    }
+
+    @Override
+    public void setConfigurationProperties(Properties properties) {
+        synchronized (lock) {
+            this.configProperties.putAll(properties);
+        }
+    }
+
+    @Override
+    public void addObserver(TaskManagerObserver o) {
+        observers.addIfAbsent(o);
+    }
+
+    @Override
+    public boolean isTaskDeactivated(String taskName) {
+        ScheduledTask scheduledTask = taskName != null ? tasks.get(taskName) : null;
+        return scheduledTask != null && scheduledTask.isPaused();
+    }
+
+    @Override
+    public boolean isTaskBlocked(String taskName) {
+        return false;
+    }
+
+    @Override
+    public boolean isTaskRunning(String taskName) {
+        ScheduledTask scheduledTask = taskName != null ? tasks.get(taskName) : null;
+        return scheduledTask != null && scheduledTask.running;
+    }
+
+    @Override
+    public void sendClusterMessage(Callable<Void> task) {
+
+    }
+
+    @Override
+    public boolean isTaskExist(String taskName) {
+        return taskName != null && tasks.containsKey(taskName);
+    }
+
+    @Override
+    public boolean isSubSecondIntervalSupported() {
+        return true;
+    }
+
+    private Task createTask(TaskDescription taskDescription) {
+        Object instance = taskDescription.getResource(TaskDescription.INSTANCE);
+        if (instance == null) {
+            String className = taskDescription.getTaskImplClassName();
+            if (className == null) {
+                className = (String) taskDescription.getProperty(TaskDescription.CLASSNAME);
+            }
+            if (className == null) {
+                logger.error("Could not schedule task[" + taskDescription.getName() + "]. Task class is not given.");
+                return null;
+            }
+            try {
+                instance = Class.forName(className).newInstance();
+            } catch (Exception e) {
+                logger.error("Could not schedule task[" + taskDescription.getName() + "].", e);
+                return null;
+            }
+            for (OMElement property : taskDescription.getXmlProperties()) {
+                logger.debug("Found Property : " + property.toString());
+                PropertyHelper.setStaticProperty(property, instance);
+            }
+        }
+        if (!(instance instanceof Task)) {
+            logger.error("Could not schedule task[" + taskDescription.getName() + "]. "
+                    + instance.getClass().getName() + " is not a Task.");
+            return null;
+        }
+        return (Task) instance;
+    }
+
+    private void assertInitialized() {
+        if (!initialized) {
+            throw new SynapseTaskException("Scheduler has not been initialled yet", logger);
+        }
+    }
+
+    private void assertStarted() {
+        if (!started) {
+            throw new SynapseTaskException("Scheduler has not been started yet", logger);
+        }
+    }
+
+    /**
+     * A task along with its trigger. Each execution schedules the next one once it completes, which keeps the task
+     * from overlapping with itself and lets the next fire time be worked out the same way for every kind of trigger.
+     */
+    private final class ScheduledTask implements Runnable {
+
+        private final TaskDescription description;
+
+        private final Task task;
+
+        private final CronExpression cronExpression;
+
+        private final long interval;
+
+        private final boolean fixedDelay;
+
+        private final long startTime;
+
+        private final long endTime;
+
+        /** Number of executions left, negative if the task repeats forever */
+        private int remaining;
+
+        private long nextFireTime;
+
+        private ScheduledFuture<?> future;
+
+        private boolean paused;
+
+        private boolean cancelled;
+
+        private volatile boolean running;
+
+        ScheduledTask(TaskDescription description, Task task) {
+            this.description = description;
+            this.task = task;
+            String cron = description.getCronExpression();
+            if (cron != null && !"".equals(cron)) {
+                try {
+                    cronExpression = new CronExpression(cron);
+                } catch (ParseException e) {
+                    throw new SynapseTaskException("Invalid cron expression [" + cron + "] of task : "
+                            + description.getName(), e, logger);
+                }
+                interval = 0;
+            } else {
+                cronExpression = null;
+                interval = description.getIntervalInMs() ? description.getInterval()
+                        : description.getInterval() * 1000;
+                if (interval <= 0 && description.getCount() != 1) {
+                    throw new SynapseTaskException("Interval of task : " + description.getName()
+                            + " should be a positive value, but was : " + interval, logger);
+                }
+            }
+            this.fixedDelay = TaskConstants.SCHEDULE_MODE_FIXED_DELAY.equals(
+                    description.getProperty(TaskConstants.SCHEDULE_MODE));
+            this.startTime = description.getStartTime() != null ? description.getStartTime().getTimeInMillis() : 0;
+            this.endTime = description.getEndTime() != null ? description.getEndTime().getTimeInMillis()
+                    : Long.MAX_VALUE;
+            this.remaining = description.getCount();
+        }
+
+        synchronized void start() {
+            long now = System.currentTimeMillis();
+            if (cronExpression != null) {
+                scheduleAt(nextCronTime(Math.max(now, startTime)));
+            } else {
+                scheduleAt(Math.max(now, startTime));
+            }
+        }
+
+        public void run() {
+            long scheduledTime;
+            synchronized (this) {
+                if (paused || cancelled) {
+                    return;
+                }
+                scheduledTime = nextFireTime;
+                running = true;
+                if (remaining > 0) {
+                    remaining--;
+                }
+            }
+            runningTasks.incrementAndGet();
+            try {
+                task.execute();
+            } catch (Throwable t) {
+                logger.error("Error executing task [" + description.getName() + "]", t);
+            } finally {
+                runningTasks.decrementAndGet();
+                running = false;
+            }
+            synchronized (this) {
+                scheduleAt(remaining == 0 ? -1 : fireTimeAfter(scheduledTime, System.currentTimeMillis()));
+            }
+        }
+
+        synchronized void pause() {
+            paused = true;
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+        }
+
+        synchronized void resume() {
+            if (!paused) {
+                return;
+            }
+            paused = false;
+            long now = System.currentTimeMillis();
+            scheduleAt(cronExpression != null ? nextCronTime(now) : Math.max(now, nextFireTime));
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+        }
+
+        synchronized boolean isPaused() {
+            return paused;
+        }
+
+        /**
+         * Works out when the task should fire next after an execution which was due at the given time.
+         */
+        private long fireTimeAfter(long scheduledTime, long now) {
+            if (cronExpression != null) {
+                return nextCronTime(now);
+            }
+            if (fixedDelay) {
+                return now + interval;
+            }
+            long next = scheduledTime + interval;
+            if (next < now) {
+                // skip the triggers which were missed while the task was running
+                next += ((now - next) / interval + 1) * interval;
+            }
+            return next;
+        }
+
+        private long nextCronTime(long after) {
+            Date next = cronExpression.getNextValidTimeAfter(new Date(after));
+            return next != null ? next.getTime() : -1;
+        }
+
+        private void scheduleAt(long fireTime) {
+            if (cancelled || paused) {
+                return;
+            }
+            if (fireTime < 0 || fireTime > endTime || remaining == 0) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Task [" + description.getName() + "] completed its schedule");
+                }
+                tasks.remove(description.getName(), this);
+                return;
+            }
+            nextFireTime = fireTime;
+            try {
+                future = executor.schedule(this, Math.max(0, fireTime - System.currentTimeMillis()),
+                                           TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Task [" + description.getName() + "] was not scheduled since the task manager "
+                        + "has been stopped", e);
+            }
+        }
+    }
+}
@@ -28,4 +28,10 @@ public final class TaskConstants {
     public static final String TASK_DESCRIPTION_REPOSITORY = "task_description_repository";
 
     public static final String SYNAPSE_ENV = "SynapseEnvironment";
+
+    /* Task description property which selects how an interval is applied by the ScheduledExecutorTaskManager,
+       either from the start of one execution to the next (fixedRate) or from the end of one to the next (fixedDelay) */
+    public static final String SCHEDULE_MODE = "synapse.task.scheduleMode";
+    public static final String SCHEDULE_MODE_FIXED_RATE = "fixedRate";
+    public static final String SCHEDULE_MODE_FIXED_DELAY = "fixedDelay";
 }
@@ -117,4 +117,14 @@ public interface TaskManager {
      */
     boolean isTaskExist(final String taskName);
 
+    /**
+     * Checks whether the task manager itself triggers tasks at intervals of less than a second, so that a task need
+     * not loop within a single execution in order to run more often.
+     *
+     * @return <code>true</code> if intervals of less than 1000 ms are honoured, <code>false</code> otherwise.
+     */
+    default boolean isSubSecondIntervalSupported() {
+        return false;
+    }
+
 }
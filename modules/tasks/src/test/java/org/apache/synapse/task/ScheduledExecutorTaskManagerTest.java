@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.task;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ScheduledExecutorTaskManager}
+ */
+public class ScheduledExecutorTaskManagerTest {
+
+    private ScheduledExecutorTaskManager taskManager;
+
+    @Before
+    public void setUp() {
+        taskManager = new ScheduledExecutorTaskManager();
+        taskManager.setName("test");
+        taskManager.init(new Properties());
+        taskManager.start();
+    }
+
+    @After
+    public void tearDown() {
+        taskManager.stop();
+    }
+
+    /**
+     * Intervals of less than a second should be honoured and the task should run exactly count times.
+     */
+    @Test
+    public void testSubSecondIntervalWithCount() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final AtomicInteger executions = new AtomicInteger();
+        TaskDescription taskDescription = createTaskDescription("subSecond", 20, new Task() {
+            public void execute() {
+                executions.incrementAndGet();
+                latch.countDown();
+            }
+        });
+        taskDescription.setCount(5);
+        long start = System.currentTimeMillis();
+        Assert.assertTrue(taskManager.schedule(taskDescription));
+
+        Assert.assertTrue("Task was not executed 5 times", latch.await(5, TimeUnit.SECONDS));
+        long elapsed = System.currentTimeMillis() - start;
+        Assert.assertTrue("Task was triggered too late : " + elapsed + " ms", elapsed < 1000);
+        Thread.sleep(100);
+        Assert.assertEquals(5, executions.get());
+        Assert.assertFalse("Task should be removed once its schedule completes", taskManager.isTaskExist("subSecond"));
+    }
+
+    /**
+     * A paused task should not be triggered until it is resumed.
+     */
+    @Test
+    public void testPauseAndResume() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        Assert.assertTrue(taskManager.schedule(createTaskDescription("pausable", 10, new Task() {
+            public void execute() {
+                executions.incrementAndGet();
+            }
+        })));
+        Thread.sleep(100);
+        Assert.assertTrue(taskManager.pause("pausable"));
+        Assert.assertTrue(taskManager.isTaskDeactivated("pausable"));
+        Thread.sleep(20);
+        int paused = executions.get();
+        Assert.assertTrue("Task was not executed before it was paused", paused > 0);
+        Thread.sleep(100);
+        Assert.assertEquals("Paused task was executed", paused, executions.get());
+
+        Assert.assertTrue(taskManager.resume("pausable"));
+        Assert.assertFalse(taskManager.isTaskDeactivated("pausable"));
+        Thread.sleep(100);
+        Assert.assertTrue("Resumed task was not executed", executions.get() > paused);
+    }
+
+    /**
+     * With a fixed delay the interval should be kept between the end of an execution and the start of the next one,
+     * and a task should never overlap with itself.
+     */
+    @Test
+    public void testFixedDelayDoesNotOverlap() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(3);
+        TaskDescription taskDescription = createTaskDescription("fixedDelay", 5, new Task() {
+            public void execute() {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                try {
+                    Thread.sleep(30);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                latch.countDown();
+            }
+        });
+        taskDescription.addProperty(TaskConstants.SCHEDULE_MODE, TaskConstants.SCHEDULE_MODE_FIXED_DELAY);
+        Assert.assertTrue(taskManager.schedule(taskDescription));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, overlaps.get());
+    }
+
+    /**
+     * Deleted tasks should not be triggered any more.
+     */
+    @Test
+    public void testDelete() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        Assert.assertTrue(taskManager.schedule(createTaskDescription("deleted", 10, new Task() {
+            public void execute() {
+                executions.incrementAndGet();
+            }
+        })));
+        Assert.assertTrue(taskManager.isTaskExist("deleted"));
+        Assert.assertTrue(taskManager.delete("deleted::" + TaskDescription.DEFAULT_GROUP));
+        Assert.assertFalse(taskManager.isTaskExist("deleted"));
+        Thread.sleep(20);
+        int executed = executions.get();
+        Thread.sleep(100);
+        Assert.assertEquals(executed, executions.get());
+    }
+
+    @Test
+    public void testCronExpression() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        TaskDescription taskDescription = createTaskDescription("cron", 0, new Task() {
+            public void execute() {
+                latch.countDown();
+            }
+        });
+        taskDescription.setCronExpression("* * * * * ?");
+        Assert.assertTrue(taskManager.schedule(taskDescription));
+        Assert.assertTrue("Cron task was not triggered", latch.await(3, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = SynapseTaskException.class)
+    public void testInvalidCronExpression() {
+        TaskDescription taskDescription = createTaskDescription("invalidCron", 0, new Task() {
+            public void execute() {
+            }
+        });
+        taskDescription.setCronExpression("not a cron expression");
+        taskManager.schedule(taskDescription);
+    }
+
+    private static TaskDescription createTaskDescription(String name, long interval, Task task) {
+        TaskDescription taskDescription = new TaskDescription();
+        taskDescription.setName(name);
+        taskDescription.setTaskGroup(TaskDescription.DEFAULT_GROUP);
+        taskDescription.setInterval(interval);
+        taskDescription.setIntervalInMs(true);
+        taskDescription.setCount(-1);
+        taskDescription.addResource(TaskDescription.INSTANCE, task);
+        return taskDescription;
+    }
+}
@@ -94,12 +94,27 @@ public class CertificateVerificationManager {
      * It first tries to verify using OCSP since OCSP verification is faster. If that fails it tries to do the
      * verification using CRL.
      *
+     * The time taken by the verification, which is spent in the handshake path, is recorded in the
+     * {@link RevocationVerificationMetrics}.
+     *
      * @param peerCertificates  java.security.cert.Certificate[] array of peer certificate chain from peer/client.
      * @throws CertificateVerificationException
      */
     public void verifyCertificateValidity(Certificate[] peerCertificates)
             throws CertificateVerificationException {
 
+        long start = System.nanoTime();
+        boolean verified = false;
+        try {
+            verifyRevocationStatus(peerCertificates);
+            verified = true;
+        } finally {
+            RevocationVerificationMetrics.getInstance().notifyVerification(System.nanoTime() - start, verified);
+        }
+    }
+
+    private void verifyRevocationStatus(Certificate[] peerCertificates) throws CertificateVerificationException {
+
         X509Certificate[] convertedCertificates = convert(peerCertificates);
 
         X509Certificate peerCert = null;
@@ -29,6 +29,8 @@ public interface Constants {
     public static final int CACHE_MAX_DELAY_MINS = 60 * 24;
     public static final int CACHE_MIN_DELAY_MINS = 1;
     public static final int CACHE_DEFAULT_DELAY_MINS = 15;
+    public static final int CRL_PREFETCH_LEAD_TIME_MINS = 5;
+    public static final int CRL_PREFETCH_RETRY_MINS = 1;
 
     public static final String BOUNCY_CASTLE_PROVIDER = "BC";
     public static final String BOUNCY_CASTLE_FIPS_PROVIDER = "BCFIPS";
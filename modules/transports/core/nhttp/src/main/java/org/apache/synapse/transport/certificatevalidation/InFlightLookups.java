@@ -0,0 +1,95 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.synapse.transport.certificatevalidation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses concurrent remote revocation lookups for the same key. The first thread which asks for a key performs
+ * the lookup on its own thread while the threads which arrive before it completes wait for, and share, its outcome.
+ * This keeps a burst of handshakes for the same certificate (or the same CRL distribution point) from turning into
+ * a burst of requests towards the OCSP responder or the CRL server.
+ *
+ * @param <K> lookup key, e.g. a certificate serial number or a CRL url
+ * @param <V> result of the lookup
+ */
+public class InFlightLookups<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> lookups = new ConcurrentHashMap<K, CompletableFuture<V>>();
+
+    /**
+     * Runs the given lookup for the key unless another thread is already doing so, in which case the result of that
+     * lookup is returned.
+     *
+     * @param key    lookup key
+     * @param lookup remote lookup which should be performed at most once at a time for the key
+     * @return result of the lookup, which may be null
+     * @throws CertificateVerificationException if the lookup (ours or the one we waited for) failed
+     */
+    public V lookup(K key, Callable<V> lookup) throws CertificateVerificationException {
+
+        CompletableFuture<V> future = new CompletableFuture<V>();
+        CompletableFuture<V> inFlight = lookups.putIfAbsent(key, future);
+        if (inFlight != null) {
+            RevocationVerificationMetrics.getInstance().notifyCollapsedLookup();
+            return await(inFlight);
+        }
+
+        try {
+            RevocationVerificationMetrics.getInstance().notifyRemoteLookup();
+            V value = lookup.call();
+            future.complete(value);
+            return value;
+        } catch (CertificateVerificationException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw new CertificateVerificationException("Revocation lookup failed for: " + key, e);
+        } finally {
+            lookups.remove(key, future);
+        }
+    }
+
+    /**
+     * @return number of lookups which are currently in progress
+     */
+    public int size() {
+        return lookups.size();
+    }
+
+    private V await(CompletableFuture<V> inFlight) throws CertificateVerificationException {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CertificateVerificationException("Interrupted while waiting for a revocation lookup", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CertificateVerificationException) {
+                throw new CertificateVerificationException(cause.getMessage(), cause);
+            }
+            throw new CertificateVerificationException("Revocation lookup failed", cause);
+        }
+    }
+}
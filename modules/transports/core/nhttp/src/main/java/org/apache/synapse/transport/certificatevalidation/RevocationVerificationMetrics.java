@@ -0,0 +1,133 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.synapse.transport.certificatevalidation;
+
+import org.apache.synapse.commons.jmx.MBeanRegistrar;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the time spent on revocation verification in the handshake path and of how the revocation
+ * decisions were obtained (cache, remote lookup or a lookup shared with another handshake). This is a singleton
+ * since the revocation caches are shared by every transport which does SSL certificate validation. The metrics are
+ * exposed over JMX under the "CertificateValidation" category.
+ */
+public class RevocationVerificationMetrics implements RevocationVerificationMetricsMBean {
+
+    private static final RevocationVerificationMetrics instance = new RevocationVerificationMetrics();
+
+    private final AtomicLong verificationCount = new AtomicLong();
+    private final AtomicLong failedVerificationCount = new AtomicLong();
+    private final AtomicLong totalVerificationTimeNanos = new AtomicLong();
+    private final AtomicLong maxVerificationTimeNanos = new AtomicLong();
+    private final AtomicLong cacheHitCount = new AtomicLong();
+    private final AtomicLong remoteLookupCount = new AtomicLong();
+    private final AtomicLong collapsedLookupCount = new AtomicLong();
+    private final AtomicLong crlPrefetchCount = new AtomicLong();
+    private final AtomicLong crlPrefetchFailureCount = new AtomicLong();
+
+    private RevocationVerificationMetrics() {
+        MBeanRegistrar.getInstance().registerMBean(this, "CertificateValidation", "RevocationVerification");
+    }
+
+    public static RevocationVerificationMetrics getInstance() {
+        return instance;
+    }
+
+    public void notifyVerification(long timeNanos, boolean success) {
+        verificationCount.incrementAndGet();
+        if (!success) {
+            failedVerificationCount.incrementAndGet();
+        }
+        totalVerificationTimeNanos.addAndGet(timeNanos);
+        long max = maxVerificationTimeNanos.get();
+        while (timeNanos > max && !maxVerificationTimeNanos.compareAndSet(max, timeNanos)) {
+            max = maxVerificationTimeNanos.get();
+        }
+    }
+
+    public void notifyCacheHit() {
+        cacheHitCount.incrementAndGet();
+    }
+
+    public void notifyRemoteLookup() {
+        remoteLookupCount.incrementAndGet();
+    }
+
+    public void notifyCollapsedLookup() {
+        collapsedLookupCount.incrementAndGet();
+    }
+
+    public void notifyCRLPrefetch(boolean success) {
+        if (success) {
+            crlPrefetchCount.incrementAndGet();
+        } else {
+            crlPrefetchFailureCount.incrementAndGet();
+        }
+    }
+
+    public long getVerificationCount() {
+        return verificationCount.get();
+    }
+
+    public long getFailedVerificationCount() {
+        return failedVerificationCount.get();
+    }
+
+    public double getAverageVerificationTimeMillis() {
+        long count = verificationCount.get();
+        return count == 0 ? 0 : totalVerificationTimeNanos.get() / (count * 1000000d);
+    }
+
+    public double getMaxVerificationTimeMillis() {
+        return maxVerificationTimeNanos.get() / 1000000d;
+    }
+
+    public long getCacheHitCount() {
+        return cacheHitCount.get();
+    }
+
+    public long getRemoteLookupCount() {
+        return remoteLookupCount.get();
+    }
+
+    public long getCollapsedLookupCount() {
+        return collapsedLookupCount.get();
+    }
+
+    public long getCRLPrefetchCount() {
+        return crlPrefetchCount.get();
+    }
+
+    public long getCRLPrefetchFailureCount() {
+        return crlPrefetchFailureCount.get();
+    }
+
+    public void reset() {
+        verificationCount.set(0);
+        failedVerificationCount.set(0);
+        totalVerificationTimeNanos.set(0);
+        maxVerificationTimeNanos.set(0);
+        cacheHitCount.set(0);
+        remoteLookupCount.set(0);
+        collapsedLookupCount.set(0);
+        crlPrefetchCount.set(0);
+        crlPrefetchFailureCount.set(0);
+    }
+}
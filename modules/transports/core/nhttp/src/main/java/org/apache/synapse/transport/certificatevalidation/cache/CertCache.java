@@ -57,7 +57,7 @@ public class CertCache implements ManageableCache {
         return cache;
     }
 
-    public synchronized X509Certificate getCacheValue(String serialNumber) {
+    public X509Certificate getCacheValue(String serialNumber) {
         CertCacheValue cacheValue = hashMap.get(serialNumber);
         if (cacheValue != null) {
             return cacheValue.getValue();
@@ -93,7 +93,7 @@ public class CertCache implements ManageableCache {
         hashMap.clear();
     }
 
-    public synchronized void setCacheValue(String serialNumber, X509Certificate cert) {
+    public void setCacheValue(String serialNumber, X509Certificate cert) {
         CertCacheValue cacheValue = new CertCacheValue(serialNumber, cert);
 
         if (log.isDebugEnabled()) {
@@ -105,7 +105,7 @@ public class CertCache implements ManageableCache {
         }
     }
 
-    public synchronized void removeCacheValue(String serialNumber) {
+    public void removeCacheValue(String serialNumber) {
 
         if (log.isDebugEnabled()) {
             log.debug("Before remove - HashMap size " + hashMap.size());
@@ -21,6 +21,8 @@ package org.apache.synapse.transport.certificatevalidation.crl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.commons.jmx.MBeanRegistrar;
+import org.apache.synapse.transport.certificatevalidation.Constants;
+import org.apache.synapse.transport.certificatevalidation.RevocationVerificationMetrics;
 import org.apache.synapse.transport.certificatevalidation.cache.CacheController;
 import org.apache.synapse.transport.certificatevalidation.cache.CacheManager;
 import org.apache.synapse.transport.certificatevalidation.cache.ManageableCache;
@@ -31,11 +33,20 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Since a CRL maps to a CRL URL, the CRLCache should have x509CRL entries against CRL URLs.
  * This cache is a Singleton since it is shared by any transport which needs SSL certificate validation
  * and more than one CRLCache should not be allowed per system.
+ * <p>
+ * Reads are served straight from the concurrent map without locking. Each cached CRL is downloaded again in the
+ * background shortly before its nextUpdate time, so that handshakes keep hitting a valid CRL instead of waiting
+ * for the download once the cached one expires.
  */
 public class CRLCache implements ManageableCache {
 
@@ -46,7 +57,16 @@ public class CRLCache implements ManageableCache {
     private static CRLVerifier crlVerifier = new CRLVerifier(null);
     private static final Log log = LogFactory.getLog(CRLCache.class);
 
+    private final ScheduledExecutorService prefetcher;
+
     private CRLCache() {
+        prefetcher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "CRLCachePrefetcher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     public static CRLCache getCache(int cacheSize, int cacheDelayMins) {
@@ -87,7 +107,7 @@ public class CRLCache implements ManageableCache {
      *
      * @return next cache value of the cache.
      */
-    public synchronized ManageableCacheValue getNextCacheValue() {
+    public ManageableCacheValue getNextCacheValue() {
         //changes to the map are reflected on the keySet. And its iterator is weakly consistent. so will never
         //throw concurrent modification exception.
         if (iterator.hasNext()) {
@@ -101,7 +121,7 @@ public class CRLCache implements ManageableCache {
     /**
      * To get the current cache size (size of the hash map).
      */
-    public synchronized int getCacheSize() {
+    public int getCacheSize() {
         return hashMap.size();
     }
 
@@ -109,15 +129,20 @@ public class CRLCache implements ManageableCache {
         iterator = hashMap.entrySet().iterator();
     }
 
-    private synchronized void replaceNewCacheValue(CRLCacheValue cacheValue) {
+    private void replaceNewCacheValue(CRLCacheValue cacheValue) {
         //If someone has updated with the new value before current Thread.
         if (cacheValue.isValid())
             return;
 
+        String crlUrl = cacheValue.crlUrl;
+        CRLCacheValue current = hashMap.get(crlUrl);
+        if (current != null && current != cacheValue && current.isValid())
+            return;
+
         try {
-            String crlUrl = cacheValue.crlUrl;
-            X509CRL x509CRL = crlVerifier.downloadCRLFromWeb(crlUrl);
-            this.setCacheValue(crlUrl, x509CRL);
+            // Concurrent callers for the same url share a single download, other urls are not blocked.
+            X509CRL x509CRL = cacheValue.downloader.downloadCRL(crlUrl);
+            this.setCacheValue(crlUrl, x509CRL, cacheValue.downloader);
         } catch (Exception e) {
             log.info("Cant replace old CacheValue with new CacheValue. So remove", e);
             //If cant be replaced remove.
@@ -125,7 +150,7 @@ public class CRLCache implements ManageableCache {
         }
     }
 
-    public synchronized X509CRL getCacheValue(String crlUrl) {
+    public X509CRL getCacheValue(String crlUrl) {
         CRLCacheValue cacheValue = hashMap.get(crlUrl);
         if (cacheValue != null) {
             //If who ever gets this cache value before Cache manager task found its invalid, update it and get the
@@ -141,18 +166,107 @@ public class CRLCache implements ManageableCache {
             return null;
     }
 
-    public synchronized void setCacheValue(String crlUrl, X509CRL crl) {
-        CRLCacheValue cacheValue = new CRLCacheValue(crlUrl, crl);
-        log.info("Before set- HashMap size " + hashMap.size());
-        hashMap.put(crlUrl, cacheValue);
-        log.info("After set - HashMap size " + hashMap.size());
+    public void setCacheValue(String crlUrl, X509CRL crl) {
+        setCacheValue(crlUrl, crl, crlVerifier);
     }
 
-    public synchronized void removeCacheValue(String crlUrl) {
-        log.info("Before remove - HashMap size " + hashMap.size());
-        hashMap.remove(crlUrl);
-        log.info("After remove - HashMap size " + hashMap.size());
+    /**
+     * Caches the given CRL and schedules its background refresh.
+     *
+     * @param crlUrl     distribution point the CRL was downloaded from
+     * @param crl        the CRL
+     * @param downloader verifier used to download the CRL again before it expires
+     */
+    public void setCacheValue(String crlUrl, X509CRL crl, CRLVerifier downloader) {
+        CRLCacheValue cacheValue = new CRLCacheValue(crlUrl, crl, downloader);
+        CRLCacheValue oldValue = hashMap.put(crlUrl, cacheValue);
+        if (oldValue != null) {
+            oldValue.cancelPrefetch();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Cached CRL of " + crlUrl + ". HashMap size " + hashMap.size());
+        }
+        schedulePrefetch(cacheValue);
+    }
 
+    public void removeCacheValue(String crlUrl) {
+        CRLCacheValue cacheValue = hashMap.remove(crlUrl);
+        if (cacheValue != null) {
+            cacheValue.cancelPrefetch();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Removed CRL of " + crlUrl + ". HashMap size " + hashMap.size());
+        }
+    }
+
+    /**
+     * Schedules the download of the next CRL a little before the nextUpdate of the given one. The lead time is
+     * capped at half the remaining validity so that short lived CRLs are not refreshed continuously.
+     */
+    private void schedulePrefetch(CRLCacheValue cacheValue) {
+        Date nextUpdate = cacheValue.crl.getNextUpdate();
+        if (nextUpdate == null) {
+            return;
+        }
+        long remaining = nextUpdate.getTime() - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return;
+        }
+        long lead = Math.min(TimeUnit.MINUTES.toMillis(Constants.CRL_PREFETCH_LEAD_TIME_MINS), remaining / 2);
+        schedulePrefetch(cacheValue, remaining - lead);
+    }
+
+    private void schedulePrefetch(final CRLCacheValue cacheValue, long delayMillis) {
+        try {
+            cacheValue.prefetch = prefetcher.schedule(new Runnable() {
+                public void run() {
+                    prefetch(cacheValue);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            log.warn("Unable to schedule the background refresh of the CRL of " + cacheValue.crlUrl, e);
+        }
+    }
+
+    private void prefetch(CRLCacheValue cacheValue) {
+        String crlUrl = cacheValue.crlUrl;
+        //The entry was replaced or removed after this refresh was scheduled.
+        if (hashMap.get(crlUrl) != cacheValue) {
+            return;
+        }
+        try {
+            X509CRL x509CRL = cacheValue.downloader.downloadCRL(crlUrl);
+            if (x509CRL != null && hashMap.get(crlUrl) == cacheValue) {
+                if (isNewer(x509CRL, cacheValue.crl)) {
+                    setCacheValue(crlUrl, x509CRL, cacheValue.downloader);
+                    RevocationVerificationMetrics.getInstance().notifyCRLPrefetch(true);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Refreshed the CRL of " + crlUrl + " in the background");
+                    }
+                    return;
+                }
+                //The CA has not published the next CRL yet. Caching the same one again would schedule the next
+                //refresh at half of the shrinking remaining validity, so retry at the fixed interval instead.
+                if (log.isDebugEnabled()) {
+                    log.debug("The distribution point " + crlUrl + " still serves the cached CRL");
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Background refresh of the CRL of " + crlUrl + " failed", e);
+        }
+        RevocationVerificationMetrics.getInstance().notifyCRLPrefetch(false);
+        //Try again while the cached CRL is still usable. Once it expires the CacheManager takes over.
+        Date nextUpdate = cacheValue.crl.getNextUpdate();
+        long remaining = nextUpdate.getTime() - System.currentTimeMillis();
+        long retryDelay = TimeUnit.MINUTES.toMillis(Constants.CRL_PREFETCH_RETRY_MINS);
+        if (remaining > retryDelay && hashMap.get(crlUrl) == cacheValue) {
+            schedulePrefetch(cacheValue, retryDelay);
+        }
+    }
+
+    private static boolean isNewer(X509CRL crl, X509CRL cachedCrl) {
+        Date nextUpdate = crl.getNextUpdate();
+        return nextUpdate != null && nextUpdate.after(cachedCrl.getNextUpdate());
     }
 
     /**
@@ -160,13 +274,16 @@ public class CRLCache implements ManageableCache {
      */
     private class CRLCacheValue implements ManageableCacheValue {
 
-        private String crlUrl;
-        private X509CRL crl;
-        private long timeStamp = System.currentTimeMillis();
+        private final String crlUrl;
+        private final X509CRL crl;
+        private final CRLVerifier downloader;
+        private volatile long timeStamp = System.currentTimeMillis();
+        private volatile ScheduledFuture<?> prefetch;
 
-        public CRLCacheValue(String crlUrl, X509CRL crl) {
+        public CRLCacheValue(String crlUrl, X509CRL crl, CRLVerifier downloader) {
             this.crlUrl = crlUrl;
             this.crl = crl;
+            this.downloader = downloader;
         }
 
         public String getKey() {
@@ -182,9 +299,8 @@ public class CRLCache implements ManageableCache {
          * CRL has a validity period. We can reuse a downloaded CRL within that period.
          */
         public boolean isValid() {
-            Date today = new Date();
             Date nextUpdate = crl.getNextUpdate();
-            return nextUpdate != null && nextUpdate.after(today);
+            return nextUpdate != null && nextUpdate.getTime() > System.currentTimeMillis();
         }
 
         public long getTimeStamp() {
@@ -195,11 +311,21 @@ public class CRLCache implements ManageableCache {
          * Used by cacheManager to remove invalid entries.
          */
         public void removeThisCacheValue() {
-            removeCacheValue(crlUrl);
+            //Do not drop a newer value which has been cached for the same url in the meantime.
+            if (hashMap.remove(crlUrl, this)) {
+                cancelPrefetch();
+            }
         }
 
         public void updateCacheWithNewValue() {
             replaceNewCacheValue(this);
         }
+
+        private void cancelPrefetch() {
+            ScheduledFuture<?> future = prefetch;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
     }
 }
@@ -21,8 +21,10 @@ package org.apache.synapse.transport.certificatevalidation.crl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.transport.certificatevalidation.CertificateVerificationException;
+import org.apache.synapse.transport.certificatevalidation.InFlightLookups;
 import org.apache.synapse.transport.certificatevalidation.RevocationVerifier;
 import org.apache.synapse.transport.certificatevalidation.RevocationStatus;
+import org.apache.synapse.transport.certificatevalidation.RevocationVerificationMetrics;
 import org.bouncycastle.asn1.ASN1IA5String;
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1Primitive;
@@ -41,6 +43,7 @@ import java.net.URL;
 import java.security.cert.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * This is used to verify a certificate is revoked or not by using the Certificate Revocation List published
@@ -50,6 +53,7 @@ public class CRLVerifier implements RevocationVerifier {
 
     private CRLCache cache;
     private static final Log log = LogFactory.getLog(CRLVerifier.class);
+    private static final InFlightLookups<String, X509CRL> crlDownloads = new InFlightLookups<String, X509CRL>();
 
     public CRLVerifier(CRLCache cache) {
         this.cache = cache;
@@ -71,14 +75,17 @@ public class CRLVerifier implements RevocationVerifier {
         List<String> list = getCrlDistributionPoints(peerCert);
         //check with distributions points in the list one by one. if one fails go to the other.
         for (String crlUrl : list) {
-            log.info("Trying to get CRL for URL: " + crlUrl);
+            if (log.isDebugEnabled()) {
+                log.debug("Trying to get CRL for URL: " + crlUrl);
+            }
 
             if (cache != null) {
                 X509CRL x509CRL = cache.getCacheValue(crlUrl);
                 if (x509CRL != null) {
                     //If cant be casted, we have used the wrong cache.
                     RevocationStatus status = getRevocationStatus(x509CRL, peerCert);
-                    log.info("CRL taken from cache....");
+                    RevocationVerificationMetrics.getInstance().notifyCacheHit();
+                    log.debug("CRL taken from cache....");
                     return status;
                 }
             }
@@ -86,10 +93,10 @@ public class CRLVerifier implements RevocationVerifier {
             //todo: Do we need to check if URL has the same domain name as issuerCert?
             //todo: What if this certificate is Unknown?????
             try {
-                X509CRL x509CRL = downloadCRLFromWeb(crlUrl);
+                X509CRL x509CRL = downloadCRL(crlUrl);
                 if (x509CRL != null) {
                     if (cache != null)
-                        cache.setCacheValue(crlUrl, x509CRL);
+                        cache.setCacheValue(crlUrl, x509CRL, this);
                     return getRevocationStatus(x509CRL, peerCert);
                 }
             } catch (Exception e) {
@@ -107,6 +114,18 @@ public class CRLVerifier implements RevocationVerifier {
         }
     }
 
+    /**
+     * Downloads CRL from the crlUrl. Handshakes (and background refreshes) which need the same CRL at the same time
+     * share a single download.
+     */
+    X509CRL downloadCRL(final String crlUrl) throws CertificateVerificationException {
+        return crlDownloads.lookup(crlUrl, new Callable<X509CRL>() {
+            public X509CRL call() throws Exception {
+                return downloadCRLFromWeb(crlUrl);
+            }
+        });
+    }
+
     /**
      * Downloads CRL from the crlUrl. Does not support HTTPS
      */
@@ -21,15 +21,11 @@ package org.apache.synapse.transport.certificatevalidation.ocsp;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.commons.jmx.MBeanRegistrar;
-import org.apache.synapse.transport.certificatevalidation.CertificateVerificationException;
 import org.apache.synapse.transport.certificatevalidation.cache.CacheController;
 import org.apache.synapse.transport.certificatevalidation.cache.CacheManager;
 import org.apache.synapse.transport.certificatevalidation.cache.ManageableCache;
 import org.apache.synapse.transport.certificatevalidation.cache.ManageableCacheValue;
-import org.bouncycastle.asn1.ocsp.OCSPResponseStatus;
-import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.bouncycastle.cert.ocsp.OCSPReq;
-import org.bouncycastle.cert.ocsp.OCSPResp;
 import org.bouncycastle.cert.ocsp.SingleResp;
 
 import java.math.BigInteger;
@@ -112,28 +108,23 @@ public class OCSPCache implements ManageableCache {
         iterator = hashMap.entrySet().iterator();
     }
 
-    //This has to be synchronized coz several threads will try to replace cache value (cacheManager and Reactor thread)
-    private synchronized void replaceNewCacheValue(OCSPCacheValue cacheValue){
+    private void replaceNewCacheValue(OCSPCacheValue cacheValue){
         //If someone has updated with the new value before current Thread.
         if(cacheValue.isValid())
             return;
 
+        BigInteger serialNumber = cacheValue.serialNumber;
+        OCSPCacheValue current = hashMap.get(serialNumber);
+        if (current != null && current != cacheValue && current.isValid())
+            return;
+
         try {
             String serviceUrl = cacheValue.serviceUrl;
             OCSPReq request = cacheValue.request;
-            OCSPResp response= ocspVerifier.getOCSPResponce(serviceUrl, request);
-
-            if (OCSPResponseStatus.SUCCESSFUL != response.getStatus())
-                throw new CertificateVerificationException("OCSP response status not SUCCESSFUL");
-
-            BasicOCSPResp basicResponse = (BasicOCSPResp) response.getResponseObject();
-            SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
-
-            if (responses == null)
-                throw new CertificateVerificationException("Cant get OCSP response");
-
-            SingleResp resp = responses[0];
-            this.setCacheValue(cacheValue.serialNumber, resp, request, serviceUrl);
+            //Several threads can try to replace the same value (cacheManager and Reactor threads), they share a
+            //single lookup per certificate instead of serializing on the whole cache.
+            SingleResp resp = ocspVerifier.refreshOCSPResponse(serviceUrl, request);
+            this.setCacheValue(serialNumber, resp, request, serviceUrl);
 
         } catch (Exception e){
             log.info("Cant replace old CacheValue with new CacheValue. So remove", e);
@@ -142,7 +133,7 @@ public class OCSPCache implements ManageableCache {
         }
     }
 
-    public synchronized SingleResp getCacheValue(BigInteger serialNumber) {
+    public SingleResp getCacheValue(BigInteger serialNumber) {
         OCSPCacheValue cacheValue = hashMap.get(serialNumber);
         if(cacheValue != null) {
             //If who ever gets this cache value before Cache manager task found its invalid, update it and get the
@@ -159,17 +150,19 @@ public class OCSPCache implements ManageableCache {
             return null;
     }
 
-    public synchronized void setCacheValue(BigInteger serialNumber, SingleResp singleResp, OCSPReq request, String serviceUrl) {
+    public void setCacheValue(BigInteger serialNumber, SingleResp singleResp, OCSPReq request, String serviceUrl) {
         OCSPCacheValue cacheValue = new OCSPCacheValue(serialNumber, singleResp, request, serviceUrl);
-        log.info("Before set - HashMap size " + hashMap.size());
         hashMap.put(serialNumber, cacheValue);
-        log.info("After set - HashMap size " + hashMap.size());
+        if (log.isDebugEnabled()) {
+            log.debug("Cached OCSP response of " + serialNumber + ". HashMap size " + hashMap.size());
+        }
     }
 
-    public synchronized void removeCacheValue(BigInteger serialNumber) {
-        log.info("Before remove - HashMap size " + hashMap.size());
+    public void removeCacheValue(BigInteger serialNumber) {
         hashMap.remove(serialNumber);
-        log.info("After remove - HashMap size " + hashMap.size());
+        if (log.isDebugEnabled()) {
+            log.debug("Removed OCSP response of " + serialNumber + ". HashMap size " + hashMap.size());
+        }
     }
 
     /**
@@ -177,11 +170,11 @@ public class OCSPCache implements ManageableCache {
      */
     private class OCSPCacheValue implements ManageableCacheValue {
 
-        private BigInteger serialNumber;
-        private SingleResp singleResp;
-        private OCSPReq request;
-        private String serviceUrl;
-        private long timeStamp = System.currentTimeMillis();
+        private final BigInteger serialNumber;
+        private final SingleResp singleResp;
+        private final OCSPReq request;
+        private final String serviceUrl;
+        private volatile long timeStamp = System.currentTimeMillis();
 
         public OCSPCacheValue(BigInteger serialNumber, SingleResp singleResp, OCSPReq request, String serviceUrl) {
             this.serialNumber = serialNumber;
@@ -204,10 +197,8 @@ public class OCSPCache implements ManageableCache {
          * An OCSP response is valid during its validity period.
          */
         public boolean isValid() {
-            //todo: elapse
-            Date now = new Date();
             Date nextUpdate = singleResp.getNextUpdate();
-            return nextUpdate != null && nextUpdate.after(now);
+            return nextUpdate != null && nextUpdate.getTime() > System.currentTimeMillis();
         }
 
         public long getTimeStamp() {
@@ -218,7 +209,8 @@ public class OCSPCache implements ManageableCache {
          * Used by cacheManager to remove invalid entries.
          */
         public void removeThisCacheValue() {
-            removeCacheValue(serialNumber);
+            //Do not drop a newer value which has been cached for the same certificate in the meantime.
+            hashMap.remove(serialNumber, this);
         }
 
         public void updateCacheWithNewValue() {
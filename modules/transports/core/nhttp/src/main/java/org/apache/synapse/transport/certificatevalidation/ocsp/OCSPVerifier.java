@@ -31,7 +31,9 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.synapse.commons.crypto.CryptoConstants;
 import org.apache.synapse.transport.certificatevalidation.CertificateVerificationException;
 import org.apache.synapse.transport.certificatevalidation.Constants;
+import org.apache.synapse.transport.certificatevalidation.InFlightLookups;
 import org.apache.synapse.transport.certificatevalidation.RevocationStatus;
+import org.apache.synapse.transport.certificatevalidation.RevocationVerificationMetrics;
 import org.apache.synapse.transport.certificatevalidation.RevocationVerifier;
 import org.bouncycastle.asn1.ASN1IA5String;
 import org.bouncycastle.asn1.ASN1InputStream;
@@ -53,6 +55,7 @@ import org.bouncycastle.cert.ocsp.OCSPResp;
 import org.bouncycastle.cert.ocsp.SingleResp;
 import org.bouncycastle.operator.DigestCalculatorProvider;
 import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.encoders.Hex;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -63,6 +66,7 @@ import java.security.Security;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * Used to check if a Certificate is revoked or not by its CA using Online Certificate Status Protocol (OCSP).
@@ -71,6 +75,9 @@ public class OCSPVerifier implements RevocationVerifier {
 
     private OCSPCache cache;
     private static final Log log = LogFactory.getLog(OCSPVerifier.class);
+    /* Keyed by the issuer hashes and the serial number, as certificates of different CAs may share a serial */
+    private static final InFlightLookups<String, SingleResp> ocspLookups =
+            new InFlightLookups<String, SingleResp>();
 
     public OCSPVerifier(OCSPCache cache) {
         this.cache = cache;
@@ -92,7 +99,7 @@ public class OCSPVerifier implements RevocationVerifier {
      * @throws CertificateVerificationException
      *
      */
-    public RevocationStatus checkRevocationStatus(X509Certificate peerCert, X509Certificate issuerCert)
+    public RevocationStatus checkRevocationStatus(final X509Certificate peerCert, final X509Certificate issuerCert)
             throws CertificateVerificationException {
 
         //check cache
@@ -101,12 +108,25 @@ public class OCSPVerifier implements RevocationVerifier {
             if (resp != null) {
                 //If cant be casted, we have used the wrong cache.
                 RevocationStatus status = getRevocationStatus(resp);
-                log.info("OCSP response taken from cache....");
+                RevocationVerificationMetrics.getInstance().notifyCacheHit();
+                log.debug("OCSP response taken from cache....");
                 return status;
             }
         }
 
-        OCSPReq request = generateOCSPRequest(issuerCert, peerCert.getSerialNumber());
+        //Handshakes of the same certificate which arrive while the responder is being queried share its answer.
+        final OCSPReq request = generateOCSPRequest(issuerCert, peerCert.getSerialNumber());
+        SingleResp resp = ocspLookups.lookup(getLookupKey(request), new Callable<SingleResp>() {
+            public SingleResp call() throws Exception {
+                return fetchOCSPResponse(peerCert, request);
+            }
+        });
+        return getRevocationStatus(resp);
+    }
+
+    private SingleResp fetchOCSPResponse(X509Certificate peerCert, OCSPReq request)
+            throws CertificateVerificationException {
+
         //This list will sometimes have non ocsp urls as well.
         List<String> locations = getAIALocations(peerCert);
 
@@ -128,15 +148,49 @@ public class OCSPVerifier implements RevocationVerifier {
 
             if (responses != null && responses.length == 1) {
                 SingleResp resp = responses[0];
-                RevocationStatus status = getRevocationStatus(resp);
+                //Only cache responses with a recognizable status.
+                getRevocationStatus(resp);
                 if (cache != null)
                     cache.setCacheValue(peerCert.getSerialNumber(), resp, request, serviceUrl);
-                return status;
+                return resp;
             }
         }
         throw new CertificateVerificationException("Cant get Revocation Status from OCSP.");
     }
 
+    /**
+     * Gets a fresh response for an already cached OCSP request. Used by the {@link OCSPCache} to replace expired
+     * entries, sharing the lookup with any handshake which is querying the responder for the same certificate.
+     */
+    SingleResp refreshOCSPResponse(final String serviceUrl, final OCSPReq request)
+            throws CertificateVerificationException {
+
+        return ocspLookups.lookup(getLookupKey(request), new Callable<SingleResp>() {
+            public SingleResp call() throws Exception {
+                OCSPResp response = getOCSPResponce(serviceUrl, request);
+                if (OCSPResponseStatus.SUCCESSFUL != response.getStatus())
+                    throw new CertificateVerificationException("OCSP response status not SUCCESSFUL");
+
+                BasicOCSPResp basicResponse = (BasicOCSPResp) response.getResponseObject();
+                SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
+
+                if (responses == null)
+                    throw new CertificateVerificationException("Cant get OCSP response");
+                return responses[0];
+            }
+        });
+    }
+
+    /**
+     * Identifies the certificate of an OCSP request by the hashes of its issuer name and key, and its serial number,
+     * which is what the responder identifies it by as well.
+     */
+    static String getLookupKey(OCSPReq request) {
+        CertificateID id = request.getRequestList()[0].getCertID();
+        return Hex.toHexString(id.getIssuerNameHash()) + ":" + Hex.toHexString(id.getIssuerKeyHash()) + ":"
+                + id.getSerialNumber().toString(16);
+    }
+
     private RevocationStatus getRevocationStatus(SingleResp resp) throws CertificateVerificationException {
         Object status = resp.getCertStatus();
         if (status == CertificateStatus.GOOD) {
@@ -124,4 +124,15 @@ public class NettyConfigPropertyNames {
 
     public static final String CLIENT_ENDPOINT_SOCKET_TIMEOUT = "http.client.endpoint.socket.timeout";
 
+    //Backend host name resolution configs
+    /**
+     * Whether the host names of the backends are resolved asynchronously and cached. Only plain HTTP requests are
+     * sent to the cached addresses, as the HTTPS connections verify the host name of the backend.
+     */
+    public static final String DNS_CACHE_ENABLED = "http.dns.cache.enabled";
+    public static final String DNS_CACHE_TTL = "http.dns.cache.ttl";
+    public static final String DNS_CACHE_REFRESH_AHEAD = "http.dns.cache.refresh.ahead";
+    public static final String DNS_RESOLVER_THREADS = "http.dns.resolver.threads";
+    public static final String DNS_RESOLVER_CLASS = "http.dns.resolver.class";
+
 }
@@ -56,6 +56,9 @@ public class NettyConfiguration {
     public static final int DEFAULT_MAX_CLIENT_REQUEST_STATUS_LINE_LENGTH = -1;
     public static final int DEFAULT_MAX_CLIENT_REQUEST_HEADER_SIZE = -1;
     public static final int DEFAULT_MAX_CLIENT_REQUEST_ENTITY_BODY_SIZE = -1;
+    public static final int DEFAULT_DNS_CACHE_TTL = 30000;
+    public static final int DEFAULT_DNS_CACHE_REFRESH_AHEAD = 5000;
+    public static final int DEFAULT_DNS_RESOLVER_THREADS = 2;
     public static final String HTTP_WORKER_THREAD_GROUP_NAME = "HTTP Worker Thread Group";
     public static final String HTTP_WORKER_THREAD_ID = "HTTPWorker";
     public static final String REVERSE_PROXY_MODE_SYSTEM_PROPERTY = "reverseProxyMode";
@@ -192,6 +195,34 @@ public class NettyConfiguration {
                 DEFAULT_CLIENT_ENDPOINT_SOCKET_TIMEOUT, props);
     }
 
+    public boolean isDnsCacheEnabled() {
+
+        return ConfigurationBuilderUtil.getBooleanProperty(NettyConfigPropertyNames.DNS_CACHE_ENABLED, false, props);
+    }
+
+    public int getDnsCacheTtl() {
+
+        return ConfigurationBuilderUtil.getIntProperty(NettyConfigPropertyNames.DNS_CACHE_TTL,
+                DEFAULT_DNS_CACHE_TTL, props);
+    }
+
+    public int getDnsCacheRefreshAhead() {
+
+        return ConfigurationBuilderUtil.getIntProperty(NettyConfigPropertyNames.DNS_CACHE_REFRESH_AHEAD,
+                DEFAULT_DNS_CACHE_REFRESH_AHEAD, props);
+    }
+
+    public int getDnsResolverThreads() {
+
+        return ConfigurationBuilderUtil.getIntProperty(NettyConfigPropertyNames.DNS_RESOLVER_THREADS,
+                DEFAULT_DNS_RESOLVER_THREADS, props);
+    }
+
+    public String getDnsResolverClass() {
+
+        return ConfigurationBuilderUtil.getStringProperty(NettyConfigPropertyNames.DNS_RESOLVER_CLASS, null, props);
+    }
+
     public boolean isKeepAliveDisabled() {
 
         if (isKeepAliveDisabled == null) {
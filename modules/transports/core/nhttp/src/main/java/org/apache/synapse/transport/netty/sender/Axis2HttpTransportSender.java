@@ -31,9 +31,13 @@ import org.apache.axis2.transport.TransportSender;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.transport.netty.BridgeConstants;
+import org.apache.synapse.transport.netty.config.NettyConfiguration;
 import org.apache.synapse.transport.netty.config.TargetConfiguration;
 import org.apache.synapse.transport.netty.util.HttpUtils;
 import org.apache.synapse.transport.netty.util.RequestResponseUtils;
+import org.apache.synapse.transport.passthru.connections.HostResolutionCache;
+import org.apache.synapse.transport.passthru.jmx.HostResolutionView;
+import org.apache.synapse.transport.passthru.jmx.MBeanRegistrar;
 import org.wso2.transport.http.netty.contract.HttpClientConnector;
 import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
 import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
@@ -43,9 +47,11 @@ import org.wso2.transport.http.netty.message.Http2PushPromise;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.Locale;
 
 /**
  * {@code Axis2HttpTransportSender} receives the outgoing axis2 {@code MessageContext}, convert it into a
@@ -69,6 +75,11 @@ public class Axis2HttpTransportSender extends AbstractHandler implements Transpo
 
     BootstrapConfiguration bootstrapConfiguration;
 
+    /**
+     * Cache of the addresses of the backends, null if the client connectors resolve them.
+     */
+    HostResolutionCache hostResolutionCache;
+
     @Override
     public void init(ConfigurationContext configurationContext, TransportOutDescription transportOutDescription)
             throws AxisFault {
@@ -78,6 +89,16 @@ public class Axis2HttpTransportSender extends AbstractHandler implements Transpo
         bootstrapConfiguration = new BootstrapConfiguration(new HashMap<>());
         targetConfiguration = new TargetConfiguration(configurationContext, transportOutDescription);
         targetConfiguration.build();
+
+        NettyConfiguration conf = NettyConfiguration.getInstance();
+        if (conf.isDnsCacheEnabled()) {
+            String name = transportOutDescription.getName().toLowerCase(Locale.US);
+            hostResolutionCache = HostResolutionCache.create(name + "-sender DNS resolver",
+                    conf.getDnsResolverClass(), conf.getDnsResolverThreads(), conf.getDnsCacheTtl(),
+                    conf.getDnsCacheRefreshAhead(), 0);
+            MBeanRegistrar.getInstance().registerMBean(new HostResolutionView(hostResolutionCache),
+                    "HostResolution", "netty-" + name + "-sender");
+        }
     }
 
     @Override
@@ -208,6 +229,14 @@ public class Axis2HttpTransportSender extends AbstractHandler implements Transpo
 
         HttpCarbonMessage outboundRequestMsg = TargetRequestHandler.createOutboundRequestMsg(url, msgCtx,
                 targetConfiguration);
+        if (hostResolutionCache != null && BridgeConstants.PROTOCOL_HTTP.equals(url.getProtocol())) {
+            // the Host header keeps the host name, only the connection is made to the cached address. Until the host
+            // is cached the client connector resolves it.
+            InetAddress address = hostResolutionCache.getCachedAddress(url.getHost());
+            if (address != null) {
+                outboundRequestMsg.setProperty(BridgeConstants.HTTP_HOST, address.getHostAddress());
+            }
+        }
         HttpClientConnector clientConnector = TargetRequestHandler.createHttpClient(url, msgCtx,
                 httpWsConnectorFactory, connectionManager, bootstrapConfiguration, targetConfiguration);
         TargetRequestHandler.sendRequest(clientConnector, outboundRequestMsg, msgCtx, targetConfiguration);
@@ -221,6 +250,9 @@ public class Axis2HttpTransportSender extends AbstractHandler implements Transpo
     @Override
     public void stop() {
 
+        if (hostResolutionCache != null) {
+            hostResolutionCache.shutdown();
+        }
     }
 
     public void handleException(String s, Exception e) throws AxisFault {
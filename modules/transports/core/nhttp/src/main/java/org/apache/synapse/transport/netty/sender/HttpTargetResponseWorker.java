@@ -30,12 +30,12 @@ import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.engine.MessageReceiver;
-import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 import org.apache.http.protocol.HTTP;
+import org.apache.synapse.commons.util.ErrorDetail;
 import org.apache.synapse.transport.netty.BridgeConstants;
 import org.apache.synapse.transport.netty.config.TargetConfiguration;
 import org.apache.synapse.transport.netty.util.HttpUtils;
@@ -105,7 +105,7 @@ public class HttpTargetResponseWorker implements Runnable {
             responseMsgCtx.setProperty(
                     NhttpConstants.ERROR_MESSAGE, errorMessage.split("\n")[0]);
             responseMsgCtx.setProperty(
-                    NhttpConstants.ERROR_DETAIL, JavaUtils.stackToString(ex));
+                    NhttpConstants.ERROR_DETAIL, new ErrorDetail(ex));
             responseMsgCtx.setProperty(
                     NhttpConstants.ERROR_EXCEPTION, ex);
             try {
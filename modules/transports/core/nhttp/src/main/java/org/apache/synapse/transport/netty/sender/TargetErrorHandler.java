@@ -27,13 +27,10 @@ import org.apache.axis2.util.MessageContextBuilder;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.util.ErrorDetail;
 import org.apache.synapse.transport.netty.BridgeConstants;
 import org.apache.synapse.transport.netty.config.TargetConfiguration;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.io.Writer;
-
 /**
  * {@code TargetErrorHandler} will report back failure to the message receiver.
  */
@@ -111,7 +108,7 @@ public class TargetErrorHandler {
 
         SOAPEnvelope envelope = faultMessageContext.getEnvelope();
         if (exceptionToRaise != null) {
-            faultMessageContext.setProperty(BridgeConstants.ERROR_DETAIL, getStackTrace(exceptionToRaise));
+            faultMessageContext.setProperty(BridgeConstants.ERROR_DETAIL, new ErrorDetail(exceptionToRaise));
             faultMessageContext.setProperty(BridgeConstants.ERROR_EXCEPTION, exceptionToRaise);
             envelope.getBody().getFault().getDetail().setText(exceptionToRaise.toString());
         } else {
@@ -138,12 +135,4 @@ public class TargetErrorHandler {
 
         return errorCode;
     }
-
-    private String getStackTrace(Throwable aThrowable) {
-
-        final Writer result = new StringWriter();
-        final PrintWriter printWriter = new PrintWriter(result);
-        aThrowable.printStackTrace(printWriter);
-        return result.toString();
-    }
 }
@@ -28,7 +28,6 @@ import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.engine.AxisEngine;
-import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +35,7 @@ import org.apache.http.HttpStatus;
 import org.apache.http.nio.NHttpServerConnection;
 import org.apache.http.protocol.HTTP;
 import org.apache.synapse.commons.CorrelationConstants;
+import org.apache.synapse.commons.util.ErrorDetail;
 import org.apache.synapse.commons.util.ext.TenantInfoInitiator;
 import org.apache.synapse.commons.util.ext.TenantInfoInitiatorProvider;
 import org.apache.synapse.transport.customlogsetter.CustomLogSetter;
@@ -349,7 +349,7 @@ public class ClientWorker implements Runnable {
                 responseMsgCtx.setProperty(
                         NhttpConstants.ERROR_MESSAGE, errorMessage.split("\n")[0]);
                 responseMsgCtx.setProperty(
-                        NhttpConstants.ERROR_DETAIL, JavaUtils.stackToString(af));
+                        NhttpConstants.ERROR_DETAIL, new ErrorDetail(af));
                 responseMsgCtx.setProperty(
                         NhttpConstants.ERROR_EXCEPTION, af);
                 responseMsgCtx.getAxisOperation().getMessageReceiver().receive(responseMsgCtx);
@@ -20,7 +20,14 @@ import org.apache.http.nio.reactor.SessionRequestCallback;
 import org.apache.http.nio.reactor.SessionRequest;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.synapse.transport.passthru.connections.HostConnections;
+import org.apache.synapse.transport.passthru.connections.HostResolutionCache;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
 
 public class ConnectCallback implements SessionRequestCallback {
 
@@ -29,6 +36,9 @@ public class ConnectCallback implements SessionRequestCallback {
     /** The agent used for delivering requests */
     private DeliveryAgent deliveryAgent;
 
+    /** The cache of the addresses of the hosts, notified of the addresses which fail to connect */
+    private HostResolutionCache hostResolutionCache;
+
     /**
      * Create the callback for the handling events on a given connection     
      */
@@ -50,6 +60,7 @@ public class ConnectCallback implements SessionRequestCallback {
     public void failed(SessionRequest request) {
         HostConnections pool = (HostConnections) request.getAttachment();
         pool.pendingConnectionFailed();
+        addressFailed(pool, request.getRemoteAddress());
 
         deliveryAgent.errorConnecting(pool.getRouteRequestMapping().getRoute(),
                 ErrorCodes.CONNECTION_FAILED, "Connection Failed", request.getException());
@@ -60,6 +71,7 @@ public class ConnectCallback implements SessionRequestCallback {
     public void timeout(SessionRequest request) {
         HostConnections pool = (HostConnections) request.getAttachment();
         pool.pendingConnectionFailed();
+        addressFailed(pool, request.getRemoteAddress());
 
         deliveryAgent.errorConnecting(pool.getRouteRequestMapping().getRoute(),
                 ErrorCodes.CONNECT_TIMEOUT, "Connection Timeout");
@@ -78,6 +90,32 @@ public class ConnectCallback implements SessionRequestCallback {
         handleError("Connection cancelled for : " + request.getRemoteAddress());
     }
 
+    /**
+     * Invoked instead of connecting when the address of the host of the pool cannot be resolved.
+     *
+     * @param pool the pool which the connection was requested for
+     * @param e    the reason the host could not be resolved
+     */
+    public void resolutionFailed(HostConnections pool, UnknownHostException e) {
+        pool.pendingConnectionFailed();
+
+        HttpRoute route = pool.getRouteRequestMapping().getRoute();
+        deliveryAgent.errorConnecting(route, ErrorCodes.CONNECTION_FAILED, "Connection Failed", e);
+
+        handleError("Unable to resolve the address of : " + getHost(route).getHostName());
+    }
+
+    private void addressFailed(HostConnections pool, SocketAddress remoteAddress) {
+        if (hostResolutionCache != null && remoteAddress instanceof InetSocketAddress) {
+            hostResolutionCache.connectionFailed(getHost(pool.getRouteRequestMapping().getRoute()).getHostName(),
+                    ((InetSocketAddress) remoteAddress).getAddress());
+        }
+    }
+
+    private static HttpHost getHost(HttpRoute route) {
+        return route.getProxyHost() != null ? route.getProxyHost() : route.getTargetHost();
+    }
+
     private void handleError(String errorMessage) {
         log.warn(errorMessage);
     }
@@ -85,4 +123,8 @@ public class ConnectCallback implements SessionRequestCallback {
     public void setDeliveryAgent(DeliveryAgent deliveryAgent) {
         this.deliveryAgent = deliveryAgent;
     }
+
+    public void setHostResolutionCache(HostResolutionCache hostResolutionCache) {
+        this.hostResolutionCache = hostResolutionCache;
+    }
 }
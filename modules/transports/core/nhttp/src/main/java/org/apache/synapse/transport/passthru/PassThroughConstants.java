@@ -151,6 +151,7 @@ public class PassThroughConstants {
 	
 	//JMX statistic calculation Constants
 	public static final String REQ_ARRIVAL_TIME = "REQ_ARRIVAL_TIME";
+	public static final String REQ_ARRIVAL_NANO_TIME = "REQ_ARRIVAL_NANO_TIME";
 	public static final String REQ_DEPARTURE_TIME = "REQ_DEPARTURE_TIME";
 	public static final String RES_ARRIVAL_TIME = "RES_ARRIVAL_TIME";
 	public static final String RES_HEADER_ARRIVAL_TIME = "RES_HEADER_ARRIVAL_TIME";
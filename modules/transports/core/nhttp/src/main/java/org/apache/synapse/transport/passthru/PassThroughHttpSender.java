@@ -56,10 +56,13 @@ import org.apache.synapse.transport.nhttp.config.ClientConnFactoryBuilder;
 import org.apache.synapse.transport.nhttp.config.ProxyConfigBuilder;
 import org.apache.synapse.transport.nhttp.util.MessageFormatterDecoratorFactory;
 import org.apache.synapse.transport.nhttp.util.NhttpUtil;
+import org.apache.synapse.transport.passthru.config.PassThroughConfiguration;
 import org.apache.synapse.transport.passthru.config.SourceConfiguration;
 import org.apache.synapse.transport.passthru.config.TargetConfiguration;
+import org.apache.synapse.transport.passthru.connections.HostResolutionCache;
 import org.apache.synapse.transport.passthru.connections.TargetConnections;
 import org.apache.synapse.transport.passthru.core.PassThroughSenderManager;
+import org.apache.synapse.transport.passthru.jmx.HostResolutionView;
 import org.apache.synapse.transport.passthru.jmx.MBeanRegistrar;
 import org.apache.synapse.transport.passthru.jmx.PassThroughTransportMetricsCollector;
 import org.apache.synapse.transport.passthru.jmx.TransportView;
@@ -108,6 +111,9 @@ public class PassThroughHttpSender extends AbstractHandler implements TransportS
 
     // manage target connections
     private TargetConnections targetConnections;
+
+    /** Cache of the addresses of the backends, null if they are resolved by the io-reactor */
+    private HostResolutionCache hostResolutionCache;
     
     /** state of the sender */
     private volatile int state = BaseConstants.STOPPED;
@@ -197,9 +203,20 @@ public class PassThroughHttpSender extends AbstractHandler implements TransportS
             handleException("Error starting " + namePrefix + " ConnectingIOReactor", e);
         }
 
+        PassThroughConfiguration conf = PassThroughConfiguration.getInstance();
+        if (conf.isDnsCacheEnabled()) {
+            hostResolutionCache = HostResolutionCache.create(namePrefix + "-Sender DNS resolver",
+                    conf.getDnsResolverClass(), conf.getDnsResolverThreads(), conf.getDnsCacheTtl(),
+                    conf.getDnsCacheRefreshAhead(), conf.getDnsCacheFailedAddressBackoff());
+            MBeanRegistrar.getInstance().registerMBean(new HostResolutionView(hostResolutionCache),
+                    "HostResolution", "passthru-" + namePrefix.toLowerCase() + "-sender");
+        }
+
         ConnectCallback connectCallback = new ConnectCallback();
+        connectCallback.setHostResolutionCache(hostResolutionCache);
 
-        targetConnections = new TargetConnections(ioReactor, targetConfiguration, connectCallback);
+        targetConnections = new TargetConnections(ioReactor, targetConfiguration, connectCallback,
+                hostResolutionCache);
         targetConfiguration.setConnections(targetConnections);
 
         TransportView view = new TransportView(null, this, metrics, targetConfiguration.getWorkerPool());
@@ -244,6 +261,9 @@ public class PassThroughHttpSender extends AbstractHandler implements TransportS
         } catch (IOException e) {
             log.error("Error shutting down the PassThroughHttpSender", e);
         }
+        if (hostResolutionCache != null) {
+            hostResolutionCache.shutdown();
+        }
     }
 
 
@@ -25,6 +25,7 @@ import org.apache.http.nio.NHttpServerConnection;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.synapse.transport.passthru.config.BaseConfiguration;
 import org.apache.synapse.transport.passthru.config.PassThroughConfiguration;
+import org.apache.synapse.transport.passthru.util.CodecContentEncoder;
 import org.apache.synapse.transport.passthru.util.ControlledByteBuffer;
 
 import java.io.IOException;
@@ -217,6 +218,10 @@ public class Pipe {
             if (outputBuffer == null) {
                 if (producerCompleted) {
                     encoder.complete();
+                } else if (encoder instanceof CodecContentEncoder
+                        && ((CodecContentEncoder) encoder).hasPendingOutput()) {
+                    // the codec still holds transformed bytes the connection could not take, which are written by
+                    // the next output event even though the buffer is empty
                 } else {
                     // buffer is empty. Wait until the producer fills up the buffer
                     consumerIoControl.suspendOutput();
@@ -53,6 +53,7 @@ import org.apache.http.nio.reactor.ssl.SSLIOSession;
 import org.apache.http.protocol.HTTP;
 import org.apache.logging.log4j.ThreadContext;
 import org.apache.synapse.commons.CorrelationConstants;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.commons.util.ext.TenantInfoInitiator;
 import org.apache.synapse.commons.util.ext.TenantInfoInitiatorProvider;
 import org.apache.synapse.transport.passthru.config.PassThroughCorrelationConfigDataHolder;
@@ -67,15 +68,13 @@ import org.apache.synapse.transport.passthru.config.PassThroughConfiguration;
 import org.apache.synapse.transport.passthru.config.SourceConfiguration;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
 import org.apache.synapse.transport.passthru.util.SourceResponseFactory;
+import org.apache.synapse.transport.passthru.util.TransportHeaderMap;
 
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
-import java.util.Comparator;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
 import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.xml.parsers.FactoryConfigurationError;
 
@@ -112,6 +111,9 @@ public class ServerWorker implements Runnable {
     private OutputStream os; //only used for WSDL  requests..
 
     private Long queuedTime = null;
+
+    /* System.nanoTime() at which the worker was queued, only taken when latency metrics are enabled */
+    private long queuedNanoTime = 0;
 private WorkerState state;
 
     public ServerWorker(final SourceRequest request,
@@ -139,6 +141,9 @@ private WorkerState state;
                 System.currentTimeMillis());
         request.getConnection().getContext().setAttribute(PassThroughConstants.REQUEST_MESSAGE_CONTEXT, msgContext);
         queuedTime = System.currentTimeMillis();
+        if (LatencyMetrics.getInstance().isEnabled()) {
+            queuedNanoTime = System.nanoTime();
+        }
     }
 
     public ServerWorker(final SourceRequest request,
@@ -149,6 +154,19 @@ private WorkerState state;
         this.correlationId = correlationId;
     }
 
+    /**
+     * Sets the time taken to hand the request over to a worker once its headers arrived and the time the request
+     * waited for this worker, so that the latencies can be recorded against the component which mediates the request.
+     */
+    private void setLatencyMetricsProperties() {
+        msgContext.setProperty(LatencyMetrics.QUEUE_WAIT_NANOS, System.nanoTime() - queuedNanoTime);
+        Object arrivalTime = request.getConnection().getContext().getAttribute(
+                PassThroughConstants.REQ_ARRIVAL_NANO_TIME);
+        if (arrivalTime instanceof Long) {
+            msgContext.setProperty(LatencyMetrics.TRANSPORT_RECEIVE_NANOS, queuedNanoTime - (Long) arrivalTime);
+        }
+    }
+
     public void run() {
         try {
 
@@ -186,6 +204,9 @@ private WorkerState state;
                 tenantInfoInitiator.initTenantInfo(request.getUri());
             }
             request.getConnection().getContext().setAttribute(NhttpConstants.SERVER_WORKER_START_TIME, System.currentTimeMillis());
+            if (queuedNanoTime != 0) {
+                setLatencyMetricsProperties();
+            }
             if (log.isDebugEnabled()) {
                 log.debug("Starting a new Server Worker instance");
             }
@@ -604,17 +625,9 @@ private WorkerState state;
         msgContext.setProperty(
                 Constants.Configuration.TRANSPORT_IN_URL, request.getUri());
 
-        // http transport header names are case insensitive
-        Map<String, String> headers = new TreeMap<String, String>(new Comparator<String>() {
-            public int compare(String o1, String o2) {
-                return o1.compareToIgnoreCase(o2);
-            }
-        });
-
-        Set<Map.Entry<String, String>> entries = request.getHeaders().entrySet();
-        for (Map.Entry<String, String> entry : entries) {
-            headers.put(entry.getKey(), entry.getValue());
-        }
+        // http transport header names are case insensitive, the copy shares the headers of the request until
+        // either of them is changed
+        Map<String, String> headers = TransportHeaderMap.copyOf(request.getHeaders());
         msgContext.setProperty(MessageContext.TRANSPORT_HEADERS, headers);
         msgContext.setProperty(NhttpConstants.EXCESS_TRANSPORT_HEADERS, excessHeaders);
 
@@ -726,10 +739,8 @@ private WorkerState state;
 
     private String inferContentType() {
         Map<String, String> headers = request.getHeaders();
-        for (String header : headers.keySet()) {
-            if (HTTP.CONTENT_TYPE.equalsIgnoreCase(header)) {
-                return headers.get(header);
-            }
+        if (headers.containsKey(HTTP.CONTENT_TYPE)) {
+            return headers.get(HTTP.CONTENT_TYPE);
         }
         Parameter param = sourceConfiguration.getConfigurationContext().getAxisConfiguration().
                 getParameter(PassThroughConstants.REQUEST_CONTENT_TYPE);
@@ -119,6 +119,10 @@ public class SourceContext {
      *                buffer factories
      */
     public void reset(boolean isError) {
+		if (response != null) {
+			// a response dropped part-way still holds the resources of its codec stage
+			response.release();
+		}
 		this.request = null;
 		this.response = null;
 		this.state = ProtocolState.REQUEST_READY;
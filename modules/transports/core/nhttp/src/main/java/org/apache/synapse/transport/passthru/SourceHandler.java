@@ -46,6 +46,7 @@ import org.apache.http.protocol.HttpContext;
 import org.apache.synapse.commons.CorrelationConstants;
 import org.apache.synapse.commons.jmx.ThreadingView;
 import org.apache.synapse.commons.logger.ContextAwareLogger;
+import org.apache.synapse.commons.metrics.LatencyMetrics;
 import org.apache.synapse.commons.transaction.TranscationManger;
 import org.apache.synapse.commons.util.MiscellaneousUtil;
 import org.apache.synapse.transport.http.conn.LoggingNHttpClientConnection;
@@ -171,6 +172,9 @@ public class SourceHandler implements NHttpServerEventHandler {
                 sourceContext.updateLastStateUpdatedTime();
             }
             httpContext.setAttribute(PassThroughConstants.REQ_ARRIVAL_TIME, System.currentTimeMillis());
+            if (LatencyMetrics.getInstance().isEnabled()) {
+                httpContext.setAttribute(PassThroughConstants.REQ_ARRIVAL_NANO_TIME, System.nanoTime());
+            }
             httpContext.setAttribute(PassThroughConstants.REQ_FROM_CLIENT_READ_START_TIME, System.currentTimeMillis());
             if (isMessageSizeValidationEnabled) {
                 httpContext.setAttribute(PassThroughConstants.MESSAGE_SIZE_VALIDATION_SUM, 0);
@@ -29,12 +29,11 @@ import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.nio.ContentDecoder;
 import org.apache.http.nio.NHttpServerConnection;
 import org.apache.synapse.transport.passthru.config.SourceConfiguration;
+import org.apache.synapse.transport.passthru.util.TransportHeaderMap;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Comparator;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * Represents a Http Request.
@@ -44,11 +43,7 @@ public class SourceRequest {
 
     private Pipe pipe = null;
     /** HTTP Headers */
-    private Map<String, String> headers =  new TreeMap<String, String>(new Comparator<String>() {
-        public int compare(String o1, String o2) {
-            return o1.compareToIgnoreCase(o2);
-        }
-    });
+    private TransportHeaderMap headers;
     /** HTTP URL */
     private String url;
     /** HTTP Method */
@@ -86,16 +81,8 @@ public class SourceRequest {
             this.version = HttpVersion.HTTP_1_1;
         }
 
-        Header[] headers = request.getAllHeaders();
-        if (headers != null) {
-            for (Header header : headers) {
-                if(this.headers.containsKey(header.getName())) {
-	                 addExcessHeader(header);
-	            } else {
-	                 this.headers.put(header.getName(), header.getValue());
-	            }
-	        }
-	    }
+        // wrap the headers of the request, repeated headers go to the excess headers
+        this.headers = new TransportHeaderMap(request.getAllHeaders(), excessHeaders);
     }
 
     /**
@@ -24,6 +24,7 @@ import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.util.MessageProcessorSelector;
 import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
@@ -38,6 +39,9 @@ import org.apache.http.params.DefaultedHttpParams;
 import org.apache.http.protocol.ExecutionContext;
 import org.apache.http.protocol.HTTP;
 import org.apache.synapse.transport.passthru.config.SourceConfiguration;
+import org.apache.synapse.transport.passthru.util.CodecContentEncoder;
+import org.apache.synapse.transport.passthru.util.ContentCodecFactory;
+import org.apache.synapse.transport.passthru.util.ContentCoding;
 import org.apache.synapse.transport.passthru.util.PassThroughTransportUtils;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
 
@@ -78,6 +82,15 @@ public class SourceResponse {
     /** If version change required default HTTP 1.1 will be overridden*/
     private boolean versionChangeRequired =false;
 
+    /** Content length is calculated as chunking is disabled */
+    private boolean contentLengthRequired = false;
+
+    /** Content length of the incoming message is copied to the response, which is sent as it is */
+    private boolean contentLengthForced = false;
+
+    /** Stage which compresses or decompresses the body on the way to the client, if any */
+    private CodecContentEncoder codec = null;
+
     public SourceResponse(SourceConfiguration config, int status, SourceRequest request) {
         this(config, status, null, request);
     }
@@ -141,6 +154,12 @@ public class SourceResponse {
                 }
             }
 
+            codec = createCodec(contentLength);
+            if (codec != null) {
+                // the length of the transformed body is not known until it is written
+                contentLength = -1;
+            }
+
             if (contentLength != -1) {
                 entity.setChunked(false);
                 entity.setContentLength(contentLength);
@@ -264,6 +283,7 @@ public class SourceResponse {
             TreeSet<String> header = new TreeSet<String>();
             header.add(String.valueOf(out.toByteArray().length));
             headers.put(HTTP.CONTENT_LEN, header);
+            contentLengthRequired = true;
         }
     }
 
@@ -276,6 +296,9 @@ public class SourceResponse {
      * @throws java.io.IOException if an error occurs
      */
     public int write(NHttpServerConnection conn, ContentEncoder encoder) throws IOException {
+        if (codec != null) {
+            encoder = codec.attach(encoder);
+        }
         int bytes = 0;
         if (pipe != null) {
             bytes = pipe.consume(encoder);
@@ -298,7 +321,9 @@ public class SourceResponse {
      * @throws java.io.IOException if an error occurs
      */
     public ByteBuffer copyAndWrite(NHttpServerConnection conn, ContentEncoder encoder) throws IOException {
-
+        if (codec != null) {
+            encoder = codec.attach(encoder);
+        }
         ByteBuffer bytes = null;
         if (pipe != null) {
             bytes = pipe.copyAndConsume(encoder);
@@ -309,6 +334,16 @@ public class SourceResponse {
         return bytes;
     }
 
+    /**
+     * Returns the pooled resources held for writing the body, unless they are already returned as the body was
+     * completely written. Called as the connection is reset, closed or shut down.
+     */
+    public void release() {
+        if (codec != null) {
+            codec.release();
+        }
+    }
+
     private void writePostActions(NHttpServerConnection conn, ContentEncoder encoder) {
 
         if (encoder.isCompleted()) {
@@ -365,6 +400,84 @@ public class SourceResponse {
         return null;
     }
 
+    /**
+     * Selects the stage which compresses or decompresses the body, based on the Accept-Encoding header of the
+     * request and the Content-Encoding header of the response, and updates the headers to match the new body.
+     *
+     * @param contentLength length of the body, or -1 if it is not known
+     * @return the stage, or null if the body is written as it is
+     */
+    private CodecContentEncoder createCodec(long contentLength) {
+        ContentCodecFactory factory = sourceConfiguration.getContentCodecFactory();
+        // the transformed body is chunked, so it can only be sent when the length is not required
+        if (factory == null || contentLengthRequired || contentLengthForced || versionChangeRequired
+                || request.getVersion().lessEquals(HttpVersion.HTTP_1_0)
+                || status == HttpStatus.SC_PARTIAL_CONTENT) {
+            return null;
+        }
+        String acceptEncoding = request.getHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+        String contentEncoding = getHeaderIgnoreCase(HTTP.CONTENT_ENCODING);
+
+        if (contentEncoding == null || HTTP.IDENTITY_CODING.equalsIgnoreCase(contentEncoding.trim())) {
+            ContentCoding coding = ContentCoding.negotiate(acceptEncoding);
+            if (coding == null || !factory.isCompressible(getHeaderIgnoreCase(HTTP.CONTENT_TYPE), contentLength)) {
+                return null;
+            }
+            removeHeaderIgnoreCase(HTTP.CONTENT_ENCODING);
+            addHeader(HTTP.CONTENT_ENCODING, coding.getName());
+            addVaryAcceptEncoding();
+            weakenETag();
+            return factory.createCompressor(coding);
+        }
+
+        ContentCoding coding = ContentCoding.forName(contentEncoding);
+        if (coding == null || !factory.isDecompressionEnabled() || coding.isAcceptedBy(acceptEncoding)) {
+            return null;
+        }
+        removeHeaderIgnoreCase(HTTP.CONTENT_ENCODING);
+        weakenETag();
+        return factory.createDecompressor(coding);
+    }
+
+    private String getHeaderIgnoreCase(String name) {
+        for (Map.Entry<String, TreeSet<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+                return entry.getValue().first();
+            }
+        }
+        return null;
+    }
+
+    private void removeHeaderIgnoreCase(String name) {
+        Iterator<String> names = headers.keySet().iterator();
+        while (names.hasNext()) {
+            if (name.equalsIgnoreCase(names.next())) {
+                names.remove();
+            }
+        }
+    }
+
+    private void addVaryAcceptEncoding() {
+        String vary = getHeaderIgnoreCase(HttpHeaders.VARY);
+        if (vary == null) {
+            addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        } else if (!"*".equals(vary.trim()) && !vary.toLowerCase().contains("accept-encoding")) {
+            removeHeaderIgnoreCase(HttpHeaders.VARY);
+            addHeader(HttpHeaders.VARY, vary + ", " + HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    /**
+     * A strong entity tag identifies the exact bytes of the body, which are changed by the codec.
+     */
+    private void weakenETag() {
+        String eTag = getHeaderIgnoreCase(HttpHeaders.ETAG);
+        if (eTag != null && eTag.startsWith("\"")) {
+            removeHeaderIgnoreCase(HttpHeaders.ETAG);
+            addHeader(HttpHeaders.ETAG, "W/" + eTag);
+        }
+    }
+
     private boolean canResponseHaveBody(final HttpRequest request, final HttpResponse response) {
         if (request != null && "HEAD".equalsIgnoreCase(request.getRequestLine().getMethod())) {
             return false;
@@ -408,6 +521,10 @@ public class SourceResponse {
 		this.keepAlive = keepAlive;
 	}
 
+    public void setContentLengthForced(boolean contentLengthForced) {
+        this.contentLengthForced = contentLengthForced;
+    }
+
     /**
      * Checks whether Content-Type header related to a SOAP message
      *
@@ -28,14 +28,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.logging.log4j.ThreadContext;
 import org.apache.synapse.commons.CorrelationConstants;
+import org.apache.synapse.commons.util.ErrorDetail;
 import org.apache.synapse.transport.nhttp.NhttpConstants;
 import org.apache.synapse.transport.passthru.config.TargetConfiguration;
 import org.apache.synapse.transport.passthru.jmx.PassThroughTransportMetricsCollector;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.io.Writer;
-
 public class TargetErrorHandler {
     private Log log = LogFactory.getLog(TargetErrorHandler.class);
 
@@ -87,10 +84,17 @@ public class TargetErrorHandler {
                     ThreadContext.put(CorrelationConstants.CORRELATION_MDC_PROPERTY, String.valueOf(correlationId));
                 }
 
+                // in the fast-fail mode, the connection failures do not capture or format any stack trace
+                boolean fastFail = targetConfiguration.isErrorFastFailEnabled() && isConnectionFailure(errorCode);
                 try {
-                    AxisFault axisFault = (exceptionToRaise != null ?
-                            new AxisFault(errorMessage, exceptionToRaise) :
-                            new AxisFault(errorMessage));
+                    AxisFault axisFault;
+                    if (fastFail) {
+                        axisFault = createFastFailFault(errorMessage, exceptionToRaise);
+                    } else {
+                        axisFault = (exceptionToRaise != null ?
+                                new AxisFault(errorMessage, exceptionToRaise) :
+                                new AxisFault(errorMessage));
+                    }
 
                     MessageContext faultMessageContext =
                             MessageContextBuilder.createFaultMessageContext(mc, axisFault);
@@ -141,8 +145,8 @@ public class TargetErrorHandler {
                                 PassThroughConstants.PROTOCOL_STATE_ON_FAILURE, state.ordinal());
                     }
                     if (exceptionToRaise != null) {
-                        faultMessageContext.setProperty(
-                                PassThroughConstants.ERROR_DETAIL, getStackTrace(exceptionToRaise));
+                        faultMessageContext.setProperty(PassThroughConstants.ERROR_DETAIL,
+                                fastFail ? exceptionToRaise.toString() : new ErrorDetail(exceptionToRaise));
                         faultMessageContext.setProperty(
                                 PassThroughConstants.ERROR_EXCEPTION, exceptionToRaise);
                         envelope.getBody().getFault().getDetail().setText(
@@ -171,11 +175,33 @@ public class TargetErrorHandler {
         return errorCode + state.ordinal();
     }
 
-    private String getStackTrace(Throwable aThrowable) {
-        final Writer result = new StringWriter();
-        final PrintWriter printWriter = new PrintWriter(result);
-        aThrowable.printStackTrace(printWriter);
-        return result.toString();
+    /**
+     * Creates a fault which does not capture the stack trace, as it is known where a connection failure is raised.
+     */
+    private static AxisFault createFastFailFault(String errorMessage, Exception exceptionToRaise) {
+        if (exceptionToRaise != null) {
+            return new AxisFault(errorMessage, exceptionToRaise) {
+                @Override
+                public synchronized Throwable fillInStackTrace() {
+                    return this;
+                }
+            };
+        }
+        return new AxisFault(errorMessage) {
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+        };
+    }
+
+    /**
+     * Checks whether the error is a failure to reach the backend, which is raised for each message during an outage.
+     */
+    private static boolean isConnectionFailure(int errorCode) {
+        return errorCode == NhttpConstants.CONNECTION_FAILED || errorCode == NhttpConstants.CONNECT_TIMEOUT
+                || errorCode == NhttpConstants.CONNECT_CANCEL || errorCode == NhttpConstants.CONNECTION_TIMEOUT
+                || errorCode == NhttpConstants.CONNECTION_CLOSED;
     }
 
 
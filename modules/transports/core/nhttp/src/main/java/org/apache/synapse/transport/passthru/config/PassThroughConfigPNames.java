@@ -188,4 +188,67 @@ public interface PassThroughConfigPNames {
      */
     public String TLS_GRACEFUL_CONNECTION_TERMINATION = "tls_graceful_connection_termination";
 
+    /**
+     * Defines whether responses are compressed for the clients which accept a gzip or deflate content
+     */
+    public String RESPONSE_COMPRESSION_ENABLED = "http.response.compression.enabled";
+
+    /**
+     * Defines the minimum size of a response with a known length to compress
+     */
+    public String RESPONSE_COMPRESSION_MIN_SIZE = "http.response.compression.min.size";
+
+    /**
+     * Defines the compression level, from 1 (fastest) to 9 (smallest)
+     */
+    public String RESPONSE_COMPRESSION_LEVEL = "http.response.compression.level";
+
+    /**
+     * Defines the comma separated list of compressible media types
+     */
+    public String RESPONSE_COMPRESSION_CONTENT_TYPES = "http.response.compression.content.types";
+
+    /**
+     * Defines whether compressed responses are decompressed for the clients which do not accept their content coding
+     */
+    public String RESPONSE_DECOMPRESSION_ENABLED = "http.response.decompression.enabled";
+
+    /**
+     * Defines whether the failures to connect to the backends are reported without stack traces
+     */
+    public String ERROR_FAST_FAIL_ENABLED = "http.error.fast.fail.enabled";
+
+    /**
+     * Defines whether the host names of the backends are resolved asynchronously and cached by the sender
+     */
+    public String DNS_CACHE_ENABLED = "http.dns.cache.enabled";
+
+    /**
+     * Defines the time in milliseconds for which the addresses of a backend are cached
+     */
+    public String DNS_CACHE_TTL = "http.dns.cache.ttl";
+
+    /**
+     * Defines the time in milliseconds before the expiry of the addresses of a backend from which they are
+     * resolved again in the background
+     */
+    public String DNS_CACHE_REFRESH_AHEAD = "http.dns.cache.refresh.ahead";
+
+    /**
+     * Defines the time in milliseconds for which an address which failed to connect is not given to new
+     * connections, if the backend has other addresses
+     */
+    public String DNS_CACHE_FAILED_ADDRESS_BACKOFF = "http.dns.cache.failed.address.backoff";
+
+    /**
+     * Defines the number of threads which resolve the host names of the backends
+     */
+    public String DNS_RESOLVER_THREADS = "http.dns.resolver.threads";
+
+    /**
+     * Defines the class name of the resolver of the host names, an implementation of
+     * org.apache.synapse.transport.passthru.connections.HostResolver
+     */
+    public String DNS_RESOLVER_CLASS = "http.dns.resolver.class";
+
 }
@@ -51,6 +51,14 @@ public class PassThroughConfiguration {
     private static final int DEFAULT_MAX_ACTIVE_CON = -1;
     private static final int DEFAULT_LISTENER_SHUTDOWN_WAIT_TIME = 0;
     private static final int DEFAULT_CONNECTION_GRACE_TIME = 10000;
+    private static final int DEFAULT_RESPONSE_COMPRESSION_MIN_SIZE = 1024;
+    private static final int DEFAULT_RESPONSE_COMPRESSION_LEVEL = 6;
+    private static final int DEFAULT_DNS_CACHE_TTL = 30000;
+    private static final int DEFAULT_DNS_CACHE_REFRESH_AHEAD = 5000;
+    private static final int DEFAULT_DNS_CACHE_FAILED_ADDRESS_BACKOFF = 10000;
+    private static final int DEFAULT_DNS_RESOLVER_THREADS = 2;
+    private static final String DEFAULT_RESPONSE_COMPRESSION_CONTENT_TYPES = "text/*,application/json,"
+            + "application/xml,application/soap+xml,application/javascript,application/x-ndjson";
 
     private static final String EXPECTED_MAX_QUEUEING_TIME_DEFAULT = "1000";
     private Boolean isKeepAliveDisabled = null;
@@ -399,6 +407,65 @@ public class PassThroughConfiguration {
         return passThroughDefaultServiceName;
     }
 
+    public boolean isResponseCompressionEnabled() {
+        return ConfigurationBuilderUtil.getBooleanProperty(PassThroughConfigPNames.RESPONSE_COMPRESSION_ENABLED,
+                false, props);
+    }
+
+    public int getResponseCompressionMinSize() {
+        return ConfigurationBuilderUtil.getIntProperty(PassThroughConfigPNames.RESPONSE_COMPRESSION_MIN_SIZE,
+                DEFAULT_RESPONSE_COMPRESSION_MIN_SIZE, props);
+    }
+
+    public int getResponseCompressionLevel() {
+        return ConfigurationBuilderUtil.getIntProperty(PassThroughConfigPNames.RESPONSE_COMPRESSION_LEVEL,
+                DEFAULT_RESPONSE_COMPRESSION_LEVEL, props);
+    }
+
+    public String getResponseCompressionContentTypes() {
+        return ConfigurationBuilderUtil.getStringProperty(PassThroughConfigPNames.RESPONSE_COMPRESSION_CONTENT_TYPES,
+                DEFAULT_RESPONSE_COMPRESSION_CONTENT_TYPES, props);
+    }
+
+    public boolean isResponseDecompressionEnabled() {
+        return ConfigurationBuilderUtil.getBooleanProperty(PassThroughConfigPNames.RESPONSE_DECOMPRESSION_ENABLED,
+                false, props);
+    }
+
+    public boolean isErrorFastFailEnabled() {
+        return ConfigurationBuilderUtil.getBooleanProperty(PassThroughConfigPNames.ERROR_FAST_FAIL_ENABLED,
+                false, props);
+    }
+
+    public boolean isDnsCacheEnabled() {
+        return ConfigurationBuilderUtil.getBooleanProperty(PassThroughConfigPNames.DNS_CACHE_ENABLED,
+                false, props);
+    }
+
+    public int getDnsCacheTtl() {
+        return ConfigurationBuilderUtil.getIntProperty(PassThroughConfigPNames.DNS_CACHE_TTL,
+                DEFAULT_DNS_CACHE_TTL, props);
+    }
+
+    public int getDnsCacheRefreshAhead() {
+        return ConfigurationBuilderUtil.getIntProperty(PassThroughConfigPNames.DNS_CACHE_REFRESH_AHEAD,
+                DEFAULT_DNS_CACHE_REFRESH_AHEAD, props);
+    }
+
+    public int getDnsCacheFailedAddressBackoff() {
+        return ConfigurationBuilderUtil.getIntProperty(PassThroughConfigPNames.DNS_CACHE_FAILED_ADDRESS_BACKOFF,
+                DEFAULT_DNS_CACHE_FAILED_ADDRESS_BACKOFF, props);
+    }
+
+    public int getDnsResolverThreads() {
+        return ConfigurationBuilderUtil.getIntProperty(PassThroughConfigPNames.DNS_RESOLVER_THREADS,
+                DEFAULT_DNS_RESOLVER_THREADS, props);
+    }
+
+    public String getDnsResolverClass() {
+        return ConfigurationBuilderUtil.getStringProperty(PassThroughConfigPNames.DNS_RESOLVER_CLASS, null, props);
+    }
+
     /**
      * Get the value of the property to ignore case-sensitive headers from excess headers
      *
@@ -45,6 +45,7 @@ import org.apache.synapse.transport.passthru.HttpGetRequestProcessor;
 import org.apache.synapse.transport.passthru.PassThroughConstants;
 import org.apache.synapse.transport.passthru.connections.SourceConnections;
 import org.apache.synapse.transport.passthru.jmx.PassThroughTransportMetricsCollector;
+import org.apache.synapse.transport.passthru.util.ContentCodecFactory;
 
 /**
  * This class stores configurations specific to the Listeners
@@ -77,6 +78,12 @@ public class SourceConfiguration extends BaseConfiguration {
     /** WSDL processor for Get requests*/
     private HttpGetRequestProcessor httpGetRequestProcessor = null;
 
+    /** Maximum number of pooled deflaters and inflaters of each kind */
+    private static final int CODEC_POOL_SIZE = 64;
+
+    /** Creates the stages which compress and decompress responses, null if both are disabled */
+    private ContentCodecFactory contentCodecFactory = null;
+
 
     public SourceConfiguration(ConfigurationContext configurationContext,
                                TransportInDescription description,
@@ -138,6 +145,13 @@ public class SourceConfiguration extends BaseConfiguration {
             }
         }
         populatePreserveHttpHeaders(conf.getResponsePreseveHttpHeaders());
+
+        if (conf.isResponseCompressionEnabled() || conf.isResponseDecompressionEnabled()) {
+            contentCodecFactory = new ContentCodecFactory(conf.isResponseCompressionEnabled(),
+                    conf.isResponseDecompressionEnabled(), conf.getResponseCompressionMinSize(),
+                    conf.getResponseCompressionLevel(), conf.getResponseCompressionContentTypes(), bufferFactory,
+                    CODEC_POOL_SIZE);
+        }
     }
 
     public HttpParams getHttpParams() {
@@ -164,6 +178,10 @@ public class SourceConfiguration extends BaseConfiguration {
         return port;
     }
 
+    public ContentCodecFactory getContentCodecFactory() {
+        return contentCodecFactory;
+    }
+
     public SourceConnections getSourceConnections() {
         return sourceConnections;
     }
@@ -46,6 +46,9 @@ public class TargetConfiguration extends BaseConfiguration {
     private int maxConnections = Integer.MAX_VALUE;
 
     private ConnectionTimeoutConfiguration connectionTimeoutConfiguration;
+
+    /** Whether the failures to connect to the backends are reported without stack traces */
+    private boolean errorFastFailEnabled = false;
     
     private TargetConnections connections = null;
 
@@ -76,6 +79,7 @@ public class TargetConfiguration extends BaseConfiguration {
                 Integer.MAX_VALUE);
         preserveUserAgentHeader = conf.isPreserveUserAgentHeader();
         preserveServerHeader = conf.isPreserveServerHeader();
+        errorFastFailEnabled = conf.isErrorFastFailEnabled();
         populatePreserveHttpHeaders(conf.getPreserveHttpHeaders());
     }
 
@@ -99,6 +103,10 @@ public class TargetConfiguration extends BaseConfiguration {
         return maxConnections;
     }
 
+    public boolean isErrorFastFailEnabled() {
+        return errorFastFailEnabled;
+    }
+
     public TargetConnections getConnections() {
         return connections;
     }
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.connections;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.transport.base.threads.NativeThreadFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the host names of the backends asynchronously and caches their addresses, so that a sender never waits
+ * for the name service on the thread which asks for a connection.
+ * <p>
+ * The addresses of a host are cached for the time to live, and resolved again in the background once they are
+ * requested within the refresh-ahead time of their expiry, hence the hosts in use are served from the cache without
+ * interruption. Only the requests of a host which is not cached, or which was not requested for longer than the time
+ * to live, wait for the resolver. Each new connection is given the next address of the host in turn, across the IPv4
+ * and IPv6 addresses, skipping the addresses which recently failed to connect. The addresses which disappear from the
+ * name service are not given to new connections once the host is resolved again; the connections already made to
+ * them are left to the pool. The hosts which are not requested for longer than the time to live are evicted from the
+ * cache.
+ */
+public class HostResolutionCache {
+
+    private static final Log log = LogFactory.getLog(HostResolutionCache.class);
+
+    /**
+     * Receives the address of a host once it is resolved.
+     */
+    public interface Callback {
+
+        /**
+         * @param address the address to connect to
+         */
+        void resolved(InetAddress address);
+
+        /**
+         * @param e the reason the host could not be resolved
+         */
+        void failed(UnknownHostException e);
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    private final HostResolver resolver;
+
+    private final Executor executor;
+
+    /** Pool of the resolver threads, if it was created along with the cache */
+    private ExecutorService resolverPool;
+
+    private final long ttl;
+
+    private final long refreshAhead;
+
+    private final long failedAddressBackoff;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong removedAddresses = new AtomicLong();
+    private final AtomicLong failedConnections = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** Time at which the idle hosts are looked for next */
+    private final AtomicLong nextEvictionAt = new AtomicLong();
+
+    /**
+     * @param resolver             resolver of the host names
+     * @param executor             executor which runs the resolver
+     * @param ttl                  time to live of the addresses of a host in milliseconds
+     * @param refreshAhead         time before the expiry of the addresses from which they are resolved again
+     * @param failedAddressBackoff time for which an address which failed to connect is not given to new connections
+     */
+    public HostResolutionCache(HostResolver resolver, Executor executor, long ttl, long refreshAhead,
+                               long failedAddressBackoff) {
+        this.resolver = resolver;
+        this.executor = executor;
+        this.ttl = Math.max(0, ttl);
+        this.refreshAhead = Math.max(0, Math.min(refreshAhead, this.ttl));
+        this.failedAddressBackoff = failedAddressBackoff;
+    }
+
+    /**
+     * Creates a cache with its own pool of resolver threads, which is shut down along with the cache.
+     *
+     * @param name                 name of the resolver threads
+     * @param resolverClass        class name of the {@link HostResolver}, or null for the {@link SystemHostResolver}
+     * @param threads              number of resolver threads
+     * @param ttl                  time to live of the addresses of a host in milliseconds
+     * @param refreshAhead         time before the expiry of the addresses from which they are resolved again
+     * @param failedAddressBackoff time for which an address which failed to connect is not given to new connections
+     * @return the cache
+     * @throws AxisFault if the resolver cannot be created
+     */
+    public static HostResolutionCache create(String name, String resolverClass, int threads, long ttl,
+                                             long refreshAhead, long failedAddressBackoff) throws AxisFault {
+        HostResolver resolver;
+        if (resolverClass == null || resolverClass.trim().isEmpty()) {
+            resolver = new SystemHostResolver();
+        } else {
+            Object obj;
+            try {
+                obj = Class.forName(resolverClass.trim()).newInstance();
+            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+                throw new AxisFault("Error creating the host resolver " + resolverClass, e);
+            }
+            if (!(obj instanceof HostResolver)) {
+                throw new AxisFault("Error creating the host resolver. The class " + resolverClass
+                        + " should be of type " + HostResolver.class.getName());
+            }
+            resolver = (HostResolver) obj;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads),
+                new NativeThreadFactory(new ThreadGroup(name + " Thread Group"), name));
+        HostResolutionCache cache = new HostResolutionCache(resolver, pool, ttl, refreshAhead, failedAddressBackoff);
+        cache.resolverPool = pool;
+        return cache;
+    }
+
+    /**
+     * Finds the address to make a new connection to. The callback is notified on the calling thread if the host is
+     * cached, and on a resolver thread otherwise.
+     *
+     * @param hostName host name of the backend
+     * @param callback callback notified of the address
+     */
+    public void resolve(String hostName, Callback callback) {
+        long now = currentTimeMillis();
+        Entry entry = getEntry(hostName, now);
+        InetAddress address = lookup(hostName, entry, now);
+        if (address == null) {
+            synchronized (entry) {
+                // the host may have been resolved since it was looked up
+                address = entry.select(now);
+                if (address == null) {
+                    entry.waiting.add(callback);
+                }
+            }
+            if (address == null) {
+                refresh(hostName, entry);
+                return;
+            }
+        }
+        callback.resolved(address);
+    }
+
+    /**
+     * Returns the address to make a new connection to if the host is cached, without waiting. Otherwise the host is
+     * resolved in the background for the connections which follow.
+     *
+     * @param hostName host name of the backend
+     * @return the address, or null if the host is not cached
+     */
+    public InetAddress getCachedAddress(String hostName) {
+        long now = currentTimeMillis();
+        Entry entry = getEntry(hostName, now);
+        InetAddress address = lookup(hostName, entry, now);
+        if (address == null) {
+            refresh(hostName, entry);
+        }
+        return address;
+    }
+
+    /**
+     * Notifies that a connection to an address of a host failed, so that the address is not given to new connections
+     * for a while if the host has other addresses.
+     *
+     * @param hostName host name of the backend
+     * @param address  address which failed to connect
+     */
+    public void connectionFailed(String hostName, InetAddress address) {
+        Entry entry = entries.get(hostName);
+        if (entry != null && address != null && failedAddressBackoff > 0) {
+            failedConnections.incrementAndGet();
+            entry.failedAddresses.put(address, currentTimeMillis() + failedAddressBackoff);
+        }
+    }
+
+    /**
+     * Stops the resolver threads if they were created along with the cache.
+     */
+    public void shutdown() {
+        if (resolverPool != null) {
+            resolverPool.shutdownNow();
+        }
+    }
+
+    public int getCachedHosts() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    public long getResolutionFailures() {
+        return failures.get();
+    }
+
+    public long getRemovedAddresses() {
+        return removedAddresses.get();
+    }
+
+    public long getFailedConnections() {
+        return failedConnections.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public void resetMetrics() {
+        hits.set(0);
+        misses.set(0);
+        refreshes.set(0);
+        failures.set(0);
+        removedAddresses.set(0);
+        failedConnections.set(0);
+        evictions.set(0);
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private Entry getEntry(String hostName, long now) {
+        evictIdleEntries(now);
+        Entry entry = entries.get(hostName);
+        if (entry == null) {
+            Entry created = new Entry();
+            entry = entries.putIfAbsent(hostName, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+        entry.lastRequested = now;
+        return entry;
+    }
+
+    /**
+     * Evicts the hosts which were not requested for longer than the time to live, looking for them at most once in
+     * the time to live. A host which is being resolved is kept for the requests waiting for it.
+     */
+    private void evictIdleEntries(long now) {
+        long evictAt = nextEvictionAt.get();
+        if (now < evictAt || !nextEvictionAt.compareAndSet(evictAt, now + Math.max(ttl, 1000))) {
+            return;
+        }
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            synchronized (entry) {
+                if (entry.resolving || now - entry.lastRequested < ttl) {
+                    continue;
+                }
+            }
+            if (entries.remove(e.getKey(), entry)) {
+                evictions.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Host " + e.getKey() + " was evicted from the cache");
+                }
+            }
+        }
+    }
+
+    private InetAddress lookup(String hostName, Entry entry, long now) {
+        InetAddress address = entry.select(now);
+        if (address == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        if (now >= entry.addresses.refreshAt) {
+            refresh(hostName, entry);
+        }
+        return address;
+    }
+
+    /**
+     * Resolves the host on a resolver thread, unless it is being resolved already.
+     */
+    private void refresh(final String hostName, final Entry entry) {
+        synchronized (entry) {
+            if (entry.resolving) {
+                return;
+            }
+            entry.resolving = true;
+        }
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    InetAddress[] addresses = null;
+                    UnknownHostException error = null;
+                    try {
+                        addresses = resolver.resolve(hostName);
+                        if (addresses == null || addresses.length == 0) {
+                            error = new UnknownHostException(hostName + ": no addresses");
+                        }
+                    } catch (UnknownHostException e) {
+                        error = e;
+                    } catch (RuntimeException e) {
+                        error = new UnknownHostException(hostName + ": " + e.getMessage());
+                        error.initCause(e);
+                    }
+                    completed(hostName, entry, addresses, error);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            UnknownHostException error = new UnknownHostException(hostName + ": the resolver is not available");
+            error.initCause(e);
+            completed(hostName, entry, null, error);
+        }
+    }
+
+    private void completed(String hostName, Entry entry, InetAddress[] resolved, UnknownHostException error) {
+        if (error == null) {
+            resolved = bind(hostName, resolved);
+            if (resolved.length == 0) {
+                error = new UnknownHostException(hostName + ": no addresses");
+            }
+        }
+        long now = currentTimeMillis();
+        Addresses addresses;
+        List<Callback> waiting;
+        synchronized (entry) {
+            Addresses previous = entry.addresses;
+            if (error == null) {
+                if (previous != null) {
+                    refreshes.incrementAndGet();
+                    List<InetAddress> current = Arrays.asList(resolved);
+                    for (InetAddress address : previous.addresses) {
+                        if (!current.contains(address)) {
+                            removedAddresses.incrementAndGet();
+                            if (log.isDebugEnabled()) {
+                                log.debug("Address " + address + " of " + hostName + " was removed");
+                            }
+                        }
+                    }
+                    entry.failedAddresses.keySet().retainAll(current);
+                }
+                entry.addresses = new Addresses(resolved, now + ttl, now + ttl - refreshAhead);
+            } else {
+                failures.incrementAndGet();
+                if (previous != null && now < previous.expiresAt) {
+                    // keep the addresses until they expire, and try again half way to the expiry
+                    entry.addresses = new Addresses(previous.addresses, previous.expiresAt,
+                            now + (previous.expiresAt - now) / 2);
+                }
+            }
+            addresses = entry.addresses;
+            entry.resolving = false;
+            waiting = entry.waiting;
+            entry.waiting = new ArrayList<Callback>();
+        }
+
+        if (error != null) {
+            log.warn("Unable to resolve the host " + hostName + " : " + error.getMessage());
+        }
+        for (Callback callback : waiting) {
+            if (error == null) {
+                // the addresses are given to the waiting connections even if they expire at once
+                callback.resolved(entry.next(addresses.addresses, now));
+            } else {
+                callback.failed(error);
+            }
+        }
+    }
+
+    /**
+     * Binds the resolved addresses to the host name. The SSL layer takes the host name of the remote address for the
+     * SSL profile of the host, SNI and hostname verification, and an address without a host name would be looked up
+     * in reverse on the I/O reactor thread.
+     *
+     * @param hostName host name of the backend
+     * @param resolved addresses given by the resolver
+     * @return new addresses carrying the host name, without the null entries
+     */
+    private static InetAddress[] bind(String hostName, InetAddress[] resolved) {
+        List<InetAddress> bound = new ArrayList<InetAddress>(resolved.length);
+        for (InetAddress address : resolved) {
+            if (address == null) {
+                continue;
+            }
+            try {
+                if (address instanceof Inet6Address && ((Inet6Address) address).getScopeId() != 0) {
+                    bound.add(Inet6Address.getByAddress(hostName, address.getAddress(),
+                            ((Inet6Address) address).getScopeId()));
+                } else {
+                    bound.add(InetAddress.getByAddress(hostName, address.getAddress()));
+                }
+            } catch (UnknownHostException e) {
+                // not thrown for the raw address of an existing address
+                bound.add(address);
+            }
+        }
+        return bound.toArray(new InetAddress[0]);
+    }
+
+    /**
+     * Addresses of a host with the times at which they expire and are resolved again.
+     */
+    private static final class Addresses {
+
+        private final InetAddress[] addresses;
+
+        private final long expiresAt;
+
+        private final long refreshAt;
+
+        private Addresses(InetAddress[] addresses, long expiresAt, long refreshAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+
+    private static final class Entry {
+
+        /** Cached addresses, null until the host is resolved for the first time */
+        private volatile Addresses addresses;
+
+        /** Addresses which failed to connect, with the time until which they are skipped */
+        private final Map<InetAddress, Long> failedAddresses = new ConcurrentHashMap<InetAddress, Long>();
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        /** Time at which the host was last requested */
+        private volatile long lastRequested;
+
+        /** Whether the host is being resolved, guarded by the entry */
+        private boolean resolving;
+
+        /** Callbacks waiting for the host to be resolved, guarded by the entry */
+        private List<Callback> waiting = new ArrayList<Callback>();
+
+        /**
+         * @return the next address if the addresses have not expired, null otherwise
+         */
+        private InetAddress select(long now) {
+            Addresses current = addresses;
+            if (current == null || now >= current.expiresAt) {
+                return null;
+            }
+            return next(current.addresses, now);
+        }
+
+        private InetAddress next(InetAddress[] candidates, long now) {
+            int start = (next.getAndIncrement() & Integer.MAX_VALUE) % candidates.length;
+            if (!failedAddresses.isEmpty()) {
+                for (int i = 0; i < candidates.length; i++) {
+                    InetAddress address = candidates[(start + i) % candidates.length];
+                    Long skippedUntil = failedAddresses.get(address);
+                    if (skippedUntil == null) {
+                        return address;
+                    } else if (skippedUntil <= now) {
+                        failedAddresses.remove(address, skippedUntil);
+                        return address;
+                    }
+                }
+            }
+            // all the addresses failed recently, they are tried in turn all the same
+            return candidates[start];
+        }
+    }
+}
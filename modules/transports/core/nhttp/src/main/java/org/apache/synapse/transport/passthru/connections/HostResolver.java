@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.connections;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Resolves the host names of the backends to their addresses. The senders call the resolver through a
+ * {@link HostResolutionCache}, on the threads of the cache, hence an implementation may block while it resolves.
+ * An implementation is plugged in by its class name, and must have a public no argument constructor.
+ * <p>
+ * The cache binds each resolved address to the resolved host name, as in
+ * {@link InetAddress#getByAddress(String, byte[])}, before it is given to a connection. The SSL layer takes the host
+ * name of the remote address for the SSL profile of the host, SNI and hostname verification, hence an implementation
+ * may return addresses without a host name, e.g. those created by {@link InetAddress#getByAddress(byte[])}.
+ */
+public interface HostResolver {
+
+    /**
+     * Resolves a host name.
+     *
+     * @param hostName host name of the backend
+     * @return all the addresses of the host, IPv4 and IPv6
+     * @throws UnknownHostException if the host name cannot be resolved
+     */
+    InetAddress[] resolve(String hostName) throws UnknownHostException;
+}
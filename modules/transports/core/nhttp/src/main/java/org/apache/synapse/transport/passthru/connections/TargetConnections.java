@@ -37,7 +37,9 @@ import org.apache.synapse.transport.passthru.config.TargetConfiguration;
 import org.apache.synapse.transport.passthru.RouteRequestMapping;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -69,6 +71,9 @@ public class TargetConnections {
 
     private ConnectionTimeoutConfiguration connectionTimeoutConfiguration;
 
+    /** cache of the addresses of the hosts, null if the hosts are resolved by the io-reactor */
+    private HostResolutionCache hostResolutionCache;
+
     /**
      * Create a TargetConnections with the given IO-Reactor
      *
@@ -79,8 +84,24 @@ public class TargetConnections {
     public TargetConnections(ConnectingIOReactor ioReactor,
                              TargetConfiguration targetConfiguration,
                              ConnectCallback callback) {
+        this(ioReactor, targetConfiguration, callback, null);
+    }
+
+    /**
+     * Create a TargetConnections with the given IO-Reactor, which connects to the addresses given by the cache
+     *
+     * @param ioReactor the IO-Reactor
+     * @param targetConfiguration the configuration of the sender
+     * @param callback the callback
+     * @param hostResolutionCache cache of the addresses of the hosts, or null to let the io-reactor resolve them
+     */
+    public TargetConnections(ConnectingIOReactor ioReactor,
+                             TargetConfiguration targetConfiguration,
+                             ConnectCallback callback,
+                             HostResolutionCache hostResolutionCache) {
 
         this.maxConnections = targetConfiguration.getMaxConnections();
+        this.hostResolutionCache = hostResolutionCache;
         this.ioReactor = ioReactor;
         this.callback = callback;
 
@@ -113,8 +134,7 @@ public class TargetConnections {
         NHttpClientConnection connection = pool.getConnection();
         if (connection == null) {
             if (pool.checkAndIncrementPendingConnections()) {
-                HttpHost host = route.getProxyHost() != null ? route.getProxyHost() : route.getTargetHost();
-                ioReactor.connect(new InetSocketAddress(host.getHostName(), host.getPort()), null, pool, callback);
+                connect(pool, route.getProxyHost() != null ? route.getProxyHost() : route.getTargetHost());
 
                 if (transportLatencyLog.isDebugEnabled()) {
                     ContextAwareLogger.getLogger(msgContext, transportLatencyLog, false)
@@ -146,6 +166,27 @@ public class TargetConnections {
         return null;
     }
 
+    /**
+     * Connects to the host without waiting for its address to be resolved. The pending connection of the pool is
+     * released through the callback if the host cannot be resolved.
+     */
+    private void connect(final HostConnections pool, HttpHost host) {
+        final int port = host.getPort();
+        if (hostResolutionCache == null) {
+            ioReactor.connect(new InetSocketAddress(host.getHostName(), port), null, pool, callback);
+            return;
+        }
+        hostResolutionCache.resolve(host.getHostName(), new HostResolutionCache.Callback() {
+            public void resolved(InetAddress address) {
+                ioReactor.connect(new InetSocketAddress(address, port), null, pool, callback);
+            }
+
+            public void failed(UnknownHostException e) {
+                callback.resolutionFailed(pool, e);
+            }
+        });
+    }
+
     public NHttpClientConnection getExistingConnection(RouteRequestMapping routeRequestMapping) {
         if (log.isDebugEnabled()) {
             log.debug("Trying to get a existing connection connection " + routeRequestMapping);
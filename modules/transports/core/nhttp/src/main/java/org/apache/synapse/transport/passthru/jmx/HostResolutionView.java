@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.synapse.transport.passthru.jmx;
+
+import org.apache.synapse.transport.passthru.connections.HostResolutionCache;
+
+/**
+ * Exposes the statistics of the cache of the addresses of the backends of a sender. The hits are the connections
+ * which were given a cached address, the misses the ones which waited for the host to be resolved, and the refreshes
+ * the hosts resolved again before their addresses expired. The evictions are the hosts removed from the cache after
+ * they were not requested for longer than the time to live.
+ */
+public class HostResolutionView implements HostResolutionViewMBean {
+
+    private final HostResolutionCache cache;
+
+    public HostResolutionView(HostResolutionCache cache) {
+        this.cache = cache;
+    }
+
+    public int getCachedHosts() {
+        return cache.getCachedHosts();
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public long getRefreshes() {
+        return cache.getRefreshes();
+    }
+
+    public long getResolutionFailures() {
+        return cache.getResolutionFailures();
+    }
+
+    public long getRemovedAddresses() {
+        return cache.getRemovedAddresses();
+    }
+
+    public long getFailedConnections() {
+        return cache.getFailedConnections();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    public void reset() {
+        cache.resetMetrics();
+    }
+}
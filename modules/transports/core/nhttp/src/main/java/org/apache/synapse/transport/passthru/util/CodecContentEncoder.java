@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+import org.apache.http.nio.ContentEncoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A codec stage between the {@link org.apache.synapse.transport.passthru.Pipe} and the encoder of a connection. The
+ * bytes the pipe writes are transformed incrementally and written to the encoder of the connection, which is
+ * attached before each write as the connection may hand over a different encoder for each output event.
+ * <p>
+ * The stage never blocks. The transformed bytes which do not fit the connection are kept until the next write, and
+ * no more input is accepted from the pipe until they are written. The stream is completed once all the transformed
+ * bytes are written after the pipe completes the stage.
+ * <p>
+ * The pooled resources of the stage are returned once the stream is completed, or by {@link #release()} when the
+ * response is dropped before that, e.g. as the connection is closed.
+ */
+public abstract class CodecContentEncoder implements ContentEncoder {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final ContentCodecFactory factory;
+
+    private final ControlledByteBuffer buffer;
+
+    /** Transformed bytes waiting to be written to the connection, always in the fill mode */
+    private final ByteBuffer output;
+
+    /** Bytes taken from the pipe, owned by the codec until it needs more input */
+    private final byte[] input;
+
+    private ContentEncoder encoder;
+
+    private boolean ended = false;
+
+    private boolean completing = false;
+
+    private boolean completed = false;
+
+    private boolean released = false;
+
+    protected CodecContentEncoder(ContentCodecFactory factory) {
+        this.factory = factory;
+        this.buffer = factory.getBuffer();
+        this.output = buffer.getByteBuffer();
+        this.output.clear();
+        this.input = new byte[output.capacity()];
+    }
+
+    /**
+     * Attaches the encoder of the connection the transformed bytes are written to.
+     *
+     * @param encoder encoder of the connection
+     * @return this stage
+     */
+    public CodecContentEncoder attach(ContentEncoder encoder) {
+        this.encoder = encoder;
+        return this;
+    }
+
+    /**
+     * Transforms the bytes of the pipe and writes them to the connection.
+     *
+     * @param src bytes of the pipe
+     * @return number of bytes taken from the pipe
+     * @throws IOException if the bytes cannot be transformed or written
+     */
+    public synchronized int write(ByteBuffer src) throws IOException {
+        if (completed) {
+            return 0;
+        }
+        if (released) {
+            throw new IOException("The codec stage is released before the stream is completed");
+        }
+        int consumed = 0;
+        while (flush()) {
+            if (ended) {
+                if (isFinished()) {
+                    encoder.complete();
+                    completed = true;
+                    release();
+                    break;
+                }
+            } else if (needsInput()) {
+                if (src.hasRemaining()) {
+                    int length = Math.min(src.remaining(), input.length);
+                    src.get(input, 0, length);
+                    setInput(input, 0, length);
+                    consumed += length;
+                } else if (completing) {
+                    ended = true;
+                    endInput();
+                } else {
+                    break;
+                }
+            }
+            produce(output);
+        }
+        return consumed;
+    }
+
+    /**
+     * Completes the transformed stream. If the connection cannot take all the remaining bytes the stream is
+     * completed by the following writes.
+     *
+     * @throws IOException if the bytes cannot be transformed or written
+     */
+    public synchronized void complete() throws IOException {
+        completing = true;
+        write(EMPTY);
+    }
+
+    public synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return true if there are transformed bytes which the connection could not take yet, in which case the stage
+     * has to be written again even if the pipe has no more bytes for it
+     */
+    public synchronized boolean hasPendingOutput() {
+        return !completed && !released && output.position() > 0;
+    }
+
+    /**
+     * Writes the pending transformed bytes to the connection.
+     *
+     * @return true if there are no more pending bytes
+     */
+    private boolean flush() throws IOException {
+        if (output.position() == 0) {
+            return true;
+        }
+        output.flip();
+        try {
+            encoder.write(output);
+        } finally {
+            output.compact();
+        }
+        return output.position() == 0;
+    }
+
+    /**
+     * Returns the pooled resources of the stage, if not already returned. A stage released before it is completed
+     * cannot be written anymore.
+     */
+    public synchronized void release() {
+        if (!released) {
+            released = true;
+            releaseCodec();
+            factory.release(buffer);
+        }
+    }
+
+    /**
+     * @return true if the codec has transformed all the input given to it
+     */
+    protected abstract boolean needsInput();
+
+    /**
+     * Gives the next input bytes to the codec. The bytes are not changed until the codec needs more input.
+     */
+    protected abstract void setInput(byte[] b, int off, int len);
+
+    /**
+     * Informs the codec that there is no more input.
+     */
+    protected abstract void endInput();
+
+    /**
+     * Transforms the input into the given buffer.
+     *
+     * @param output buffer to put the transformed bytes in
+     * @throws IOException if the input cannot be transformed
+     */
+    protected abstract void produce(ByteBuffer output) throws IOException;
+
+    /**
+     * @return true if the codec has produced all the bytes after the end of the input
+     */
+    protected abstract boolean isFinished();
+
+    /**
+     * Returns the resources of the codec to the factory.
+     */
+    protected abstract void releaseCodec();
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Creates the codec stages which compress and decompress the content of the PassThrough transport on the fly. The
+ * {@link Deflater} and {@link Inflater} instances and the buffers of the stages are pooled, as creating them for each
+ * message is far more expensive than the compression of a small message.
+ */
+public class ContentCodecFactory {
+
+    /** Content types which are never compressed, as the client reads them while they are produced */
+    private static final String EVENT_STREAM = "text/event-stream";
+
+    private final boolean compressionEnabled;
+
+    private final boolean decompressionEnabled;
+
+    private final int minSize;
+
+    private final int level;
+
+    /** Compressible media types, an entry ending with '/' matches all the types of that top level type */
+    private final List<String> contentTypes = new ArrayList<String>();
+
+    private final BufferFactory bufferFactory;
+
+    private final Pool<Deflater> gzipDeflaters;
+    private final Pool<Deflater> zlibDeflaters;
+    private final Pool<Inflater> rawInflaters;
+    private final Pool<Inflater> zlibInflaters;
+
+    /**
+     * @param compressionEnabled   whether responses are compressed for the clients which accept a compressed content
+     * @param decompressionEnabled whether compressed responses are decompressed for the clients which do not accept
+     *                             their content coding
+     * @param minSize              minimum size of a response with a known length to compress
+     * @param level                compression level
+     * @param contentTypes         comma separated list of compressible media types, "text/*" matches all text types
+     * @param bufferFactory        factory of the buffers of the stages
+     * @param poolSize             maximum number of pooled deflaters and inflaters of each kind
+     */
+    public ContentCodecFactory(boolean compressionEnabled, boolean decompressionEnabled, int minSize, int level,
+                               String contentTypes, BufferFactory bufferFactory, int poolSize) {
+        this.compressionEnabled = compressionEnabled;
+        this.decompressionEnabled = decompressionEnabled;
+        this.minSize = minSize;
+        this.level = level;
+        this.bufferFactory = bufferFactory;
+        if (contentTypes != null) {
+            for (String contentType : contentTypes.split(",")) {
+                contentType = contentType.trim().toLowerCase(Locale.ROOT);
+                if (contentType.endsWith("/*")) {
+                    contentType = contentType.substring(0, contentType.length() - 1);
+                }
+                if (!contentType.isEmpty()) {
+                    this.contentTypes.add(contentType);
+                }
+            }
+        }
+
+        gzipDeflaters = new Pool<Deflater>(poolSize) {
+            Deflater create() {
+                return new Deflater(ContentCodecFactory.this.level, true);
+            }
+        };
+        zlibDeflaters = new Pool<Deflater>(poolSize) {
+            Deflater create() {
+                return new Deflater(ContentCodecFactory.this.level, false);
+            }
+        };
+        rawInflaters = new Pool<Inflater>(poolSize) {
+            Inflater create() {
+                return new Inflater(true);
+            }
+        };
+        zlibInflaters = new Pool<Inflater>(poolSize) {
+            Inflater create() {
+                return new Inflater(false);
+            }
+        };
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public boolean isDecompressionEnabled() {
+        return decompressionEnabled;
+    }
+
+    /**
+     * Checks whether a response is worth compressing.
+     *
+     * @param contentType   content type of the response, may be null
+     * @param contentLength length of the response, or -1 if it is not known
+     * @return true if the response should be compressed
+     */
+    public boolean isCompressible(String contentType, long contentLength) {
+        if (!compressionEnabled || (contentLength >= 0 && contentLength < minSize) || contentType == null) {
+            return false;
+        }
+        int separator = contentType.indexOf(';');
+        String mediaType = (separator < 0 ? contentType : contentType.substring(0, separator)).trim()
+                .toLowerCase(Locale.ROOT);
+        if (EVENT_STREAM.equals(mediaType)) {
+            return false;
+        }
+        if (mediaType.endsWith("+json") || mediaType.endsWith("+xml")) {
+            return true;
+        }
+        for (String compressible : contentTypes) {
+            if (compressible.endsWith("/") ? mediaType.startsWith(compressible) : mediaType.equals(compressible)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a stage which compresses the content with the given coding.
+     */
+    public CodecContentEncoder createCompressor(ContentCoding coding) {
+        return new DeflatingContentEncoder(this, coding);
+    }
+
+    /**
+     * Creates a stage which decompresses a content of the given coding.
+     */
+    public CodecContentEncoder createDecompressor(ContentCoding coding) {
+        return new InflatingContentEncoder(this, coding);
+    }
+
+    ControlledByteBuffer getBuffer() {
+        return bufferFactory.getBuffer();
+    }
+
+    void release(ControlledByteBuffer buffer) {
+        bufferFactory.release(buffer);
+    }
+
+    Deflater getDeflater(boolean nowrap) {
+        return (nowrap ? gzipDeflaters : zlibDeflaters).get();
+    }
+
+    void release(Deflater deflater, boolean nowrap) {
+        deflater.reset();
+        if (!(nowrap ? gzipDeflaters : zlibDeflaters).release(deflater)) {
+            deflater.end();
+        }
+    }
+
+    Inflater getInflater(boolean nowrap) {
+        return (nowrap ? rawInflaters : zlibInflaters).get();
+    }
+
+    void release(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!(nowrap ? rawInflaters : zlibInflaters).release(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * A bounded stack of reusable instances, in the same way as the {@link BufferFactory}.
+     */
+    private abstract static class Pool<T> {
+
+        private final Object[] items;
+
+        private int marker = -1;
+
+        private final Lock lock = new ReentrantLock();
+
+        Pool(int size) {
+            items = new Object[size];
+        }
+
+        abstract T create();
+
+        @SuppressWarnings("unchecked")
+        T get() {
+            lock.lock();
+            try {
+                if (marker >= 0) {
+                    T item = (T) items[marker];
+                    items[marker--] = null;
+                    return item;
+                }
+            } finally {
+                lock.unlock();
+            }
+            return create();
+        }
+
+        boolean release(T item) {
+            lock.lock();
+            try {
+                if (marker < items.length - 1) {
+                    items[++marker] = item;
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
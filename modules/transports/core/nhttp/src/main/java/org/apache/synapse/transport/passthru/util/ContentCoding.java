@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+/**
+ * The content codings the PassThrough transport can compress and decompress on the fly.
+ */
+public enum ContentCoding {
+
+    GZIP("gzip", "x-gzip"),
+    DEFLATE("deflate", null);
+
+    private final String name;
+
+    private final String alias;
+
+    ContentCoding(String name, String alias) {
+        this.name = name;
+        this.alias = alias;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the coding of a Content-Encoding header value.
+     *
+     * @param contentEncoding value of the Content-Encoding header
+     * @return the coding, or null if the value is not a single coding known to the transport
+     */
+    public static ContentCoding forName(String contentEncoding) {
+        if (contentEncoding == null) {
+            return null;
+        }
+        String name = contentEncoding.trim();
+        for (ContentCoding coding : values()) {
+            if (coding.matches(name)) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Selects the coding to compress a response with. gzip is preferred over deflate when the client accepts both
+     * with the same quality.
+     *
+     * @param acceptEncoding value of the Accept-Encoding header of the request
+     * @return the coding, or null if the client does not accept any of the codings
+     */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        ContentCoding selected = null;
+        float selectedQuality = 0;
+        for (ContentCoding coding : values()) {
+            float quality = coding.quality(acceptEncoding);
+            if (quality > selectedQuality) {
+                selected = coding;
+                selectedQuality = quality;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Checks whether a client accepts this coding. A request without an Accept-Encoding header accepts any coding.
+     *
+     * @param acceptEncoding value of the Accept-Encoding header of the request
+     * @return true if the client accepts this coding
+     */
+    public boolean isAcceptedBy(String acceptEncoding) {
+        return acceptEncoding == null || quality(acceptEncoding) > 0;
+    }
+
+    /**
+     * Returns the quality the Accept-Encoding header gives this coding. A coding listed by name takes precedence
+     * over the "*" wildcard.
+     */
+    private float quality(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return 0;
+        }
+        float wildcard = 0;
+        int start = 0;
+        int length = acceptEncoding.length();
+        while (start < length) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            String element = acceptEncoding.substring(start, end);
+            start = end + 1;
+
+            int separator = element.indexOf(';');
+            String name = (separator < 0 ? element : element.substring(0, separator)).trim();
+            float quality = separator < 0 ? 1 : parseQuality(element.substring(separator + 1));
+            if (matches(name)) {
+                return quality;
+            } else if ("*".equals(name)) {
+                wildcard = quality;
+            }
+        }
+        return wildcard;
+    }
+
+    private boolean matches(String name) {
+        return this.name.equalsIgnoreCase(name) || (alias != null && alias.equalsIgnoreCase(name));
+    }
+
+    private static float parseQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && "q".equalsIgnoreCase(parameter.substring(0, separator).trim())) {
+                try {
+                    return Float.parseFloat(parameter.substring(separator + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
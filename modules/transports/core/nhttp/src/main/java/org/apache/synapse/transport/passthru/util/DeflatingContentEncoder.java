@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the bytes of the pipe into a gzip or deflate (zlib) stream.
+ */
+class DeflatingContentEncoder extends CodecContentEncoder {
+
+    private static final byte[] GZIP_HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private final ContentCodecFactory factory;
+
+    private final boolean gzip;
+
+    private final Deflater deflater;
+
+    private final CRC32 crc;
+
+    private boolean headerWritten;
+
+    private boolean trailerWritten;
+
+    DeflatingContentEncoder(ContentCodecFactory factory, ContentCoding coding) {
+        super(factory);
+        this.factory = factory;
+        this.gzip = coding == ContentCoding.GZIP;
+        // gzip wraps a raw deflate stream with its own header and trailer
+        this.deflater = factory.getDeflater(gzip);
+        this.crc = gzip ? new CRC32() : null;
+        this.headerWritten = !gzip;
+        this.trailerWritten = !gzip;
+    }
+
+    @Override
+    protected boolean needsInput() {
+        return deflater.needsInput();
+    }
+
+    @Override
+    protected void setInput(byte[] b, int off, int len) {
+        deflater.setInput(b, off, len);
+        if (gzip) {
+            crc.update(b, off, len);
+        }
+    }
+
+    @Override
+    protected void endInput() {
+        deflater.finish();
+    }
+
+    @Override
+    protected void produce(ByteBuffer output) {
+        if (!headerWritten) {
+            output.put(GZIP_HEADER);
+            headerWritten = true;
+        }
+        if (!deflater.finished()) {
+            deflater.deflate(output);
+        }
+        if (deflater.finished() && !trailerWritten && output.remaining() >= GZIP_TRAILER_LENGTH) {
+            writeInt(output, (int) crc.getValue());
+            writeInt(output, (int) deflater.getBytesRead());
+            trailerWritten = true;
+        }
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return deflater.finished() && trailerWritten;
+    }
+
+    @Override
+    protected void releaseCodec() {
+        factory.release(deflater, gzip);
+    }
+
+    private static void writeInt(ByteBuffer output, int value) {
+        // gzip stores the numbers in the little endian order
+        output.put((byte) value);
+        output.put((byte) (value >> 8));
+        output.put((byte) (value >> 16));
+        output.put((byte) (value >> 24));
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses a gzip or deflate stream of the pipe. Concatenated gzip members are decompressed one after the other,
+ * and a deflate stream may be either a zlib stream or a raw deflate stream as sent by some servers.
+ */
+class InflatingContentEncoder extends CodecContentEncoder {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    /** Reading the fixed part of the gzip header, or the zlib header of a deflate stream */
+    private static final int HEADER = 0;
+    private static final int EXTRA_LENGTH = 1;
+    private static final int EXTRA = 2;
+    private static final int NAME = 3;
+    private static final int COMMENT = 4;
+    private static final int HEADER_CRC = 5;
+    /** Inflating the compressed data */
+    private static final int DATA = 6;
+    /** Reading the gzip trailer, or skipping the bytes after a deflate stream */
+    private static final int TRAILER = 7;
+
+    private static final int GZIP_HEADER_LENGTH = 10;
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int ZLIB_HEADER_LENGTH = 2;
+
+    private final ContentCodecFactory factory;
+
+    private final boolean gzip;
+
+    private final CRC32 crc;
+
+    private Inflater inflater;
+
+    private boolean nowrap;
+
+    private int state = HEADER;
+
+    /** Header or trailer bytes read so far */
+    private final byte[] header = new byte[GZIP_HEADER_LENGTH];
+
+    private int headerLength;
+
+    private int flags;
+
+    private int extraLength;
+
+    /** The current input, the bytes from the position to the limit are not read yet */
+    private byte[] in;
+
+    private int inPosition;
+
+    private int inLimit;
+
+    /** Whether the last inflate filled the output, the inflater may have more output without more input */
+    private boolean outputFull;
+
+    private boolean ended;
+
+    InflatingContentEncoder(ContentCodecFactory factory, ContentCoding coding) {
+        super(factory);
+        this.factory = factory;
+        this.gzip = coding == ContentCoding.GZIP;
+        this.crc = gzip ? new CRC32() : null;
+    }
+
+    @Override
+    protected boolean needsInput() {
+        if (state == DATA) {
+            return !outputFull && inflater.needsInput();
+        }
+        return inPosition == inLimit;
+    }
+
+    @Override
+    protected void setInput(byte[] b, int off, int len) {
+        in = b;
+        inPosition = off;
+        inLimit = off + len;
+        if (state == DATA) {
+            giveInput();
+        }
+    }
+
+    @Override
+    protected void endInput() {
+        ended = true;
+    }
+
+    @Override
+    protected void produce(ByteBuffer output) throws IOException {
+        while (state != DATA && inPosition < inLimit) {
+            if (state == TRAILER) {
+                readTrailer();
+            } else if (gzip) {
+                readGzipHeader();
+            } else {
+                readZlibHeader();
+            }
+        }
+        if (state == DATA) {
+            inflate(output);
+        }
+    }
+
+    @Override
+    protected boolean isFinished() {
+        // a truncated stream is completed with the bytes decompressed so far
+        return ended && needsInput();
+    }
+
+    @Override
+    protected void releaseCodec() {
+        if (inflater != null) {
+            factory.release(inflater, nowrap);
+            inflater = null;
+        }
+    }
+
+    private void inflate(ByteBuffer output) throws IOException {
+        int position = output.position();
+        try {
+            inflater.inflate(output);
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid " + (gzip ? "gzip" : "deflate") + " content", e);
+        }
+        if (inflater.needsDictionary()) {
+            throw new IOException("Invalid deflate content, a preset dictionary is not supported");
+        }
+        outputFull = !output.hasRemaining();
+        if (gzip) {
+            ByteBuffer inflated = output.duplicate();
+            inflated.flip();
+            inflated.position(position);
+            crc.update(inflated);
+        }
+        if (inflater.finished()) {
+            // the bytes the inflater did not use belong to the trailer
+            inPosition = inLimit - inflater.getRemaining();
+            outputFull = false;
+            headerLength = 0;
+            state = TRAILER;
+        }
+    }
+
+    private void readGzipHeader() throws IOException {
+        int b = in[inPosition++] & 0xff;
+        switch (state) {
+            case HEADER:
+                header[headerLength++] = (byte) b;
+                if (headerLength == 2 && (header[0] != 0x1f || (header[1] & 0xff) != 0x8b)) {
+                    throw new IOException("Invalid gzip content, not in the gzip format");
+                } else if (headerLength == GZIP_HEADER_LENGTH) {
+                    flags = header[3] & 0xff;
+                    nextHeaderField(EXTRA_LENGTH);
+                }
+                break;
+            case EXTRA_LENGTH:
+                // the length is in the little endian order
+                if (headerLength++ == 0) {
+                    extraLength = b;
+                } else {
+                    extraLength |= b << 8;
+                    if (extraLength == 0) {
+                        nextHeaderField(NAME);
+                    } else {
+                        state = EXTRA;
+                    }
+                }
+                break;
+            case EXTRA:
+                if (--extraLength == 0) {
+                    nextHeaderField(NAME);
+                }
+                break;
+            case NAME:
+                if (b == 0) {
+                    nextHeaderField(COMMENT);
+                }
+                break;
+            case COMMENT:
+                if (b == 0) {
+                    nextHeaderField(HEADER_CRC);
+                }
+                break;
+            case HEADER_CRC:
+                if (++headerLength == 2) {
+                    nextHeaderField(DATA);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Moves to the given header field, or to the next one if the header does not have it.
+     */
+    private void nextHeaderField(int field) {
+        headerLength = 0;
+        if (field == EXTRA_LENGTH && (flags & FEXTRA) == 0) {
+            field = NAME;
+        }
+        if (field == NAME && (flags & FNAME) == 0) {
+            field = COMMENT;
+        }
+        if (field == COMMENT && (flags & FCOMMENT) == 0) {
+            field = HEADER_CRC;
+        }
+        if (field == HEADER_CRC && (flags & FHCRC) == 0) {
+            field = DATA;
+        }
+        if (field == DATA) {
+            startData(true);
+        } else {
+            state = field;
+        }
+    }
+
+    private void readZlibHeader() {
+        if (headerLength == 0 && inLimit - inPosition >= ZLIB_HEADER_LENGTH) {
+            startData(!isZlibHeader(in[inPosition], in[inPosition + 1]));
+            return;
+        }
+        header[headerLength++] = in[inPosition++];
+        if (headerLength == ZLIB_HEADER_LENGTH) {
+            // the header was split between two writes of the pipe, the inflater takes it with the rest of the input
+            byte[] joined = new byte[ZLIB_HEADER_LENGTH + inLimit - inPosition];
+            System.arraycopy(header, 0, joined, 0, ZLIB_HEADER_LENGTH);
+            System.arraycopy(in, inPosition, joined, ZLIB_HEADER_LENGTH, inLimit - inPosition);
+            in = joined;
+            inPosition = 0;
+            inLimit = joined.length;
+            startData(!isZlibHeader(header[0], header[1]));
+        }
+    }
+
+    private static boolean isZlibHeader(byte first, byte second) {
+        int cmf = first & 0xff;
+        int flg = second & 0xff;
+        // a zlib header uses the deflate method and its two bytes are a multiple of 31
+        return (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    private void startData(boolean nowrap) {
+        if (inflater == null) {
+            this.nowrap = nowrap;
+            inflater = factory.getInflater(nowrap);
+        }
+        state = DATA;
+        giveInput();
+    }
+
+    private void giveInput() {
+        if (inPosition < inLimit) {
+            inflater.setInput(in, inPosition, inLimit - inPosition);
+            inPosition = inLimit;
+        }
+    }
+
+    private void readTrailer() throws IOException {
+        if (!gzip) {
+            // ignore anything after the end of a deflate stream
+            inPosition = inLimit;
+            return;
+        }
+        header[headerLength++] = in[inPosition++];
+        if (headerLength == GZIP_TRAILER_LENGTH) {
+            if (readInt(0) != (int) crc.getValue() || readInt(4) != (int) inflater.getBytesWritten()) {
+                throw new IOException("Invalid gzip content, corrupt trailer");
+            }
+            // another gzip member may follow
+            crc.reset();
+            inflater.reset();
+            headerLength = 0;
+            state = HEADER;
+        }
+    }
+
+    private int readInt(int offset) {
+        return (header[offset] & 0xff) | (header[offset + 1] & 0xff) << 8 | (header[offset + 2] & 0xff) << 16
+                | (header[offset + 3] & 0xff) << 24;
+    }
+}
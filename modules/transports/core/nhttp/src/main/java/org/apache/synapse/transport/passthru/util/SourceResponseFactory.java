@@ -69,6 +69,7 @@ public class SourceResponseFactory {
 	    if (forceContentLength && forceContentLengthCopy && msgContext.getProperty(PassThroughConstants.ORGINAL_CONTEN_LENGTH) != null
                 && !sourceConfiguration.isPreserveHttpHeader(HTTP.CONTENT_LEN)) {
 	    	 sourceResponse.addHeader(HTTP.CONTENT_LEN, (String)msgContext.getProperty(PassThroughConstants.ORGINAL_CONTEN_LENGTH));
+	    	 sourceResponse.setContentLengthForced(true);
 		}
 
         // When invoking http HEAD request esb set content length as 0 to response header. Since there is no message
@@ -0,0 +1,862 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+import org.apache.http.Header;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A case insensitive map of transport headers which wraps the headers of an httpcore message without copying them.
+ * The first header of each name is indexed in an open addressing table of case insensitive hashes, so that looking
+ * up, replacing and removing a header does not depend on the number of headers, and iterating the map walks the
+ * wrapped headers in the order of their names, the same way as a case insensitive <code>TreeMap</code>.
+ * </p>
+ * <p>
+ * The map is a <code>TreeMap</code>, as the transport headers of a message are expected to be one. Adding a new
+ * header, or any of the navigation methods, copies the headers into the tree once and the map then behaves as a
+ * plain <code>TreeMap</code>. {@link #copy()} shares the wrapped headers with the copy, so a request and its message
+ * context use the same headers until one of them is changed.
+ * </p>
+ */
+public final class TransportHeaderMap extends TreeMap<String, String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte REPLACED = 1;
+
+    private static final byte REMOVED = 2;
+
+    /** The wrapped headers, null once the headers are copied into the tree */
+    private Index index;
+
+    /** The state of each indexed header, null until a header is replaced or removed */
+    private byte[] states;
+
+    /** The replaced values of the indexed headers */
+    private String[] values;
+
+    /** The number of indexed headers which are not removed */
+    private int count;
+
+    private int modifications;
+
+    /**
+     * Creates an empty map.
+     */
+    public TransportHeaderMap() {
+        super(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    /**
+     * Creates a map which wraps the given headers. When a header name repeats, the first header is kept in the map
+     * and the others are put in the given excess headers map.
+     *
+     * @param headers       headers to wrap, may be null
+     * @param excessHeaders map to put the repeated headers in, may be null
+     */
+    @SuppressWarnings("unchecked")
+    public TransportHeaderMap(Header[] headers, Map excessHeaders) {
+        super(String.CASE_INSENSITIVE_ORDER);
+        if (headers == null || headers.length == 0) {
+            return;
+        }
+        int capacity = 8;
+        while (capacity < headers.length * 2) {
+            capacity <<= 1;
+        }
+        int mask = capacity - 1;
+        int[] table = new int[capacity];
+        int[] positions = new int[headers.length];
+        int[] hashes = new int[headers.length];
+        int distinct = 0;
+        for (int position = 0; position < headers.length; position++) {
+            String name = headers[position].getName();
+            int hash = hash(name);
+            int slot = spread(hash) & mask;
+            boolean repeated = false;
+            int entry;
+            while ((entry = table[slot]) != 0) {
+                if (hashes[entry - 1] == hash && headers[positions[entry - 1]].getName().equalsIgnoreCase(name)) {
+                    repeated = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (repeated) {
+                if (excessHeaders != null) {
+                    excessHeaders.put(name, headers[position].getValue());
+                }
+            } else {
+                positions[distinct] = position;
+                hashes[distinct] = hash;
+                table[slot] = ++distinct;
+            }
+        }
+        index = new Index(headers, positions, hashes, table, distinct);
+        count = distinct;
+    }
+
+    private TransportHeaderMap(TransportHeaderMap map) {
+        super(String.CASE_INSENSITIVE_ORDER);
+        index = map.index;
+        states = map.states != null ? map.states.clone() : null;
+        values = map.values != null ? map.values.clone() : null;
+        count = map.count;
+    }
+
+    /**
+     * Returns a copy of the given headers.
+     *
+     * @param headers headers to copy
+     * @return a transport header map with the same headers
+     */
+    public static TransportHeaderMap copyOf(Map<String, String> headers) {
+        if (headers instanceof TransportHeaderMap) {
+            return ((TransportHeaderMap) headers).copy();
+        }
+        TransportHeaderMap copy = new TransportHeaderMap();
+        copy.putAll(headers);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this map, which shares the wrapped headers with this map.
+     *
+     * @return copy of this map
+     */
+    public TransportHeaderMap copy() {
+        if (index != null) {
+            return new TransportHeaderMap(this);
+        }
+        TransportHeaderMap copy = new TransportHeaderMap();
+        copy.putAll(this);
+        return copy;
+    }
+
+    /**
+     * Hashes the name with the same case folding as <code>String.CASE_INSENSITIVE_ORDER</code>. Parsed header names
+     * are new strings, so the hash is computed for every header rather than cached for the well known names.
+     */
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < 128) {
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+            } else {
+                // the same folding as String.CASE_INSENSITIVE_ORDER
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return position of the header with the given name in the index, or -1 if there is no such header
+     */
+    private int find(Object key) {
+        String name = (String) key;
+        if (name == null) {
+            // the same as the comparator of the tree
+            throw new NullPointerException();
+        }
+        Index current = index;
+        int hash = hash(name);
+        int slot = spread(hash) & current.mask;
+        int entry;
+        while ((entry = current.table[slot]) != 0) {
+            int i = entry - 1;
+            if (current.hashes[i] == hash && current.name(i).equalsIgnoreCase(name)) {
+                return isRemoved(i) ? -1 : i;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+        return -1;
+    }
+
+    private boolean isRemoved(int i) {
+        return states != null && states[i] == REMOVED;
+    }
+
+    private String value(int i) {
+        return states != null && states[i] == REPLACED ? values[i] : index.value(i);
+    }
+
+    private String replace(int i, String value) {
+        String previous = value(i);
+        if (states == null) {
+            states = new byte[index.size];
+        }
+        if (values == null) {
+            values = new String[index.size];
+        }
+        states[i] = REPLACED;
+        values[i] = value;
+        return previous;
+    }
+
+    private void delete(int i) {
+        if (states == null) {
+            states = new byte[index.size];
+        }
+        states[i] = REMOVED;
+        if (values != null) {
+            values[i] = null;
+        }
+        count--;
+        modifications++;
+    }
+
+    /**
+     * Copies the wrapped headers into the tree, after which the map behaves as a plain tree map.
+     */
+    private void inflate() {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        for (int i = 0; i < current.size; i++) {
+            if (!isRemoved(i)) {
+                super.put(current.name(i), value(i));
+            }
+        }
+        index = null;
+        states = null;
+        values = null;
+        count = 0;
+        modifications++;
+    }
+
+    @Override
+    public int size() {
+        return index != null ? count : super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return index != null ? find(key) >= 0 : super.containsKey(key);
+    }
+
+    @Override
+    public String get(Object key) {
+        if (index != null) {
+            int i = find(key);
+            return i >= 0 ? value(i) : null;
+        }
+        return super.get(key);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        if (index != null) {
+            int i = find(key);
+            if (i >= 0) {
+                return replace(i, value);
+            }
+            inflate();
+        }
+        return super.put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        if (index != null) {
+            int i = find(key);
+            if (i < 0) {
+                return null;
+            }
+            String previous = value(i);
+            delete(i);
+            return previous;
+        }
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (index != null) {
+            index = null;
+            states = null;
+            values = null;
+            count = 0;
+            modifications++;
+        }
+        super.clear();
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (index != null) {
+            for (int i = 0; i < index.size; i++) {
+                if (!isRemoved(i) && Objects.equals(value, value(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return super.containsValue(value);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        if (index != null) {
+            HeaderIterator iterator = new HeaderIterator();
+            while (iterator.hasNext()) {
+                int i = iterator.nextIndex();
+                action.accept(index.name(i), value(i));
+            }
+            return;
+        }
+        super.forEach(action);
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return index != null ? new EntrySet() : super.entrySet();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return index != null ? new KeySet() : super.keySet();
+    }
+
+    @Override
+    public Collection<String> values() {
+        return index != null ? new Values() : super.values();
+    }
+
+    @Override
+    public Object clone() {
+        return copy();
+    }
+
+    private Object writeReplace() {
+        TreeMap<String, String> map = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(this);
+        return map;
+    }
+
+    // The remaining methods work on the tree
+
+    @Override
+    public String firstKey() {
+        inflate();
+        return super.firstKey();
+    }
+
+    @Override
+    public String lastKey() {
+        inflate();
+        return super.lastKey();
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> map) {
+        inflate();
+        super.putAll(map);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        inflate();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public String computeIfAbsent(String key, Function<? super String, ? extends String> mappingFunction) {
+        inflate();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public String computeIfPresent(String key,
+                                   BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        inflate();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        inflate();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value,
+                        BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        inflate();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public boolean replace(String key, String oldValue, String newValue) {
+        inflate();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public String replace(String key, String value) {
+        inflate();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super String, ? extends String> function) {
+        inflate();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public Map.Entry<String, String> firstEntry() {
+        inflate();
+        return super.firstEntry();
+    }
+
+    @Override
+    public Map.Entry<String, String> lastEntry() {
+        inflate();
+        return super.lastEntry();
+    }
+
+    @Override
+    public Map.Entry<String, String> pollFirstEntry() {
+        inflate();
+        return super.pollFirstEntry();
+    }
+
+    @Override
+    public Map.Entry<String, String> pollLastEntry() {
+        inflate();
+        return super.pollLastEntry();
+    }
+
+    @Override
+    public Map.Entry<String, String> lowerEntry(String key) {
+        inflate();
+        return super.lowerEntry(key);
+    }
+
+    @Override
+    public String lowerKey(String key) {
+        inflate();
+        return super.lowerKey(key);
+    }
+
+    @Override
+    public Map.Entry<String, String> floorEntry(String key) {
+        inflate();
+        return super.floorEntry(key);
+    }
+
+    @Override
+    public String floorKey(String key) {
+        inflate();
+        return super.floorKey(key);
+    }
+
+    @Override
+    public Map.Entry<String, String> ceilingEntry(String key) {
+        inflate();
+        return super.ceilingEntry(key);
+    }
+
+    @Override
+    public String ceilingKey(String key) {
+        inflate();
+        return super.ceilingKey(key);
+    }
+
+    @Override
+    public Map.Entry<String, String> higherEntry(String key) {
+        inflate();
+        return super.higherEntry(key);
+    }
+
+    @Override
+    public String higherKey(String key) {
+        inflate();
+        return super.higherKey(key);
+    }
+
+    @Override
+    public NavigableSet<String> navigableKeySet() {
+        inflate();
+        return super.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<String> descendingKeySet() {
+        inflate();
+        return super.descendingKeySet();
+    }
+
+    @Override
+    public NavigableMap<String, String> descendingMap() {
+        inflate();
+        return super.descendingMap();
+    }
+
+    @Override
+    public NavigableMap<String, String> subMap(String fromKey, boolean fromInclusive, String toKey,
+                                               boolean toInclusive) {
+        inflate();
+        return super.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<String, String> headMap(String toKey, boolean inclusive) {
+        inflate();
+        return super.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<String, String> tailMap(String fromKey, boolean inclusive) {
+        inflate();
+        return super.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<String, String> subMap(String fromKey, String toKey) {
+        inflate();
+        return super.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<String, String> headMap(String toKey) {
+        inflate();
+        return super.headMap(toKey);
+    }
+
+    @Override
+    public SortedMap<String, String> tailMap(String fromKey) {
+        inflate();
+        return super.tailMap(fromKey);
+    }
+
+    /**
+     * The wrapped headers and their index, shared by the copies of a map.
+     */
+    private static final class Index {
+
+        private final Header[] headers;
+
+        /** Positions of the first header of each name, in the order of arrival */
+        private final int[] positions;
+
+        /** Case insensitive hashes of the names */
+        private final int[] hashes;
+
+        /** Open addressing table of the names, holding the index of a name plus one */
+        private final int[] table;
+
+        private final int mask;
+
+        private final int size;
+
+        /** Indexes of the names in the order of the names, built on the first iteration */
+        private volatile int[] order;
+
+        Index(Header[] headers, int[] positions, int[] hashes, int[] table, int size) {
+            this.headers = headers;
+            this.positions = positions;
+            this.hashes = hashes;
+            this.table = table;
+            this.mask = table.length - 1;
+            this.size = size;
+        }
+
+        String name(int i) {
+            return headers[positions[i]].getName();
+        }
+
+        String value(int i) {
+            return headers[positions[i]].getValue();
+        }
+
+        int[] order() {
+            int[] sorted = order;
+            if (sorted == null) {
+                // binary insertion sort, there are a few tens of headers at most
+                sorted = new int[size];
+                for (int i = 0; i < size; i++) {
+                    String name = name(i);
+                    int low = 0;
+                    int high = i;
+                    while (low < high) {
+                        int middle = (low + high) >>> 1;
+                        if (String.CASE_INSENSITIVE_ORDER.compare(name(sorted[middle]), name) < 0) {
+                            low = middle + 1;
+                        } else {
+                            high = middle;
+                        }
+                    }
+                    System.arraycopy(sorted, low, sorted, low + 1, i - low);
+                    sorted[low] = i;
+                }
+                order = sorted;
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * Iterates the wrapped headers in the order of their names.
+     */
+    private class HeaderIterator {
+
+        private final int[] order = index.order();
+
+        private int next;
+
+        private int current = -1;
+
+        private int expectedModifications = modifications;
+
+        public boolean hasNext() {
+            checkForModification();
+            while (next < order.length && isRemoved(order[next])) {
+                next++;
+            }
+            return next < order.length;
+        }
+
+        int nextIndex() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = order[next++];
+            return current;
+        }
+
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            checkForModification();
+            delete(current);
+            current = -1;
+            expectedModifications = modifications;
+        }
+
+        private void checkForModification() {
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private final class EntryIterator extends HeaderIterator implements Iterator<Map.Entry<String, String>> {
+
+        @Override
+        public Map.Entry<String, String> next() {
+            return new HeaderEntry(nextIndex());
+        }
+    }
+
+    private final class KeyIterator extends HeaderIterator implements Iterator<String> {
+
+        @Override
+        public String next() {
+            return index.name(nextIndex());
+        }
+    }
+
+    private final class ValueIterator extends HeaderIterator implements Iterator<String> {
+
+        @Override
+        public String next() {
+            return value(nextIndex());
+        }
+    }
+
+    /**
+     * An entry of a wrapped header, which writes through to the map.
+     */
+    private final class HeaderEntry implements Map.Entry<String, String> {
+
+        private final Index entryIndex = index;
+
+        private final int i;
+
+        HeaderEntry(int i) {
+            this.i = i;
+        }
+
+        @Override
+        public String getKey() {
+            return entryIndex.name(i);
+        }
+
+        @Override
+        public String getValue() {
+            return index == entryIndex ? value(i) : get(getKey());
+        }
+
+        @Override
+        public String setValue(String value) {
+            if (index != entryIndex) {
+                throw new ConcurrentModificationException();
+            }
+            return replace(i, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * The views below work on the tree once the headers are copied into it.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return index != null ? new EntryIterator() : TransportHeaderMap.super.entrySet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return TransportHeaderMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Object key = entry.getKey();
+            return key instanceof String && containsKey(key) && Objects.equals(get(key), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            TransportHeaderMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            TransportHeaderMap.this.clear();
+        }
+    }
+
+    private final class KeySet extends AbstractSet<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return index != null ? new KeyIterator() : TransportHeaderMap.super.keySet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return TransportHeaderMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            TransportHeaderMap.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            TransportHeaderMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return index != null ? new ValueIterator() : TransportHeaderMap.super.values().iterator();
+        }
+
+        @Override
+        public int size() {
+            return TransportHeaderMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            TransportHeaderMap.this.clear();
+        }
+    }
+}
@@ -50,8 +50,15 @@ import java.security.PublicKey;
 import java.security.Security;
 import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CRLVerifierTest extends TestCase {
 
@@ -99,6 +106,121 @@ public class CRLVerifierTest extends TestCase {
         assertTrue(status == RevocationStatus.REVOKED);
     }
 
+    /**
+     * Concurrent handshakes of certificates from the same CA should share a single CRL download. A stub CRL
+     * responder is used in place of the CA's CRL server, it holds the download until every other thread has joined
+     * the in-flight lookup.
+     * @throws Exception
+     */
+    public void testConcurrentDownloadsAreCollapsed() throws Exception {
+
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+
+        Utils utils = new Utils();
+        X509Certificate realPeerCertificate = utils.getRealPeerCertificate();
+        KeyPair caKeyPair = utils.generateRSAKeyPair();
+        X509Certificate fakeCACert = utils.generateFakeRootCert(caKeyPair);
+        KeyPair peerKeyPair = utils.generateRSAKeyPair();
+        BigInteger revokedSerialNumber = BigInteger.valueOf(112);
+        final X509Certificate fakeRevokedCertificate = generateFakePeerCert(revokedSerialNumber,
+                peerKeyPair.getPublic(), caKeyPair.getPrivate(), fakeCACert, realPeerCertificate);
+        X509CRL x509CRL = createCRL(fakeCACert, caKeyPair.getPrivate(), revokedSerialNumber);
+
+        final int handshakes = 8;
+        final RevocationVerificationMetrics metrics = RevocationVerificationMetrics.getInstance();
+        final long collapsedBefore = metrics.getCollapsedLookupCount();
+        final StubCRLVerifier crlVerifier = new StubCRLVerifier(x509CRL) {
+            @Override
+            protected X509CRL downloadCRLFromWeb(String crlURL) {
+                long deadline = System.currentTimeMillis() + 10000;
+                while (metrics.getCollapsedLookupCount() - collapsedBefore < handshakes - 1
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.yield();
+                }
+                return super.downloadCRLFromWeb(crlURL);
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(handshakes);
+        try {
+            List<Future<RevocationStatus>> results = new ArrayList<Future<RevocationStatus>>();
+            for (int i = 0; i < handshakes; i++) {
+                results.add(executor.submit(new Callable<RevocationStatus>() {
+                    public RevocationStatus call() throws Exception {
+                        return crlVerifier.checkRevocationStatus(fakeRevokedCertificate, null);
+                    }
+                }));
+            }
+            for (Future<RevocationStatus> result : results) {
+                assertEquals(RevocationStatus.REVOKED, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("CRL should be downloaded once", 1, crlVerifier.downloads.get());
+    }
+
+    /**
+     * A cached CRL should be replaced in the background before its nextUpdate, without a handshake having to wait
+     * for the download.
+     * @throws Exception
+     */
+    public void testCRLIsRefreshedBeforeNextUpdate() throws Exception {
+
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+
+        Utils utils = new Utils();
+        KeyPair caKeyPair = utils.generateRSAKeyPair();
+        X509Certificate fakeCACert = utils.generateFakeRootCert(caKeyPair);
+        BigInteger revokedSerialNumber = BigInteger.valueOf(113);
+        X509CRL shortLivedCRL = createCRL(fakeCACert, caKeyPair.getPrivate(), revokedSerialNumber, 2000);
+        X509CRL nextCRL = createCRL(fakeCACert, caKeyPair.getPrivate(), revokedSerialNumber,
+                TestConstants.NEXT_UPDATE_PERIOD);
+
+        String crlUrl = "http://localhost/prefetch/fake-ca.crl";
+        StubCRLVerifier stubResponder = new StubCRLVerifier(nextCRL);
+        CRLCache cache = CRLCache.getCache(5, 5);
+        try {
+            cache.setCacheValue(crlUrl, shortLivedCRL, stubResponder);
+            assertSame(shortLivedCRL, cache.getCacheValue(crlUrl));
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (stubResponder.downloads.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("CRL should be downloaded by the background refresh", 1, stubResponder.downloads.get());
+            assertSame(nextCRL, cache.getCacheValue(crlUrl));
+        } finally {
+            cache.removeCacheValue(crlUrl);
+        }
+    }
+
+    /**
+     * When the CRL server keeps serving the cached CRL, the background refresh should back off to the retry interval
+     * instead of downloading it again at half of the remaining validity each time.
+     * @throws Exception
+     */
+    public void testSameCRLIsNotRefreshedRepeatedly() throws Exception {
+
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+
+        Utils utils = new Utils();
+        KeyPair caKeyPair = utils.generateRSAKeyPair();
+        X509Certificate fakeCACert = utils.generateFakeRootCert(caKeyPair);
+        X509CRL shortLivedCRL = createCRL(fakeCACert, caKeyPair.getPrivate(), BigInteger.valueOf(114), 2000);
+
+        String crlUrl = "http://localhost/prefetch/unchanged-ca.crl";
+        StubCRLVerifier stubResponder = new StubCRLVerifier(shortLivedCRL);
+        CRLCache cache = CRLCache.getCache(5, 5);
+        try {
+            cache.setCacheValue(crlUrl, shortLivedCRL, stubResponder);
+            Thread.sleep(2500);
+            assertEquals("The unchanged CRL should be downloaded once", 1, stubResponder.downloads.get());
+        } finally {
+            cache.removeCacheValue(crlUrl);
+        }
+    }
+
     /**
      * This will use Reflection to call getCrlDistributionPoints() private method in CRLVerifier.
      * @param certificate is a certificate with a proper CRLDistributionPoints extension.
@@ -129,13 +251,21 @@ public class CRLVerifierTest extends TestCase {
      */
     public static X509CRL createCRL(X509Certificate caCert, PrivateKey caPrivateKey, BigInteger revokedSerialNumber)
             throws Exception {
+        return createCRL(caCert, caPrivateKey, revokedSerialNumber, TestConstants.NEXT_UPDATE_PERIOD);
+    }
+
+    /**
+     * Creates a fake CRL for the fake CA which is valid for the given period.
+     */
+    public static X509CRL createCRL(X509Certificate caCert, PrivateKey caPrivateKey, BigInteger revokedSerialNumber,
+                                    long nextUpdatePeriod) throws Exception {
 
         JcaX509ExtensionUtils extUtils = new JcaX509ExtensionUtils();
         Date now = new Date();
         X500Name issuer = X500Name.getInstance(PrincipalUtil.getIssuerX509Principal(caCert).getEncoded());
         X509v2CRLBuilder builder = new X509v2CRLBuilder(issuer, new Date());
         builder.addCRLEntry(revokedSerialNumber, new Date(), 0);
-        builder.setNextUpdate(new Date(now.getTime() + TestConstants.NEXT_UPDATE_PERIOD));
+        builder.setNextUpdate(new Date(now.getTime() + nextUpdatePeriod));
         builder.addExtension(Extension.cRLDistributionPoints, false,
                 extUtils.createAuthorityKeyIdentifier(caCert));
         builder.addExtension(Extension.cRLNumber, false, new CRLNumber(BigInteger.valueOf(1)));
@@ -167,4 +297,23 @@ public class CRLVerifierTest extends TestCase {
                 .getCertificate(certificateHolder);
     }
 
+    /**
+     * Stands in for the CA's CRL server, serving the given CRL and counting the downloads.
+     */
+    private static class StubCRLVerifier extends CRLVerifier {
+
+        private final X509CRL crl;
+        private final AtomicInteger downloads = new AtomicInteger();
+
+        StubCRLVerifier(X509CRL crl) {
+            super(null);
+            this.crl = crl;
+        }
+
+        @Override
+        protected X509CRL downloadCRLFromWeb(String crlURL) {
+            downloads.incrementAndGet();
+            return crl;
+        }
+    }
 }
@@ -119,6 +119,29 @@ public class OCSPVerifierTest extends TestCase {
         assertTrue(status == RevocationStatus.REVOKED);
     }
 
+    /**
+     * Concurrent lookups are shared by the requests for the same certificate, which is identified by its issuer as
+     * well as its serial number, since certificates of different CAs may have the same serial number.
+     *
+     * @throws Exception
+     */
+    public void testLookupKeyIdentifiesTheIssuer() throws Exception {
+
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+
+        Utils utils = new Utils();
+        X509Certificate firstCACert = utils.generateFakeRootCert(utils.generateRSAKeyPair());
+        X509Certificate secondCACert = utils.generateFakeRootCert(utils.generateRSAKeyPair());
+        BigInteger serialNumber = BigInteger.valueOf(111);
+
+        Method getLookupKey = OCSPVerifier.class.getDeclaredMethod("getLookupKey", OCSPReq.class);
+        getLookupKey.setAccessible(true);
+        Object firstKey = getLookupKey.invoke(null, getOCSPRequest(firstCACert, serialNumber));
+        assertFalse(firstKey.equals(getLookupKey.invoke(null, getOCSPRequest(secondCACert, serialNumber))));
+        //Each request has its own nonce, which does not matter to the lookup.
+        assertEquals(firstKey, getLookupKey.invoke(null, getOCSPRequest(firstCACert, serialNumber)));
+    }
+
     /**
      * An OCSP request is made to be given to the fake CA. Reflection is used to call generateOCSPRequest(..) private
      * method in OCSPVerifier.
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.connections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+public class HostResolutionCacheTest {
+
+    private static final long TTL = 30000;
+
+    private static final long REFRESH_AHEAD = 5000;
+
+    private static final long BACKOFF = 10000;
+
+    /**
+     * A name service whose records are set by the test, counting the lookups.
+     */
+    private static class StubResolver implements HostResolver {
+
+        private final Map<String, InetAddress[]> records = new HashMap<String, InetAddress[]>();
+
+        private int lookups;
+
+        public InetAddress[] resolve(String hostName) throws UnknownHostException {
+            lookups++;
+            InetAddress[] addresses = records.get(hostName);
+            if (addresses == null) {
+                throw new UnknownHostException(hostName);
+            }
+            return addresses;
+        }
+    }
+
+    /**
+     * Runs the resolutions when the test asks for them.
+     */
+    private static class QueuedExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        int runAll() {
+            int count = tasks.size();
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+            return count;
+        }
+    }
+
+    private static class RecordingCallback implements HostResolutionCache.Callback {
+
+        private final List<InetAddress> addresses = new ArrayList<InetAddress>();
+
+        private UnknownHostException error;
+
+        public void resolved(InetAddress address) {
+            addresses.add(address);
+        }
+
+        public void failed(UnknownHostException e) {
+            error = e;
+        }
+    }
+
+    private final StubResolver resolver = new StubResolver();
+
+    private final QueuedExecutor executor = new QueuedExecutor();
+
+    private long now = 1000000;
+
+    private final HostResolutionCache cache = new HostResolutionCache(resolver, executor, TTL, REFRESH_AHEAD,
+            BACKOFF) {
+        long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    private static InetAddress address(String literal) throws UnknownHostException {
+        return InetAddress.getByName(literal);
+    }
+
+    private InetAddress resolve(String hostName) {
+        RecordingCallback callback = new RecordingCallback();
+        cache.resolve(hostName, callback);
+        Assert.assertNull(callback.error);
+        Assert.assertEquals("The host was not cached", 1, callback.addresses.size());
+        return callback.addresses.get(0);
+    }
+
+    @Test
+    public void testResolutionDoesNotBlockTheCaller() throws Exception {
+        resolver.records.put("backend", new InetAddress[]{address("10.0.0.1")});
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        cache.resolve("backend", first);
+        cache.resolve("backend", second);
+        Assert.assertTrue(first.addresses.isEmpty());
+        Assert.assertEquals(0, resolver.lookups);
+        Assert.assertNull(cache.getCachedAddress("backend"));
+
+        // the requests waiting for the host share a single lookup
+        Assert.assertEquals(1, executor.runAll());
+        Assert.assertEquals(1, resolver.lookups);
+        Assert.assertEquals(address("10.0.0.1"), first.addresses.get(0));
+        Assert.assertEquals(address("10.0.0.1"), second.addresses.get(0));
+
+        Assert.assertEquals(address("10.0.0.1"), resolve("backend"));
+        Assert.assertEquals(address("10.0.0.1"), cache.getCachedAddress("backend"));
+        Assert.assertEquals(0, executor.runAll());
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(3, cache.getMisses());
+        Assert.assertEquals(1, cache.getCachedHosts());
+    }
+
+    @Test
+    public void testAddressesAreRotated() throws Exception {
+        InetAddress[] addresses = {address("10.0.0.1"), address("10.0.0.2"), address("fd00::1")};
+        resolver.records.put("backend", addresses);
+        cache.getCachedAddress("backend");
+        executor.runAll();
+
+        Map<InetAddress, Integer> connections = new HashMap<InetAddress, Integer>();
+        for (int i = 0; i < 30; i++) {
+            InetAddress address = resolve("backend");
+            Integer count = connections.get(address);
+            connections.put(address, count == null ? 1 : count + 1);
+        }
+        Assert.assertEquals(3, connections.size());
+        for (InetAddress address : addresses) {
+            Assert.assertEquals(Integer.valueOf(10), connections.get(address));
+        }
+    }
+
+    @Test
+    public void testAddressesAreRefreshedBeforeExpiry() throws Exception {
+        resolver.records.put("backend", new InetAddress[]{address("10.0.0.1"), address("10.0.0.2")});
+        cache.getCachedAddress("backend");
+        executor.runAll();
+
+        now += TTL - REFRESH_AHEAD - 1;
+        resolve("backend");
+        Assert.assertEquals(0, executor.runAll());
+
+        // a request within the refresh-ahead time is served from the cache, the host is resolved again meanwhile
+        now += 1;
+        resolver.records.put("backend", new InetAddress[]{address("10.0.0.2"), address("10.0.0.3")});
+        resolve("backend");
+        resolve("backend");
+        Assert.assertEquals(1, executor.runAll());
+
+        // the address which disappeared is not given to new connections
+        now += TTL - 1;
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotEquals(address("10.0.0.1"), resolve("backend"));
+        }
+        Assert.assertEquals(1, cache.getRefreshes());
+        Assert.assertEquals(1, cache.getRemovedAddresses());
+        Assert.assertEquals(2, resolver.lookups);
+    }
+
+    @Test
+    public void testExpiredAddressesAreResolvedAgain() throws Exception {
+        resolver.records.put("backend", new InetAddress[]{address("10.0.0.1")});
+        cache.getCachedAddress("backend");
+        executor.runAll();
+
+        now += TTL;
+        resolver.records.put("backend", new InetAddress[]{address("10.0.0.9")});
+        RecordingCallback callback = new RecordingCallback();
+        cache.resolve("backend", callback);
+        Assert.assertTrue(callback.addresses.isEmpty());
+        executor.runAll();
+        Assert.assertEquals(address("10.0.0.9"), callback.addresses.get(0));
+    }
+
+    @Test
+    public void testIdleHostsAreEvicted() throws Exception {
+        resolver.records.put("idle", new InetAddress[]{address("10.0.0.1")});
+        resolver.records.put("busy", new InetAddress[]{address("10.0.0.2")});
+        cache.getCachedAddress("idle");
+        cache.getCachedAddress("busy");
+        executor.runAll();
+        Assert.assertEquals(2, cache.getCachedHosts());
+
+        now += TTL - REFRESH_AHEAD;
+        resolve("busy");
+        executor.runAll();
+        now += REFRESH_AHEAD;
+        resolve("busy");
+        Assert.assertEquals(1, cache.getCachedHosts());
+        Assert.assertEquals(1, cache.getEvictions());
+
+        // an evicted host is resolved again when it is requested
+        RecordingCallback callback = new RecordingCallback();
+        cache.resolve("idle", callback);
+        Assert.assertTrue(callback.addresses.isEmpty());
+        executor.runAll();
+        Assert.assertEquals(address("10.0.0.1"), callback.addresses.get(0));
+        Assert.assertEquals(2, cache.getCachedHosts());
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testFailedAddressIsSkipped() throws Exception {
+        resolver.records.put("backend", new InetAddress[]{address("10.0.0.1"), address("10.0.0.2")});
+        cache.getCachedAddress("backend");
+        executor.runAll();
+
+        cache.connectionFailed("backend", address("10.0.0.1"));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(address("10.0.0.2"), resolve("backend"));
+        }
+
+        // all the addresses are tried if all of them failed
+        cache.connectionFailed("backend", address("10.0.0.2"));
+        List<InetAddress> tried = new ArrayList<InetAddress>();
+        tried.add(resolve("backend"));
+        tried.add(resolve("backend"));
+        Assert.assertTrue(tried.contains(address("10.0.0.1")));
+        Assert.assertTrue(tried.contains(address("10.0.0.2")));
+
+        now += BACKOFF;
+        cache.connectionFailed("backend", address("10.0.0.2"));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(address("10.0.0.1"), resolve("backend"));
+        }
+        Assert.assertEquals(3, cache.getFailedConnections());
+    }
+
+    @Test
+    public void testResolutionFailure() throws Exception {
+        RecordingCallback callback = new RecordingCallback();
+        cache.resolve("unknown", callback);
+        executor.runAll();
+        Assert.assertTrue(callback.addresses.isEmpty());
+        Assert.assertNotNull(callback.error);
+
+        // a host which fails to refresh keeps its addresses until they expire
+        resolver.records.put("backend", new InetAddress[]{address("10.0.0.1")});
+        cache.getCachedAddress("backend");
+        executor.runAll();
+        resolver.records.remove("backend");
+        now += TTL - REFRESH_AHEAD;
+        resolve("backend");
+        executor.runAll();
+        resolve("backend");
+        Assert.assertEquals(0, executor.runAll());
+        Assert.assertEquals(2, cache.getResolutionFailures());
+
+        now += REFRESH_AHEAD;
+        callback = new RecordingCallback();
+        cache.resolve("backend", callback);
+        executor.runAll();
+        Assert.assertNotNull(callback.error);
+        Assert.assertEquals(3, cache.getResolutionFailures());
+    }
+
+    @Test
+    public void testHttpsRouteKeepsTheHostName() throws Exception {
+        String hostName = "secure.backend.example";
+        byte[] ipv4 = {10, 0, 0, 7};
+        byte[] ipv6 = address("fd00::7").getAddress();
+        // a resolver which only knows the raw addresses, as a DNS client library would give them
+        resolver.records.put(hostName, new InetAddress[]{InetAddress.getByAddress(ipv4), null,
+                InetAddress.getByAddress(ipv6)});
+        cache.getCachedAddress(hostName);
+        executor.runAll();
+
+        for (int i = 0; i < 2; i++) {
+            InetAddress address = resolve(hostName);
+            Assert.assertTrue(Arrays.equals(ipv4, address.getAddress())
+                    || Arrays.equals(ipv6, address.getAddress()));
+            // the remote address of a connection to an https route, as the SSL layer reads it
+            InetSocketAddress remoteAddress = new InetSocketAddress(address, 8243);
+            Assert.assertEquals(hostName, remoteAddress.getHostString());
+            Assert.assertEquals(hostName + ":8243", remoteAddress.getHostName() + ":" + remoteAddress.getPort());
+        }
+    }
+
+    @Test
+    public void testRejectedResolution() {
+        HostResolutionCache stopped = new HostResolutionCache(resolver, new Executor() {
+            public void execute(Runnable command) {
+                throw new java.util.concurrent.RejectedExecutionException();
+            }
+        }, TTL, REFRESH_AHEAD, BACKOFF);
+        RecordingCallback callback = new RecordingCallback();
+        stopped.resolve("backend", callback);
+        Assert.assertNotNull(callback.error);
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.util.HeapByteBufferAllocator;
+import org.apache.synapse.transport.passthru.Pipe;
+import org.apache.synapse.transport.passthru.SourceContext;
+import org.apache.synapse.transport.passthru.SourceResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+public class CodecContentEncoderTest {
+
+    private static final byte[] CONTENT = createContent();
+
+    private final ContentCodecFactory factory = new ContentCodecFactory(true, true, 1024, 6,
+            "text/*,application/json", new BufferFactory(1024, new HeapByteBufferAllocator(), 4), 2);
+
+    private static byte[] createContent() {
+        StringBuilder content = new StringBuilder("[");
+        for (int i = 0; i < 3000; i++) {
+            content.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"customer ")
+                    .append(Integer.toHexString(i * 7919)).append("\"}");
+        }
+        return content.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An encoder of a slow connection which takes a few bytes at a time.
+     */
+    private static class SlowEncoder implements ContentEncoder {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        private final int chunk;
+
+        private boolean completed;
+
+        SlowEncoder(int chunk) {
+            this.chunk = chunk;
+        }
+
+        public int write(ByteBuffer src) {
+            Assert.assertFalse("Written after completion", completed);
+            int length = Math.min(chunk, src.remaining());
+            for (int i = 0; i < length; i++) {
+                written.write(src.get());
+            }
+            return length;
+        }
+
+        public void complete() {
+            completed = true;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    /**
+     * Writes the content through the stage the same way the pipe does, a part at a time, and completes the stage
+     * once all of it is taken.
+     */
+    private static byte[] transfer(CodecContentEncoder codec, byte[] content, int part, int chunk)
+            throws IOException {
+        SlowEncoder encoder = new SlowEncoder(chunk);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        while (buffer.hasRemaining()) {
+            ByteBuffer src = buffer.duplicate();
+            src.limit(Math.min(buffer.limit(), buffer.position() + part));
+            int position = src.position();
+            int written = codec.attach(encoder).write(src);
+            Assert.assertEquals(src.position() - position, written);
+            buffer.position(src.position());
+        }
+        int writes = 0;
+        codec.attach(encoder).complete();
+        while (!codec.isCompleted()) {
+            codec.attach(encoder).write(ByteBuffer.allocate(0));
+            Assert.assertTrue("The stage is not completed", ++writes < 1000000);
+        }
+        Assert.assertTrue(encoder.isCompleted());
+        return encoder.written.toByteArray();
+    }
+
+    @Test
+    public void testGzipCompression() throws IOException {
+        for (int chunk : new int[]{1, 7, 100000}) {
+            byte[] compressed = transfer(factory.createCompressor(ContentCoding.GZIP), CONTENT, 3000, chunk);
+            Assert.assertTrue(compressed.length < CONTENT.length / 4);
+            Assert.assertArrayEquals(CONTENT, IOUtils.toByteArray(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        }
+    }
+
+    @Test
+    public void testDeflateCompression() throws IOException {
+        byte[] compressed = transfer(factory.createCompressor(ContentCoding.DEFLATE), CONTENT, 512, 64);
+        Assert.assertArrayEquals(CONTENT, IOUtils.toByteArray(
+                new InflaterInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testEmptyContent() throws IOException {
+        byte[] compressed = transfer(factory.createCompressor(ContentCoding.GZIP), new byte[0], 1, 3);
+        Assert.assertEquals(0, IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))).length);
+        Assert.assertEquals(0, transfer(factory.createDecompressor(ContentCoding.GZIP), new byte[0], 1, 3).length);
+    }
+
+    @Test
+    public void testGzipDecompression() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        // a header with the optional extra field, file name, comment and header crc
+        compressed.write(new byte[]{0x1f, (byte) 0x8b, 8, 2 | 4 | 8 | 16, 0, 0, 0, 0, 0, (byte) 0xff, 3, 0, 1, 2, 3,
+                'a', '.', 'j', 's', 'o', 'n', 0, 'c', 0, 0x12, 0x34});
+        compressed.write(rawGzipMember(CONTENT), 10, rawGzipMember(CONTENT).length - 10);
+        // a second member is decompressed after the first one
+        compressed.write(rawGzipMember("tail".getBytes(StandardCharsets.UTF_8)));
+
+        byte[] expected = (new String(CONTENT, StandardCharsets.UTF_8) + "tail").getBytes(StandardCharsets.UTF_8);
+        for (int part : new int[]{1, 13, 100000}) {
+            Assert.assertArrayEquals(expected, transfer(factory.createDecompressor(ContentCoding.GZIP),
+                    compressed.toByteArray(), part, 5000));
+        }
+        Assert.assertArrayEquals(expected, transfer(factory.createDecompressor(ContentCoding.GZIP),
+                compressed.toByteArray(), 4096, 3));
+    }
+
+    @Test
+    public void testDeflateDecompression() throws IOException {
+        ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+        DeflaterOutputStream out = new DeflaterOutputStream(zlib);
+        out.write(CONTENT);
+        out.close();
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        out = new DeflaterOutputStream(raw, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+        out.write(CONTENT);
+        out.close();
+
+        for (int part : new int[]{1, 1000}) {
+            Assert.assertArrayEquals(CONTENT, transfer(factory.createDecompressor(ContentCoding.DEFLATE),
+                    zlib.toByteArray(), part, 777));
+            Assert.assertArrayEquals(CONTENT, transfer(factory.createDecompressor(ContentCoding.DEFLATE),
+                    raw.toByteArray(), part, 777));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptGzipContent() throws IOException {
+        byte[] compressed = rawGzipMember(CONTENT);
+        compressed[compressed.length - 6]++;
+        transfer(factory.createDecompressor(ContentCoding.GZIP), compressed, 1000, 1000);
+    }
+
+    @Test
+    public void testNegotiation() {
+        Assert.assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("gzip, deflate, br"));
+        Assert.assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("*"));
+        Assert.assertEquals(ContentCoding.DEFLATE, ContentCoding.negotiate("gzip;q=0, deflate"));
+        Assert.assertEquals(ContentCoding.DEFLATE, ContentCoding.negotiate("GZIP; q=0.5, Deflate;q=0.8"));
+        Assert.assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("x-gzip"));
+        Assert.assertNull(ContentCoding.negotiate("identity"));
+        Assert.assertNull(ContentCoding.negotiate("*;q=0"));
+        Assert.assertNull(ContentCoding.negotiate(null));
+
+        Assert.assertTrue(ContentCoding.GZIP.isAcceptedBy(null));
+        Assert.assertTrue(ContentCoding.GZIP.isAcceptedBy("deflate, *"));
+        Assert.assertFalse(ContentCoding.GZIP.isAcceptedBy("deflate"));
+        Assert.assertFalse(ContentCoding.GZIP.isAcceptedBy("gzip;q=0, *"));
+        Assert.assertEquals(ContentCoding.GZIP, ContentCoding.forName(" x-gzip "));
+        Assert.assertNull(ContentCoding.forName("gzip, br"));
+    }
+
+    @Test
+    public void testCompressibleContent() {
+        Assert.assertTrue(factory.isCompressible("application/json; charset=UTF-8", -1));
+        Assert.assertTrue(factory.isCompressible("text/html", 2048));
+        Assert.assertTrue(factory.isCompressible("application/vnd.api+json", 2048));
+        Assert.assertFalse(factory.isCompressible("application/json", 100));
+        Assert.assertFalse(factory.isCompressible("text/event-stream", -1));
+        Assert.assertFalse(factory.isCompressible("image/png", -1));
+        Assert.assertFalse(factory.isCompressible(null, -1));
+    }
+
+    @Test
+    public void testReleaseOfDroppedResponse() throws Exception {
+        CountingBufferFactory bufferFactory = new CountingBufferFactory();
+        ContentCodecFactory codecFactory = new ContentCodecFactory(true, true, 1024, 6, "text/*",
+                bufferFactory, 2);
+        for (boolean compress : new boolean[]{true, false}) {
+            CodecContentEncoder codec = compress ? codecFactory.createCompressor(ContentCoding.GZIP)
+                    : codecFactory.createDecompressor(ContentCoding.GZIP);
+            byte[] content = compress ? CONTENT : rawGzipMember(CONTENT);
+            // the connection takes a part of the body before it is closed
+            ByteBuffer src = ByteBuffer.wrap(content, 0, content.length / 2);
+            SlowEncoder encoder = new SlowEncoder(100);
+            for (int i = 0; i < 10 && src.hasRemaining(); i++) {
+                codec.attach(encoder).write(src);
+            }
+            Assert.assertFalse(codec.isCompleted());
+            Assert.assertEquals(1, bufferFactory.outstanding);
+
+            SourceResponse response = new SourceResponse(null, 200, null);
+            Field codecField = SourceResponse.class.getDeclaredField("codec");
+            codecField.setAccessible(true);
+            codecField.set(response, codec);
+            SourceContext sourceContext = new SourceContext(null);
+            sourceContext.setResponse(response);
+            sourceContext.reset(true);
+            Assert.assertEquals("The buffer of the stage is not returned to the pool", 0,
+                    bufferFactory.outstanding);
+
+            // releasing again does not return the buffer twice
+            response.release();
+            Assert.assertEquals(0, bufferFactory.outstanding);
+            try {
+                codec.attach(encoder).write(ByteBuffer.wrap(content));
+                Assert.fail("A released stage is written");
+            } catch (IOException expected) {
+                // the buffer may already be used by another stage
+            }
+        }
+    }
+
+    @Test
+    public void testPendingOutputIsWrittenWithoutMoreInput() throws IOException {
+        // each compressed part is decompressed into far more bytes than the slow connection takes at a time
+        byte[] compressed = rawGzipMember(CONTENT);
+        CodecContentEncoder codec = factory.createDecompressor(ContentCoding.GZIP);
+        RecordingIOControl consumer = new RecordingIOControl();
+        Pipe pipe = new Pipe(new RecordingIOControl(), new ControlledByteBuffer(ByteBuffer.allocate(1024)), "test",
+                null);
+        pipe.attachConsumer(consumer);
+        PartDecoder decoder = new PartDecoder(compressed, 300);
+        SlowEncoder encoder = new SlowEncoder(100);
+
+        int events = 0;
+        consumer.outputSuspended = true;
+        while (!encoder.isCompleted()) {
+            if (consumer.outputSuspended) {
+                // the connection is written again only once the next part arrives from the backend
+                Assert.assertFalse("The output is suspended while the codec holds transformed bytes",
+                        codec.hasPendingOutput());
+                decoder.arrived = true;
+                pipe.produce(decoder);
+            }
+            pipe.consume(codec.attach(encoder));
+            Assert.assertTrue("The stage is not completed", ++events < 1000000);
+        }
+        Assert.assertArrayEquals(CONTENT, encoder.written.toByteArray());
+    }
+
+    /**
+     * Records whether the output of a connection is suspended.
+     */
+    private static class RecordingIOControl implements IOControl {
+
+        private boolean outputSuspended;
+
+        public void requestInput() {
+        }
+
+        public void suspendInput() {
+        }
+
+        public void requestOutput() {
+            outputSuspended = false;
+        }
+
+        public void suspendOutput() {
+            outputSuspended = true;
+        }
+
+        public void shutdown() {
+        }
+    }
+
+    /**
+     * A decoder which reads a part of the body each time one arrives, and finds the end of the body after the last
+     * part the same way as the end of a chunked body arrives after its last chunk.
+     */
+    private static class PartDecoder implements ContentDecoder {
+
+        private final ByteBuffer content;
+
+        private final int part;
+
+        private boolean arrived;
+
+        private boolean completed;
+
+        PartDecoder(byte[] content, int part) {
+            this.content = ByteBuffer.wrap(content);
+            this.part = part;
+        }
+
+        public int read(ByteBuffer dst) {
+            if (!arrived) {
+                return 0;
+            }
+            arrived = false;
+            if (!content.hasRemaining()) {
+                completed = true;
+                return -1;
+            }
+            int length = Math.min(Math.min(part, content.remaining()), dst.remaining());
+            ByteBuffer src = content.duplicate();
+            src.limit(src.position() + length);
+            dst.put(src);
+            content.position(content.position() + length);
+            return length;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    /**
+     * A buffer factory which counts the buffers taken out of it and not yet returned.
+     */
+    private static class CountingBufferFactory extends BufferFactory {
+
+        private int outstanding;
+
+        CountingBufferFactory() {
+            super(1024, new HeapByteBufferAllocator(), 4);
+        }
+
+        @Override
+        public ControlledByteBuffer getBuffer() {
+            outstanding++;
+            return super.getBuffer();
+        }
+
+        @Override
+        public void release(ControlledByteBuffer buffer) {
+            outstanding--;
+            super.release(buffer);
+        }
+    }
+
+    private static byte[] rawGzipMember(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(compressed);
+        out.write(content);
+        out.close();
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.synapse.transport.passthru.util;
+
+import org.apache.commons.collections.map.MultiValueMap;
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicLineParser;
+import org.apache.http.protocol.HTTP;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class TransportHeaderMapTest {
+
+    private static final Header[] HEADERS = {
+            new BasicHeader("Host", "localhost:8280"),
+            new BasicHeader("content-type", "application/json"),
+            new BasicHeader("Accept", "*/*"),
+            new BasicHeader("X-Custom", "one"),
+            new BasicHeader("Content-Length", "42"),
+            new BasicHeader("x-custom", "two"),
+            new BasicHeader("Cookie", "a=b"),
+            new BasicHeader("X-CUSTOM", "three"),
+            new BasicHeader("Über", "umlaut")
+    };
+
+    /**
+     * Builds the headers the way they were built before, with a case insensitive tree map.
+     */
+    private static TreeMap<String, String> expected(Header[] headers, Map excessHeaders) {
+        TreeMap<String, String> map = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : headers) {
+            if (map.containsKey(header.getName())) {
+                excessHeaders.put(header.getName(), header.getValue());
+            } else {
+                map.put(header.getName(), header.getValue());
+            }
+        }
+        return map;
+    }
+
+    private static void assertSameMap(Map<String, String> expected, Map<String, String> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(actual.keySet()));
+        Assert.assertEquals(new ArrayList<String>(expected.values()), new ArrayList<String>(actual.values()));
+        Assert.assertEquals(expected.toString(), actual.toString());
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    public void testSameAsTreeMap() {
+        MultiValueMap expectedExcess = new MultiValueMap();
+        MultiValueMap actualExcess = new MultiValueMap();
+        TreeMap<String, String> expected = expected(HEADERS, expectedExcess);
+        TransportHeaderMap actual = new TransportHeaderMap(HEADERS, actualExcess);
+
+        assertSameMap(expected, actual);
+        Assert.assertEquals(expectedExcess, actualExcess);
+        for (String name : new String[]{HTTP.CONTENT_TYPE, "CONTENT-TYPE", "host", "x-Custom", "üBER", "Missing",
+                "Content-Typ", ""}) {
+            Assert.assertEquals(name, expected.containsKey(name), actual.containsKey(name));
+            Assert.assertEquals(name, expected.get(name), actual.get(name));
+        }
+        Assert.assertTrue(actual.containsValue("umlaut"));
+        Assert.assertFalse(actual.containsValue("two"));
+    }
+
+    @Test
+    public void testParsedHeaders() {
+        // parsed header names are new strings, which are neither interned nor in the case of the constants
+        Header[] parsed = {
+                BasicLineParser.parseHeader("HOST: localhost:8280", null),
+                BasicLineParser.parseHeader("content-type: application/json", null),
+                BasicLineParser.parseHeader("Content-Length: 42", null),
+                BasicLineParser.parseHeader("CONTENT-TYPE: text/xml", null),
+                BasicLineParser.parseHeader("x-forwarded-for: 10.0.0.1", null),
+                BasicLineParser.parseHeader("SOAPAction: urn:mediate", null)
+        };
+        MultiValueMap expectedExcess = new MultiValueMap();
+        MultiValueMap actualExcess = new MultiValueMap();
+        TreeMap<String, String> expected = expected(parsed, expectedExcess);
+        TransportHeaderMap actual = new TransportHeaderMap(parsed, actualExcess);
+
+        assertSameMap(expected, actual);
+        Assert.assertEquals(expectedExcess, actualExcess);
+        for (String name : new String[]{HTTP.TARGET_HOST, HTTP.CONTENT_TYPE, HTTP.CONTENT_LEN, "X-Forwarded-For",
+                "soapaction", "Content-Encoding"}) {
+            Assert.assertEquals(name, expected.get(name), actual.get(name));
+        }
+        Assert.assertEquals("42", actual.remove(HTTP.CONTENT_LEN));
+        Assert.assertNull(actual.get("content-length"));
+    }
+
+    @Test
+    public void testChanges() {
+        TreeMap<String, String> expected = expected(HEADERS, new MultiValueMap());
+        TransportHeaderMap actual = new TransportHeaderMap(HEADERS, null);
+        TransportHeaderMap copy = actual.copy();
+
+        Assert.assertEquals(expected.put("CONTENT-TYPE", "text/xml"), actual.put("CONTENT-TYPE", "text/xml"));
+        Assert.assertEquals(expected.remove("host"), actual.remove("host"));
+        Assert.assertEquals(expected.remove("host"), actual.remove("host"));
+        Assert.assertEquals(expected.put("cookie", null), actual.put("cookie", null));
+        assertSameMap(expected, actual);
+
+        Iterator<String> keys = actual.keySet().iterator();
+        Iterator<String> expectedKeys = expected.keySet().iterator();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Assert.assertEquals(expectedKeys.next(), key);
+            if (key.equalsIgnoreCase(HTTP.CONTENT_LEN)) {
+                keys.remove();
+                expectedKeys.remove();
+            }
+        }
+        for (Map.Entry<String, String> entry : actual.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase("accept")) {
+                entry.setValue("application/xml");
+            }
+        }
+        expected.put("accept", "application/xml");
+        assertSameMap(expected, actual);
+
+        // a new header moves the headers into the tree
+        Assert.assertEquals(expected.put("X-New", "new"), actual.put("X-New", "new"));
+        assertSameMap(expected, actual);
+        Assert.assertEquals(expected.firstKey(), actual.firstKey());
+        Assert.assertEquals(expected.headMap("h"), actual.headMap("h"));
+
+        // the copy is not changed
+        assertSameMap(expected(HEADERS, new MultiValueMap()), copy);
+        Assert.assertEquals(copy, copy.clone());
+    }
+
+    @Test
+    public void testViewsAfterNewHeader() {
+        TransportHeaderMap actual = new TransportHeaderMap(HEADERS, null);
+        Collection<String> values = actual.values();
+        Iterator<Map.Entry<String, String>> entries = actual.entrySet().iterator();
+        entries.next();
+        actual.put("X-New", "new");
+        Assert.assertTrue(values.contains("new"));
+        Assert.assertEquals(actual.size(), values.size());
+        try {
+            entries.next();
+            Assert.fail("The iterator should fail after the map is changed");
+        } catch (java.util.ConcurrentModificationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEmptyAndCleared() {
+        TransportHeaderMap empty = new TransportHeaderMap(null, null);
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertNull(empty.get(HTTP.CONTENT_TYPE));
+
+        TransportHeaderMap actual = new TransportHeaderMap(HEADERS, null);
+        actual.clear();
+        Assert.assertTrue(actual.isEmpty());
+        actual.put(HTTP.CONTENT_TYPE, "text/plain");
+        Assert.assertEquals("text/plain", actual.get("content-type"));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        TransportHeaderMap actual = new TransportHeaderMap(HEADERS, null);
+        actual.remove("Cookie");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(actual);
+        out.close();
+        Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        Assert.assertTrue(copy instanceof TreeMap);
+        Assert.assertEquals(actual, copy);
+        Assert.assertEquals("application/json", ((Map) copy).get("CONTENT-TYPE"));
+    }
+}
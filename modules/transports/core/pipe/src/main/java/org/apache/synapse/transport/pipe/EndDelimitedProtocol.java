@@ -19,7 +19,8 @@
 package org.apache.synapse.transport.pipe;
 
 import java.io.ByteArrayOutputStream;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Queue;
 
 import org.apache.axis2.AxisFault;
@@ -54,7 +55,8 @@ import org.apache.axis2.transport.base.ParamUtils;
 public class EndDelimitedProtocol implements Protocol {
     private class ProtocolDecoderImpl implements ProtocolDecoder {
         private final ByteArrayOutputStream messageBuffer = new ByteArrayOutputStream();
-        private final Queue<byte[]> messages = new LinkedList<byte[]>();
+        private final Queue<byte[]> messages = new ArrayDeque<byte[]>();
+        private final byte[] scratch = new byte[4096];
         
         public ProtocolDecoderImpl() {}
         
@@ -64,8 +66,9 @@ public class EndDelimitedProtocol implements Protocol {
 
         public void decode(byte[] buf, int offset, int length) {
             byte delimiter = getDelimiter();
+            int end = offset + length;
             int start = offset;
-            for (int i=offset; i<length; i++) {
+            for (int i=offset; i<end; i++) {
                 if (buf[i] == delimiter) {
                     messageBuffer.write(buf, start, i-start);
                     start = i+1;
@@ -73,7 +76,46 @@ public class EndDelimitedProtocol implements Protocol {
                     messageBuffer.reset();
                 }
             }
-            messageBuffer.write(buf, start, length-start);
+            messageBuffer.write(buf, start, end-start);
+        }
+
+        /**
+         * Messages which are entirely contained in the buffer are copied out of it once.
+         * Only a message spanning several reads is accumulated in the message buffer.
+         */
+        @Override
+        public void decode(ByteBuffer buffer) {
+            byte delimiter = getDelimiter();
+            int start = buffer.position();
+            int end = buffer.limit();
+            for (int i=start; i<end; i++) {
+                if (buffer.get(i) == delimiter) {
+                    int length = i-start;
+                    byte[] message;
+                    if (messageBuffer.size() == 0) {
+                        message = new byte[length];
+                        buffer.get(message);
+                    } else {
+                        append(buffer, length);
+                        message = messageBuffer.toByteArray();
+                        messageBuffer.reset();
+                    }
+                    // skip the delimiter
+                    buffer.get();
+                    messages.add(message);
+                    start = i+1;
+                }
+            }
+            append(buffer, buffer.remaining());
+        }
+
+        private void append(ByteBuffer buffer, int length) {
+            while (length > 0) {
+                int chunk = Math.min(length, scratch.length);
+                buffer.get(scratch, 0, chunk);
+                messageBuffer.write(scratch, 0, chunk);
+                length -= chunk;
+            }
         }
 
         public byte[] getNext() {
@@ -0,0 +1,148 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.synapse.transport.pipe;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.ParameterInclude;
+import org.apache.axis2.transport.base.ParamUtils;
+
+/**
+ * Length prefixed protocol implementation.
+ * <p>
+ * In the length prefixed protocol each datagram is preceded by its length,
+ * encoded as an unsigned big endian integer. Unlike {@link EndDelimitedProtocol}
+ * datagrams may contain arbitrary byte sequences, and the decoder knows the size
+ * of each datagram up front, so the datagram is read straight into a byte array
+ * of the right size without scanning or accumulating the data.
+ * <p>
+ * This protocol recognizes the following optional parameters:
+ * <dl>
+ *   <dt>lengthFieldSize</dt>
+ *   <dd>The number of bytes of the length prefix. Must be 1, 2 or 4. Defaults to 4.</dd>
+ *   <dt>maxMessageSize</dt>
+ *   <dd>The largest datagram accepted, in bytes. A larger length prefix is treated
+ *       as a corrupted stream. Defaults to 16 MB.</dd>
+ * </dl>
+ * An example transport receiver configuration looks like:
+ * <pre>
+ * &lt;transportReceiver name="pipe" class="org.apache.synapse.transport.pipe.PipeListener">
+ *   &lt;parameter name="protocol">org.apache.synapse.transport.pipe.LengthPrefixedProtocol&lt;/parameter>
+ *   &lt;parameter name="lengthFieldSize">4&lt;/parameter>
+ * &lt;/transportReceiver></pre>
+ */
+public class LengthPrefixedProtocol implements Protocol {
+    private static final int DEFAULT_LENGTH_FIELD_SIZE = 4;
+    private static final int DEFAULT_MAX_MESSAGE_SIZE = 16 * 1024 * 1024;
+    
+    private class ProtocolDecoderImpl implements ProtocolDecoder {
+        private final Queue<byte[]> messages = new ArrayDeque<byte[]>();
+        private int lengthBytesRead;
+        private int length;
+        private byte[] message;
+        private int messageBytesRead;
+        
+        public ProtocolDecoderImpl() {}
+        
+        public boolean inputRequired() {
+            return messages.isEmpty();
+        }
+
+        public void decode(byte[] buf, int offset, int length) {
+            decode(ByteBuffer.wrap(buf, offset, length));
+        }
+
+        @Override
+        public void decode(ByteBuffer buffer) {
+            while (buffer.hasRemaining()) {
+                if (message == null) {
+                    length = (length << 8) | (buffer.get() & 0xFF);
+                    if (++lengthBytesRead == lengthFieldSize) {
+                        if (length < 0 || length > maxMessageSize) {
+                            throw new IllegalStateException("Datagram length " + (length & 0xFFFFFFFFL)
+                                    + " exceeds the maximum message size " + maxMessageSize);
+                        }
+                        lengthBytesRead = 0;
+                        if (length == 0) {
+                            // an empty datagram is complete without any more input
+                            messages.add(new byte[0]);
+                            continue;
+                        }
+                        message = new byte[length];
+                        messageBytesRead = 0;
+                        length = 0;
+                    } else {
+                        continue;
+                    }
+                }
+                int chunk = Math.min(buffer.remaining(), message.length - messageBytesRead);
+                buffer.get(message, messageBytesRead, chunk);
+                messageBytesRead += chunk;
+                if (messageBytesRead == message.length) {
+                    messages.add(message);
+                    message = null;
+                }
+            }
+        }
+
+        public byte[] getNext() {
+            return messages.poll();
+        }
+    }
+    
+    private int lengthFieldSize = DEFAULT_LENGTH_FIELD_SIZE;
+    private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+    
+    public void init(ParameterInclude paramInclude) throws AxisFault {
+        String lengthFieldSizeParam = ParamUtils.getOptionalParam(paramInclude, "lengthFieldSize");
+        if (lengthFieldSizeParam != null) {
+            setLengthFieldSize(Integer.parseInt(lengthFieldSizeParam.trim()));
+        }
+        String maxMessageSizeParam = ParamUtils.getOptionalParam(paramInclude, "maxMessageSize");
+        if (maxMessageSizeParam != null) {
+            setMaxMessageSize(Integer.parseInt(maxMessageSizeParam.trim()));
+        }
+    }
+
+    public int getLengthFieldSize() {
+        return lengthFieldSize;
+    }
+
+    public void setLengthFieldSize(int lengthFieldSize) throws AxisFault {
+        if (lengthFieldSize != 1 && lengthFieldSize != 2 && lengthFieldSize != 4) {
+            throw new AxisFault("Unsupported length field size " + lengthFieldSize + "; must be 1, 2 or 4");
+        }
+        this.lengthFieldSize = lengthFieldSize;
+    }
+
+    public int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    public void setMaxMessageSize(int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    public ProtocolDecoder createProtocolDecoder() {
+        return new ProtocolDecoderImpl();
+    }
+}
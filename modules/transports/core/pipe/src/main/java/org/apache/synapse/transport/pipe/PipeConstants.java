@@ -25,4 +25,7 @@ public class PipeConstants {
     private PipeConstants() {}
     
     public static final String NAME_KEY = "transport.pipe.name";
+    public static final String READ_BUFFER_SIZE_KEY = "transport.pipe.readBufferSize";
+    
+    public static final int DEFAULT_READ_BUFFER_SIZE = 64 * 1024;
 }
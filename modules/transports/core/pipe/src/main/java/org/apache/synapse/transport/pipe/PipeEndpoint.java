@@ -33,6 +33,7 @@ import org.apache.axis2.transport.base.datagram.DatagramEndpoint;
 public class PipeEndpoint extends DatagramEndpoint {
 	private File pipe;
 	private Protocol protocol;
+	private int readBufferSize = PipeConstants.DEFAULT_READ_BUFFER_SIZE;
 
 	public File getPipe() {
 		return pipe;
@@ -46,6 +47,10 @@ public class PipeEndpoint extends DatagramEndpoint {
         this.protocol = protocol;
     }
 
+    public int getReadBufferSize() {
+        return readBufferSize;
+    }
+
     @Override
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
         String name = ParamUtils.getOptionalParam(params, PipeConstants.NAME_KEY);
@@ -53,6 +58,10 @@ public class PipeEndpoint extends DatagramEndpoint {
             return false;
         }
         pipe = new File(name);
+        String readBufferSizeParam = ParamUtils.getOptionalParam(params, PipeConstants.READ_BUFFER_SIZE_KEY);
+        if (readBufferSizeParam != null) {
+            readBufferSize = Integer.parseInt(readBufferSizeParam.trim());
+        }
         return super.loadConfiguration(params);
     }
 
@@ -77,7 +77,8 @@ public class PipeEndpointListener implements Runnable {
 
     public void run() {
         running = true;
-        ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+        // The buffer is reused for every read; decoders copy each datagram out of it exactly once
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(endpoint.getReadBufferSize());
         try {
             while (true) {
                 ProtocolDecoder decoder;
@@ -85,6 +86,7 @@ public class PipeEndpointListener implements Runnable {
                 while (true) {
                     while (decoder.inputRequired()) {
                         int c;
+                        readBuffer.clear();
                         try {
                             c = readChannel.read(readBuffer);
                         } catch (IOException ex) {
@@ -100,11 +102,19 @@ public class PipeEndpointListener implements Runnable {
                                 return;
                             }
                         }
-                        decoder.decode(readBuffer.array(), 0, readBuffer.position());
-                        readBuffer.rewind();
+                        readBuffer.flip();
+                        try {
+                            decoder.decode(readBuffer);
+                        } catch (RuntimeException ex) {
+                            log.error("Error while decoding data from pipe " + endpoint.getPipe().getAbsolutePath() + "; shutting down listener", ex);
+                            return;
+                        }
+                    }
+                    // Dispatch all the datagrams decoded from the last read before reading again
+                    byte[] message;
+                    while ((message = decoder.getNext()) != null) {
+                        callback.receive(endpoint, message, message.length, null);
                     }
-                    byte[] message = decoder.getNext();
-                    callback.receive(endpoint, message, message.length, null);
                 }
             }
         }
@@ -18,6 +18,8 @@
  */
 package org.apache.synapse.transport.pipe;
 
+import java.nio.ByteBuffer;
+
 /**
  * Datagram stream decoder.
  * <p>
@@ -45,6 +47,30 @@ public interface ProtocolDecoder {
      */
     void decode(byte[] buf, int offset, int length);
     
+    /**
+     * Decode data from the stream.
+     * This method should be called after a call to {@link #inputRequired()} returned
+     * true. All remaining bytes of the buffer are consumed. The buffer is owned by the
+     * caller and will be reused once this method returns, so the decoder must not keep a
+     * reference to it.
+     * <p>
+     * The default implementation delegates to {@link #decode(byte[], int, int)}, copying
+     * the data first if the buffer is not backed by an array. Decoders should override it
+     * to read direct buffers without the intermediate copy.
+     * 
+     * @param buffer a buffer containing data from the stream between its position and limit
+     */
+    default void decode(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            byte[] buf = new byte[buffer.remaining()];
+            buffer.get(buf);
+            decode(buf, 0, buf.length);
+        }
+    }
+    
     /**
      * Get the next datagram.
      * This method should only be called after a call to {@link #inputRequired()} returned
@@ -3,6 +3,7 @@ package org.apache.synapse.transport.pipe;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
@@ -46,4 +47,42 @@ public class EndDelimitedProtocolTest extends TestCase {
             assertEquals(new String(expected, "us-ascii"), new String(actual, "us-ascii"));
         }
     }
+
+    public void testDirectBuffer() throws IOException {
+        byte delimiter = 10;
+        Random random = new Random();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<byte[]> messages = new LinkedList<byte[]>();
+        for (int i=0; i<200; i++) {
+            // mix of messages smaller and larger than the read buffer
+            int size = random.nextInt(i % 10 == 0 ? 4096 : 64);
+            byte[] data = new byte[size];
+            for (int j=0; j<size; j++) {
+                data[j] = (byte)(32 + random.nextInt(96));
+            }
+            out.write(data);
+            out.write(delimiter);
+            messages.add(data);
+        }
+        EndDelimitedProtocol protocol = new EndDelimitedProtocol();
+        protocol.setDelimiter(delimiter);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        ProtocolDecoder decoder = protocol.createProtocolDecoder();
+        byte[] chunk = new byte[1024];
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(1024);
+        int c;
+        while ((c = in.read(chunk)) != -1) {
+            readBuffer.clear();
+            readBuffer.put(chunk, 0, c);
+            readBuffer.flip();
+            decoder.decode(readBuffer);
+            assertFalse(readBuffer.hasRemaining());
+            byte[] actual;
+            while ((actual = decoder.getNext()) != null) {
+                byte[] expected = messages.remove(0);
+                assertEquals(new String(expected, "us-ascii"), new String(actual, "us-ascii"));
+            }
+        }
+        assertTrue("Expected " + messages.size() + " more messages", messages.isEmpty());
+    }
 }
@@ -0,0 +1,92 @@
+package org.apache.synapse.transport.pipe;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class LengthPrefixedProtocolTest extends TestCase {
+    public void test() throws Exception {
+        for (int lengthFieldSize : new int[] { 2, 4 }) {
+            decode(lengthFieldSize, 64, false);
+            decode(lengthFieldSize, 1024, true);
+            decode(lengthFieldSize, 7, true);
+        }
+    }
+
+    public void testMessageTooLarge() throws Exception {
+        LengthPrefixedProtocol protocol = new LengthPrefixedProtocol();
+        protocol.setMaxMessageSize(16);
+        ProtocolDecoder decoder = protocol.createProtocolDecoder();
+        try {
+            decoder.decode(new byte[] { 0, 0, 0, 17 }, 0, 4);
+            fail("Expected the length prefix to be rejected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testEmptyMessage() throws Exception {
+        LengthPrefixedProtocol protocol = new LengthPrefixedProtocol();
+        ProtocolDecoder decoder = protocol.createProtocolDecoder();
+        // the empty datagram is the last thing in the input, and is not held back until more input arrives
+        decoder.decode(new byte[] { 0, 0, 0, 1, 42, 0, 0, 0, 0 }, 0, 9);
+        assertFalse(decoder.inputRequired());
+        assertTrue(Arrays.equals(new byte[] { 42 }, decoder.getNext()));
+        assertEquals(0, decoder.getNext().length);
+        assertNull(decoder.getNext());
+        assertTrue(decoder.inputRequired());
+
+        decoder.decode(new byte[] { 0, 0 }, 0, 2);
+        assertTrue(decoder.inputRequired());
+        decoder.decode(new byte[] { 0, 0 }, 0, 2);
+        assertEquals(0, decoder.getNext().length);
+    }
+
+    private void decode(int lengthFieldSize, int readBufferSize, boolean direct) throws Exception {
+        Random random = new Random();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<byte[]> messages = new LinkedList<byte[]>();
+        for (int i=0; i<100; i++) {
+            int size = random.nextInt(i % 10 == 0 ? 4096 : 128);
+            byte[] data = new byte[size];
+            // arbitrary bytes, including what would be a delimiter in other protocols
+            random.nextBytes(data);
+            writeLength(out, size, lengthFieldSize);
+            out.write(data);
+            messages.add(data);
+        }
+        LengthPrefixedProtocol protocol = new LengthPrefixedProtocol();
+        protocol.setLengthFieldSize(lengthFieldSize);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        ProtocolDecoder decoder = protocol.createProtocolDecoder();
+        byte[] chunk = new byte[readBufferSize];
+        ByteBuffer readBuffer = direct ? ByteBuffer.allocateDirect(readBufferSize) : ByteBuffer.allocate(readBufferSize);
+        int c;
+        while ((c = in.read(chunk)) != -1) {
+            readBuffer.clear();
+            readBuffer.put(chunk, 0, c);
+            readBuffer.flip();
+            decoder.decode(readBuffer);
+            assertFalse(readBuffer.hasRemaining());
+            byte[] actual;
+            while ((actual = decoder.getNext()) != null) {
+                byte[] expected = messages.remove(0);
+                assertTrue(Arrays.equals(expected, actual));
+            }
+        }
+        assertTrue("Expected " + messages.size() + " more messages", messages.isEmpty());
+        assertTrue(decoder.inputRequired());
+    }
+
+    private static void writeLength(ByteArrayOutputStream out, int length, int lengthFieldSize) throws IOException {
+        for (int i=lengthFieldSize-1; i>=0; i--) {
+            out.write((length >>> (8*i)) & 0xFF);
+        }
+    }
+}
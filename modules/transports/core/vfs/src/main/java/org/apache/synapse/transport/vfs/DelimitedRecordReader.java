@@ -0,0 +1,100 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link RecordReader} of records which are separated by a delimiter, such as the lines of a CSV file or of a
+ * newline delimited JSON file. Empty records are skipped.
+ */
+class DelimitedRecordReader extends RecordReader {
+
+    private final byte[] delimiter;
+
+    /** Whether a carriage return in front of the delimiter belongs to the delimiter as well */
+    private final boolean lines;
+
+    DelimitedRecordReader(InputStream in, long offset, byte[] delimiter, boolean lines) {
+        super(in, offset);
+        this.delimiter = delimiter;
+        this.lines = lines;
+    }
+
+    @Override
+    byte[] next() throws IOException {
+        byte last = delimiter[delimiter.length - 1];
+        int b;
+        while ((b = read()) != -1) {
+            append(b);
+            if ((byte) b != last || !endsWithDelimiter()) {
+                continue;
+            }
+            int length = recordLength() - delimiter.length;
+            if (lines && length > 0 && record()[length - 1] == '\r') {
+                length--;
+            }
+            if (length == 0) {
+                discardRecord();
+                continue;
+            }
+            return takeRecord(length);
+        }
+        // the last record need not be terminated
+        int length = recordLength();
+        if (lines && length > 0 && record()[length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            discardRecord();
+            return null;
+        }
+        return takeRecord(length);
+    }
+
+    @Override
+    byte[] join(Iterable<byte[]> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean first = true;
+        for (byte[] record : records) {
+            if (!first) {
+                out.write(delimiter, 0, delimiter.length);
+            }
+            out.write(record, 0, record.length);
+            first = false;
+        }
+        return out.toByteArray();
+    }
+
+    private boolean endsWithDelimiter() {
+        int length = recordLength();
+        if (length < delimiter.length) {
+            return false;
+        }
+        byte[] record = record();
+        for (int i = 0, j = length - delimiter.length; i < delimiter.length; i++, j++) {
+            if (record[j] != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Keeps the state of a polled directory between polls so that an incrementally scanned
+ * {@link PollTableEntry} is only handed the entries which are new or have changed since they were last
+ * processed, instead of every file in the directory.
+ *
+ * Local directories are watched through a {@link java.nio.file.WatchService}, other file systems are listed
+ * on every poll but are checked against the listing cache of the previous polls.
+ */
+abstract class DirectoryScanner {
+
+    private static final Log log = LogFactory.getLog(DirectoryScanner.class);
+
+    private static final String LOCAL_FILE_SCHEME = "file";
+
+    /**
+     * Creates the scanner which suits the file system of the given directory.
+     *
+     * @param entry     the poll table entry which is scanned incrementally
+     * @param directory the polled directory
+     * @return the scanner for the directory
+     */
+    static DirectoryScanner create(PollTableEntry entry, FileObject directory) {
+        if (LOCAL_FILE_SCHEME.equals(directory.getName().getScheme())) {
+            try {
+                File localDirectory = new File(directory.getURL().toURI());
+                if (localDirectory.isDirectory()) {
+                    return new WatchServiceDirectoryScanner(localDirectory.toPath());
+                }
+            } catch (Exception e) {
+                log.warn("Unable to watch the directory : " + directory.getName().getFriendlyURI()
+                        + ", falling back to the listing cache", e);
+            }
+        }
+        File cacheFile = entry.getListingCacheFile() != null ? new File(entry.getListingCacheFile()) : null;
+        return new ListingCacheDirectoryScanner(cacheFile);
+    }
+
+    /**
+     * Returns the children of the directory which should be looked at in this poll.
+     *
+     * @param directory the polled directory
+     * @return the new or changed children, never null
+     * @throws FileSystemException if the directory cannot be read
+     */
+    abstract FileObject[] scan(FileObject directory) throws FileSystemException;
+
+    /**
+     * Marks the given child as processed, it will not be handed out again unless it changes. This may be invoked
+     * from the threads which process the files of the entry in parallel.
+     *
+     * @param child a child returned by the last scan
+     */
+    abstract void processed(FileObject child);
+
+    /**
+     * Invoked at the end of each poll.
+     */
+    void complete() {
+    }
+
+    /**
+     * Releases the resources held by the scanner.
+     */
+    void close() {
+    }
+
+    static String nameOf(FileObject child) {
+        return child.getName().getBaseName();
+    }
+
+    static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.debug("Error while closing the directory scanner resources", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.synapse.commons.vfs.VFSConstants;
+import org.apache.synapse.transport.vfs.VFSTransportErrorHandler.LogType;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorts the files of a polled directory according to the {@link VFSConstants#FILE_SORT_PARAM} of the poll table
+ * entry. The size or last modified time of each file is read once before sorting, rather than on every comparison.
+ */
+final class FileSorter {
+
+    private static final Log log = LogFactory.getLog(FileSorter.class);
+
+    private static final Comparator<FileObject> NAME_ASC = new Comparator<FileObject>() {
+        public int compare(FileObject o1, FileObject o2) {
+            return o1.getName().compareTo(o2.getName());
+        }
+    };
+
+    private static final Comparator<FileObject> NAME_DES = new Comparator<FileObject>() {
+        public int compare(FileObject o1, FileObject o2) {
+            return o2.getName().compareTo(o1.getName());
+        }
+    };
+
+    private static final Comparator<SortKey> KEY_ASC = new Comparator<SortKey>() {
+        public int compare(SortKey o1, SortKey o2) {
+            return Long.compare(o1.key, o2.key);
+        }
+    };
+
+    private static final Comparator<SortKey> KEY_DES = new Comparator<SortKey>() {
+        public int compare(SortKey o1, SortKey o2) {
+            return Long.compare(o2.key, o1.key);
+        }
+    };
+
+    private FileSorter() {
+    }
+
+    /**
+     * Sorts the given files in place.
+     *
+     * @param files     files to be sorted
+     * @param sortParam one of the {@link VFSConstants} FILE_SORT_VALUE_* values
+     * @param ascending whether to sort in the ascending order
+     */
+    static void sort(FileObject[] files, String sortParam, boolean ascending) {
+        if (VFSConstants.FILE_SORT_VALUE_NAME.equals(sortParam)) {
+            Arrays.sort(files, ascending ? NAME_ASC : NAME_DES);
+            return;
+        }
+
+        boolean bySize;
+        if (VFSConstants.FILE_SORT_VALUE_SIZE.equals(sortParam)) {
+            bySize = true;
+        } else if (VFSConstants.FILE_SORT_VALUE_LASTMODIFIEDTIMESTAMP.equals(sortParam)) {
+            bySize = false;
+        } else {
+            return;
+        }
+
+        SortKey[] keys = new SortKey[files.length];
+        for (int i = 0; i < files.length; i++) {
+            keys[i] = new SortKey(files[i], readKey(files[i], bySize));
+        }
+        Arrays.sort(keys, ascending ? KEY_ASC : KEY_DES);
+        for (int i = 0; i < keys.length; i++) {
+            files[i] = keys[i].file;
+        }
+    }
+
+    private static long readKey(FileObject file, boolean bySize) {
+        try {
+            FileContent content = file.getContent();
+            return bySize ? content.getSize() : content.getLastModifiedTime();
+        } catch (FileSystemException e) {
+            String message = "Unable to read the " + (bySize ? "size" : "lastmodified timestamp")
+                    + " of the file to sort it.";
+            VFSTransportErrorHandler.logException(log, LogType.WARN, message, e);
+            return 0;
+        }
+    }
+
+    private static final class SortKey {
+
+        private final FileObject file;
+        private final long key;
+
+        private SortKey(FileObject file, long key) {
+            this.file = file;
+            this.key = key;
+        }
+    }
+}
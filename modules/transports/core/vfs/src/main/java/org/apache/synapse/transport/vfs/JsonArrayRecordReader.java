@@ -0,0 +1,126 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link RecordReader} of the elements of a top level JSON array. The elements are not parsed, the reader only
+ * tracks the nesting and the strings of the document so that it can tell where an element ends. A batch of
+ * elements is joined into a JSON array of its own.
+ */
+class JsonArrayRecordReader extends RecordReader {
+
+    /** Whether the opening bracket of the array has been read, which is the case when resuming */
+    private boolean started;
+
+    private boolean ended;
+
+    JsonArrayRecordReader(InputStream in, long offset) {
+        super(in, offset);
+        this.started = offset > 0;
+    }
+
+    @Override
+    byte[] next() throws IOException {
+        if (ended) {
+            return null;
+        }
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        int b;
+        while ((b = read()) != -1) {
+            if (!started) {
+                if (b == '[') {
+                    started = true;
+                } else if (!isWhitespace(b)) {
+                    throw new IOException("Expected a JSON array but found '" + (char) b + "' at offset "
+                            + (getOffset() - 1));
+                }
+                continue;
+            }
+            if (inString) {
+                append(b);
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                    if (depth == 0) {
+                        return takeRecord(recordLength());
+                    }
+                }
+                continue;
+            }
+            if (depth == 0 && (b == ',' || b == ']' || isWhitespace(b))) {
+                // in between the elements or at the end of a number, boolean or null element
+                if (b == ']') {
+                    ended = true;
+                }
+                if (recordLength() > 0) {
+                    return takeRecord(recordLength());
+                }
+                if (ended) {
+                    return null;
+                }
+                continue;
+            }
+            append(b);
+            if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return takeRecord(recordLength());
+                }
+            }
+        }
+        if (recordLength() > 0 && (depth > 0 || inString)) {
+            throw new IOException("Unexpected end of the JSON array at offset " + getOffset());
+        }
+        ended = true;
+        return recordLength() > 0 ? takeRecord(recordLength()) : null;
+    }
+
+    @Override
+    byte[] join(Iterable<byte[]> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        boolean first = true;
+        for (byte[] record : records) {
+            if (!first) {
+                out.write(',');
+            }
+            out.write(record, 0, record.length);
+            first = false;
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
@@ -0,0 +1,149 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * {@link DirectoryScanner} of a directory which cannot be watched. The directory is listed on every poll and each
+ * file is compared against the size and last modified time it had when it was processed, which the remote file
+ * system providers already get along with the listing. Files which were processed and did not change since are not
+ * handed out again.
+ *
+ * If a cache file is given, the processed entries are kept in it so that they survive a restart.
+ */
+class ListingCacheDirectoryScanner extends DirectoryScanner {
+
+    private static final Log log = LogFactory.getLog(ListingCacheDirectoryScanner.class);
+
+    private final File cacheFile;
+
+    /** Base name of the processed entries against their size and last modified time at the time */
+    private final Properties processedEntries = new Properties();
+
+    private boolean dirty;
+
+    ListingCacheDirectoryScanner(File cacheFile) {
+        this.cacheFile = cacheFile;
+        load();
+    }
+
+    @Override
+    synchronized FileObject[] scan(FileObject directory) throws FileSystemException {
+        FileObject[] children = directory.getChildren();
+        List<FileObject> candidates = new ArrayList<FileObject>();
+        Set<String> listed = new HashSet<String>(children.length * 2);
+        for (FileObject child : children) {
+            String name = nameOf(child);
+            listed.add(name);
+            String processed = processedEntries.getProperty(name);
+            if (processed == null) {
+                candidates.add(child);
+            } else if (child.getType() == FileType.FILE && !processed.equals(snapshotOf(child))) {
+                candidates.add(child);
+            }
+        }
+        // forget the entries which have been moved or deleted
+        if (processedEntries.keySet().retainAll(listed)) {
+            dirty = true;
+        }
+        return candidates.toArray(new FileObject[candidates.size()]);
+    }
+
+    @Override
+    synchronized void processed(FileObject child) {
+        try {
+            processedEntries.setProperty(nameOf(child), snapshotOf(child));
+        } catch (FileSystemException e) {
+            processedEntries.remove(nameOf(child));
+        }
+        dirty = true;
+    }
+
+    @Override
+    synchronized void complete() {
+        if (!dirty || cacheFile == null) {
+            return;
+        }
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            log.warn("Unable to create the directory of the VFS listing cache : " + cacheFile);
+            return;
+        }
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            processedEntries.store(out, null);
+            out.close();
+            out = null;
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Unable to store the VFS listing cache : " + cacheFile, e);
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    @Override
+    synchronized void close() {
+        complete();
+    }
+
+    private void load() {
+        if (cacheFile == null || !cacheFile.exists()) {
+            return;
+        }
+        InputStream in = null;
+        try {
+            in = new FileInputStream(cacheFile);
+            processedEntries.load(in);
+        } catch (IOException e) {
+            log.warn("Unable to load the VFS listing cache : " + cacheFile + ", the directory will be scanned fully", e);
+            processedEntries.clear();
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private static String snapshotOf(FileObject child) throws FileSystemException {
+        FileContent content = child.getContent();
+        return content.getSize() + ":" + content.getLastModifiedTime();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool which processes the files of a single {@link PollTableEntry} in parallel. The polling thread blocks
+ * once the configured number of files are being processed, so the files are locked and handed over no faster than
+ * they can be processed.
+ */
+class ParallelFileProcessor {
+
+    private final int parallelism;
+
+    private final Semaphore permits;
+
+    private final ExecutorService executor;
+
+    ParallelFileProcessor(final String name, int parallelism) {
+        this.parallelism = parallelism;
+        this.permits = new Semaphore(parallelism);
+        this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "vfs-file-processor-" + name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Hands the given task over to the pool, waiting for a free slot if all of them are busy.
+     *
+     * @param task the task which processes a file
+     * @throws InterruptedException if the polling thread was interrupted while waiting
+     * @throws RejectedExecutionException if the pool has been shut down
+     */
+    void execute(final Runnable task) throws InterruptedException {
+        permits.acquire();
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until all the files handed over so far have been processed.
+     *
+     * @throws InterruptedException if the polling thread was interrupted while waiting
+     */
+    void awaitCompletion() throws InterruptedException {
+        permits.acquire(parallelism);
+        permits.release(parallelism);
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
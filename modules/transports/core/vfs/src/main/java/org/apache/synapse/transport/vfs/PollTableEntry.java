@@ -38,6 +38,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -116,6 +117,11 @@ public class PollTableEntry extends AbstractPollTableEntry {
     
     private Integer fileProcessingCount;
 
+    private int fileProcessingParallelism = 1;
+
+    /** Processes the files of a poll in parallel when the parallelism is more than one */
+    private ParallelFileProcessor fileProcessor;
+
     private Map<String, String> vfsSchemeProperties;
     private boolean autoLockRelease;
 
@@ -153,6 +159,27 @@ public class PollTableEntry extends AbstractPollTableEntry {
     private Long minimumAge = null; //defines a minimum age of a file before being consumed. Use to avoid just written files to be consumed
     private Long maximumAge = null; //defines a maximum age of a file being consumed. Old files will stay in the directory
 
+    private boolean incrementalScan;
+
+    private String listingCacheFile;
+
+    /** Keeps the state of the directory between polls when scanning incrementally */
+    private DirectoryScanner directoryScanner;
+
+    /** How the files are split into records, null if each file is a single message */
+    private String recordSplitMode;
+
+    private String recordDelimiter;
+
+    private int recordBatchSize = VFSConstants.DEFAULT_RECORD_BATCH_SIZE;
+
+    private int recordBatchConcurrency = 1;
+
+    private String recordCheckpointDirectory;
+
+    /** Mediates the record batches of the files when the batch concurrency is more than one */
+    private ExecutorService recordBatchExecutor;
+
     
     public PollTableEntry(boolean fileLocking) {
         this.fileLocking = fileLocking;
@@ -263,6 +290,18 @@ public class PollTableEntry extends AbstractPollTableEntry {
 		return fileProcessingCount;
 	}
 
+    public int getFileProcessingParallelism() {
+        return fileProcessingParallelism;
+    }
+
+    ParallelFileProcessor getFileProcessor() {
+        return fileProcessor;
+    }
+
+    void setFileProcessor(ParallelFileProcessor fileProcessor) {
+        this.fileProcessor = fileProcessor;
+    }
+
 	private void setMoveAfterProcess(String moveAfterProcess) throws AxisFault {
         if (moveAfterProcess == null) {
             this.moveAfterProcess = null;
@@ -548,6 +587,54 @@ public class PollTableEntry extends AbstractPollTableEntry {
     public Long getMaximumAge() {
         return maximumAge;
     }
+
+    public boolean isIncrementalScan() {
+        return incrementalScan;
+    }
+
+    public String getListingCacheFile() {
+        return listingCacheFile;
+    }
+
+    DirectoryScanner getDirectoryScanner() {
+        return directoryScanner;
+    }
+
+    void setDirectoryScanner(DirectoryScanner directoryScanner) {
+        this.directoryScanner = directoryScanner;
+    }
+
+    public boolean isRecordSplitting() {
+        return recordSplitMode != null;
+    }
+
+    public String getRecordSplitMode() {
+        return recordSplitMode;
+    }
+
+    public String getRecordDelimiter() {
+        return recordDelimiter;
+    }
+
+    public int getRecordBatchSize() {
+        return recordBatchSize;
+    }
+
+    public int getRecordBatchConcurrency() {
+        return recordBatchConcurrency;
+    }
+
+    public String getRecordCheckpointDirectory() {
+        return recordCheckpointDirectory;
+    }
+
+    ExecutorService getRecordBatchExecutor() {
+        return recordBatchExecutor;
+    }
+
+    void setRecordBatchExecutor(ExecutorService recordBatchExecutor) {
+        this.recordBatchExecutor = recordBatchExecutor;
+    }
     
     @Override
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
@@ -754,6 +841,19 @@ public class PollTableEntry extends AbstractPollTableEntry {
                 }
             }
 
+            String strFileProcessingParallelism = ParamUtils.getOptionalParam(params,
+                                                                              VFSConstants.TRANSPORT_FILE_PARALLELISM);
+            fileProcessingParallelism = 1;
+            if (strFileProcessingParallelism != null) {
+                try {
+                    fileProcessingParallelism = Math.max(1, Integer.parseInt(strFileProcessingParallelism));
+                } catch (NumberFormatException nfe) {
+                    String message = "VFS File Processing Parallelism not set correctly. Current value is : "
+                            + strFileProcessingParallelism;
+                    VFSTransportErrorHandler.logException(log, LogType.WARN, message, nfe);
+                }
+            }
+
             String strMinimumAge = ParamUtils.getOptionalParam(params, VFSConstants.TRANSPORT_FILE_MINIMUM_AGE);
             if(strMinimumAge != null){
                 try {
@@ -868,6 +968,69 @@ public class PollTableEntry extends AbstractPollTableEntry {
             }
 
             subfolderTimestamp = ParamUtils.getOptionalParam(params, VFSConstants.SUBFOLDER_TIMESTAMP);
+
+            String strScanMode = ParamUtils.getOptionalParam(params, VFSConstants.TRANSPORT_FILE_SCAN_MODE);
+            incrementalScan = false;
+            if (strScanMode != null) {
+                if (VFSConstants.SCAN_MODE_INCREMENTAL.equalsIgnoreCase(strScanMode)) {
+                    incrementalScan = true;
+                } else if (!VFSConstants.SCAN_MODE_FULL.equalsIgnoreCase(strScanMode)) {
+                    log.warn("VFS scan mode is invalid : " + strScanMode + ". Using "
+                            + VFSConstants.SCAN_MODE_FULL + " scan mode.");
+                }
+            }
+            listingCacheFile = ParamUtils.getOptionalParam(params, VFSConstants.TRANSPORT_FILE_LISTING_CACHE_FILE);
+
+            String strRecordSplitMode = ParamUtils.getOptionalParam(params,
+                                                                    VFSConstants.TRANSPORT_FILE_RECORD_SPLIT_MODE);
+            recordSplitMode = null;
+            if (strRecordSplitMode != null) {
+                if (VFSConstants.RECORD_SPLIT_MODE_LINE.equalsIgnoreCase(strRecordSplitMode)) {
+                    recordSplitMode = VFSConstants.RECORD_SPLIT_MODE_LINE;
+                } else if (VFSConstants.RECORD_SPLIT_MODE_DELIMITER.equalsIgnoreCase(strRecordSplitMode)) {
+                    recordSplitMode = VFSConstants.RECORD_SPLIT_MODE_DELIMITER;
+                } else if (VFSConstants.RECORD_SPLIT_MODE_JSON_ARRAY.equalsIgnoreCase(strRecordSplitMode)) {
+                    recordSplitMode = VFSConstants.RECORD_SPLIT_MODE_JSON_ARRAY;
+                } else {
+                    VFSTransportErrorHandler.handleException(log, "VFS record split mode is invalid : "
+                            + strRecordSplitMode);
+                }
+            }
+            recordDelimiter = ParamUtils.getOptionalParam(params, VFSConstants.TRANSPORT_FILE_RECORD_DELIMITER);
+            if (VFSConstants.RECORD_SPLIT_MODE_DELIMITER.equals(recordSplitMode)
+                    && (recordDelimiter == null || recordDelimiter.isEmpty())) {
+                VFSTransportErrorHandler.handleException(log, VFSConstants.TRANSPORT_FILE_RECORD_DELIMITER
+                        + " is required for the " + VFSConstants.RECORD_SPLIT_MODE_DELIMITER + " record split mode");
+            }
+
+            String strRecordBatchSize = ParamUtils.getOptionalParam(params,
+                                                                    VFSConstants.TRANSPORT_FILE_RECORD_BATCH_SIZE);
+            recordBatchSize = VFSConstants.DEFAULT_RECORD_BATCH_SIZE;
+            if (strRecordBatchSize != null) {
+                try {
+                    recordBatchSize = Math.max(1, Integer.parseInt(strRecordBatchSize));
+                } catch (NumberFormatException nfe) {
+                    String message = "VFS Record Batch Size not set correctly. Current value is : "
+                            + strRecordBatchSize;
+                    VFSTransportErrorHandler.logException(log, LogType.WARN, message, nfe);
+                }
+            }
+
+            String strRecordBatchConcurrency = ParamUtils.getOptionalParam(params,
+                                                                           VFSConstants.TRANSPORT_FILE_RECORD_CONCURRENCY);
+            recordBatchConcurrency = 1;
+            if (strRecordBatchConcurrency != null) {
+                try {
+                    recordBatchConcurrency = Math.max(1, Integer.parseInt(strRecordBatchConcurrency));
+                } catch (NumberFormatException nfe) {
+                    String message = "VFS Record Batch Concurrency not set correctly. Current value is : "
+                            + strRecordBatchConcurrency;
+                    VFSTransportErrorHandler.logException(log, LogType.WARN, message, nfe);
+                }
+            }
+            recordCheckpointDirectory = ParamUtils.getOptionalParam(params,
+                    VFSConstants.TRANSPORT_FILE_RECORD_CHECKPOINT_DIRECTORY);
+
             this.clusterAware = ParamUtils.getOptionalParamBoolean(params, VFSConstants.CLUSTER_AWARE, false);
             return super.loadConfiguration(params);
         }
@@ -0,0 +1,202 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.vfs.VFSUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Keeps the offset up to which a file which is split into records has been processed. Batches may complete out of
+ * order when they are mediated concurrently, so the offset only moves past a batch once all the batches in front of
+ * it have completed as well.
+ *
+ * If a checkpoint directory is given, the offset is stored in it after every batch so that the file is resumed from
+ * there after a restart, as long as the file has the same size and last modified time.
+ */
+class RecordCheckpoint {
+
+    private static final Log log = LogFactory.getLog(RecordCheckpoint.class);
+
+    private static final String URI = "uri";
+    private static final String SIZE = "size";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String OFFSET = "offset";
+
+    private final File checkpointFile;
+
+    private final String fileURI;
+
+    private final long size;
+
+    private final long lastModified;
+
+    /** End offsets of the completed batches which are waiting for the batches in front of them */
+    private final TreeMap<Long, Long> completed = new TreeMap<Long, Long>();
+
+    private long nextBatch;
+
+    private long offset;
+
+    private RecordCheckpoint(File checkpointFile, String fileURI, long size, long lastModified) {
+        this.checkpointFile = checkpointFile;
+        this.fileURI = fileURI;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Opens the checkpoint of the given file, picking up the offset it was processed up to earlier if any.
+     *
+     * @param directory    the directory of the checkpoints, null if they should not be stored
+     * @param fileURI      the URI of the file
+     * @param size         the current size of the file
+     * @param lastModified the current last modified time of the file
+     * @return the checkpoint of the file
+     */
+    static RecordCheckpoint open(String directory, String fileURI, long size, long lastModified) {
+        // the checkpoint is kept against the masked URI so that no password ends up in it
+        String maskedURI = VFSUtils.maskURLPassword(fileURI);
+        File checkpointFile = directory != null ? new File(directory, checkpointNameOf(maskedURI)) : null;
+        RecordCheckpoint checkpoint = new RecordCheckpoint(checkpointFile, maskedURI, size, lastModified);
+        checkpoint.load();
+        return checkpoint;
+    }
+
+    /**
+     * @return the offset from which the file should be read
+     */
+    synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Records the completion of a batch.
+     *
+     * @param batch     the index of the batch, starting from zero for the first batch read in this run
+     * @param endOffset the offset in the file just past the last record of the batch
+     */
+    synchronized void completed(long batch, long endOffset) {
+        completed.put(batch, endOffset);
+        boolean moved = false;
+        Long next;
+        while ((next = completed.remove(nextBatch)) != null) {
+            offset = next;
+            nextBatch++;
+            moved = true;
+        }
+        if (moved) {
+            store();
+        }
+    }
+
+    /**
+     * Removes the checkpoint once the whole file has been processed.
+     */
+    synchronized void clear() {
+        if (checkpointFile != null && checkpointFile.exists() && !checkpointFile.delete()) {
+            log.warn("Unable to delete the VFS record checkpoint : " + checkpointFile);
+        }
+    }
+
+    private void load() {
+        if (checkpointFile == null || !checkpointFile.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(checkpointFile);
+            properties.load(in);
+            if (fileURI.equals(properties.getProperty(URI))
+                    && String.valueOf(size).equals(properties.getProperty(SIZE))
+                    && String.valueOf(lastModified).equals(properties.getProperty(LAST_MODIFIED))) {
+                offset = Long.parseLong(properties.getProperty(OFFSET, "0"));
+                if (log.isDebugEnabled()) {
+                    log.debug("Resuming " + fileURI + " from offset " + offset);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Unable to load the VFS record checkpoint : " + checkpointFile
+                    + ", the file will be processed from the beginning", e);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid VFS record checkpoint : " + checkpointFile
+                    + ", the file will be processed from the beginning", e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private void store() {
+        if (checkpointFile == null) {
+            return;
+        }
+        File parent = checkpointFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            log.warn("Unable to create the directory of the VFS record checkpoint : " + checkpointFile);
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(URI, fileURI);
+        properties.setProperty(SIZE, String.valueOf(size));
+        properties.setProperty(LAST_MODIFIED, String.valueOf(lastModified));
+        properties.setProperty(OFFSET, String.valueOf(offset));
+        File tempFile = new File(checkpointFile.getPath() + ".tmp");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            properties.store(out, null);
+            out.close();
+            out = null;
+            Files.move(tempFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Unable to store the VFS record checkpoint : " + checkpointFile, e);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private static String checkpointNameOf(String fileURI) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fileURI.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + 11);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.append(".checkpoint").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import org.apache.synapse.commons.vfs.VFSConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads the records of a file one after the other, so that a file of any size can be split into batches without
+ * holding more than a batch in memory. The stream is read in chunks and the reader keeps track of the offset in the
+ * file up to which the records have been returned, which is where a later read should start from in order to resume.
+ */
+abstract class RecordReader {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final InputStream in;
+
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    /** Offset in the file of the next byte which will be read */
+    private long offset;
+
+    /** The record which is currently being read */
+    private byte[] record = new byte[256];
+
+    private int recordLength;
+
+    RecordReader(InputStream in, long offset) {
+        this.in = in;
+        this.offset = offset;
+    }
+
+    /**
+     * Creates the reader for the split mode of the given entry.
+     *
+     * @param entry   the poll table entry which splits its files into records
+     * @param in      the stream of the file positioned at the given offset
+     * @param offset  the offset in the file at which the stream is positioned
+     * @param charset the charset of the file, used to encode the configured delimiter
+     * @return the reader of the records
+     */
+    static RecordReader create(PollTableEntry entry, InputStream in, long offset, Charset charset) {
+        String mode = entry.getRecordSplitMode();
+        if (VFSConstants.RECORD_SPLIT_MODE_JSON_ARRAY.equals(mode)) {
+            return new JsonArrayRecordReader(in, offset);
+        } else if (VFSConstants.RECORD_SPLIT_MODE_DELIMITER.equals(mode)) {
+            return new DelimitedRecordReader(in, offset, entry.getRecordDelimiter().getBytes(charset), false);
+        }
+        return new DelimitedRecordReader(in, offset, new byte[] {'\n'}, true);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the content of the record or null if there are no more records
+     * @throws IOException if the file cannot be read or is not well formed
+     */
+    abstract byte[] next() throws IOException;
+
+    /**
+     * Returns the offset in the file just past the last record returned by {@link #next()}.
+     *
+     * @return the offset at which the reading should be resumed
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Builds the content of a message out of a batch of records.
+     *
+     * @param records the records of the batch
+     * @return the content of the message
+     */
+    abstract byte[] join(Iterable<byte[]> records);
+
+    /**
+     * Reads the next byte of the file.
+     *
+     * @return the byte or -1 at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    final int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(chunk, 0, CHUNK_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        offset++;
+        return chunk[position++] & 0xff;
+    }
+
+    final void append(int b) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, recordLength * 2);
+        }
+        record[recordLength++] = (byte) b;
+    }
+
+    final byte[] record() {
+        return record;
+    }
+
+    final int recordLength() {
+        return recordLength;
+    }
+
+    /**
+     * Completes the current record and starts a new one.
+     *
+     * @param length the number of bytes of the current record which belong to it
+     * @return a copy of the record
+     */
+    final byte[] takeRecord(int length) {
+        byte[] value = Arrays.copyOf(record, length);
+        recordLength = 0;
+        return value;
+    }
+
+    final void discardRecord() {
+        recordLength = 0;
+    }
+}
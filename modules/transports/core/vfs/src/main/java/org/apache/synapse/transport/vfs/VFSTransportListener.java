@@ -38,6 +38,7 @@ import org.apache.axis2.transport.base.ManagementSupport;
 import org.apache.axis2.transport.base.threads.WorkerPool;
 import org.apache.axis2.util.GracefulShutdownTimer;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.AutoCloseInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -62,19 +63,27 @@ import org.wso2.securevault.SecureVaultException;
 import org.wso2.securevault.commons.MiscellaneousUtil;
 import org.apache.synapse.transport.vfs.VFSTransportErrorHandler.LogType;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.text.SimpleDateFormat;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.mail.internet.ContentType;
 import javax.mail.internet.ParseException;
@@ -296,6 +305,7 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
             return;
         }
         inFlightMessages.incrementAndGet();
+        DirectoryScanner scanner = null;
 
         try {
             if (fileObject.exists() && fileObject.isReadable()) {
@@ -303,8 +313,15 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                 entry.setFileNotFoundLogged(false);
                 entry.setLastPollState(PollTableEntry.NONE);
                 FileObject[] children = null;
+                boolean nothingChanged = false;
                 try {
-                    children = fileObject.getChildren();
+                    if (entry.isIncrementalScan() && fileObject.getType() == FileType.FOLDER) {
+                        scanner = getDirectoryScanner(entry, fileObject);
+                        children = scanner.scan(fileObject);
+                        nothingChanged = children.length == 0;
+                    } else {
+                        children = fileObject.getChildren();
+                    }
                     for (FileObject child : children) {
                         child.setIsMounted(fileObject.getIsMounted());
                     }
@@ -314,8 +331,12 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                     VFSTransportErrorHandler.logException(log, LogType.ERROR, ex.getMessage(), serviceName, ex);
                 }
 
-                // if this is a file that would translate to a single message
-                if (children == null || children.length == 0) {
+                if (nothingChanged) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("No new or changed files in : " + VFSUtils.maskURLPassword(fileURI));
+                    }
+                } else if (children == null || children.length == 0) {
+                    // if this is a file that would translate to a single message
                     boolean isFailedRecord = false;
                     if (entry.getMoveAfterMoveFailure() != null) {
                         isFailedRecord = isFailedRecord(fileObject, entry);
@@ -404,8 +425,8 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                     }
 
                 } else {
-                    int failCount = 0;
-                    int successCount = 0;
+                    AtomicInteger failCount = new AtomicInteger();
+                    AtomicInteger successCount = new AtomicInteger();
                     int processCount = 0;
                     Integer iFileProcessingInterval = entry.getFileProcessingInterval();
                     Integer iFileProcessingCount = entry.getFileProcessingCount();
@@ -422,29 +443,11 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                             log.debug("Sorting the files by : " + strSortParam + ". ("
                                     + bSortOrderAsscending + ")");
                         }
-                        if (strSortParam.equals(VFSConstants.FILE_SORT_VALUE_NAME)
-                                && bSortOrderAsscending) {
-                            Arrays.sort(children, new FileNameAscComparator());
-                        } else if (strSortParam.equals(VFSConstants.FILE_SORT_VALUE_NAME)
-                                && !bSortOrderAsscending) {
-                            Arrays.sort(children, new FileNameDesComparator());
-                        } else if (strSortParam.equals(VFSConstants.FILE_SORT_VALUE_SIZE)
-                                && bSortOrderAsscending) {
-                            Arrays.sort(children, new FileSizeAscComparator());
-                        } else if (strSortParam.equals(VFSConstants.FILE_SORT_VALUE_SIZE)
-                                && !bSortOrderAsscending) {
-                            Arrays.sort(children, new FileSizeDesComparator());
-                        } else if (strSortParam
-                                .equals(VFSConstants.FILE_SORT_VALUE_LASTMODIFIEDTIMESTAMP)
-                                && bSortOrderAsscending) {
-                            Arrays.sort(children, new FileLastmodifiedtimestampAscComparator());
-                        } else if (strSortParam
-                                .equals(VFSConstants.FILE_SORT_VALUE_LASTMODIFIEDTIMESTAMP)
-                                && !bSortOrderAsscending) {
-                            Arrays.sort(children, new FileLastmodifiedtimestampDesComparator());
-                        }
+                        FileSorter.sort(children, strSortParam, bSortOrderAsscending);
                         log.debug("End Sorting the files.");
-                    }                 
+                    }
+                    // files are processed in parallel only when their order does not matter
+                    ParallelFileProcessor fileProcessor = strSortParam == null ? getFileProcessor(entry) : null;
                     for (FileObject child : children) {
                         // Stop processing any further when put to maintenance mode (shutting down or restarting),
                         // when service get undeployed, or the proxy is stopped
@@ -460,7 +463,8 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                             continue;
                         }
                         //skipping files depending on size limitation
-                        if (entry.getFileSizeLimit() >= 0 && child.getContent().getSize() > entry.getFileSizeLimit()) {
+                        if (entry.getFileSizeLimit() >= 0 && !entry.isRecordSplitting()
+                                && child.getContent().getSize() > entry.getFileSizeLimit()) {
                             if (log.isDebugEnabled()) {
                                 log.debug("Ignoring file - " + child.getName().getBaseName() + " size - " +
                                           child.getContent().getSize() + " since it exceeds file size limit - " +
@@ -488,7 +492,8 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                                 continue;
                             }
                         }
-                        
+
+                        boolean dispatched = false;
                         if(entry.getFileNamePattern()!=null &&
                                 child.getName().getBaseName().matches(entry.getFileNamePattern())){
                             //child's file name matches the file name pattern
@@ -504,66 +509,20 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                             if (log.isDebugEnabled()) {
                                 log.debug("Matching file : " + child.getName().getBaseName());
                             }
-                            boolean runPostProcess = true;
                             if((!entry.isFileLockingEnabled()
                                     || (entry.isFileLockingEnabled()
                                         && acquireLock(getFsManager(), child, entry, fso, true)))
                                     && !isFailedRecord){
                                 //process the file
-                                try {
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Processing file :"
-                                        		+ VFSUtils.maskURLPassword(child.toString()));
-                                    }
-                                    processCount++;
-
-                                    if (child.getType() == FileType.FILE) {
-                                        boolean status = processFile(entry, child);
-                                        if (status) {
-                                            successCount++;
-                                            entry.setLastPollState(PollTableEntry.SUCCSESSFUL);
-                                        } else {
-                                            entry.setLastPollState(PollTableEntry.FAILED);
-                                        }
-                                        metrics.incrementMessagesReceived();
-                                    } else {
-                                        runPostProcess = false;
-                                    }
-                                } catch (Exception e) {
-                                    if (e.getCause() instanceof FileNotFoundException) {
-                                        log.warn("Error processing File URI : " +
-                                                 VFSUtils.maskURLPassword(child.getName().toString()) +
-                                                 ". This can be due to file moved from another process.");
-                                        runPostProcess = false;
-                                    } else {
-                                        logException("Error processing File URI : " +
-                                                     VFSUtils.maskURLPassword(child.getName().getURI()), e);
-                                        failCount++;
-                                        // tell moveOrDeleteAfterProcessing() file failed
-                                        entry.setLastPollState(PollTableEntry.FAILED);
-                                        metrics.incrementFaultsReceiving();
-                                    }
-                                }
-                                //skipping un-locking file if failed to do delete/move after process
-                                boolean skipUnlock = false;
-                                if (runPostProcess) {
-                                    try {
-                                        moveOrDeleteAfterProcessing(entry, child, fso);
-                                    } catch (AxisFault axisFault) {
-                                        logException(
-                                                "File object '" + VFSUtils.maskURLPassword(child.getURL().toString()) +
-                                                "'cloud not be moved, will remain in \"locked\" state", axisFault);
-                                        skipUnlock = true;
-                                        failCount++;
-                                        entry.setLastPollState(PollTableEntry.FAILED);
-                                        String timeStamp =
-                                                VFSUtils.getSystemTime(entry.getFailedRecordTimestampFormat());
-                                        addFailedRecord(entry, child, timeStamp);
-                                    }
+                                if (log.isDebugEnabled()) {
+                                    log.debug("Processing file :"
+                                            + VFSUtils.maskURLPassword(child.toString()));
                                 }
-                                // if there is a failure or not we'll try to release the lock
-                                if (entry.isFileLockingEnabled() && !skipUnlock) {
-                                    VFSUtils.releaseLock(getFsManager(), child, fso);
+                                processCount++;
+                                dispatched = fileProcessor != null && dispatchFile(fileProcessor, entry, child,
+                                        fso, scanner, successCount, failCount);
+                                if (!dispatched) {
+                                    processLockedFile(entry, child, fso, scanner, successCount, failCount);
                                 }
                             }
                         }else if(entry.getFileNamePattern()!=null &&
@@ -589,7 +548,10 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                                 		+ "process");
                             }
                         }
-                        close(child);
+                        if (!dispatched) {
+                            // otherwise the worker closes the file once it is done with it
+                            close(child);
+                        }
 
                         if (shouldStopScanning(entry)) {
                             // in a server shutting down scenario or in a service undeployment, it is unnecessary
@@ -614,9 +576,18 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
                         }
                     }
 
-                    if (failCount == 0 && successCount > 0) {
+                    if (fileProcessor != null) {
+                        try {
+                            fileProcessor.awaitCompletion();
+                        } catch (InterruptedException ie) {
+                            Thread.currentThread().interrupt();
+                            log.warn("Interrupted while waiting for the files of the poll to be processed");
+                        }
+                    }
+
+                    if (failCount.get() == 0 && successCount.get() > 0) {
                         entry.setLastPollState(PollTableEntry.SUCCSESSFUL);
-                    } else if (successCount == 0 && failCount > 0) {
+                    } else if (successCount.get() == 0 && failCount.get() > 0) {
                         entry.setLastPollState(PollTableEntry.FAILED);
                     } else {
                         entry.setLastPollState(PollTableEntry.WITH_ERRORS);
@@ -660,10 +631,150 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
             closeFileSystem(fileObject);
             processFailure("Un-handled exception thrown when processing the file : ", ex, entry);
         } finally {
+            if (scanner != null) {
+                scanner.complete();
+            }
             inFlightMessages.decrementAndGet();
         }
     }
 
+    /**
+     * Processes a file which the listener holds the lock of (if locking is enabled), then moves or deletes it and
+     * releases the lock. The outcome of the file decides what happens to it afterwards, rather than the last poll
+     * state of the entry, since the latter is shared by the files which are processed in parallel.
+     */
+    private void processLockedFile(PollTableEntry entry, FileObject child, FileSystemOptions fso,
+                                   DirectoryScanner scanner, AtomicInteger successCount, AtomicInteger failCount)
+            throws FileSystemException {
+        boolean runPostProcess = true;
+        int pollState = PollTableEntry.FAILED;
+        try {
+            if (child.getType() == FileType.FILE) {
+                boolean status = processFile(entry, child);
+                if (status) {
+                    successCount.incrementAndGet();
+                    pollState = PollTableEntry.SUCCSESSFUL;
+                }
+                entry.setLastPollState(pollState);
+                metrics.incrementMessagesReceived();
+            } else {
+                runPostProcess = false;
+            }
+        } catch (Exception e) {
+            if (e.getCause() instanceof FileNotFoundException) {
+                log.warn("Error processing File URI : " +
+                         VFSUtils.maskURLPassword(child.getName().toString()) +
+                         ". This can be due to file moved from another process.");
+                runPostProcess = false;
+            } else {
+                logException("Error processing File URI : " +
+                             VFSUtils.maskURLPassword(child.getName().getURI()), e);
+                failCount.incrementAndGet();
+                // tell moveOrDeleteAfterProcessing() file failed
+                pollState = PollTableEntry.FAILED;
+                entry.setLastPollState(PollTableEntry.FAILED);
+                metrics.incrementFaultsReceiving();
+            }
+        }
+        markProcessed(scanner, child, pollState);
+        //skipping un-locking file if failed to do delete/move after process
+        boolean skipUnlock = false;
+        if (runPostProcess) {
+            try {
+                moveOrDeleteAfterProcessing(entry, child, fso, pollState);
+            } catch (AxisFault axisFault) {
+                logException(
+                        "File object '" + VFSUtils.maskURLPassword(child.getURL().toString()) +
+                        "'cloud not be moved, will remain in \"locked\" state", axisFault);
+                skipUnlock = true;
+                failCount.incrementAndGet();
+                entry.setLastPollState(PollTableEntry.FAILED);
+                String timeStamp =
+                        VFSUtils.getSystemTime(entry.getFailedRecordTimestampFormat());
+                addFailedRecord(entry, child, timeStamp);
+            }
+        }
+        // if there is a failure or not we'll try to release the lock
+        if (entry.isFileLockingEnabled() && !skipUnlock) {
+            VFSUtils.releaseLock(getFsManager(), child, fso);
+        }
+    }
+
+    /**
+     * Tells the incremental scanner of the entry, if any, that a file is processed, unless processing it failed. A
+     * failed file which is left in the directory is then picked up again by the next poll, the same as without the
+     * scanner.
+     */
+    static void markProcessed(DirectoryScanner scanner, FileObject child, int pollState) {
+        if (scanner != null && pollState != PollTableEntry.FAILED) {
+            scanner.processed(child);
+        }
+    }
+
+    /**
+     * Hands a locked file over to the file processor of the entry. The file counts as an in-flight message until
+     * the worker is done with it, so that a graceful shutdown waits for it.
+     *
+     * @return true if the file was handed over, false if it should be processed on the polling thread
+     */
+    private boolean dispatchFile(ParallelFileProcessor fileProcessor, final PollTableEntry entry,
+                                 final FileObject child, final FileSystemOptions fso, final DirectoryScanner scanner,
+                                 final AtomicInteger successCount, final AtomicInteger failCount) {
+        inFlightMessages.incrementAndGet();
+        try {
+            fileProcessor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        processLockedFile(entry, child, fso, scanner, successCount, failCount);
+                    } catch (Exception e) {
+                        failCount.incrementAndGet();
+                        VFSTransportErrorHandler.logException(log, LogType.ERROR, "Error processing File URI : "
+                                + VFSUtils.maskURLPassword(child.getName().getURI()), entry.getServiceName(), e);
+                    } finally {
+                        close(child);
+                        inFlightMessages.decrementAndGet();
+                    }
+                }
+            });
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
+            log.debug("File processor of the service " + entry.getServiceName() + " has been shut down", e);
+        }
+        inFlightMessages.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the file processor of the entry, creating it on the first poll, or null if the files of the entry are
+     * processed one at a time.
+     */
+    private synchronized ParallelFileProcessor getFileProcessor(PollTableEntry entry) {
+        if (entry.getFileProcessingParallelism() <= 1 || entry.isCanceled()) {
+            return null;
+        }
+        ParallelFileProcessor fileProcessor = entry.getFileProcessor();
+        if (fileProcessor == null) {
+            fileProcessor = new ParallelFileProcessor(entry.getServiceName(), entry.getFileProcessingParallelism());
+            entry.setFileProcessor(fileProcessor);
+        }
+        return fileProcessor;
+    }
+
+    /**
+     * Returns the scanner which keeps track of the given directory between the polls of an incrementally scanned
+     * entry, creating it on the first poll.
+     */
+    private DirectoryScanner getDirectoryScanner(PollTableEntry entry, FileObject directory) {
+        DirectoryScanner scanner = entry.getDirectoryScanner();
+        if (scanner == null) {
+            scanner = DirectoryScanner.create(entry, directory);
+            entry.setDirectoryScanner(scanner);
+        }
+        return scanner;
+    }
+
     @Override
     public void destroy() {
         log.info("Shutting down the VFS transport listener...");
@@ -760,11 +871,22 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
      */
     protected void moveOrDeleteAfterProcessing(final PollTableEntry entry, FileObject fileObject, FileSystemOptions fso)
             throws AxisFault {
+        moveOrDeleteAfterProcessing(entry, fileObject, fso, entry.getLastPollState());
+    }
+
+    /**
+     * Take specified action to either move or delete the processed file, depending on the given outcome
+     * @param entry the PollTableEntry for the file that has been processed
+     * @param fileObject the FileObject representing the file to be moved or deleted
+     * @param pollState the outcome of processing the file
+     */
+    protected void moveOrDeleteAfterProcessing(final PollTableEntry entry, FileObject fileObject, FileSystemOptions fso,
+                                               int pollState) throws AxisFault {
 
         String serviceName = entry.getServiceName();
         String moveToDirectoryURI = null;
         try {
-            switch (entry.getLastPollState()) {
+            switch (pollState) {
                 case PollTableEntry.SUCCSESSFUL:
                     if (entry.getActionAfterProcess() == PollTableEntry.NONE) {
                         return;
@@ -888,6 +1010,9 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
      * @throws AxisFault on error
      */
     protected boolean processFile(PollTableEntry entry, FileObject file) throws AxisFault {
+        if (entry.isRecordSplitting()) {
+            return processRecords(entry, file);
+        }
         boolean processFileStatus = true;
         try {
             FileContent content = file.getContent();
@@ -1039,6 +1164,207 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
         return processFileStatus;
     }
 
+    /**
+     * Streams a file which is split into records and injects each batch of records as a message of its own. At most
+     * the configured number of batches are mediated at the same time, the file is not read any further until one of
+     * them completes. The offset up to which the file has been processed is checkpointed after every batch, so a file
+     * which was left half way through is resumed from there.
+     *
+     * @param entry the PollTableEntry for the file (or its parent directory or archive)
+     * @param file  the file that contains the records
+     * @return true if all the records of the file were processed successfully
+     * @throws AxisFault on error
+     */
+    private boolean processRecords(final PollTableEntry entry, final FileObject file) throws AxisFault {
+        final AtomicBoolean failed = new AtomicBoolean();
+        final int concurrency = entry.getRecordBatchConcurrency();
+        final Semaphore window = new Semaphore(concurrency);
+        InputStream in = null;
+        try {
+            FileContent content = file.getContent();
+            final String contentType = entry.getContentType();
+            Charset charset = StandardCharsets.UTF_8;
+            String charSetEnc = null;
+            try {
+                if (contentType != null) {
+                    charSetEnc = new ContentType(contentType).getParameter("charset");
+                    if (charSetEnc != null) {
+                        charset = Charset.forName(charSetEnc);
+                    }
+                }
+            } catch (ParseException ex) {
+                // ignore
+            }
+
+            final RecordCheckpoint checkpoint = RecordCheckpoint.open(entry.getRecordCheckpointDirectory(),
+                    file.getName().getURI(), content.getSize(), content.getLastModifiedTime());
+            long offset = checkpoint.getOffset();
+            metrics.incrementBytesReceived(content.getSize() - offset);
+
+            in = content.getInputStream();
+            long skipped = 0;
+            while (skipped < offset) {
+                long count = in.skip(offset - skipped);
+                if (count <= 0) {
+                    throw new IOException("Unable to resume " + VFSUtils.maskURLPassword(file.toString())
+                            + " from offset " + offset);
+                }
+                skipped += count;
+            }
+
+            final RecordReader reader = RecordReader.create(entry, in, offset, charset);
+            ExecutorService executor = concurrency > 1 ? getRecordBatchExecutor(entry) : null;
+            final String charSet = charSetEnc;
+
+            List<byte[]> records = new ArrayList<byte[]>(entry.getRecordBatchSize());
+            long batch = 0;
+            long batchOffset = offset;
+            byte[] record;
+            do {
+                record = reader.next();
+                if (record != null) {
+                    records.add(record);
+                    if (records.size() < entry.getRecordBatchSize()) {
+                        continue;
+                    }
+                } else if (records.isEmpty()) {
+                    break;
+                }
+                final List<byte[]> batchRecords = records;
+                final long batchIndex = batch++;
+                final long startOffset = batchOffset;
+                final long endOffset = reader.getOffset();
+                records = new ArrayList<byte[]>(entry.getRecordBatchSize());
+                batchOffset = endOffset;
+
+                window.acquire();
+                Runnable task = new Runnable() {
+                    public void run() {
+                        try {
+                            if (injectRecordBatch(entry, file, reader.join(batchRecords), batchRecords.size(),
+                                    startOffset, contentType, charSet)) {
+                                checkpoint.completed(batchIndex, endOffset);
+                            } else {
+                                failed.set(true);
+                            }
+                        } catch (Exception e) {
+                            failed.set(true);
+                            VFSTransportErrorHandler.logException(log, LogType.ERROR, "Error processing the records of "
+                                    + VFSUtils.maskURLPassword(file.toString()) + " from offset " + startOffset,
+                                    entry.getServiceName(), e);
+                        } finally {
+                            window.release();
+                        }
+                    }
+                };
+                if (executor == null) {
+                    task.run();
+                } else {
+                    try {
+                        executor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        window.release();
+                        failed.set(true);
+                    }
+                }
+            } while (record != null && !failed.get());
+            // wait for the batches which are still being mediated
+            window.acquire(concurrency);
+            window.release(concurrency);
+
+            if (!failed.get()) {
+                checkpoint.clear();
+                if (log.isDebugEnabled()) {
+                    log.debug("Processed the records of file : " + VFSUtils.maskURLPassword(file.toString())
+                            + " in " + batch + " batches");
+                }
+                return true;
+            }
+            return false;
+
+        } catch (FileSystemException e) {
+            closeFileSystem(file);
+            handleException("Error reading file content or attributes : "
+                    + VFSUtils.maskURLPassword(file.toString()), e);
+        } catch (IOException e) {
+            handleException("Error reading the records of file : " + VFSUtils.maskURLPassword(file.toString()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // the file must not be moved or unlocked while any of its batches are still being mediated
+            window.acquireUninterruptibly(concurrency);
+            window.release(concurrency);
+            IOUtils.closeQuietly(in);
+            try {
+                file.close();
+            } catch (FileSystemException warn) {
+                // ignore
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a batch of records into a message and injects it.
+     *
+     * @return false if the message was not delivered successfully
+     */
+    private boolean injectRecordBatch(PollTableEntry entry, FileObject file, byte[] payload, int recordCount,
+                                      long offset, String contentType, String charSetEnc) throws AxisFault {
+        Map<String, Object> transportHeaders = new HashMap<String, Object>();
+        transportHeaders.put(VFSConstants.FILE_PATH, file.getName().getPath());
+        transportHeaders.put(VFSConstants.FILE_NAME, file.getName().getBaseName());
+        transportHeaders.put(VFSConstants.FILE_URI, file.getName().getURI());
+        transportHeaders.put(VFSConstants.RECORD_BATCH_OFFSET, offset);
+        transportHeaders.put(VFSConstants.RECORD_COUNT, recordCount);
+
+        MessageContext msgContext = entry.createMessageContext();
+        msgContext.setProperty(Constants.Configuration.CHARACTER_SET_ENCODING, charSetEnc);
+        String replyFileURI = entry.getReplyFileURI();
+        if (replyFileURI != null) {
+            msgContext.setProperty(Constants.OUT_TRANSPORT_INFO,
+                    new VFSOutTransportInfo(replyFileURI, entry.isFileLockingEnabled()));
+        }
+
+        Builder builder = null;
+        if (contentType != null) {
+            int index = contentType.indexOf(';');
+            builder = BuilderUtil.getBuilderFromSelector(index > 0 ? contentType.substring(0, index) : contentType,
+                                                         msgContext);
+        }
+        if (builder == null) {
+            builder = new SOAPBuilder();
+        }
+        OMElement documentElement = builder.processDocument(new ByteArrayInputStream(payload), contentType,
+                                                            msgContext);
+        msgContext.setEnvelope(TransportUtils.createSOAPEnvelope(documentElement));
+
+        handleIncomingMessage(msgContext, transportHeaders, null, contentType);
+        return StringUtils.isEmpty((String) transportHeaders.get(VFSConstants.ERROR_CODE));
+    }
+
+    /**
+     * Returns the executor which mediates the record batches of the entry, creating it on first use.
+     */
+    private synchronized ExecutorService getRecordBatchExecutor(final PollTableEntry entry) {
+        ExecutorService executor = entry.getRecordBatchExecutor();
+        if (executor == null) {
+            // the number of threads is bounded by the window of each file being split
+            executor = Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "vfs-record-processor-" + entry.getServiceName() + "-"
+                            + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            entry.setRecordBatchExecutor(executor);
+        }
+        return executor;
+    }
+
     @Override
     protected PollTableEntry createEndpoint() {
         PollTableEntry entry = new PollTableEntry(globalFileLockingFlag);
@@ -1053,6 +1379,23 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
             endpoint.setCanceled(true);
         }
         super.stopEndpoint(endpoint);
+        synchronized (this) {
+            ParallelFileProcessor fileProcessor = endpoint.getFileProcessor();
+            if (fileProcessor != null) {
+                fileProcessor.shutdown();
+                endpoint.setFileProcessor(null);
+            }
+            ExecutorService recordBatchExecutor = endpoint.getRecordBatchExecutor();
+            if (recordBatchExecutor != null) {
+                recordBatchExecutor.shutdown();
+                endpoint.setRecordBatchExecutor(null);
+            }
+        }
+        DirectoryScanner scanner = endpoint.getDirectoryScanner();
+        if (scanner != null) {
+            scanner.close();
+            endpoint.setDirectoryScanner(null);
+        }
     }
 
     /**
@@ -1263,73 +1606,6 @@ public class VFSTransportListener extends AbstractPollingTransportListener<PollT
         isFileSystemClosed = fileSystemClosed;
     }
 
-    /**
-     * Comparator classed used to sort the files according to user input
-     * */
-    class FileNameAscComparator implements Comparator<FileObject> {
-        public int compare(FileObject o1, FileObject o2) {
-            return o1.getName().compareTo(o2.getName());
-        }
-    }
-
-    class FileLastmodifiedtimestampAscComparator implements Comparator<FileObject> {
-        public int compare(FileObject o1, FileObject o2) {
-            Long lDiff = 0l;
-            try {
-                lDiff = o1.getContent().getLastModifiedTime()
-                        - o2.getContent().getLastModifiedTime();
-            } catch (FileSystemException e) {
-                String message = "Unable to compare lastmodified timestamp of the two files.";
-                VFSTransportErrorHandler.logException(log, LogType.WARN, message, e);
-            }
-            return lDiff.intValue();
-        }
-    }
-
-    class FileSizeAscComparator implements Comparator<FileObject> {
-        public int compare(FileObject o1, FileObject o2) {
-            Long lDiff = 0l;
-            try {
-                lDiff = o1.getContent().getSize() - o2.getContent().getSize();
-            } catch (FileSystemException e) {
-                VFSTransportErrorHandler.logException(log, LogType.WARN, "Unable to compare size of the two files.", e);
-            }
-            return lDiff.intValue();
-        }
-    }
-
-    class FileNameDesComparator implements Comparator<FileObject> {
-        public int compare(FileObject o1, FileObject o2) {
-            return o2.getName().compareTo(o1.getName());
-        }
-    }
-
-    class FileLastmodifiedtimestampDesComparator implements Comparator<FileObject> {
-        public int compare(FileObject o1, FileObject o2) {
-            Long lDiff = 0l;
-            try {
-                lDiff = o2.getContent().getLastModifiedTime()
-                        - o1.getContent().getLastModifiedTime();
-            } catch (FileSystemException e) {
-                VFSTransportErrorHandler.logException(log, LogType.WARN,
-                        "Unable to compare lastmodified timestamp of the two files.", e);
-            }
-            return lDiff.intValue();
-        }
-    }
-
-    class FileSizeDesComparator implements Comparator<FileObject> {
-        public int compare(FileObject o1, FileObject o2) {
-            Long lDiff = 0l;
-            try {
-                lDiff = o2.getContent().getSize() - o1.getContent().getSize();
-            } catch (FileSystemException e) {
-                VFSTransportErrorHandler.logException(log, LogType.WARN, "Unable to compare size of the two files.", e);
-            }
-            return lDiff.intValue();
-        }
-    }
-
     /**
      * Verifies if the given md5 is the md5 of an Empty File
      * @param entry current poll
@@ -0,0 +1,146 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.synapse.transport.vfs;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.provider.UriParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link DirectoryScanner} of a local directory. The directory is listed once, afterwards only the entries reported
+ * by the {@link WatchService} are looked at. Entries which were handed out but not processed (e.g. because they
+ * were still uploading or too young) are handed out again in the next poll.
+ *
+ * The directory is listed again if the watch service overflows or the watch key becomes invalid.
+ */
+class WatchServiceDirectoryScanner extends DirectoryScanner {
+
+    private static final Log log = LogFactory.getLog(WatchServiceDirectoryScanner.class);
+
+    private final Path directory;
+
+    private WatchService watchService;
+
+    private WatchKey watchKey;
+
+    /** Names of the entries which are yet to be processed, in the order they showed up */
+    private final Set<String> pending = new LinkedHashSet<String>();
+
+    private boolean fullScanRequired = true;
+
+    WatchServiceDirectoryScanner(Path directory) throws IOException {
+        this.directory = directory;
+        register();
+    }
+
+    @Override
+    synchronized FileObject[] scan(FileObject directoryObject) throws FileSystemException {
+        if (watchKey == null || !watchKey.isValid()) {
+            try {
+                register();
+            } catch (IOException e) {
+                throw new FileSystemException("Unable to watch the directory : " + directory, e);
+            }
+        } else {
+            drainEvents();
+        }
+
+        if (fullScanRequired) {
+            fullScanRequired = false;
+            pending.clear();
+            for (FileObject child : directoryObject.getChildren()) {
+                pending.add(nameOf(child));
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Listed " + pending.size() + " entries of the watched directory : " + directory);
+            }
+        }
+
+        List<FileObject> candidates = new ArrayList<FileObject>(pending.size());
+        Iterator<String> names = pending.iterator();
+        while (names.hasNext()) {
+            FileObject child = directoryObject.resolveFile(UriParser.encode(names.next()), NameScope.CHILD);
+            if (child.exists()) {
+                candidates.add(child);
+            } else {
+                names.remove();
+            }
+        }
+        return candidates.toArray(new FileObject[candidates.size()]);
+    }
+
+    @Override
+    synchronized void processed(FileObject child) {
+        pending.remove(nameOf(child));
+    }
+
+    @Override
+    synchronized void close() {
+        closeQuietly(watchService);
+        watchService = null;
+        watchKey = null;
+    }
+
+    private void register() throws IOException {
+        closeQuietly(watchService);
+        watchService = directory.getFileSystem().newWatchService();
+        watchKey = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        // the directory is listed after the watch is in place so that no change can fall in between
+        fullScanRequired = true;
+    }
+
+    private void drainEvents() {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                WatchEvent.Kind<?> kind = event.kind();
+                if (kind == StandardWatchEventKinds.OVERFLOW) {
+                    fullScanRequired = true;
+                    continue;
+                }
+                String name = event.context().toString();
+                if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                    pending.remove(name);
+                } else {
+                    pending.add(name);
+                }
+            }
+            if (!key.reset()) {
+                log.warn("Watch on the directory : " + directory + " is no longer valid");
+                break;
+            }
+        }
+    }
+}
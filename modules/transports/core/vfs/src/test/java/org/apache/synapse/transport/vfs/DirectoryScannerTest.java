@@ -0,0 +1,185 @@
+/*
+ *     Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *     WSO2 Inc. licenses this file to you under the Apache License,
+ *     Version 2.0 (the "License"); you may not use this file except
+ *     in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing,
+ *    software distributed under the License is distributed on an
+ *    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *    KIND, either express or implied.  See the License for the
+ *    specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package org.apache.synapse.transport.vfs;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.VFS;
+import org.apache.synapse.commons.vfs.VFSConstants;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Unit tests for the incremental {@link DirectoryScanner}s and the {@link FileSorter}
+ */
+public class DirectoryScannerTest extends TestCase {
+
+    private File directory;
+    private FileSystemManager fsManager;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("vfs-scan").toFile();
+        fsManager = VFS.getManager();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    /**
+     * Processed files should not be handed out again by the listing cache, unless they change, and the cache should
+     * survive a restart
+     */
+    public void testListingCacheScanner() throws Exception {
+        File cacheFile = new File(directory.getParentFile(), directory.getName() + ".listing");
+        try {
+            writeFile("a.txt", "a");
+            writeFile("b.txt", "bb");
+            FileObject dir = fsManager.resolveFile(directory.toURI().toString());
+
+            ListingCacheDirectoryScanner scanner = new ListingCacheDirectoryScanner(cacheFile);
+            FileObject[] children = scanner.scan(dir);
+            assertEquals(set("a.txt", "b.txt"), names(children));
+            for (FileObject child : children) {
+                if ("a.txt".equals(child.getName().getBaseName())) {
+                    scanner.processed(child);
+                }
+            }
+            scanner.complete();
+            assertTrue(cacheFile.exists());
+
+            // b.txt was not processed, so it has to be handed out again
+            dir.refresh();
+            assertEquals(set("b.txt"), names(scanner.scan(dir)));
+
+            // a restarted scanner remembers that a.txt was processed
+            ListingCacheDirectoryScanner restarted = new ListingCacheDirectoryScanner(cacheFile);
+            assertEquals(set("b.txt"), names(restarted.scan(dir)));
+
+            // a changed file is handed out again
+            File a = new File(directory, "a.txt");
+            writeFile("a.txt", "changed");
+            a.setLastModified(a.lastModified() + 5000);
+            dir.refresh();
+            dir.getChild("a.txt").refresh();
+            assertEquals(set("a.txt", "b.txt"), names(restarted.scan(dir)));
+        } finally {
+            cacheFile.delete();
+        }
+    }
+
+    /**
+     * Only the new files and the files which were not processed should be handed out once the directory is watched
+     */
+    public void testWatchServiceScanner() throws Exception {
+        writeFile("a.txt", "a");
+        FileObject dir = fsManager.resolveFile(directory.toURI().toString());
+
+        WatchServiceDirectoryScanner scanner = new WatchServiceDirectoryScanner(directory.toPath());
+        try {
+            FileObject[] children = scanner.scan(dir);
+            assertEquals(set("a.txt"), names(children));
+            scanner.processed(children[0]);
+            assertEquals(0, scanner.scan(dir).length);
+
+            writeFile("b.txt", "b");
+            long deadline = System.currentTimeMillis() + 30000;
+            Set<String> names = names(scanner.scan(dir));
+            while (names.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                names = names(scanner.scan(dir));
+            }
+            assertEquals(set("b.txt"), names);
+
+            // deleted files are dropped even if they were never processed
+            assertTrue(new File(directory, "b.txt").delete());
+            deadline = System.currentTimeMillis() + 30000;
+            while (!names.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                names = names(scanner.scan(dir));
+            }
+            assertTrue(names.isEmpty());
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * A file which failed is not marked as processed, so that it is handed out again by the next poll
+     */
+    public void testFailedFileIsScannedAgain() throws Exception {
+        writeFile("a.txt", "a");
+        writeFile("b.txt", "b");
+        FileObject dir = fsManager.resolveFile(directory.toURI().toString());
+
+        ListingCacheDirectoryScanner scanner = new ListingCacheDirectoryScanner(null);
+        for (FileObject child : scanner.scan(dir)) {
+            boolean failed = "b.txt".equals(child.getName().getBaseName());
+            VFSTransportListener.markProcessed(scanner, child,
+                    failed ? PollTableEntry.FAILED : PollTableEntry.SUCCSESSFUL);
+        }
+        scanner.complete();
+        dir.refresh();
+        assertEquals(set("b.txt"), names(scanner.scan(dir)));
+    }
+
+    public void testSortBySize() throws Exception {
+        writeFile("a.txt", "aaa");
+        writeFile("b.txt", "b");
+        writeFile("c.txt", "cc");
+        FileObject[] children = fsManager.resolveFile(directory.toURI().toString()).getChildren();
+
+        FileSorter.sort(children, VFSConstants.FILE_SORT_VALUE_SIZE, true);
+        assertEquals(Arrays.asList("b.txt", "c.txt", "a.txt"), Arrays.asList(baseNames(children)));
+
+        FileSorter.sort(children, VFSConstants.FILE_SORT_VALUE_SIZE, false);
+        assertEquals(Arrays.asList("a.txt", "c.txt", "b.txt"), Arrays.asList(baseNames(children)));
+
+        FileSorter.sort(children, VFSConstants.FILE_SORT_VALUE_NAME, true);
+        assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt"), Arrays.asList(baseNames(children)));
+    }
+
+    private void writeFile(String name, String content) throws Exception {
+        FileUtils.writeStringToFile(new File(directory, name), content);
+    }
+
+    private static Set<String> set(String... names) {
+        return new HashSet<String>(Arrays.asList(names));
+    }
+
+    private static Set<String> names(FileObject[] children) {
+        return set(baseNames(children));
+    }
+
+    private static String[] baseNames(FileObject[] children) {
+        String[] names = new String[children.length];
+        for (int i = 0; i < children.length; i++) {
+            names[i] = children[i].getName().getBaseName();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *     Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *     WSO2 Inc. licenses this file to you under the Apache License,
+ *     Version 2.0 (the "License"); you may not use this file except
+ *     in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing,
+ *    software distributed under the License is distributed on an
+ *    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *    KIND, either express or implied.  See the License for the
+ *    specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package org.apache.synapse.transport.vfs;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ParallelFileProcessor}
+ */
+public class ParallelFileProcessorTest extends TestCase {
+
+    /**
+     * No more than the configured number of files should be processed at a time, and awaitCompletion() should only
+     * return once every handed over file is processed
+     */
+    public void testBoundedParallelism() throws Exception {
+        final int parallelism = 3;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger processed = new AtomicInteger();
+
+        ParallelFileProcessor processor = new ParallelFileProcessor("test", parallelism);
+        try {
+            for (int i = 0; i < 30; i++) {
+                processor.execute(new Runnable() {
+                    public void run() {
+                        int current = running.incrementAndGet();
+                        int max = maxRunning.get();
+                        while (current > max && !maxRunning.compareAndSet(max, current)) {
+                            max = maxRunning.get();
+                        }
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                        processed.incrementAndGet();
+                    }
+                });
+            }
+            processor.awaitCompletion();
+
+            assertEquals(30, processed.get());
+            assertTrue("At most " + parallelism + " files should be processed at a time, but was "
+                    + maxRunning.get(), maxRunning.get() <= parallelism);
+        } finally {
+            processor.shutdown();
+        }
+    }
+}
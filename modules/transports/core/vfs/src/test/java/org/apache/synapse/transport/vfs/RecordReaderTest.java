@@ -0,0 +1,157 @@
+/*
+ *     Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *     WSO2 Inc. licenses this file to you under the Apache License,
+ *     Version 2.0 (the "License"); you may not use this file except
+ *     in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing,
+ *    software distributed under the License is distributed on an
+ *    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *    KIND, either express or implied.  See the License for the
+ *    specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package org.apache.synapse.transport.vfs;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link RecordReader} and {@link RecordCheckpoint}
+ */
+public class RecordReaderTest extends TestCase {
+
+    public void testLines() throws Exception {
+        String content = "a,1\r\nb,2\n\nc,3";
+        assertEquals(list("a,1", "b,2", "c,3"),
+                readAll(new DelimitedRecordReader(stream(content), 0, new byte[] {'\n'}, true)));
+    }
+
+    public void testDelimiter() throws Exception {
+        String content = "one||two|||three||";
+        assertEquals(list("one", "two", "|three"),
+                readAll(new DelimitedRecordReader(stream(content), 0, "||".getBytes(StandardCharsets.UTF_8), false)));
+    }
+
+    public void testJsonArrayElements() throws Exception {
+        String content = " [ {\"a\":[1,2],\"b\":\"x]}\\\"\"}, 42 ,\"s,t\", [3], null ]";
+        assertEquals(list("{\"a\":[1,2],\"b\":\"x]}\\\"\"}", "42", "\"s,t\"", "[3]", "null"),
+                readAll(new JsonArrayRecordReader(stream(content), 0)));
+    }
+
+    public void testJsonArrayIsRequired() throws Exception {
+        try {
+            readAll(new JsonArrayRecordReader(stream("{\"a\":1}"), 0));
+            fail("A JSON object should not be split");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * Reading from the offset of a record should resume right after it, which is how a checkpointed file is resumed
+     */
+    public void testResumeFromOffset() throws Exception {
+        String[] contents = {"a\nbb\nccc\ndddd\n", "[{\"a\":1},{\"b\":2},{\"c\":3}]"};
+        for (String content : contents) {
+            RecordReader reader = newReader(content, 0);
+            List<String> all = new ArrayList<String>();
+            List<Long> offsets = new ArrayList<Long>();
+            byte[] record;
+            while ((record = reader.next()) != null) {
+                all.add(new String(record, StandardCharsets.UTF_8));
+                offsets.add(reader.getOffset());
+            }
+            for (int i = 0; i < offsets.size(); i++) {
+                long offset = offsets.get(i);
+                InputStream in = stream(content);
+                assertEquals(offset, in.skip(offset));
+                assertEquals(all.subList(i + 1, all.size()), readAll(newReader(content, offset, in)));
+            }
+        }
+    }
+
+    public void testJoin() throws Exception {
+        List<byte[]> records = new ArrayList<byte[]>();
+        records.add("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        records.add("2".getBytes(StandardCharsets.UTF_8));
+        assertEquals("[{\"a\":1},2]",
+                new String(new JsonArrayRecordReader(stream(""), 0).join(records), StandardCharsets.UTF_8));
+        assertEquals("{\"a\":1}\n2", new String(new DelimitedRecordReader(stream(""), 0, new byte[] {'\n'}, true)
+                .join(records), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The checkpoint should only move past the batches which completed along with all the batches in front of them,
+     * and should only be picked up again for the same version of the file
+     */
+    public void testCheckpoint() throws Exception {
+        File directory = Files.createTempDirectory("vfs-checkpoint").toFile();
+        try {
+            String uri = "file:///data/in/records.csv";
+            RecordCheckpoint checkpoint = RecordCheckpoint.open(directory.getPath(), uri, 100, 1000);
+            assertEquals(0, checkpoint.getOffset());
+            checkpoint.completed(1, 20);
+            assertEquals(0, checkpoint.getOffset());
+            checkpoint.completed(0, 10);
+            assertEquals(20, checkpoint.getOffset());
+            checkpoint.completed(3, 40);
+            assertEquals(20, RecordCheckpoint.open(directory.getPath(), uri, 100, 1000).getOffset());
+            assertEquals(0, RecordCheckpoint.open(directory.getPath(), uri, 120, 1000).getOffset());
+            assertEquals(0, RecordCheckpoint.open(directory.getPath(), uri + ".1", 100, 1000).getOffset());
+
+            checkpoint.clear();
+            assertEquals(0, RecordCheckpoint.open(directory.getPath(), uri, 100, 1000).getOffset());
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private static RecordReader newReader(String content, long offset) {
+        return newReader(content, offset, stream(content));
+    }
+
+    private static RecordReader newReader(String content, long offset, InputStream in) {
+        if (content.startsWith("[")) {
+            return new JsonArrayRecordReader(in, offset);
+        }
+        return new DelimitedRecordReader(in, offset, new byte[] {'\n'}, true);
+    }
+
+    private static List<String> readAll(RecordReader reader) throws IOException {
+        List<String> records = new ArrayList<String>();
+        byte[] record;
+        while ((record = reader.next()) != null) {
+            records.add(new String(record, StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> list(String... values) {
+        List<String> list = new ArrayList<String>();
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -103,9 +103,17 @@ public class FIXConstants {
 
     public static final String FIX_DROP_EXTRA_RESPONSES = "transport.fix.DropExtraResponses";
 
+    public static final String FIX_DEFERRED_PAYLOAD = "transport.fix.DeferredPayload";
+
     public static final String FIX_ACCEPTOR_EVENT_HANDLER = "transport.fix.AcceptorSessionEventHandler";
     public static final String FIX_INITIATOR_EVENT_HANDLER = "transport.fix.InitiatorSessionEventHandler";
 
+    //--------------------------- Sender level parameters ------------------------------------
+
+    public static final String FIX_MAX_OUT_OF_ORDER_MESSAGES = "transport.fix.MaxOutOfOrderMessages";
+    public static final int DEFAULT_MAX_OUT_OF_ORDER_MESSAGES = 10000;
+    public static final String FIX_SESSION_LANE_MBEAN_CATEGORY = "FIXSessionLane";
+
     //--------------------------- Message level properties -----------------------------------
 
     public static final String FIX_IGNORE_ORDER = "transport.fix.IgnoreOrder";
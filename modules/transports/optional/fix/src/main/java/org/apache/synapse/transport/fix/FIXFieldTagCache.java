@@ -0,0 +1,63 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.transport.fix;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the string form of FIX field tags, so that converting a FIX message to its XML
+ * infoset does not create a new String for every field of every message. Tags of the
+ * standard FIX dictionaries are held in an array and user defined tags fall back to a map.
+ */
+final class FIXFieldTagCache {
+
+    private static final int ARRAY_CACHE_SIZE = 10000;
+
+    private static final String[] TAGS = new String[ARRAY_CACHE_SIZE];
+    private static final Map<Integer, String> CUSTOM_TAGS = new ConcurrentHashMap<Integer, String>();
+
+    static {
+        for (int i = 0; i < ARRAY_CACHE_SIZE; i++) {
+            TAGS[i] = String.valueOf(i);
+        }
+    }
+
+    private FIXFieldTagCache() {
+    }
+
+    /**
+     * Returns the string form of the given field tag
+     *
+     * @param tag the FIX field tag
+     * @return the tag as a String
+     */
+    static String toString(int tag) {
+        if (tag >= 0 && tag < ARRAY_CACHE_SIZE) {
+            return TAGS[tag];
+        }
+        String value = CUSTOM_TAGS.get(tag);
+        if (value == null) {
+            value = String.valueOf(tag);
+            CUSTOM_TAGS.put(tag, value);
+        }
+        return value;
+    }
+}
@@ -77,6 +77,10 @@ public class FIXIncomingMessageHandler implements Application {
     private Queue<MessageContext> outgoingMessages;
     private boolean allNewApproach = true;
     private boolean dropExtraResponses = false;
+    /**
+     * Build the XML infoset of incoming messages only if the payload is accessed
+     */
+    private boolean deferredPayload = false;
     private Semaphore semaphore;
     private SessionEventHandler eventHandler;
 
@@ -125,6 +129,11 @@ public class FIXIncomingMessageHandler implements Application {
         if (dropResponsesParam != null && "true".equals(dropResponsesParam.getValue().toString())) {
             dropExtraResponses = true;
         }
+
+        Parameter deferredPayloadParam = service.getParameter(FIXConstants.FIX_DEFERRED_PAYLOAD);
+        if (deferredPayloadParam != null && "true".equals(deferredPayloadParam.getValue().toString())) {
+            deferredPayload = true;
+        }
     }
 
     public void setOutgoingMessageContext(MessageContext msgCtx) {
@@ -404,7 +413,8 @@ public class FIXIncomingMessageHandler implements Application {
 
             try {
                 //Put the FIX message in a SOAPEnvelope
-                FIXUtils.getInstance().setSOAPEnvelope(message, counter, sessionID.toString(), msgCtx);
+                FIXUtils.getInstance().setSOAPEnvelope(message, counter, sessionID.toString(), msgCtx,
+                        deferredPayload);
                 trpListener.handleIncomingMessage(
                         msgCtx,
                         FIXUtils.getTransportHeaders(service.getName(), fixApplication),
@@ -424,7 +434,8 @@ public class FIXIncomingMessageHandler implements Application {
 
             try {
                 //Put the FIX message in a SOAPEnvelope
-                FIXUtils.getInstance().setSOAPEnvelope(message, counter, sessionID.toString(), msgCtx);
+                FIXUtils.getInstance().setSOAPEnvelope(message, counter, sessionID.toString(), msgCtx,
+                        deferredPayload);
                 msgCtx.setServerSide(true);
                 trpSender.handleIncomingMessage(
                         msgCtx,
@@ -0,0 +1,227 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.transport.fix;
+
+import org.apache.axiom.attachments.ByteArrayDataSource;
+import org.apache.axiom.om.OMDataSourceExt;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.ds.OMDataSourceExtBase;
+import org.apache.axiom.om.impl.MTOMXMLStreamWriter;
+import org.apache.axiom.om.util.StAXUtils;
+import org.apache.axis2.context.MessageContext;
+import quickfix.Field;
+import quickfix.FieldMap;
+import quickfix.Group;
+import quickfix.Message;
+
+import javax.activation.DataHandler;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OMDataSource backed by a QuickFIX/J message. The XML infoset of the FIX message is the same one
+ * created by {@link FIXUtils#setSOAPEnvelope(Message, int, String, MessageContext)}, but it is only
+ * built if a mediator accesses the payload. When the payload is written out it is streamed straight
+ * from the FIX message, and when it is sent over the FIX transport without being expanded the
+ * original FIX message is sent as it is.
+ */
+public class FIXMessageDataSource extends OMDataSourceExtBase {
+
+    private final Message message;
+    private final int counter;
+    private final String sessionID;
+    private final MessageContext msgCtx;
+
+    /** content IDs of the binary fields which were added to the message as attachments */
+    private Map<Field<?>, String> attachmentIDs;
+
+    public FIXMessageDataSource(Message message, int counter, String sessionID, MessageContext msgCtx) {
+        this.message = message;
+        this.counter = counter;
+        this.sessionID = sessionID;
+        this.msgCtx = msgCtx;
+    }
+
+    /**
+     * @return the FIX message this data source is backed by
+     */
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * @return application level sequence number of the message
+     */
+    public int getCounter() {
+        return counter;
+    }
+
+    /**
+     * @return the incoming session of the message
+     */
+    public String getSessionID() {
+        return sessionID;
+    }
+
+    @Override
+    public void serialize(OutputStream out, OMOutputFormat format) throws XMLStreamException {
+        XMLStreamWriter writer = new MTOMXMLStreamWriter(out, format);
+        serialize(writer);
+        writer.flush();
+    }
+
+    @Override
+    public void serialize(Writer writer, OMOutputFormat format) throws XMLStreamException {
+        MTOMXMLStreamWriter xmlWriter = new MTOMXMLStreamWriter(StAXUtils.createXMLStreamWriter(writer));
+        xmlWriter.setOutputFormat(format);
+        serialize(xmlWriter);
+        xmlWriter.flush();
+    }
+
+    @Override
+    public void serialize(XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement(FIXConstants.FIX_MESSAGE);
+        writer.writeAttribute(FIXConstants.FIX_MESSAGE_INCOMING_SESSION, sessionID);
+        writer.writeAttribute(FIXConstants.FIX_MESSAGE_COUNTER, String.valueOf(counter));
+
+        writer.writeStartElement(FIXConstants.FIX_HEADER);
+        writeFields(message.getHeader(), writer);
+        writer.writeEndElement();
+
+        writer.writeStartElement(FIXConstants.FIX_BODY);
+        writeFields(message, writer);
+        writeGroups(message, writer);
+        writer.writeEndElement();
+
+        writer.writeStartElement(FIXConstants.FIX_TRAILER);
+        writeFields(message.getTrailer(), writer);
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
+    public XMLStreamReader getReader() throws XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter writer = StAXUtils.createXMLStreamWriter(out);
+        serialize(writer);
+        writer.flush();
+        return StAXUtils.createXMLStreamReader(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private void writeFields(FieldMap fieldMap, XMLStreamWriter writer) throws XMLStreamException {
+        Iterator<Field<?>> iter = fieldMap.iterator();
+        while (iter.hasNext()) {
+            Field<?> field = iter.next();
+            writer.writeStartElement(FIXConstants.FIX_FIELD);
+            writer.writeAttribute(FIXConstants.FIX_FIELD_ID, FIXFieldTagCache.toString(field.getTag()));
+            Object value = field.getObject();
+            if (value instanceof byte[]) {
+                writer.writeStartElement(FIXConstants.FIX_BINARY_FIELD);
+                writer.writeAttribute(FIXConstants.FIX_MESSAGE_REFERENCE, "cid:" + getAttachmentID(field));
+                writer.writeEndElement();
+            } else if (value != null) {
+                String text = value.toString();
+                if (text.indexOf('<') == -1 && text.indexOf('&') == -1) {
+                    writer.writeCharacters(text);
+                } else {
+                    writer.writeCData(text);
+                }
+            }
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeGroups(FieldMap fieldMap, XMLStreamWriter writer) throws XMLStreamException {
+        Iterator<Integer> groupKeyItr = fieldMap.groupKeyIterator();
+        while (groupKeyItr.hasNext()) {
+            int groupKey = groupKeyItr.next();
+            writer.writeStartElement(FIXConstants.FIX_GROUPS);
+            writer.writeAttribute(FIXConstants.FIX_FIELD_ID, FIXFieldTagCache.toString(groupKey));
+            List<Group> groupList = fieldMap.getGroups(groupKey);
+            for (Group group : groupList) {
+                writer.writeStartElement(FIXConstants.FIX_GROUP);
+                writeFields(group, writer);
+                writeGroups(group, writer);
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+    }
+
+    /**
+     * Binary fields are added to the message context as attachments the first time the payload
+     * is read, the same attachment is referred if the payload is read again.
+     *
+     * @param field the binary field
+     * @return content ID of the attachment
+     */
+    private synchronized String getAttachmentID(Field<?> field) {
+        if (attachmentIDs == null) {
+            attachmentIDs = new IdentityHashMap<Field<?>, String>();
+        }
+        String contentID = attachmentIDs.get(field);
+        if (contentID == null) {
+            contentID = msgCtx.addAttachment(new DataHandler(new ByteArrayDataSource((byte[]) field.getObject())));
+            attachmentIDs.put(field, contentID);
+        }
+        return contentID;
+    }
+
+    public Object getObject() {
+        return message;
+    }
+
+    public boolean isDestructiveRead() {
+        return false;
+    }
+
+    public boolean isDestructiveWrite() {
+        return false;
+    }
+
+    public byte[] getXMLBytes(String encoding) throws UnsupportedEncodingException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OMOutputFormat format = new OMOutputFormat();
+        format.setCharSetEncoding(encoding);
+        try {
+            serialize(out, format);
+        } catch (XMLStreamException e) {
+            throw new UnsupportedEncodingException(e.getMessage());
+        }
+        return out.toByteArray();
+    }
+
+    public void close() {
+    }
+
+    public OMDataSourceExt copy() {
+        return new FIXMessageDataSource(message, counter, sessionID, msgCtx);
+    }
+}
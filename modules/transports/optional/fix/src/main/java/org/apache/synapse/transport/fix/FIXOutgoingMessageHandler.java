@@ -22,36 +22,49 @@ package org.apache.synapse.transport.fix;
 import org.apache.axis2.context.MessageContext;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.jmx.MBeanRegistrar;
 import quickfix.Message;
 import quickfix.Session;
 import quickfix.SessionID;
 import quickfix.SessionNotFound;
 
-import java.util.Map;
+import javax.management.ObjectName;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * FIXOutgoingMessageHandler makes sure that messages are delivered in the order they were received by
  * a FIX acceptor. In case the message arrived over a different transport still this class will try to
  * put the messages in correct order based on the counter value of the message.
+ * <p>
+ * Each incoming session is given its own {@link FIXSessionLane}, hence the sessions are sequenced
+ * independently and a slow target session does not hold back the messages of other sessions.
  */
 public class FIXOutgoingMessageHandler {
 
     private static final Log log = LogFactory.getLog(FIXOutgoingMessageHandler.class);
 
-    private Map<String, Integer> countersMap;
-    private Map<String, Map<Integer,Object[]>> messagesMap;
+    private ConcurrentMap<String, FIXSessionLane> lanes;
     private FIXSessionFactory sessionFactory;
+    private int maxQueuedMessages = FIXConstants.DEFAULT_MAX_OUT_OF_ORDER_MESSAGES;
 
     public FIXOutgoingMessageHandler() {
-        countersMap = new ConcurrentHashMap<String, Integer>();
-        messagesMap = new ConcurrentHashMap<String, Map<Integer,Object[]>>();
+        lanes = new ConcurrentHashMap<String, FIXSessionLane>();
     }
 
     public void setSessionFactory(FIXSessionFactory sessionFactory) {
         this.sessionFactory = sessionFactory;
     }
 
+    /**
+     * Sets the maximum number of out of order messages held back per incoming session
+     *
+     * @param maxQueuedMessages maximum number of messages held back in a session lane
+     */
+    public void setMaxQueuedMessages(int maxQueuedMessages) {
+        this.maxQueuedMessages = maxQueuedMessages;
+    }
+
     /**
      * Performs the actual send operation on the message. Tries to send the messages in the order they
      * arrived over the FIX transport
@@ -65,46 +78,17 @@ public class FIXOutgoingMessageHandler {
      *
      * @throws SessionNotFound on error
      */
-    public synchronized void sendMessage(Message message, SessionID targetSession, String sourceSession,
+    public void sendMessage(Message message, SessionID targetSession, String sourceSession,
                             int counter, MessageContext msgCtx, String targetEPR) throws SessionNotFound {
 
         boolean ignoreOrder = "true".equals(msgCtx.getProperty(FIXConstants.FIX_IGNORE_ORDER));
         if (sourceSession != null && counter != -1 && !ignoreOrder) {
-
-            int expectedValue;
-            if (countersMap.containsKey(sourceSession)) {
-                expectedValue = countersMap.get(sourceSession);
-            } else {
-                //create new entries in the respective Maps
-                //counter starts at 1
-                countersMap.put(sourceSession, 1);
-                messagesMap.put(sourceSession, new ConcurrentHashMap<Integer,Object[]>());
-                expectedValue = 1;
-            }
-
-            if (expectedValue == counter) {
-                sendToTarget(msgCtx, targetEPR, message, targetSession);
-                if (FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT == expectedValue) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Outgoing request counter rolled over for the session: " +
-                                sourceSession + " (from " + expectedValue + ")");
-                    }
-                    expectedValue = 1;
-                }
-                countersMap.put(sourceSession, ++expectedValue);
-                sendQueuedMessages(expectedValue, sourceSession);
-            }
-            else {
+            // the lane is closed if the session logged out meanwhile, the message goes to its new lane
+            while (!getLane(sourceSession).send(message, targetSession, counter, msgCtx, targetEPR)) {
                 if (log.isDebugEnabled()) {
-                    log.debug("Source session: " + sourceSession + " - Expected sequence number (" +
-                            expectedValue + ") does not match with the actual sequence number (" +
-                            counter + "). Holding the message back for later delivery.");
+                    log.debug("The outgoing message lane for the session: " + sourceSession +
+                            " was closed. Retrying with a new lane");
                 }
-
-                //save the message to be sent later...
-                Map<Integer,Object[]> messages = messagesMap.get(sourceSession);
-                Object[] obj = new Object[] { message, targetSession, msgCtx, targetEPR } ;
-                messages.put(counter, obj);
             }
         }
         else {
@@ -114,10 +98,40 @@ public class FIXOutgoingMessageHandler {
         }
     }
 
+    /**
+     * Returns the lane of the given incoming session, creating it if this is the first message or
+     * if the lane was closed
+     *
+     * @param sourceSession String that uniquely identifies the incoming session
+     * @return the lane of the session
+     */
+    FIXSessionLane getLane(String sourceSession) {
+        while (true) {
+            FIXSessionLane lane = lanes.get(sourceSession);
+            if (lane == null) {
+                FIXSessionLane newLane = new FIXSessionLane(sourceSession, this, maxQueuedMessages);
+                lane = lanes.putIfAbsent(sourceSession, newLane);
+                if (lane == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Created the outgoing message lane for the session: " + sourceSession);
+                    }
+                    MBeanRegistrar.getInstance().registerMBean(newLane,
+                            FIXConstants.FIX_SESSION_LANE_MBEAN_CATEGORY, getMBeanName(sourceSession));
+                    return newLane;
+                }
+            }
+            if (!lane.isClosed()) {
+                return lane;
+            }
+            lanes.remove(sourceSession, lane);
+        }
+    }
+
     /**
      * Sends the FIX message to the given target session. If MessageContext and the target EPR
      * are not null then save the outgoing MessageContext in the FIX application to handle the
-     * response.
+     * response. Responses are matched to the saved MessageContexts in order, hence the messages
+     * sent to the same FIX application are serialized.
      *
      * @param msgCtx the Axis2 MessageContext of the outgoing message
      * @param targetEPR the target EPR to send the message
@@ -126,83 +140,40 @@ public class FIXOutgoingMessageHandler {
      *
      * @throws SessionNotFound on error
      */
-    private void sendToTarget(MessageContext msgCtx, String targetEPR, Message message,
-                              SessionID sessionID) throws SessionNotFound {
+    void sendToTarget(MessageContext msgCtx, String targetEPR, Message message,
+                      SessionID sessionID) throws SessionNotFound {
         if (msgCtx != null && targetEPR != null) {
             FIXIncomingMessageHandler messageHandler = (FIXIncomingMessageHandler) sessionFactory.
                     getApplication(targetEPR);
             if (messageHandler != null) {
-                messageHandler.setOutgoingMessageContext(msgCtx);
+                synchronized (messageHandler) {
+                    messageHandler.setOutgoingMessageContext(msgCtx);
+                    Session.sendToTarget(message, sessionID);
+                }
+                return;
             }
         }
         Session.sendToTarget(message, sessionID);
     }
 
-    /**
-     * Sends any messages in the queues. Maintains the order of the messages.
-     *
-     * @param expectedValue expected counter value
-     * @param session source FIX session
-     *
-     * @throws SessionNotFound on error
-     */
-    private void sendQueuedMessages(int expectedValue, String session) throws SessionNotFound {
-        Map<Integer, Object[]> messages = messagesMap.get(session);
-        Object[] obj = messages.get(expectedValue);
-        while (obj != null) {
-            Message message = (Message) obj[0];
-            SessionID sessionID = (SessionID) obj[1];
-            MessageContext msgCtx = null;
-            String targetEPR = null;
-            if (obj[2] != null) {
-                msgCtx = (MessageContext) obj[2];
-                targetEPR = (String) obj[3];
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("Source session: " + session + " - Sending the previously queued message " +
-                        "with the sequence number: " + expectedValue);
-            }
-            sendToTarget(msgCtx, targetEPR, message, sessionID);
-            messages.remove(expectedValue);
-            if (FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT == expectedValue) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Outgoing request counter rolled over for the session: " + session +
-                        " (from " + expectedValue + ")");
-                }
-                expectedValue = 1;
-            }
-            obj = messages.get(++expectedValue);
+    public void cleanUpMessages(String session) {
+        FIXSessionLane lane = lanes.remove(session);
+        if (lane != null) {
+            MBeanRegistrar.getInstance().unRegisterMBean(FIXConstants.FIX_SESSION_LANE_MBEAN_CATEGORY,
+                    getMBeanName(session));
+            // the threads which still hold the lane send their messages through a new lane
+            lane.close();
         }
-        messagesMap.put(session, messages);
-        countersMap.put(session, expectedValue);
     }
 
-    public void cleanUpMessages(String session) {
-        if (countersMap.containsKey(session)) {
-            int expectedValue = countersMap.get(session);
-            Map<Integer,  Object[]> messages = messagesMap.get(session);
-            while (!messages.isEmpty()) {
-                Object[] obj = messages.get(expectedValue);
-                if (obj != null) {
-                    Message message = (Message) obj[0];
-                    SessionID sessionID = (SessionID) obj[1];
-
-                    if (log.isDebugEnabled()) {
-                        log.debug("Source session: " + session + " - Flushing the previously queued " +
-                                "message with the sequence number: " + expectedValue);
-                    }
-
-                    try {
-                        Session.sendToTarget(message, sessionID);
-                    } catch (SessionNotFound ignore) { }
-
-                    messages.remove(expectedValue);
-                }
-                expectedValue++;
-            }
-            messagesMap.remove(session);
-            countersMap.remove(session);
-        }
+    /**
+     * Session IDs such as FIX.4.2:SENDER->TARGET contain characters which are not allowed in an
+     * unquoted ObjectName value, hence the lanes are registered under the quoted session ID.
+     *
+     * @param sourceSession String that uniquely identifies the incoming session
+     * @return the name of the MBean of the lane
+     */
+    static String getMBeanName(String sourceSession) {
+        return ObjectName.quote(sourceSession);
     }
-}
\ No newline at end of file
+}
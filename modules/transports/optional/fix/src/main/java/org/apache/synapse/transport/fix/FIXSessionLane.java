@@ -0,0 +1,313 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.transport.fix;
+
+import org.apache.axis2.context.MessageContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.SessionNotFound;
+
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordered delivery lane of a single incoming FIX session. Each lane sequences the messages of its own
+ * session, so that a slow target session only holds back the messages of the session which feeds it.
+ * Out of order messages are held back in a bounded buffer. If the buffer runs out of capacity the lane
+ * gives up on the missing message and continues from the next held back message.
+ * <p>
+ * The counters are compared on the circle of the counter values, as the counter of the incoming session
+ * rolls over to 1 after {@link FIXConstants#DEFAULT_COUNTER_UPPER_LIMIT}. A message whose counter is
+ * behind the expected one, such as a message which was given up on, is sent at once, and the expected
+ * counter never moves backwards unless the sequence is reset as the incoming session logs out.
+ * <p>
+ * A lane is closed once its incoming session logs out. A thread which still holds the lane is told so
+ * by {@link #send}, and sends the message through the new lane of the session instead.
+ */
+class FIXSessionLane implements FIXSessionLaneMBean {
+
+    private static final Log log = LogFactory.getLog(FIXSessionLane.class);
+
+    private final String sourceSession;
+    private final FIXOutgoingMessageHandler handler;
+    private final int maxQueuedMessages;
+
+    /** held back messages keyed by the counter, guarded by the lane */
+    private final TreeMap<Integer, QueuedMessage> queuedMessages = new TreeMap<Integer, QueuedMessage>();
+    /** counter starts at 1 */
+    private volatile int expectedCounter = 1;
+    private volatile int queuedMessageCount = 0;
+    private volatile int maxQueuedMessageCount = 0;
+    /** whether the incoming session has logged out, set under the lane */
+    private volatile boolean closed;
+
+    private final AtomicLong sentMessageCount = new AtomicLong();
+    private final AtomicLong skippedGapCount = new AtomicLong();
+    private final AtomicLong lateMessageCount = new AtomicLong();
+    private final AtomicLong sequenceResetCount = new AtomicLong();
+    private final AtomicLong totalSendTime = new AtomicLong();
+    private final AtomicLong maxSendTime = new AtomicLong();
+    private final AtomicLong queuedMessagesSent = new AtomicLong();
+    private final AtomicLong totalQueuedTime = new AtomicLong();
+
+    FIXSessionLane(String sourceSession, FIXOutgoingMessageHandler handler, int maxQueuedMessages) {
+        this.sourceSession = sourceSession;
+        this.handler = handler;
+        this.maxQueuedMessages = maxQueuedMessages;
+    }
+
+    /**
+     * Sends the message if it is the next one expected from the source session, otherwise holds it
+     * back until the missing messages arrive.
+     *
+     * @param message the FIX message to be sent
+     * @param targetSession ID of the target FIXSession
+     * @param counter application level sequence number of the message
+     * @param msgCtx Axis2 MessageContext for the outgoing message
+     * @param targetEPR the target EPR to forward the message
+     * @return false if the lane is closed and the message was not taken
+     *
+     * @throws SessionNotFound on error
+     */
+    synchronized boolean send(Message message, SessionID targetSession, int counter,
+                              MessageContext msgCtx, String targetEPR) throws SessionNotFound {
+
+        if (closed) {
+            return false;
+        }
+        int distance = distance(counter);
+        if (distance == 0) {
+            sendToTarget(msgCtx, targetEPR, message, targetSession);
+            advance();
+            sendQueuedMessages();
+        } else if (distance < 0) {
+            // the lane has moved past the message, holding it back would hold it forever
+            log.warn("Source session: " + sourceSession + " - Received the sequence number " + counter +
+                    " behind the expected sequence number " + expectedCounter + ". Sending it right away.");
+            lateMessageCount.incrementAndGet();
+            sendToTarget(msgCtx, targetEPR, message, targetSession);
+        } else {
+            if (log.isDebugEnabled()) {
+                log.debug("Source session: " + sourceSession + " - Expected sequence number (" +
+                        expectedCounter + ") does not match with the actual sequence number (" +
+                        counter + "). Holding the message back for later delivery.");
+            }
+
+            //save the message to be sent later...
+            queuedMessages.put(counter, new QueuedMessage(message, targetSession, msgCtx, targetEPR));
+            updateQueuedMessageCount();
+            if (queuedMessages.size() > maxQueuedMessages) {
+                int nextCounter = nextQueuedCounter();
+                log.warn("Source session: " + sourceSession + " - " + queuedMessages.size() +
+                        " messages held back while waiting for the sequence number " + expectedCounter +
+                        ". Continuing from the sequence number " + nextCounter);
+                skippedGapCount.incrementAndGet();
+                expectedCounter = nextCounter;
+                sendQueuedMessages();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends any messages in the buffer which are in order.
+     *
+     * @throws SessionNotFound on error
+     */
+    private void sendQueuedMessages() throws SessionNotFound {
+        QueuedMessage queued = queuedMessages.remove(expectedCounter);
+        while (queued != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Source session: " + sourceSession + " - Sending the previously queued message " +
+                        "with the sequence number: " + expectedCounter);
+            }
+            updateQueuedMessageCount();
+            totalQueuedTime.addAndGet(System.nanoTime() - queued.queuedTime);
+            queuedMessagesSent.incrementAndGet();
+            sendToTarget(queued.msgCtx, queued.targetEPR, queued.message, queued.sessionID);
+            advance();
+            queued = queuedMessages.remove(expectedCounter);
+        }
+    }
+
+    /**
+     * Closes the lane as the incoming session logs out. The held back messages are sent in order
+     * regardless of any missing messages, and the sequence starts over from 1, as the counter of a
+     * new incoming session does.
+     */
+    synchronized void close() {
+        closed = true;
+        while (!queuedMessages.isEmpty()) {
+            int counter = nextQueuedCounter();
+            QueuedMessage queued = queuedMessages.remove(counter);
+            if (log.isDebugEnabled()) {
+                log.debug("Source session: " + sourceSession + " - Flushing the previously queued " +
+                        "message with the sequence number: " + counter);
+            }
+            try {
+                handler.sendToTarget(null, null, queued.message, queued.sessionID);
+            } catch (SessionNotFound ignore) { }
+        }
+        updateQueuedMessageCount();
+        expectedCounter = 1;
+        sequenceResetCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the position of the counter relative to the expected counter on the circle of the counter
+     * values, positive if the counter is ahead of the expected one and negative if it is behind.
+     */
+    private int distance(int counter) {
+        int distance = counter - expectedCounter;
+        int half = FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT / 2;
+        if (distance > half) {
+            distance -= FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT;
+        } else if (distance < -half) {
+            distance += FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT;
+        }
+        return distance;
+    }
+
+    /**
+     * @return the counter of the first held back message from the expected counter onwards, taking the
+     * counter roll over into account
+     */
+    private int nextQueuedCounter() {
+        Integer counter = queuedMessages.ceilingKey(expectedCounter);
+        return counter != null ? counter : queuedMessages.firstKey();
+    }
+
+    private void sendToTarget(MessageContext msgCtx, String targetEPR, Message message,
+                              SessionID sessionID) throws SessionNotFound {
+        long start = System.nanoTime();
+        handler.sendToTarget(msgCtx, targetEPR, message, sessionID);
+        long sendTime = System.nanoTime() - start;
+        sentMessageCount.incrementAndGet();
+        totalSendTime.addAndGet(sendTime);
+        if (sendTime > maxSendTime.get()) {
+            maxSendTime.set(sendTime);
+        }
+    }
+
+    private void advance() {
+        if (FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT == expectedCounter) {
+            // the incoming counter continues from 1 after the upper limit
+            if (log.isDebugEnabled()) {
+                log.debug("Outgoing request counter rolled over for the session: " +
+                        sourceSession + " (from " + expectedCounter + ")");
+            }
+            expectedCounter = 1;
+        } else {
+            expectedCounter++;
+        }
+    }
+
+    private void updateQueuedMessageCount() {
+        queuedMessageCount = queuedMessages.size();
+        if (queuedMessageCount > maxQueuedMessageCount) {
+            maxQueuedMessageCount = queuedMessageCount;
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    public String getSourceSession() {
+        return sourceSession;
+    }
+
+    public int getExpectedCounter() {
+        return expectedCounter;
+    }
+
+    public int getQueuedMessageCount() {
+        return queuedMessageCount;
+    }
+
+    public int getMaxQueuedMessageCount() {
+        return maxQueuedMessageCount;
+    }
+
+    public long getSentMessageCount() {
+        return sentMessageCount.get();
+    }
+
+    public long getSkippedGapCount() {
+        return skippedGapCount.get();
+    }
+
+    public long getLateMessageCount() {
+        return lateMessageCount.get();
+    }
+
+    public long getSequenceResetCount() {
+        return sequenceResetCount.get();
+    }
+
+    public double getAvgSendLatency() {
+        return toMillis(totalSendTime.get(), sentMessageCount.get());
+    }
+
+    public double getMaxSendLatency() {
+        return toMillis(maxSendTime.get(), 1);
+    }
+
+    public double getAvgQueuedLatency() {
+        return toMillis(totalQueuedTime.get(), queuedMessagesSent.get());
+    }
+
+    public void reset() {
+        sentMessageCount.set(0);
+        skippedGapCount.set(0);
+        lateMessageCount.set(0);
+        sequenceResetCount.set(0);
+        totalSendTime.set(0);
+        maxSendTime.set(0);
+        queuedMessagesSent.set(0);
+        totalQueuedTime.set(0);
+        maxQueuedMessageCount = queuedMessageCount;
+    }
+
+    private static double toMillis(long totalNanos, long count) {
+        if (count == 0) {
+            return 0;
+        }
+        return totalNanos / (count * 1000000.0);
+    }
+
+    private static class QueuedMessage {
+
+        private final Message message;
+        private final SessionID sessionID;
+        private final MessageContext msgCtx;
+        private final String targetEPR;
+        private final long queuedTime = System.nanoTime();
+
+        private QueuedMessage(Message message, SessionID sessionID, MessageContext msgCtx, String targetEPR) {
+            this.message = message;
+            this.sessionID = sessionID;
+            this.msgCtx = msgCtx;
+            this.targetEPR = targetEPR;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.transport.fix;
+
+/**
+ * JMX view of the ordered delivery lane of a single incoming FIX session.
+ */
+public interface FIXSessionLaneMBean {
+
+    /**
+     * @return the source session this lane belongs to
+     */
+    String getSourceSession();
+
+    /**
+     * @return the counter value of the next message which will be sent through the lane
+     */
+    int getExpectedCounter();
+
+    /**
+     * @return number of out of order messages currently held back in the lane
+     */
+    int getQueuedMessageCount();
+
+    /**
+     * @return the largest number of messages held back in the lane at once
+     */
+    int getMaxQueuedMessageCount();
+
+    /**
+     * @return number of messages sent through the lane
+     */
+    long getSentMessageCount();
+
+    /**
+     * @return number of times a missing message was skipped as the lane ran out of capacity
+     */
+    long getSkippedGapCount();
+
+    /**
+     * @return number of messages which arrived behind the expected counter and were sent right away
+     */
+    long getLateMessageCount();
+
+    /**
+     * @return number of times the sequence of the lane was started over
+     */
+    long getSequenceResetCount();
+
+    /**
+     * @return average time taken to send a message to the target session, in milliseconds
+     */
+    double getAvgSendLatency();
+
+    /**
+     * @return the longest time taken to send a message to the target session, in milliseconds
+     */
+    double getMaxSendLatency();
+
+    /**
+     * @return average time a message was held back in the lane before it was sent, in milliseconds
+     */
+    double getAvgQueuedLatency();
+
+    /**
+     * Resets the statistics collected for the lane
+     */
+    void reset();
+}
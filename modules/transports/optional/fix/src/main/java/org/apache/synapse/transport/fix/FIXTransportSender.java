@@ -72,6 +72,10 @@ public class FIXTransportSender extends AbstractTransportSender {
         this.sessionFactory.setSenderThreadPool(this.workerPool);
         messageSender = new FIXOutgoingMessageHandler();
         messageSender.setSessionFactory(this.sessionFactory);
+        Parameter maxQueuedParam = transportOut.getParameter(FIXConstants.FIX_MAX_OUT_OF_ORDER_MESSAGES);
+        if (maxQueuedParam != null) {
+            messageSender.setMaxQueuedMessages(Integer.parseInt(maxQueuedParam.getValue().toString().trim()));
+        }
         log.info("FIX transport sender initialized...");
     }
 
@@ -22,6 +22,7 @@ package org.apache.synapse.transport.fix;
 import org.apache.axiom.attachments.ByteArrayDataSource;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.OMSourcedElement;
 import org.apache.axiom.soap.SOAPBody;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.soap.SOAPFactory;
@@ -98,7 +99,7 @@ public class FIXUtils {
                 Field<?> field = iter.next();
                 OMElement msgField = soapFactory.createOMElement(FIXConstants.FIX_FIELD, null);
                 msgField.addAttribute(soapFactory.createOMAttribute(FIXConstants.FIX_FIELD_ID,
-                        null, String.valueOf(field.getTag())));
+                        null, FIXFieldTagCache.toString(field.getTag())));
                 Object value = field.getObject();
 
                 if (value instanceof byte[]) {
@@ -127,7 +128,7 @@ public class FIXUtils {
                 OMElement msgField = soapFactory.createOMElement(FIXConstants.FIX_FIELD, null);
                 msgField.addAttribute(soapFactory.
                         createOMAttribute(FIXConstants.FIX_FIELD_ID, null,
-                        String.valueOf(field.getTag())));
+                        FIXFieldTagCache.toString(field.getTag())));
                 Object value = field.getObject();
 
                 if (value instanceof byte[]) {
@@ -155,6 +156,56 @@ public class FIXUtils {
     }
     
 
+    /**
+     * Put the FIX message into an Axis2 MessageContext. If the payload is deferred the FIX message is
+     * wrapped in an OMSourcedElement backed by a {@link FIXMessageDataSource}, so that the XML infoset
+     * described in {@link #setSOAPEnvelope(Message, int, String, MessageContext)} is only built if the
+     * payload is accessed.
+     *
+     * @param message   the FIX message
+     * @param counter   application level sequence number of the message
+     * @param sessionID the incoming session
+     * @param msgCtx    the Axis2 MessageContext to hold the FIX message
+     * @param deferred  whether building the XML infoset should be deferred
+     * @throws AxisFault the exception thrown when invalid soap envelopes are set to the msgCtx
+     */
+    public void setSOAPEnvelope(Message message, int counter, String sessionID,
+                                MessageContext msgCtx, boolean deferred) throws AxisFault {
+        if (!deferred) {
+            setSOAPEnvelope(message, counter, sessionID, msgCtx);
+            return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Creating deferred SOAP envelope for FIX message...");
+        }
+
+        SOAPFactory soapFactory = new SOAP11Factory();
+        OMElement msg = soapFactory.createOMElement(
+                new FIXMessageDataSource(message, counter, sessionID, msgCtx), FIXConstants.FIX_MESSAGE, null);
+        SOAPEnvelope envelope = soapFactory.getDefaultEnvelope();
+        envelope.getBody().addChild(msg);
+        msgCtx.setEnvelope(envelope);
+    }
+
+    /**
+     * Returns the data source of the FIX payload if it was never expanded into an XML infoset
+     *
+     * @param body Body of the SOAP message
+     * @return the data source of the FIX payload or null if the payload is an XML infoset
+     */
+    private static FIXMessageDataSource getUnexpandedDataSource(SOAPBody body) {
+        OMElement messageNode = body.getFirstElement();
+        if (messageNode instanceof OMSourcedElement) {
+            OMSourcedElement sourcedElement = (OMSourcedElement) messageNode;
+            if (!sourcedElement.isExpanded() &&
+                    sourcedElement.getDataSource() instanceof FIXMessageDataSource) {
+                return (FIXMessageDataSource) sourcedElement.getDataSource();
+            }
+        }
+        return null;
+    }
+
     /**
      * Constructs the XML infoset for the FIX message body
      *
@@ -178,7 +229,7 @@ public class FIXUtils {
                  OMElement msgField = soapFactory.createOMElement(FIXConstants.FIX_FIELD, null);
                  msgField.addAttribute(soapFactory.
                          createOMAttribute(FIXConstants.FIX_FIELD_ID, null,
-                         String.valueOf(field.getTag())));
+                         FIXFieldTagCache.toString(field.getTag())));
                  Object value = field.getObject();
 
                  if (value instanceof byte[]) {
@@ -206,7 +257,7 @@ public class FIXUtils {
                 OMElement groupsField = soapFactory.createOMElement(FIXConstants.FIX_GROUPS,
                         null);
                 groupsField.addAttribute(FIXConstants.FIX_FIELD_ID,
-                        String.valueOf(groupKey),null);
+                        FIXFieldTagCache.toString(groupKey),null);
                 List<Group> groupList = message.getGroups(groupKey);
                 Iterator<Group> groupIterator = groupList.iterator();
 
@@ -311,12 +362,18 @@ public class FIXUtils {
                     msgCtx.getMessageID() + ")");
         }
 
+        SOAPBody soapBody = msgCtx.getEnvelope().getBody();
+        FIXMessageDataSource dataSource = getUnexpandedDataSource(soapBody);
+        if (dataSource != null) {
+            // payload was never touched, avoid building the message from the XML infoset
+            return (Message) dataSource.getMessage().clone();
+        }
+
         boolean withNs = false;
         String nsPrefix = null;
         String nsURI = null;
         
         Message message = new Message();
-        SOAPBody soapBody = msgCtx.getEnvelope().getBody();
 
         //find namespace information embedded in the FIX payload
         OMNamespace ns = getNamespaceOfFIXPayload(soapBody);
@@ -719,6 +776,10 @@ public class FIXUtils {
     public static int getSequenceNumber(MessageContext msgCtx) {
         int seqNum;
         SOAPBody body = msgCtx.getEnvelope().getBody();
+        FIXMessageDataSource dataSource = getUnexpandedDataSource(body);
+        if (dataSource != null) {
+            return dataSource.getCounter();
+        }
         OMNamespace ns = getNamespaceOfFIXPayload(body);
         if (ns == null) {
             OMElement messageNode = body.getFirstChildWithName(new QName(FIXConstants.FIX_MESSAGE));
@@ -764,6 +825,10 @@ public class FIXUtils {
     public static String getSourceSession(MessageContext msgCtx) {
         String srcSession;
         SOAPBody body = msgCtx.getEnvelope().getBody();
+        FIXMessageDataSource dataSource = getUnexpandedDataSource(body);
+        if (dataSource != null) {
+            return dataSource.getSessionID();
+        }
         OMNamespace ns = getNamespaceOfFIXPayload(body);
         if (ns == null) {
             OMElement messageNode = body.getFirstChildWithName(new QName(FIXConstants.FIX_MESSAGE));
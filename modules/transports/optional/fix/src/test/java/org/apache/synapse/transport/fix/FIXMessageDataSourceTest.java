@@ -0,0 +1,97 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.transport.fix;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axis2.context.MessageContext;
+import quickfix.Group;
+import quickfix.Message;
+import quickfix.field.*;
+import quickfix.fix44.QuoteRequest;
+
+import javax.xml.namespace.QName;
+
+public class FIXMessageDataSourceTest extends TestCase {
+
+    private static final String SESSION_ID = "FIX.4.4:BANZAI->SYNAPSE";
+
+    public void testSerializedInfosetMatchesEagerMapping() throws Exception {
+        Message message = createMessage();
+
+        MessageContext eagerCtx = new MessageContext();
+        FIXUtils.getInstance().setSOAPEnvelope(message, 7, SESSION_ID, eagerCtx);
+        MessageContext deferredCtx = new MessageContext();
+        FIXUtils.getInstance().setSOAPEnvelope(message, 7, SESSION_ID, deferredCtx, true);
+
+        OMElement deferred = deferredCtx.getEnvelope().getBody().getFirstElement();
+        assertTrue(deferred instanceof OMSourcedElement);
+        assertEquals(eagerCtx.getEnvelope().getBody().getFirstElement().toString(), deferred.toString());
+        assertFalse(((OMSourcedElement) deferred).isExpanded());
+    }
+
+    public void testRoutingWithoutExpansion() throws Exception {
+        Message message = createMessage();
+        MessageContext msgCtx = new MessageContext();
+        FIXUtils.getInstance().setSOAPEnvelope(message, 7, SESSION_ID, msgCtx, true);
+
+        assertEquals(7, FIXUtils.getSequenceNumber(msgCtx));
+        assertEquals(SESSION_ID, FIXUtils.getSourceSession(msgCtx));
+        Message copy = FIXUtils.getInstance().createFIXMessage(msgCtx);
+        assertNotSame(message, copy);
+        assertEquals(message.toString(), copy.toString());
+
+        OMSourcedElement payload = (OMSourcedElement) msgCtx.getEnvelope().getBody().getFirstElement();
+        assertFalse(payload.isExpanded());
+    }
+
+    public void testExpandedPayloadIsConverted() throws Exception {
+        Message message = createMessage();
+        MessageContext msgCtx = new MessageContext();
+        FIXUtils.getInstance().setSOAPEnvelope(message, 7, SESSION_ID, msgCtx, true);
+
+        OMElement payload = msgCtx.getEnvelope().getBody().getFirstElement();
+        OMElement body = payload.getFirstChildWithName(new QName(FIXConstants.FIX_BODY));
+        OMElement groups = body.getFirstChildWithName(new QName(FIXConstants.FIX_GROUPS));
+        assertEquals(String.valueOf(NoRelatedSym.FIELD),
+                groups.getAttributeValue(new QName(FIXConstants.FIX_FIELD_ID)));
+        assertTrue(((OMSourcedElement) payload).isExpanded());
+
+        assertEquals(7, FIXUtils.getSequenceNumber(msgCtx));
+        assertEquals(SESSION_ID, FIXUtils.getSourceSession(msgCtx));
+        Message copy = FIXUtils.getInstance().createFIXMessage(msgCtx);
+        assertEquals(message.toString(), copy.toString());
+    }
+
+    private static Message createMessage() {
+        int[] order = new int[] { Symbol.FIELD, SecurityID.FIELD, OrderQty.FIELD };
+        Message message = new QuoteRequest(new QuoteReqID("20101110-2"));
+        message.getHeader().setField(new SenderCompID("BANZAI"));
+        message.getHeader().setField(new TargetCompID("SYNAPSE"));
+        message.setField(new Text("<escaped & text>"));
+        Group group = new Group(NoRelatedSym.FIELD, Symbol.FIELD, order);
+        group.setField(new Symbol("TestSymbol"));
+        group.setField(new SecurityID("SecurityID"));
+        group.setField(new OrderQty(500));
+        message.addGroup(group);
+        return message;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.synapse.transport.fix;
+
+import junit.framework.TestCase;
+import org.apache.axis2.context.MessageContext;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.fix41.NewOrderSingle;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class FIXSessionLaneTest extends TestCase {
+
+    private static final SessionID TARGET_SESSION = new SessionID("FIX.4.1", "SYNAPSE", "BANZAI");
+
+    public void testShuffledMessagesSentInOrder() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        List<Integer> counters = new ArrayList<Integer>();
+        for (int i = 1; i <= 500; i++) {
+            counters.add(i);
+        }
+        Collections.shuffle(counters, new Random(27));
+        for (int counter : counters) {
+            handler.sendMessage(createMessage(counter), TARGET_SESSION, "session-1", counter,
+                    new MessageContext(), null);
+        }
+        assertEquals(500, handler.sent.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(String.valueOf(i + 1), handler.sent.get(i));
+        }
+        FIXSessionLane lane = handler.getLane("session-1");
+        assertEquals(0, lane.getQueuedMessageCount());
+        assertEquals(500, lane.getSentMessageCount());
+        assertEquals(501, lane.getExpectedCounter());
+        assertTrue(lane.getMaxQueuedMessageCount() > 0);
+    }
+
+    public void testLaneCapacityBounded() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        handler.setMaxQueuedMessages(3);
+        // message 1 never arrives
+        for (int counter = 2; counter <= 4; counter++) {
+            handler.sendMessage(createMessage(counter), TARGET_SESSION, "session-1", counter,
+                    new MessageContext(), null);
+        }
+        assertTrue(handler.sent.isEmpty());
+        assertEquals(3, handler.getLane("session-1").getQueuedMessageCount());
+
+        handler.sendMessage(createMessage(5), TARGET_SESSION, "session-1", 5, new MessageContext(), null);
+        assertEquals(4, handler.sent.size());
+        assertEquals("2", handler.sent.get(0));
+        assertEquals("5", handler.sent.get(3));
+        FIXSessionLane lane = handler.getLane("session-1");
+        assertEquals(1, lane.getSkippedGapCount());
+        assertEquals(0, lane.getQueuedMessageCount());
+        assertEquals(6, lane.getExpectedCounter());
+    }
+
+    public void testSessionsProgressIndependently() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingHandler handler = new RecordingHandler() {
+            @Override
+            void sendToTarget(MessageContext msgCtx, String targetEPR, Message message,
+                              SessionID sessionID) {
+                if ("slow".equals(getClOrdID(message))) {
+                    blocked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.sendToTarget(msgCtx, targetEPR, message, sessionID);
+            }
+        };
+
+        Thread slowSession = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    handler.sendMessage(createMessage("slow"), TARGET_SESSION, "session-1", 1,
+                            new MessageContext(), null);
+                } catch (Exception ignore) {
+                }
+            }
+        });
+        slowSession.start();
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+        for (int counter = 1; counter <= 10; counter++) {
+            handler.sendMessage(createMessage(counter), TARGET_SESSION, "session-2", counter,
+                    new MessageContext(), null);
+        }
+        assertEquals(10, handler.sent.size());
+
+        release.countDown();
+        slowSession.join(10000);
+        assertEquals(11, handler.sent.size());
+        assertEquals("slow", handler.sent.get(10));
+    }
+
+    public void testCleanUpFlushesLane() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        handler.sendMessage(createMessage(3), TARGET_SESSION, "session-1", 3, new MessageContext(), null);
+        handler.sendMessage(createMessage(2), TARGET_SESSION, "session-1", 2, new MessageContext(), null);
+        assertTrue(handler.sent.isEmpty());
+
+        handler.cleanUpMessages("session-1");
+        assertEquals(2, handler.sent.size());
+        assertEquals("2", handler.sent.get(0));
+        assertEquals("3", handler.sent.get(1));
+        assertEquals(1, handler.getLane("session-1").getExpectedCounter());
+    }
+
+    public void testLateMessageSentAtOnce() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        handler.setMaxQueuedMessages(2);
+        // message 1 is given up on as the lane overflows
+        for (int counter = 2; counter <= 4; counter++) {
+            send(handler, counter);
+        }
+        assertEquals(3, handler.sent.size());
+        FIXSessionLane lane = handler.getLane("session-1");
+        assertEquals(5, lane.getExpectedCounter());
+
+        send(handler, 1);
+        assertEquals(4, handler.sent.size());
+        assertEquals("1", handler.sent.get(3));
+        assertEquals(0, lane.getQueuedMessageCount());
+        assertEquals(5, lane.getExpectedCounter());
+        assertEquals(1, lane.getLateMessageCount());
+    }
+
+    public void testExpectedCounterNeverMovesBackwards() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        handler.setMaxQueuedMessages(2);
+        for (int counter = 1; counter <= 3; counter++) {
+            send(handler, counter);
+        }
+        // a duplicate of a message already sent is not held back
+        send(handler, 2);
+        assertEquals(4, handler.sent.size());
+        FIXSessionLane lane = handler.getLane("session-1");
+        assertEquals(0, lane.getQueuedMessageCount());
+
+        for (int counter = 6; counter <= 8; counter++) {
+            send(handler, counter);
+        }
+        assertEquals(7, handler.sent.size());
+        assertEquals("6", handler.sent.get(4));
+        assertEquals("8", handler.sent.get(6));
+        assertEquals(9, lane.getExpectedCounter());
+    }
+
+    public void testCounterRollover() throws Exception {
+        int limit = FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT;
+        RecordingHandler handler = new RecordingHandler();
+        FIXSessionLane lane = handler.getLane("session-1");
+        setExpectedCounter(lane, limit - 1);
+
+        // the counter continues from 1 after the upper limit
+        send(handler, 1);
+        send(handler, limit);
+        assertTrue(handler.sent.isEmpty());
+        send(handler, limit - 1);
+        assertEquals(3, handler.sent.size());
+        assertEquals(String.valueOf(limit - 1), handler.sent.get(0));
+        assertEquals(String.valueOf(limit), handler.sent.get(1));
+        assertEquals("1", handler.sent.get(2));
+        assertEquals(2, lane.getExpectedCounter());
+        assertEquals(0, lane.getLateMessageCount());
+    }
+
+    public void testOverflowAcrossCounterRollover() throws Exception {
+        int limit = FIXConstants.DEFAULT_COUNTER_UPPER_LIMIT;
+        RecordingHandler handler = new RecordingHandler();
+        handler.setMaxQueuedMessages(2);
+        FIXSessionLane lane = handler.getLane("session-1");
+        setExpectedCounter(lane, limit - 1);
+
+        send(handler, 2);
+        send(handler, 1);
+        send(handler, limit);
+        assertEquals(3, handler.sent.size());
+        assertEquals(String.valueOf(limit), handler.sent.get(0));
+        assertEquals("1", handler.sent.get(1));
+        assertEquals("2", handler.sent.get(2));
+        assertEquals(3, lane.getExpectedCounter());
+    }
+
+    public void testSequenceReset() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        for (int counter = 1; counter <= 3; counter++) {
+            send(handler, counter);
+        }
+        send(handler, 5);
+        FIXSessionLane lane = handler.getLane("session-1");
+
+        // the incoming session logs out, its counter starts over when it logs on again
+        handler.cleanUpMessages("session-1");
+        assertEquals(4, handler.sent.size());
+        assertEquals("5", handler.sent.get(3));
+        assertEquals(1, lane.getExpectedCounter());
+        assertEquals(1, lane.getSequenceResetCount());
+
+        send(handler, 2);
+        send(handler, 1);
+        assertEquals(6, handler.sent.size());
+        assertEquals("1", handler.sent.get(4));
+        assertEquals("2", handler.sent.get(5));
+        assertEquals(0, handler.getLane("session-1").getLateMessageCount());
+    }
+
+    public void testClosedLaneIsNotUsed() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        send(handler, 1);
+        // a thread got hold of the lane before the session logged out
+        FIXSessionLane stale = handler.getLane("session-1");
+        handler.cleanUpMessages("session-1");
+        assertTrue(stale.isClosed());
+        assertFalse(stale.send(createMessage(2), TARGET_SESSION, 2, new MessageContext(), null));
+        assertEquals(1, handler.sent.size());
+
+        // the message is sent through the new lane of the session
+        send(handler, 1);
+        assertEquals(2, handler.sent.size());
+        FIXSessionLane lane = handler.getLane("session-1");
+        assertNotSame(stale, lane);
+        assertEquals(2, lane.getExpectedCounter());
+
+        // a closed lane left in the map is replaced as well
+        lane.close();
+        FIXSessionLane next = handler.getLane("session-1");
+        assertNotSame(lane, next);
+        assertFalse(next.isClosed());
+    }
+
+    public void testLaneMBeanRegistered() throws Exception {
+        String sourceSession = new SessionID("FIX.4.2", "SENDER", "TARGET").toString();
+        ObjectName name = new ObjectName("org.apache.synapse:Type=" +
+                FIXConstants.FIX_SESSION_LANE_MBEAN_CATEGORY + ",Name=" + ObjectName.quote(sourceSession));
+        RecordingHandler handler = new RecordingHandler();
+        FIXSessionLane lane = handler.getLane(sourceSession);
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        assertEquals(sourceSession, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SourceSession"));
+        assertEquals(lane.getExpectedCounter(),
+                ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ExpectedCounter"));
+
+        handler.cleanUpMessages(sourceSession);
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    private static void send(RecordingHandler handler, int counter) throws Exception {
+        handler.sendMessage(createMessage(counter), TARGET_SESSION, "session-1", counter,
+                new MessageContext(), null);
+    }
+
+    private static void setExpectedCounter(FIXSessionLane lane, int counter) throws Exception {
+        Field field = FIXSessionLane.class.getDeclaredField("expectedCounter");
+        field.setAccessible(true);
+        field.setInt(lane, counter);
+    }
+
+    private static Message createMessage(Object id) {
+        NewOrderSingle message = new NewOrderSingle();
+        message.set(new ClOrdID(String.valueOf(id)));
+        return message;
+    }
+
+    private static String getClOrdID(Message message) {
+        try {
+            return message.getString(ClOrdID.FIELD);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static class RecordingHandler extends FIXOutgoingMessageHandler {
+
+        final List<String> sent = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        void sendToTarget(MessageContext msgCtx, String targetEPR, Message message, SessionID sessionID) {
+            sent.add(getClOrdID(message));
+        }
+    }
+}